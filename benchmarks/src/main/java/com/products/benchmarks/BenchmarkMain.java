@@ -0,0 +1,53 @@
+package com.products.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs JMH with its usual command line, but writes results as JSON to jmh-results/&lt;revision&gt;.json unless
+ * -rf/-rff are given. The revision comes from -Dbenchmark.revision or GIT_COMMIT and defaults to "local";
+ * two result files can then be compared with {@link CompareResults}.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            // Listing and help output is JMH's own
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            Path result = Path.of("jmh-results", revision() + ".json");
+            Files.createDirectories(result.getParent());
+            options.result(result.toString());
+        }
+        new Runner(options.build()).run();
+    }
+
+    private static String revision() {
+        String revision = System.getProperty("benchmark.revision");
+        if (revision == null || revision.isBlank()) {
+            revision = System.getenv("GIT_COMMIT");
+        }
+        return revision == null || revision.isBlank() ? "local" : revision.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
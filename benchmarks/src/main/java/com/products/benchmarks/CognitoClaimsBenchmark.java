@@ -0,0 +1,54 @@
+package com.products.benchmarks;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.products.utils.CognitoUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claim extraction from the API Gateway authorizer context, which every handler runs at least once per request
+ * (twice for handlers that accept either group).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CognitoClaimsBenchmark {
+
+    private APIGatewayProxyRequestEvent event;
+
+    @Setup
+    public void setUp() {
+        APIGatewayProxyRequestEvent.ProxyRequestContext requestContext = new APIGatewayProxyRequestEvent.ProxyRequestContext();
+        requestContext.setAuthorizer(Map.of("claims", Map.of(
+                "sub", "0f6c1f0e-5a4e-4b7a-9d55-0c1d2e3f4a5b",
+                "email", "sales@example.com",
+                "custom:firstName", "Ama",
+                "custom:lastName", "Mensah",
+                "cognito:groups", "SalesPerson")));
+        event = new APIGatewayProxyRequestEvent().withRequestContext(requestContext);
+    }
+
+    @Benchmark
+    public Map<String, Object> getClaims() {
+        return CognitoUtil.getClaims(event);
+    }
+
+    @Benchmark
+    public boolean isSalesPersonOrAdmin() {
+        return CognitoUtil.isSalesPerson(event) || CognitoUtil.isAdmin(event);
+    }
+}
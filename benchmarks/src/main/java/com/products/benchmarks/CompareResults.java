@@ -0,0 +1,76 @@
+package com.products.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files benchmark by benchmark:
+ * {@code java -cp benchmarks.jar com.products.benchmarks.CompareResults baseline.json candidate.json [thresholdPercent]}.
+ * Exits with status 1 when any benchmark got slower than the threshold (default 10%) beyond its error margin.
+ * All modes here report time per operation, so higher is slower.
+ */
+public final class CompareResults {
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+
+    private CompareResults() {
+    }
+
+    private record Score(double score, double error, String unit) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <candidate.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> candidate = read(Path.of(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+
+        boolean regressed = false;
+        for (Map.Entry<String, Score> entry : candidate.entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            Score after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-90s %14s -> %12.3f %s (new)%n", entry.getKey(), "", after.score(), after.unit());
+                continue;
+            }
+            double change = (after.score() - before.score()) * 100 / before.score();
+            // A change inside both runs' error margins is noise
+            boolean significant = Math.abs(after.score() - before.score()) > before.error() + after.error();
+            boolean slower = significant && change > threshold;
+            regressed |= slower;
+            System.out.printf("%-90s %12.3f -> %12.3f %s %+7.1f%%%s%n", entry.getKey(), before.score(), after.score(),
+                    after.unit(), change, slower ? "  REGRESSION" : "");
+        }
+        System.exit(regressed ? 1 : 0);
+    }
+
+    // Keyed by benchmark name plus its parameters, e.g. ...SalesReportCsvBenchmark.writeReport{rows=10000}
+    private static Map<String, Score> read(Path path) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(path.toFile())) {
+            StringBuilder name = new StringBuilder(run.get("benchmark").asText());
+            JsonNode params = run.get("params");
+            if (params != null) {
+                name.append('{');
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    name.append(field.getKey()).append('=').append(field.getValue().asText()).append(fields.hasNext() ? "," : "");
+                }
+                name.append('}');
+            }
+            JsonNode metric = run.get("primaryMetric");
+            double error = metric.get("scoreError").isNumber() ? metric.get("scoreError").asDouble() : 0;
+            scores.put(name.toString(), new Score(metric.get("score").asDouble(), error, metric.get("scoreUnit").asText()));
+        }
+        return scores;
+    }
+}
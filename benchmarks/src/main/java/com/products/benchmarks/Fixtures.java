@@ -0,0 +1,61 @@
+package com.products.benchmarks;
+
+import com.products.model.Product;
+import com.products.model.Sales;
+import com.products.request.SaleLineItem;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Deterministic sample data shared by the benchmarks
+final class Fixtures {
+    static final LocalDate DATE = LocalDate.of(2025, 3, 14);
+
+    private Fixtures() {
+    }
+
+    static Product product(String productId) {
+        return Product.builder()
+                .productId(productId)
+                .productName("Product " + productId)
+                .unitCostPrice(4.25)
+                .unitSellingPrice(6.5)
+                .quantity(120)
+                .categoryId("category-1")
+                .categoryName("Beverages")
+                .dateAdded(DATE)
+                .dateUpdated(DATE)
+                .totalPrice(510.0)
+                .totalSellingPrice(780.0)
+                .build();
+    }
+
+    static Sales sales(String salesId, int lines) {
+        return sales(salesId, lines, false);
+    }
+
+    // With snapshots the lines carry product details, as sales written since snapshots were introduced do
+    static Sales sales(String salesId, int lines, boolean snapshots) {
+        List<SaleLineItem> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            SaleLineItem item = SaleLineItem.builder()
+                    .productId("product-" + i)
+                    .quantitySold(i % 5 + 1)
+                    .totalPrice((i % 5 + 1) * 6.5)
+                    .build();
+            if (snapshots) {
+                item.snapshot(product(item.getProductId()));
+            }
+            items.add(item);
+        }
+        return Sales.builder()
+                .salesId(salesId)
+                .items(items)
+                .quantitySold(items.stream().mapToInt(SaleLineItem::getQuantitySold).sum())
+                .totalPrice(items.stream().mapToDouble(SaleLineItem::getTotalPrice).sum())
+                .dateSold(DATE)
+                .dateUpdated(DATE)
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.products.benchmarks;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Just enough of a DynamoDB client to serve GetItem and BatchGetItem from memory, so repository code
+ * can be benchmarked without the network. Items are looked up by their full key attribute map.
+ */
+final class InMemoryDynamoDbClient implements DynamoDbClient {
+    private final Map<String, Map<Map<String, AttributeValue>, Map<String, AttributeValue>>> tables = new HashMap<>();
+
+    void put(String tableName, Map<String, AttributeValue> key, Map<String, AttributeValue> item) {
+        tables.computeIfAbsent(tableName, name -> new HashMap<>()).put(key, item);
+    }
+
+    @Override
+    public GetItemResponse getItem(GetItemRequest request) {
+        Map<String, AttributeValue> item = table(request.tableName()).get(request.key());
+        return item != null ? GetItemResponse.builder().item(item).build() : GetItemResponse.builder().build();
+    }
+
+    @Override
+    public BatchGetItemResponse batchGetItem(BatchGetItemRequest request) {
+        Map<String, List<Map<String, AttributeValue>>> responses = new HashMap<>();
+        for (Map.Entry<String, KeysAndAttributes> entry : request.requestItems().entrySet()) {
+            Map<Map<String, AttributeValue>, Map<String, AttributeValue>> table = table(entry.getKey());
+            List<Map<String, AttributeValue>> found = new ArrayList<>();
+            for (Map<String, AttributeValue> key : entry.getValue().keys()) {
+                Map<String, AttributeValue> item = table.get(key);
+                if (item != null) {
+                    found.add(item);
+                }
+            }
+            responses.put(entry.getKey(), found);
+        }
+        return BatchGetItemResponse.builder().responses(responses).unprocessedKeys(Map.of()).build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private Map<Map<String, AttributeValue>, Map<String, AttributeValue>> table(String tableName) {
+        return tables.getOrDefault(tableName, Map.of());
+    }
+}
@@ -0,0 +1,54 @@
+package com.products.benchmarks;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Approximates the stored size of a DynamoDB item using the published sizing rules:
+ * UTF-8 bytes for names and strings, roughly one byte per two significant digits plus one for numbers,
+ * and three bytes plus one per element of overhead for lists and maps.
+ */
+final class ItemSizes {
+    private ItemSizes() {
+    }
+
+    static long itemSize(Map<String, AttributeValue> item) {
+        long size = 0;
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            size += utf8(attribute.getKey()) + valueSize(attribute.getValue());
+        }
+        return size;
+    }
+
+    static long valueSize(AttributeValue value) {
+        if (value.s() != null) {
+            return utf8(value.s());
+        }
+        if (value.n() != null) {
+            String digits = new BigDecimal(value.n()).unscaledValue().abs().toString();
+            return (digits.length() + 1) / 2 + 1;
+        }
+        if (value.hasL()) {
+            long size = 3;
+            for (AttributeValue element : value.l()) {
+                size += 1 + valueSize(element);
+            }
+            return size;
+        }
+        if (value.hasM()) {
+            long size = 3;
+            for (Map.Entry<String, AttributeValue> entry : value.m().entrySet()) {
+                size += 1 + utf8(entry.getKey()) + valueSize(entry.getValue());
+            }
+            return size;
+        }
+        return 1;
+    }
+
+    private static long utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,65 @@
+package com.products.benchmarks;
+
+import com.products.model.LocalDateConverter;
+import com.products.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The date attribute converter used by the bean annotations ({@link Product.LocalDateAttributeConverter}),
+ * against the shared converter the static schemas use and the plain {@link LocalDate} toString/parse it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalDateConverterBenchmark {
+
+    private final Product.LocalDateAttributeConverter beanConverter = new Product.LocalDateAttributeConverter();
+    private final LocalDate date = Fixtures.DATE;
+    private final String text = Fixtures.DATE.toString();
+    private final AttributeValue value = AttributeValue.fromS(text);
+
+    @Benchmark
+    public AttributeValue encodeBeanConverter() {
+        return beanConverter.transformFrom(date);
+    }
+
+    @Benchmark
+    public AttributeValue encodeSharedConverter() {
+        return LocalDateConverter.INSTANCE.transformFrom(date);
+    }
+
+    @Benchmark
+    public AttributeValue encodeToString() {
+        return AttributeValue.fromS(date.toString());
+    }
+
+    @Benchmark
+    public LocalDate decodeBeanConverter() {
+        return beanConverter.transformTo(value);
+    }
+
+    @Benchmark
+    public LocalDate decodeSharedConverter() {
+        return LocalDateConverter.INSTANCE.transformTo(value);
+    }
+
+    @Benchmark
+    public LocalDate decodeParse() {
+        return LocalDate.parse(text);
+    }
+}
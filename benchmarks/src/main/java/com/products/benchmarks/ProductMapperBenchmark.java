@@ -0,0 +1,78 @@
+package com.products.benchmarks;
+
+import com.products.mapper.ProductMapper;
+import com.products.model.Product;
+import com.products.model.Sales;
+import com.products.model.TableSchemas;
+import com.products.repository.CatalogVersionRepository;
+import com.products.repository.DynamoDbProductRepository;
+import com.products.repository.ProductCache;
+import com.products.repository.ProductRepository;
+import com.products.response.CustomSalesResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping a page of sales to responses against an in-memory Product table, with the product cache off so every
+ * call pays for its batched lookup. With snapshots the lines carry their product details and no lookup is made.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductMapperBenchmark {
+    private static final String PRODUCT_TABLE = "Product";
+    private static final int LINES_PER_SALE = 5;
+
+    @Param({"100", "1000"})
+    public int sales;
+
+    @Param({"false", "true"})
+    public boolean snapshots;
+
+    private ProductMapper productMapper;
+    private List<Sales> page;
+
+    @Setup
+    public void setUp() {
+        InMemoryDynamoDbClient dynamoDbClient = new InMemoryDynamoDbClient();
+        for (int i = 0; i < LINES_PER_SALE; i++) {
+            Product product = Fixtures.product("product-" + i);
+            dynamoDbClient.put(PRODUCT_TABLE, Map.of("productId", AttributeValue.fromS(product.getProductId())),
+                    TableSchemas.PRODUCT.itemToMap(product, true));
+        }
+        DynamoDbEnhancedClient enhancedClient = DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build();
+        ProductRepository productRepository = new DynamoDbProductRepository(dynamoDbClient, enhancedClient, PRODUCT_TABLE,
+                new ProductCache(0, Duration.ZERO), new CatalogVersionRepository(null, null, 0));
+        productMapper = new ProductMapper(productRepository);
+
+        page = new ArrayList<>(sales);
+        for (int i = 0; i < sales; i++) {
+            page.add(Fixtures.sales("sale-" + i, LINES_PER_SALE, snapshots));
+        }
+    }
+
+    @Benchmark
+    public List<CustomSalesResponse> getCustomSales() {
+        return productMapper.getCustomSales(page);
+    }
+}
@@ -0,0 +1,79 @@
+package com.products.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.products.model.Sales;
+import com.products.request.SaleLineItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line item encoding: the legacy JSON-string attribute against the native list-of-maps attribute,
+ * for sales with 1, 10 and 100 lines. The stored size of each encoding is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaleLineItemCodecBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    private final Sales.SaleLineItemListConverter converter = Sales.SaleLineItemListConverter.INSTANCE;
+
+    private final ObjectWriter legacyWriter = new ObjectMapper().writerFor(new TypeReference<List<SaleLineItem>>() {});
+
+    private List<SaleLineItem> items;
+    private String legacyJson;
+    private AttributeValue legacyValue;
+    private AttributeValue nativeValue;
+
+    @Setup
+    public void setUp() throws Exception {
+        items = Fixtures.sales("sale-1", lines).getItems();
+        legacyJson = legacyWriter.writeValueAsString(items);
+        legacyValue = AttributeValue.fromS(legacyJson);
+        nativeValue = converter.transformFrom(items);
+
+        System.out.printf("%n[items] lines=%d legacyJsonBytes=%d nativeListBytes=%d%n",
+                lines, ItemSizes.valueSize(legacyValue), ItemSizes.valueSize(nativeValue));
+    }
+
+    @Benchmark
+    public AttributeValue encodeNative() {
+        return converter.transformFrom(items);
+    }
+
+    // What the converter used to do on every write
+    @Benchmark
+    public AttributeValue encodeLegacyJson() throws Exception {
+        return AttributeValue.fromS(legacyWriter.writeValueAsString(items));
+    }
+
+    @Benchmark
+    public List<SaleLineItem> decodeNative() {
+        return converter.transformTo(nativeValue);
+    }
+
+    @Benchmark
+    public List<SaleLineItem> decodeLegacyJson() {
+        return converter.transformTo(legacyValue);
+    }
+}
@@ -0,0 +1,68 @@
+package com.products.benchmarks;
+
+import com.products.reports.SalesReportCsvWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV generation of the weekly report at 10k, 100k and 1M rows. Output goes to a discarding stream, so this is
+ * the formatting cost alone, without the multipart upload the handler streams it into.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SalesReportCsvBenchmark {
+    private static final int DISTINCT_PRODUCTS = 64;
+    private static final int DISTINCT_CATEGORIES = 8;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private final String[] productNames = new String[DISTINCT_PRODUCTS];
+    private final String[] categoryNames = new String[DISTINCT_CATEGORIES];
+    private final LocalDate[] days = new LocalDate[7];
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < DISTINCT_PRODUCTS; i++) {
+            // Every eighth name needs quoting, as product names with commas do
+            productNames[i] = i % 8 == 0 ? "Product " + i + ", large" : "Product " + i;
+        }
+        for (int i = 0; i < DISTINCT_CATEGORIES; i++) {
+            categoryNames[i] = "Category " + i;
+        }
+        for (int i = 0; i < days.length; i++) {
+            days[i] = Fixtures.DATE.plusDays(i);
+        }
+    }
+
+    @Benchmark
+    public long writeReport() throws IOException {
+        SalesReportCsvWriter csv = new SalesReportCsvWriter(OutputStream.nullOutputStream());
+        csv.writeHeader();
+        for (int i = 0; i < rows; i++) {
+            int quantity = i % 5 + 1;
+            csv.writeRow(productNames[i % DISTINCT_PRODUCTS], categoryNames[i % DISTINCT_CATEGORIES],
+                    quantity, quantity * 6.5, days[i % days.length]);
+        }
+        csv.close();
+        return csv.getRowCount();
+    }
+}
@@ -0,0 +1,97 @@
+package com.products.benchmarks;
+
+import com.products.model.Product;
+import com.products.model.Sales;
+import com.products.model.TableSchemas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-item cost of marshalling to and from DynamoDB attribute maps with the bean (reflective)
+ * and the hand-written static table schemas. Schema build time is covered by {@link TableSchemaInitBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TableSchemaBenchmark {
+
+    private final TableSchema<Product> beanProductSchema = TableSchema.fromBean(Product.class);
+    private final TableSchema<Sales> beanSalesSchema = TableSchema.fromBean(Sales.class);
+
+    private Product product;
+    private Sales sales;
+    private Map<String, AttributeValue> productItem;
+    private Map<String, AttributeValue> salesItem;
+
+    @Setup
+    public void setUp() {
+        product = Fixtures.product("product-1");
+        sales = Fixtures.sales("sale-1", 3);
+        productItem = TableSchemas.PRODUCT.itemToMap(product, true);
+        salesItem = TableSchemas.SALES.itemToMap(sales, true);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Map<String, AttributeValue> marshalProductBean() {
+        return beanProductSchema.itemToMap(product, true);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Map<String, AttributeValue> marshalProductStatic() {
+        return TableSchemas.PRODUCT.itemToMap(product, true);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Product unmarshalProductBean() {
+        return beanProductSchema.mapToItem(productItem);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Product unmarshalProductStatic() {
+        return TableSchemas.PRODUCT.mapToItem(productItem);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Map<String, AttributeValue> marshalSalesBean() {
+        return beanSalesSchema.itemToMap(sales, true);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Map<String, AttributeValue> marshalSalesStatic() {
+        return TableSchemas.SALES.itemToMap(sales, true);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Sales unmarshalSalesBean() {
+        return beanSalesSchema.mapToItem(salesItem);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Sales unmarshalSalesStatic() {
+        return TableSchemas.SALES.mapToItem(salesItem);
+    }
+}
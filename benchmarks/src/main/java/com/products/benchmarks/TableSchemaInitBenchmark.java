@@ -0,0 +1,45 @@
+package com.products.benchmarks;
+
+import com.products.model.Category;
+import com.products.model.Product;
+import com.products.model.Sales;
+import com.products.model.TableSchemas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold-start cost of building the Product, Sales and Category schemas: each measurement is the first
+ * build in a fresh JVM, which is what a Lambda cold start pays. The bean schema caches itself after the
+ * first build, so a steady-state measurement would hide the difference.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class TableSchemaInitBenchmark {
+
+    @Benchmark
+    public void beanSchemas(Blackhole blackhole) {
+        blackhole.consume(TableSchema.fromBean(Product.class));
+        blackhole.consume(TableSchema.fromBean(Sales.class));
+        blackhole.consume(TableSchema.fromBean(Category.class));
+    }
+
+    @Benchmark
+    public void staticSchemas(Blackhole blackhole) {
+        // First access initialises TableSchemas, which builds all three schemas exactly as the handlers do
+        blackhole.consume(TableSchemas.PRODUCT);
+        blackhole.consume(TableSchemas.SALES);
+        blackhole.consume(TableSchemas.CATEGORY);
+    }
+}
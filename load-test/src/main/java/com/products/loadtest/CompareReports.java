@@ -0,0 +1,58 @@
+package com.products.loadtest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Compares the p50 and p99 of every endpoint and downstream call between two reports:
+ * {@code CompareReports <before.json> <after.json> [threshold percent, default 10]}.
+ * Exits with 1 when any of them got slower by more than the threshold, so a pipeline can gate on it.
+ * Changes below {@value #NOISE_FLOOR_MS} ms are not counted, however large relative to a sub-millisecond call.
+ */
+public class CompareReports {
+    private static final double NOISE_FLOOR_MS = 0.1;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareReports <before.json> <after.json> [threshold percent]");
+            System.exit(2);
+        }
+        ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        LoadReport.Report before = LoadReport.read(Path.of(args[0]), mapper);
+        LoadReport.Report after = LoadReport.read(Path.of(args[1]), mapper);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        boolean regressed = compare(before.endpoints(), after.endpoints(), threshold);
+        if (before.downstream() != null && after.downstream() != null) {
+            regressed |= compare(before.downstream(), after.downstream(), threshold);
+        }
+        if (regressed) {
+            System.out.printf("%nLatency regressed by more than %.1f%%%n", threshold);
+            System.exit(1);
+        }
+    }
+
+    private static boolean compare(Map<String, LoadReport.Latency> before, Map<String, LoadReport.Latency> after, double threshold) {
+        boolean regressed = false;
+        for (Map.Entry<String, LoadReport.Latency> entry : after.entrySet()) {
+            LoadReport.Latency previous = before.get(entry.getKey());
+            if (previous == null) {
+                continue;
+            }
+            regressed |= compare(entry.getKey() + " p50", previous.p50Ms(), entry.getValue().p50Ms(), threshold);
+            regressed |= compare(entry.getKey() + " p99", previous.p99Ms(), entry.getValue().p99Ms(), threshold);
+        }
+        return regressed;
+    }
+
+    private static boolean compare(String name, double before, double after, double threshold) {
+        double change = before > 0 ? (after - before) / before * 100 : 0;
+        boolean regressed = change > threshold && after - before > NOISE_FLOOR_MS;
+        System.out.printf("%-50s %10.3f -> %10.3f ms %+7.1f%%%s%n", name, before, after, change, regressed ? "  REGRESSED" : "");
+        return regressed;
+    }
+}
@@ -0,0 +1,41 @@
+package com.products.loadtest;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+// Times every DynamoDB API call, retries included, under "DynamoDB.<operation>"
+final class DynamoDbTimingInterceptor implements ExecutionInterceptor {
+    private static final ExecutionAttribute<Long> START_NANOS = new ExecutionAttribute<>("LoadTestStartNanos");
+
+    private final LatencyRecorder recorder;
+
+    DynamoDbTimingInterceptor(LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes);
+    }
+
+    private void record(ExecutionAttributes executionAttributes) {
+        Long start = executionAttributes.getAttribute(START_NANOS);
+        if (start != null) {
+            recorder.record("DynamoDB." + executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME),
+                    System.nanoTime() - start);
+        }
+    }
+}
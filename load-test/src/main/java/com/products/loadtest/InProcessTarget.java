@@ -0,0 +1,156 @@
+package com.products.loadtest;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.products.config.ClientRegistry;
+import com.products.local.FunctionPool;
+import com.products.local.HandlerFactory;
+import com.products.local.LocalContext;
+import com.products.local.SeedData;
+import com.products.model.TableSchemas;
+import com.products.repository.CategoryRepository;
+import com.products.repository.DynamoDbCategoryRepository;
+import com.products.repository.DynamoDbInventoryRepository;
+import com.products.repository.DynamoDbProductRepository;
+import com.products.repository.DynamoDbSalesRepository;
+import com.products.repository.InventoryRepository;
+import com.products.repository.ProductRepository;
+import com.products.repository.SalesRepository;
+import com.products.repository.memory.InMemoryCategoryRepository;
+import com.products.repository.memory.InMemoryInventoryRepository;
+import com.products.repository.memory.InMemoryProductRepository;
+import com.products.repository.memory.InMemorySalesRepository;
+import com.products.repository.memory.InMemoryStore;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
+
+import java.net.URI;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calls the handlers directly, pooled per function as the local runtime pools them, with every repository call
+ * timed. Against DynamoDB (DynamoDB Local through AWS_ENDPOINT_URL, or real tables) each API call is timed as well,
+ * through an interceptor on a client of its own.
+ */
+final class InProcessTarget implements Target {
+    private static final String GROUPS = "Admin,SalesPerson";
+
+    private final LatencyRecorder downstream = new LatencyRecorder();
+    private final HandlerFactory handlerFactory;
+    private final int functionConcurrency;
+    private final Map<String, FunctionPool> pools = new ConcurrentHashMap<>();
+    private final DynamoDbClient dynamoDbClient;
+
+    InProcessTarget(LoadTestConfig config) {
+        ProductRepository products;
+        CategoryRepository categories;
+        SalesRepository sales;
+        InventoryRepository inventory;
+
+        if ("dynamodb".equals(config.store())) {
+            dynamoDbClient = instrumentedClient();
+            DynamoDbEnhancedClient enhancedClient = DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build();
+            String productTable = System.getenv("PRODUCT_TABLE");
+            String salesTable = System.getenv("SALES_TABLE");
+            String categoryTable = System.getenv("CATEGORY_TABLE");
+            products = new DynamoDbProductRepository(dynamoDbClient, enhancedClient, productTable);
+            categories = new DynamoDbCategoryRepository(enhancedClient, categoryTable);
+            sales = new DynamoDbSalesRepository(dynamoDbClient, enhancedClient, salesTable);
+            inventory = new DynamoDbInventoryRepository(dynamoDbClient, productTable, salesTable);
+            if (config.seed()) {
+                var categoryTableHandle = enhancedClient.table(categoryTable, TableSchemas.CATEGORY);
+                SeedData.seed(categoryTableHandle::putItem, products, sales,
+                        config.seedCategories(), config.seedProducts(), config.seedSales());
+            }
+        } else {
+            dynamoDbClient = null;
+            InMemoryStore store = new InMemoryStore();
+            SeedData.seed(store, config.seedCategories(), config.seedProducts(), config.seedSales());
+            products = new InMemoryProductRepository(store);
+            categories = new InMemoryCategoryRepository(store);
+            sales = new InMemorySalesRepository(store);
+            inventory = new InMemoryInventoryRepository(store);
+        }
+
+        handlerFactory = HandlerFactory.withRepositories(
+                TimingProxy.wrap(ProductRepository.class, products, downstream),
+                TimingProxy.wrap(CategoryRepository.class, categories, downstream),
+                TimingProxy.wrap(SalesRepository.class, sales, downstream),
+                TimingProxy.wrap(InventoryRepository.class, inventory, downstream));
+        functionConcurrency = config.functionConcurrency();
+    }
+
+    @Override
+    public Response send(LoadRequest request) {
+        FunctionPool pool = pools.computeIfAbsent(request.handlerClass(), handlerClass -> {
+            var factory = handlerFactory.forClass(handlerClass);
+            if (factory == null) {
+                throw new IllegalArgumentException(handlerClass + " can't be hosted in process");
+            }
+            return new FunctionPool(handlerClass.substring(handlerClass.lastIndexOf('.') + 1), factory, functionConcurrency);
+        });
+
+        String requestId = UUID.randomUUID().toString();
+        APIGatewayProxyResponseEvent response = pool.invoke(toEvent(request, requestId), new LocalContext(requestId, pool.functionName()));
+        if (response == null) {
+            return new Response(429, null);
+        }
+        String body = response.getBody();
+        if (body != null && Boolean.TRUE.equals(response.getIsBase64Encoded())) {
+            body = new String(Base64.getDecoder().decode(body));
+        }
+        return new Response(response.getStatusCode() != null ? response.getStatusCode() : 200, body);
+    }
+
+    @Override
+    public LatencyRecorder downstream() {
+        return downstream;
+    }
+
+    @Override
+    public void close() {
+        if (dynamoDbClient != null) {
+            dynamoDbClient.close();
+        }
+    }
+
+    private static APIGatewayProxyRequestEvent toEvent(LoadRequest request, String requestId) {
+        APIGatewayProxyRequestEvent.ProxyRequestContext requestContext = new APIGatewayProxyRequestEvent.ProxyRequestContext();
+        requestContext.setRequestId(requestId);
+        requestContext.setStage("load-test");
+        requestContext.setHttpMethod(request.method());
+        requestContext.setResourcePath(request.resource());
+        requestContext.setAuthorizer(Map.of("claims", Map.of(
+                "sub", "00000000-0000-0000-0000-000000000000",
+                "email", "load-test@example.com",
+                "cognito:groups", GROUPS)));
+
+        return new APIGatewayProxyRequestEvent()
+                .withResource(request.resource())
+                .withPath(request.path())
+                .withHttpMethod(request.method())
+                .withHeaders(Map.of("Content-Type", "application/json"))
+                .withQueryStringParameters(request.query())
+                .withPathParameters(request.pathParameters())
+                .withRequestContext(requestContext)
+                .withBody(request.body());
+    }
+
+    private DynamoDbClient instrumentedClient() {
+        DynamoDbClientBuilder builder = DynamoDbClient.builder()
+                .httpClient(ClientRegistry.httpClient())
+                .overrideConfiguration(c -> c.addExecutionInterceptor(new DynamoDbTimingInterceptor(downstream)));
+        String region = System.getenv("AWS_REGION");
+        builder.region(Region.of(region != null ? region : "us-east-1"));
+        String endpoint = System.getenv("AWS_ENDPOINT_URL");
+        if (endpoint != null && !endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint.trim()));
+        }
+        return builder.build();
+    }
+}
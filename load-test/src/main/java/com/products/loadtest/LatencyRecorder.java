@@ -0,0 +1,51 @@
+package com.products.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms in microseconds plus response status counts, one of each per name.
+ * Recording is wait-free, so it can sit on every request and every downstream call.
+ */
+final class LatencyRecorder {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, LongAdder>> statuses = new ConcurrentHashMap<>();
+
+    void record(String name, long nanos) {
+        recorders.computeIfAbsent(name, key -> new Recorder(SIGNIFICANT_DIGITS))
+                .recordValue(Math.max(1, nanos / 1_000));
+    }
+
+    void record(String name, long nanos, int status) {
+        record(name, nanos);
+        statuses.computeIfAbsent(name, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(status, key -> new LongAdder())
+                .increment();
+    }
+
+    // Drops everything recorded so far, at the end of the warmup
+    void reset() {
+        recorders.values().forEach(Recorder::reset);
+        statuses.clear();
+    }
+
+    // Everything recorded since the last reset, by name in name order
+    Map<String, Histogram> histograms() {
+        Map<String, Histogram> histograms = new TreeMap<>();
+        recorders.forEach((name, recorder) -> histograms.put(name, recorder.getIntervalHistogram()));
+        return histograms;
+    }
+
+    Map<Integer, Long> statuses(String name) {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.getOrDefault(name, Map.of()).forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+}
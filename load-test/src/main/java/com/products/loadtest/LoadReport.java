@@ -0,0 +1,93 @@
+package com.products.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The result of a run: latency percentiles per endpoint and per downstream call, written as JSON so two runs
+ * can be put side by side with {@link CompareReports}.
+ */
+final class LoadReport {
+
+    record Latency(long count, long errors, Map<Integer, Long> statuses, double meanMs, double p50Ms, double p90Ms,
+                   double p99Ms, double p999Ms, double maxMs) {
+    }
+
+    record Report(String revision, String target, String store, double rate, String arrival, int durationSeconds,
+                  String mix, long arrivals, long dropped, double achievedRate,
+                  Map<String, Latency> endpoints, Map<String, Latency> downstream) {
+    }
+
+    private LoadReport() {
+    }
+
+    static Report build(LoadTestConfig config, OpenModelDriver.Result result, LatencyRecorder endpoints,
+                        LatencyRecorder downstream) {
+        Map<String, Latency> endpointLatencies = latencies(endpoints, true);
+        long completed = endpointLatencies.values().stream().mapToLong(Latency::count).sum();
+        return new Report(config.revision(), config.target(), "inprocess".equals(config.target()) ? config.store() : null,
+                config.rate(), config.arrival(), config.durationSeconds(), config.mix(), result.arrivals(), result.dropped(),
+                completed / result.measuredSeconds(), endpointLatencies,
+                downstream != null ? latencies(downstream, false) : null);
+    }
+
+    static void write(Report report, Path path, ObjectMapper mapper) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        mapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+    }
+
+    static Report read(Path path, ObjectMapper mapper) throws IOException {
+        return mapper.readValue(path.toFile(), Report.class);
+    }
+
+    static void print(Report report) {
+        System.out.printf("%nRevision %s, %s target, %.0f req/s offered (%s), %.0f req/s completed, %d dropped%n",
+                report.revision(), report.target(), report.rate(), report.arrival(), report.achievedRate(), report.dropped());
+        printTable("Endpoint", report.endpoints());
+        if (report.downstream() != null) {
+            printTable("Downstream call", report.downstream());
+        }
+    }
+
+    private static void printTable(String title, Map<String, Latency> latencies) {
+        System.out.printf("%n%-44s %9s %7s %9s %9s %9s %9s %9s%n", title, "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        latencies.forEach((name, latency) -> System.out.printf("%-44s %9d %7d %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                name, latency.count(), latency.errors(), latency.p50Ms(), latency.p90Ms(), latency.p99Ms(),
+                latency.p999Ms(), latency.maxMs()));
+    }
+
+    private static Map<String, Latency> latencies(LatencyRecorder recorder, boolean withStatuses) {
+        Map<String, Latency> latencies = new LinkedHashMap<>();
+        recorder.histograms().forEach((name, histogram) -> {
+            if (histogram.getTotalCount() == 0) {
+                return;
+            }
+            Map<Integer, Long> statuses = withStatuses ? recorder.statuses(name) : null;
+            long errors = statuses == null ? 0 : statuses.entrySet().stream()
+                    .filter(entry -> entry.getKey() >= 400)
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+            latencies.put(name, latency(histogram, statuses, errors));
+        });
+        return latencies;
+    }
+
+    private static Latency latency(Histogram histogram, Map<Integer, Long> statuses, long errors) {
+        return new Latency(histogram.getTotalCount(), errors, statuses, histogram.getMean() / 1000.0,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,11 @@
+package com.products.loadtest;
+
+import java.util.Map;
+
+/**
+ * One API call of the workload, described both as the HTTP request and as the route the local runtime
+ * and API Gateway would resolve it to.
+ */
+record LoadRequest(String endpoint, String handlerClass, String method, String resource, String path,
+                   Map<String, String> pathParameters, Map<String, String> query, String body) {
+}
@@ -0,0 +1,65 @@
+package com.products.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of one run, given as {@code key=value} arguments:
+ * <ul>
+ *     <li>target: {@code inprocess} (default) or {@code http}</li>
+ *     <li>url: base URL for the http target, default http://localhost:8080</li>
+ *     <li>authorization: Authorization header for the http target, e.g. a Cognito id token for a deployed stage</li>
+ *     <li>store: {@code memory} (default) or {@code dynamodb} for the in-process target</li>
+ *     <li>seed: seed the DynamoDB tables before the run, default false; the in-memory store is always seeded</li>
+ *     <li>seedCategories / seedProducts / seedSales: size of the seeded data, default 20 / 1000 / 10000</li>
+ *     <li>rate: mean arrivals per second, default 500</li>
+ *     <li>arrival: {@code poisson} (default) or {@code uniform} spacing of the arrivals</li>
+ *     <li>warmup / duration: seconds of load before and while measuring, default 10 / 60</li>
+ *     <li>mix: endpoint weights, default create-sale=80,list-sales=8,filter-sales=7,update-product=5</li>
+ *     <li>maxInFlight: arrivals beyond this many outstanding requests are dropped and counted, default 10000</li>
+ *     <li>functionConcurrency: in-process instances per function, default 1000</li>
+ *     <li>revision / report: the report is written to {@code report}, default load-results/&lt;revision&gt;.json;
+ *     revision defaults to the load.revision system property, then GIT_COMMIT, then "local"</li>
+ * </ul>
+ * The in-process target signs pagination cursors with the key in the CURSOR_SIGNING_KEY environment variable,
+ * which must be set.
+ */
+record LoadTestConfig(String target, String url, String authorization, String store, boolean seed,
+                      int seedCategories, int seedProducts, int seedSales, double rate, String arrival,
+                      int warmupSeconds, int durationSeconds, String mix, int maxInFlight, int functionConcurrency,
+                      String revision, String report) {
+
+    static final String DEFAULT_MIX = "create-sale=80,list-sales=8,filter-sales=7,update-product=5";
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            values.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+
+        String revision = values.getOrDefault("revision", System.getProperty("load.revision",
+                System.getenv("GIT_COMMIT") != null ? System.getenv("GIT_COMMIT") : "local"));
+        return new LoadTestConfig(
+                values.getOrDefault("target", "inprocess"),
+                values.getOrDefault("url", "http://localhost:8080"),
+                values.get("authorization"),
+                values.getOrDefault("store", "memory"),
+                Boolean.parseBoolean(values.getOrDefault("seed", "false")),
+                Integer.parseInt(values.getOrDefault("seedCategories", "20")),
+                Integer.parseInt(values.getOrDefault("seedProducts", "1000")),
+                Integer.parseInt(values.getOrDefault("seedSales", "10000")),
+                Double.parseDouble(values.getOrDefault("rate", "500")),
+                values.getOrDefault("arrival", "poisson"),
+                Integer.parseInt(values.getOrDefault("warmup", "10")),
+                Integer.parseInt(values.getOrDefault("duration", "60")),
+                values.getOrDefault("mix", DEFAULT_MIX),
+                Integer.parseInt(values.getOrDefault("maxInFlight", "10000")),
+                Integer.parseInt(values.getOrDefault("functionConcurrency", "1000")),
+                revision,
+                values.getOrDefault("report", "load-results/" + revision + ".json"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.products.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.products.config.ClientRegistry;
+
+import java.nio.file.Path;
+
+/**
+ * Replays the production traffic mix against the handlers at a fixed arrival rate and reports latency percentiles
+ * per endpoint and, in process, per repository and DynamoDB call. See {@link LoadTestConfig} for the arguments.
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        ObjectMapper mapper = ClientRegistry.objectMapper();
+
+        try (Target target = "http".equals(config.target())
+                ? new HttpTarget(config.url(), config.authorization())
+                : new InProcessTarget(config)) {
+            Workload workload = Workload.load(target, config.mix(), mapper);
+            System.out.printf("Loaded %d products; offering %.0f req/s for %ds after %ds of warmup%n",
+                    workload.catalogSize(), config.rate(), config.durationSeconds(), config.warmupSeconds());
+
+            LatencyRecorder endpoints = new LatencyRecorder();
+            LatencyRecorder downstream = target.downstream();
+            OpenModelDriver driver = new OpenModelDriver(config.rate(), config.arrival(), config.maxInFlight());
+            OpenModelDriver.Result result = driver.run(config.warmupSeconds(), config.durationSeconds(),
+                    () -> {
+                        endpoints.reset();
+                        if (downstream != null) {
+                            downstream.reset();
+                        }
+                    },
+                    (intendedStart, measured) -> {
+                        String endpoint = "unknown";
+                        int status;
+                        try {
+                            LoadRequest request = workload.next();
+                            endpoint = request.endpoint();
+                            status = target.send(request).status();
+                        } catch (Exception e) {
+                            // Reported as a client-side failure rather than dropped, so it still shows in the error counts
+                            status = 599;
+                        }
+                        if (measured) {
+                            endpoints.record(endpoint, System.nanoTime() - intendedStart, status);
+                        }
+                    });
+
+            LoadReport.Report report = LoadReport.build(config, result, endpoints, downstream);
+            LoadReport.print(report);
+            LoadReport.write(report, Path.of(config.report()), mapper);
+            System.out.println("\nReport written to " + config.report());
+        }
+    }
+}
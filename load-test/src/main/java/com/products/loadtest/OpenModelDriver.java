@@ -0,0 +1,96 @@
+package com.products.loadtest;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests arrive on a schedule set by the rate alone, whether or not earlier ones have finished,
+ * each on its own virtual thread. Latency is measured from the scheduled arrival, so time a request spends queued
+ * behind a slow system counts against it (no coordinated omission).
+ */
+final class OpenModelDriver {
+
+    @FunctionalInterface
+    interface Arrival {
+        // Runs one request that was due at intendedStartNanos; only measured requests belong in the report
+        void run(long intendedStartNanos, boolean measured);
+    }
+
+    record Result(long arrivals, long dropped, double measuredSeconds) {
+    }
+
+    private final double rate;
+    private final boolean poisson;
+    private final int maxInFlight;
+
+    OpenModelDriver(double rate, String arrival, int maxInFlight) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        this.rate = rate;
+        this.poisson = !"uniform".equals(arrival);
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Drives arrivals for warmup plus duration seconds and waits for the requests in flight.
+     * {@code onWarmupEnd} runs once when the measured period starts.
+     */
+    Result run(int warmupSeconds, int durationSeconds, Runnable onWarmupEnd, Arrival arrival) {
+        double meanIntervalNanos = 1e9 / rate;
+        AtomicInteger inFlight = new AtomicInteger();
+        LongAdder arrivals = new LongAdder();
+        LongAdder dropped = new LongAdder();
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmupSeconds * 1_000_000_000L;
+        long end = measureFrom + durationSeconds * 1_000_000_000L;
+        boolean measuring = warmupSeconds == 0;
+        if (measuring) {
+            onWarmupEnd.run();
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            double next = start;
+            while (next < end) {
+                long now = System.nanoTime();
+                if (now < next) {
+                    LockSupport.parkNanos((long) next - now);
+                    continue;
+                }
+                // Catch up on every arrival that fell due while parked
+                long intendedStart = (long) next;
+                if (!measuring && intendedStart >= measureFrom) {
+                    measuring = true;
+                    onWarmupEnd.run();
+                }
+                if (measuring) {
+                    arrivals.increment();
+                }
+                if (inFlight.get() >= maxInFlight) {
+                    if (measuring) {
+                        dropped.increment();
+                    }
+                } else {
+                    inFlight.incrementAndGet();
+                    boolean measured = measuring;
+                    executor.execute(() -> {
+                        try {
+                            arrival.run(intendedStart, measured);
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    });
+                }
+                next += poisson
+                        ? -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos
+                        : meanIntervalNanos;
+            }
+        }
+        return new Result(arrivals.sum(), dropped.sum(), durationSeconds);
+    }
+}
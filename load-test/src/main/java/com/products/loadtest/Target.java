@@ -0,0 +1,17 @@
+package com.products.loadtest;
+
+// Where the load goes: the handlers in this JVM, or a running server over HTTP
+interface Target extends AutoCloseable {
+
+    record Response(int status, String body) {
+    }
+
+    Response send(LoadRequest request) throws Exception;
+
+    // Latencies of the calls the handlers made downstream, or null when they can't be observed from here
+    LatencyRecorder downstream();
+
+    @Override
+    default void close() {
+    }
+}
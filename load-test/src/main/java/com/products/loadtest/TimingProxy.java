@@ -0,0 +1,27 @@
+package com.products.loadtest;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+
+// Wraps a repository so every call through its interface is timed under "<Interface>.<method>"
+final class TimingProxy {
+    private TimingProxy() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T wrap(Class<T> type, T target, LatencyRecorder recorder) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(target, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                recorder.record(type.getSimpleName() + "." + method.getName(), System.nanoTime() - start);
+            }
+        });
+    }
+}
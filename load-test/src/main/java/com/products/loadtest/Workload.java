@@ -0,0 +1,149 @@
+package com.products.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The production traffic mix: mostly sales being recorded, some sales listings and a few product updates.
+ * Requests use products read from the target itself, so sale totals match the stored prices and pass validation.
+ */
+final class Workload {
+    static final String CREATE_SALE = "create-sale";
+    static final String LIST_SALES = "list-sales";
+    static final String FILTER_SALES = "filter-sales";
+    static final String UPDATE_PRODUCT = "update-product";
+
+    private static final int MAX_CATALOG = 10_000;
+    private static final int FILTER_HISTORY_DAYS = 90;
+    private static final int FILTER_RANGE_DAYS = 7;
+
+    private record CatalogProduct(String productId, double unitSellingPrice) {
+    }
+
+    private final ObjectMapper mapper;
+    private final List<CatalogProduct> catalog;
+    private final String[] endpoints;
+    private final int[] cumulativeWeights;
+
+    private Workload(ObjectMapper mapper, List<CatalogProduct> catalog, Map<String, Integer> weights) {
+        this.mapper = mapper;
+        this.catalog = catalog;
+        this.endpoints = weights.keySet().toArray(new String[0]);
+        this.cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += weights.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    static Workload load(Target target, String mix, ObjectMapper mapper) throws Exception {
+        Map<String, Integer> weights = parseMix(mix);
+        List<CatalogProduct> catalog = new ArrayList<>();
+        String cursor = null;
+        do {
+            Map<String, String> query = new HashMap<>();
+            query.put("limit", "100");
+            if (cursor != null) {
+                query.put("lastEvaluatedKey", cursor);
+            }
+            Target.Response response = target.send(new LoadRequest("catalog", "com.products.crud.GetAllProductsHandler", "GET",
+                    "/products/get-all-products", "/products/get-all-products", null, query, null));
+            if (response.status() != 200) {
+                throw new IllegalStateException("Unable to read the catalog: " + response.status() + " " + response.body());
+            }
+            JsonNode page = mapper.readTree(response.body());
+            for (JsonNode product : page.path("products")) {
+                catalog.add(new CatalogProduct(product.path("productId").asText(), product.path("unitSellingPrice").asDouble()));
+            }
+            cursor = page.path("lastEvaluatedKey").isTextual() ? page.path("lastEvaluatedKey").asText() : null;
+        } while (cursor != null && catalog.size() < MAX_CATALOG);
+
+        if (catalog.isEmpty()) {
+            throw new IllegalStateException("The target has no products; seed it first");
+        }
+        return new Workload(mapper, catalog, weights);
+    }
+
+    int catalogSize() {
+        return catalog.size();
+    }
+
+    LoadRequest next() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (pick >= cumulativeWeights[index]) {
+            index++;
+        }
+        return switch (endpoints[index]) {
+            case CREATE_SALE -> createSale(random);
+            case LIST_SALES -> new LoadRequest(LIST_SALES, "com.products.sales.GetSalesHandler", "GET",
+                    "/sales", "/sales", null, Map.of("limit", "20"), null);
+            case FILTER_SALES -> filterSales(random);
+            case UPDATE_PRODUCT -> updateProduct(random);
+            default -> throw new IllegalStateException("Unknown endpoint " + endpoints[index]);
+        };
+    }
+
+    private LoadRequest createSale(ThreadLocalRandom random) throws Exception {
+        Map<String, Map<String, Object>> lines = new LinkedHashMap<>();
+        int count = Math.min(1 + random.nextInt(3), catalog.size());
+        while (lines.size() < count) {
+            CatalogProduct product = catalog.get(random.nextInt(catalog.size()));
+            int quantity = 1 + random.nextInt(3);
+            lines.putIfAbsent(product.productId(), Map.of(
+                    "productId", product.productId(),
+                    "quantitySold", quantity,
+                    "totalPrice", quantity * product.unitSellingPrice()));
+        }
+        String body = mapper.writeValueAsString(Map.of("items", lines.values()));
+        return new LoadRequest(CREATE_SALE, "com.products.sales.CreateSalesHandler", "POST",
+                "/sales/create-sales", "/sales/create-sales", null, null, body);
+    }
+
+    private LoadRequest filterSales(ThreadLocalRandom random) {
+        LocalDate start = LocalDate.now().minusDays(random.nextInt(FILTER_HISTORY_DAYS));
+        return new LoadRequest(FILTER_SALES, "com.products.sales.FilterSalesByDateHandler", "GET",
+                "/sales/dates", "/sales/dates", null,
+                Map.of("startDate", start.toString(), "endDate", start.plusDays(FILTER_RANGE_DAYS - 1).toString()), null);
+    }
+
+    // Writes the product's current price back, so later sales still validate against it
+    private LoadRequest updateProduct(ThreadLocalRandom random) throws Exception {
+        CatalogProduct product = catalog.get(random.nextInt(catalog.size()));
+        String body = mapper.writeValueAsString(Map.of("unitSellingPrice", product.unitSellingPrice()));
+        return new LoadRequest(UPDATE_PRODUCT, "com.products.crud.UpdateProductHandler", "PUT",
+                "/products/update/{productId}", "/products/update/" + product.productId(),
+                Map.of("productId", product.productId()), null, body);
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            if (!List.of(CREATE_SALE, LIST_SALES, FILTER_SALES, UPDATE_PRODUCT).contains(parts[0])) {
+                throw new IllegalArgumentException("Unknown endpoint in mix: " + parts[0]);
+            }
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                weights.put(parts[0], weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no endpoint with a positive weight");
+        }
+        return weights;
+    }
+}
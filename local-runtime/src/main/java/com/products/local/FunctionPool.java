@@ -0,0 +1,64 @@
+package com.products.local;
+
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The execution environments of one function. Like Lambda, an instance serves one request at a time:
+ * a request takes an idle instance or starts a new one, up to {@code maxConcurrency} at once.
+ * Handlers keep per-instance state (response buffers), so instances are never shared between requests in flight.
+ */
+public final class FunctionPool {
+    private final String functionName;
+    private final Supplier<RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>> factory;
+    private final ConcurrentLinkedDeque<RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>> idle =
+            new ConcurrentLinkedDeque<>();
+    private final Semaphore concurrency;
+    private final AtomicInteger instances = new AtomicInteger();
+
+    public FunctionPool(String functionName, Supplier<RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>> factory,
+                 int maxConcurrency) {
+        this.functionName = functionName;
+        this.factory = factory;
+        this.concurrency = new Semaphore(maxConcurrency);
+    }
+
+    public String functionName() {
+        return functionName;
+    }
+
+    public int instances() {
+        return instances.get();
+    }
+
+    /**
+     * Runs the request on an instance of this function, or returns null when the function is at its
+     * concurrency limit and the request is throttled.
+     */
+    public APIGatewayProxyResponseEvent invoke(APIGatewayProxyRequestEvent event, LocalContext context) {
+        if (!concurrency.tryAcquire()) {
+            return null;
+        }
+        try {
+            // Most recently used first, so a steady load keeps reusing the same warm instances
+            RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler = idle.pollFirst();
+            if (handler == null) {
+                handler = factory.get();
+                instances.incrementAndGet();
+            }
+            try {
+                return handler.handleRequest(event, context);
+            } finally {
+                idle.offerFirst(handler);
+            }
+        } finally {
+            concurrency.release();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.products.local;
+
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.products.crud.GetAllProductsHandler;
+import com.products.crud.GetProductsByCategoryHandler;
+import com.products.crud.UpdateProductHandler;
+import com.products.repository.CatalogVersionRepository;
+import com.products.repository.CategoryRepository;
+import com.products.repository.InventoryRepository;
+import com.products.repository.ProductRepository;
+import com.products.repository.SalesRepository;
+import com.products.repository.memory.InMemoryCategoryRepository;
+import com.products.repository.memory.InMemoryInventoryRepository;
+import com.products.repository.memory.InMemoryProductRepository;
+import com.products.repository.memory.InMemorySalesRepository;
+import com.products.repository.memory.InMemoryStore;
+import com.products.sales.CreateSalesHandler;
+import com.products.sales.EditSalesHandler;
+import com.products.sales.FilterSalesByDateHandler;
+import com.products.sales.GetSaleHandler;
+import com.products.sales.GetSalesHandler;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Creates handler instances for the local runtime. With the in-memory store every handler that takes injected
+ * repositories is wired to one shared {@link InMemoryStore}, or to whichever repositories are passed in;
+ * handlers without that constructor aren't available.
+ * With DynamoDB the handlers are built through their Lambda constructors, as on AWS.
+ */
+public final class HandlerFactory {
+    private final Map<String, Supplier<RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>>> inMemoryHandlers;
+
+    private HandlerFactory(Map<String, Supplier<RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>>> inMemoryHandlers) {
+        this.inMemoryHandlers = inMemoryHandlers;
+    }
+
+    public static HandlerFactory dynamoDb() {
+        return new HandlerFactory(null);
+    }
+
+    public static HandlerFactory inMemory(InMemoryStore store) {
+        return withRepositories(new InMemoryProductRepository(store), new InMemoryCategoryRepository(store),
+                new InMemorySalesRepository(store), new InMemoryInventoryRepository(store));
+    }
+
+    // Hosts the handlers that take injected repositories, on the given ones
+    public static HandlerFactory withRepositories(ProductRepository products, CategoryRepository categories,
+                                                  SalesRepository sales, InventoryRepository inventory) {
+        // No versions without the metadata table, so conditional requests are always answered in full
+        var versions = new CatalogVersionRepository(null, null, 0);
+
+        return new HandlerFactory(Map.of(
+                GetAllProductsHandler.class.getName(), () -> new GetAllProductsHandler(products, versions),
+                GetProductsByCategoryHandler.class.getName(), () -> new GetProductsByCategoryHandler(products, categories, versions),
+                UpdateProductHandler.class.getName(), () -> new UpdateProductHandler(products),
+                CreateSalesHandler.class.getName(), () -> new CreateSalesHandler(inventory, products),
+                EditSalesHandler.class.getName(), () -> new EditSalesHandler(sales, products, inventory),
+                GetSalesHandler.class.getName(), () -> new GetSalesHandler(sales, versions),
+                GetSaleHandler.class.getName(), () -> new GetSaleHandler(sales, versions),
+                FilterSalesByDateHandler.class.getName(), () -> new FilterSalesByDateHandler(sales, products, versions)));
+    }
+
+    // The factory for handlerClass, or null when this store can't host it
+    public Supplier<RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>> forClass(String handlerClass) {
+        if (inMemoryHandlers != null) {
+            return inMemoryHandlers.get(handlerClass);
+        }
+        return () -> instantiate(handlerClass);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> instantiate(String handlerClass) {
+        try {
+            return (RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>)
+                    Class.forName(handlerClass).getDeclaredConstructor().newInstance();
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Unable to initialize " + handlerClass, e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to initialize " + handlerClass, e);
+        }
+    }
+}
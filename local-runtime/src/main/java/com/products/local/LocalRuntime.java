@@ -0,0 +1,176 @@
+package com.products.local;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.products.repository.memory.InMemoryStore;
+import com.products.utils.HeadersUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the API routes of template.yml from one JVM, each request on its own virtual thread, so the handlers
+ * can be run in a container or profiled locally without deploying. Requests are adapted to the proxy events
+ * API Gateway produces, with synthetic Cognito claims in place of the authorizer.
+ * <p>
+ * Every request is authorized with those claims, so the server only listens on loopback unless told otherwise, and
+ * it refuses to run against real AWS tables unless that is explicitly allowed.
+ * <p>
+ * Configuration (environment):
+ * <ul>
+ *     <li>PORT: listen port, default 8080</li>
+ *     <li>LOCAL_BIND_ADDRESS: address to listen on, default {@code 127.0.0.1}; set {@code 0.0.0.0} to accept
+ *     connections from outside, e.g. when running in a container</li>
+ *     <li>LOCAL_TEMPLATE: path of the SAM template, default template.yml</li>
+ *     <li>CURSOR_SIGNING_KEY: key that signs pagination cursors, required</li>
+ *     <li>LOCAL_STORE: {@code memory} (default) for the in-memory repositories, or {@code dynamodb} to build every
+ *     handler through its Lambda constructor against the tables named in the usual environment variables.
+ *     AWS_ENDPOINT_URL must point them at a local stand-in such as DynamoDB Local, unless LOCAL_ALLOW_AWS is
+ *     {@code true}: anyone reaching the port then writes to the real tables as Admin</li>
+ *     <li>LOCAL_SEED_CATEGORIES / LOCAL_SEED_PRODUCTS / LOCAL_SEED_SALES: in-memory data set, default 20 / 1000 / 10000</li>
+ *     <li>LOCAL_FUNCTION_CONCURRENCY: concurrent requests per function before it throttles with 429, default 1000</li>
+ *     <li>LOCAL_COGNITO_GROUPS: groups claim of every request, default {@code Admin,SalesPerson};
+ *     an {@code X-Local-Groups} request header overrides it for that request</li>
+ * </ul>
+ */
+public class LocalRuntime {
+    private static final String HEALTH_PATH = "/_local/health";
+
+    private final TemplateRoutes routes;
+    private final Map<String, FunctionPool> pools = new HashMap<>();
+    private final String defaultGroups;
+
+    LocalRuntime(TemplateRoutes routes, HandlerFactory handlerFactory, int functionConcurrency, String defaultGroups) {
+        this.routes = routes;
+        this.defaultGroups = defaultGroups;
+        for (TemplateRoutes.Route route : routes.routes()) {
+            var factory = handlerFactory.forClass(route.handlerClass());
+            if (factory != null) {
+                pools.computeIfAbsent(route.handlerClass(),
+                        handlerClass -> new FunctionPool(functionName(handlerClass), factory, functionConcurrency));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = intEnv("PORT", 8080);
+        String bindAddress = env("LOCAL_BIND_ADDRESS", "127.0.0.1");
+        TemplateRoutes routes = TemplateRoutes.load(Path.of(env("LOCAL_TEMPLATE", "template.yml")));
+        if (env("CURSOR_SIGNING_KEY", null) == null && env("CURSOR_SIGNING_SECRET_ARN", null) == null) {
+            throw new IllegalStateException("Set CURSOR_SIGNING_KEY to any value to sign pagination cursors");
+        }
+
+        HandlerFactory handlerFactory;
+        if ("dynamodb".equalsIgnoreCase(env("LOCAL_STORE", "memory"))) {
+            if (env("AWS_ENDPOINT_URL", null) == null && !Boolean.parseBoolean(env("LOCAL_ALLOW_AWS", "false"))) {
+                throw new IllegalStateException("LOCAL_STORE=dynamodb needs AWS_ENDPOINT_URL pointing at a local DynamoDB;"
+                        + " set LOCAL_ALLOW_AWS=true to serve real AWS tables with Admin claims on every request");
+            }
+            handlerFactory = HandlerFactory.dynamoDb();
+        } else {
+            InMemoryStore store = new InMemoryStore();
+            long start = System.nanoTime();
+            SeedData.seed(store, intEnv("LOCAL_SEED_CATEGORIES", 20), intEnv("LOCAL_SEED_PRODUCTS", 1000),
+                    intEnv("LOCAL_SEED_SALES", 10_000));
+            System.out.printf("Seeded in-memory store in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+            handlerFactory = HandlerFactory.inMemory(store);
+        }
+
+        LocalRuntime runtime = new LocalRuntime(routes, handlerFactory, intEnv("LOCAL_FUNCTION_CONCURRENCY", 1000),
+                env("LOCAL_COGNITO_GROUPS", "Admin,SalesPerson"));
+        for (TemplateRoutes.Route route : routes.routes()) {
+            boolean available = runtime.pools.containsKey(route.handlerClass());
+            System.out.printf("%-6s %-32s %s%s%n", route.method(), route.path(), route.handlerClass(),
+                    available ? "" : " (not available with this store)");
+        }
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(bindAddress, port), intEnv("LOCAL_BACKLOG", 1024));
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", runtime::handle);
+        server.start();
+        System.out.println("Listening on " + bindAddress + ":" + port);
+    }
+
+    void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+
+            if (HEALTH_PATH.equals(path)) {
+                ProxyEventAdapter.sendResponse(exchange, new APIGatewayProxyResponseEvent()
+                        .withStatusCode(200)
+                        .withHeaders(Map.of("Content-Type", "application/json"))
+                        .withBody("{\"status\":\"UP\"}"));
+                return;
+            }
+            // CORS preflight is answered by API Gateway itself, never by a function
+            if ("OPTIONS".equals(method)) {
+                ProxyEventAdapter.sendResponse(exchange, new APIGatewayProxyResponseEvent()
+                        .withStatusCode(204)
+                        .withHeaders(HeadersUtil.getHeaders()));
+                return;
+            }
+
+            TemplateRoutes.Match match = routes.find(method, path);
+            if (match == null) {
+                ProxyEventAdapter.sendError(exchange, 404, "Not Found");
+                return;
+            }
+            FunctionPool pool = pools.get(match.route().handlerClass());
+            if (pool == null) {
+                ProxyEventAdapter.sendError(exchange, 501, "Not available with this store");
+                return;
+            }
+
+            String requestId = UUID.randomUUID().toString();
+            APIGatewayProxyRequestEvent event = ProxyEventAdapter.toEvent(exchange, match, claims(exchange), requestId);
+            APIGatewayProxyResponseEvent response;
+            try {
+                response = pool.invoke(event, new LocalContext(requestId, pool.functionName()));
+            } catch (RuntimeException e) {
+                // An exception escaping the handler is what API Gateway reports as a bad gateway
+                System.err.println(pool.functionName() + " failed request " + requestId + ": " + e);
+                ProxyEventAdapter.sendError(exchange, 502, "Internal server error");
+                return;
+            }
+            if (response == null) {
+                ProxyEventAdapter.sendError(exchange, 429, "Too Many Requests");
+                return;
+            }
+            ProxyEventAdapter.sendResponse(exchange, response);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Map<String, Object> claims(HttpExchange exchange) {
+        String groups = exchange.getRequestHeaders().getFirst("X-Local-Groups");
+        return Map.of(
+                "sub", "00000000-0000-0000-0000-000000000000",
+                "email", "local@example.com",
+                "custom:firstName", "Local",
+                "custom:lastName", "User",
+                "cognito:groups", groups != null ? groups : defaultGroups);
+    }
+
+    private static String functionName(String handlerClass) {
+        String simpleName = handlerClass.substring(handlerClass.lastIndexOf('.') + 1);
+        return simpleName.endsWith("Handler") ? simpleName.substring(0, simpleName.length() - "Handler".length()) : simpleName;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    private static int intEnv(String name, int defaultValue) {
+        return Integer.parseInt(env(name, Integer.toString(defaultValue)));
+    }
+}
@@ -0,0 +1,120 @@
+package com.products.local;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Translates between the local HTTP exchange and the REST API proxy events API Gateway hands the handlers,
+ * including the Cognito claims its authorizer would put in the request context.
+ */
+final class ProxyEventAdapter {
+    private ProxyEventAdapter() {
+    }
+
+    static APIGatewayProxyRequestEvent toEvent(HttpExchange exchange, TemplateRoutes.Match match, Map<String, Object> claims,
+                                               String requestId) throws IOException {
+        APIGatewayProxyRequestEvent.ProxyRequestContext requestContext = new APIGatewayProxyRequestEvent.ProxyRequestContext();
+        requestContext.setRequestId(requestId);
+        requestContext.setStage("local");
+        requestContext.setHttpMethod(match.route().method());
+        requestContext.setResourcePath(match.route().path());
+        requestContext.setAuthorizer(Map.of("claims", claims));
+
+        Map<String, String> headers = new HashMap<>();
+        Map<String, List<String>> multiValueHeaders = new HashMap<>();
+        exchange.getRequestHeaders().forEach((name, values) -> {
+            headers.put(name, values.get(values.size() - 1));
+            multiValueHeaders.put(name, values);
+        });
+
+        Map<String, String> query = new HashMap<>();
+        Map<String, List<String>> multiValueQuery = new HashMap<>();
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery != null && !rawQuery.isEmpty()) {
+            for (String pair : rawQuery.split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int equals = pair.indexOf('=');
+                String name = decode(equals >= 0 ? pair.substring(0, equals) : pair);
+                String value = equals >= 0 ? decode(pair.substring(equals + 1)) : "";
+                // Like API Gateway, the single-value map keeps the last occurrence
+                query.put(name, value);
+                multiValueQuery.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+            }
+        }
+
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+
+        return new APIGatewayProxyRequestEvent()
+                .withResource(match.route().path())
+                .withPath(exchange.getRequestURI().getPath())
+                .withHttpMethod(match.route().method())
+                .withHeaders(headers)
+                .withMultiValueHeaders(multiValueHeaders)
+                .withQueryStringParameters(query.isEmpty() ? null : query)
+                .withMultiValueQueryStringParameters(multiValueQuery.isEmpty() ? null : multiValueQuery)
+                .withPathParameters(match.pathParameters().isEmpty() ? null : match.pathParameters())
+                .withRequestContext(requestContext)
+                .withBody(body.length > 0 ? new String(body, StandardCharsets.UTF_8) : null)
+                .withIsBase64Encoded(false);
+    }
+
+    // Base64 bodies (gzipped responses) are decoded back to the bytes API Gateway would send
+    static void sendResponse(HttpExchange exchange, APIGatewayProxyResponseEvent response) throws IOException {
+        Headers responseHeaders = exchange.getResponseHeaders();
+        if (response.getHeaders() != null) {
+            response.getHeaders().forEach(responseHeaders::set);
+        }
+        if (response.getMultiValueHeaders() != null) {
+            response.getMultiValueHeaders().forEach(responseHeaders::put);
+        }
+
+        String body = response.getBody();
+        byte[] bytes;
+        if (body == null) {
+            bytes = new byte[0];
+        } else if (Boolean.TRUE.equals(response.getIsBase64Encoded())) {
+            bytes = Base64.getDecoder().decode(body);
+        } else {
+            bytes = body.getBytes(StandardCharsets.UTF_8);
+        }
+
+        int status = response.getStatusCode() != null ? response.getStatusCode() : 200;
+        boolean noBody = status == 204 || status == 304 || "HEAD".equals(exchange.getRequestMethod());
+        exchange.sendResponseHeaders(status, noBody || bytes.length == 0 ? -1 : bytes.length);
+        if (!noBody && bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+        exchange.close();
+    }
+
+    static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendResponse(exchange, new APIGatewayProxyResponseEvent()
+                .withStatusCode(status)
+                .withHeaders(Map.of("Content-Type", "application/json"))
+                .withBody("{\"message\":\"" + message + "\"}"));
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+}
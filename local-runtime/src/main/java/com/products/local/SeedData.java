@@ -0,0 +1,102 @@
+package com.products.local;
+
+import com.products.model.Category;
+import com.products.model.Product;
+import com.products.model.Sales;
+import com.products.repository.ProductRepository;
+import com.products.repository.SalesRepository;
+import com.products.repository.memory.InMemoryCategoryRepository;
+import com.products.repository.memory.InMemoryProductRepository;
+import com.products.repository.memory.InMemorySalesRepository;
+import com.products.repository.memory.InMemoryStore;
+import com.products.request.SaleLineItem;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Fills a store with a reproducible catalog and sales history, so load tests have data to read.
+ * Ids are predictable: category-0001, product-000001 and sale-0000001 upwards. Products start with enough
+ * stock that a sustained sales load doesn't run them out.
+ */
+public final class SeedData {
+    private static final int STOCK = 1_000_000;
+    private static final int SALES_HISTORY_DAYS = 90;
+
+    private SeedData() {
+    }
+
+    public static void seed(InMemoryStore store, int categoryCount, int productCount, int salesCount) {
+        seed(new InMemoryCategoryRepository(store)::save, new InMemoryProductRepository(store),
+                new InMemorySalesRepository(store), categoryCount, productCount, salesCount);
+    }
+
+    public static void seed(Consumer<Category> categories, ProductRepository products, SalesRepository sales,
+                            int categoryCount, int productCount, int salesCount) {
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+
+        for (int i = 1; i <= categoryCount; i++) {
+            categories.accept(Category.builder()
+                    .categoryId(String.format("category-%04d", i))
+                    .categoryName(String.format("Category %04d", i))
+                    .build());
+        }
+
+        List<Product> catalog = new ArrayList<>(productCount);
+        for (int i = 1; i <= productCount; i++) {
+            int category = 1 + (i - 1) % Math.max(categoryCount, 1);
+            double unitCost = 1 + random.nextInt(9_900) / 100.0;
+            double unitSelling = Math.round(unitCost * 130) / 100.0;
+            Product product = Product.builder()
+                    .productId(String.format("product-%06d", i))
+                    .productName(String.format("Product %06d", i))
+                    .categoryId(String.format("category-%04d", category))
+                    .categoryName(String.format("Category %04d", category))
+                    .quantity(STOCK)
+                    .unitCostPrice(unitCost)
+                    .unitSellingPrice(unitSelling)
+                    .totalPrice(unitCost * STOCK)
+                    .totalSellingPrice(unitSelling * STOCK)
+                    .dateAdded(today.minusDays(random.nextInt(SALES_HISTORY_DAYS)))
+                    .dateUpdated(today)
+                    .build();
+            products.save(product);
+            catalog.add(product);
+        }
+        if (catalog.isEmpty()) {
+            return;
+        }
+
+        for (int i = 1; i <= salesCount; i++) {
+            List<SaleLineItem> items = new ArrayList<>();
+            double totalPrice = 0;
+            int quantitySold = 0;
+            for (int line = 1 + random.nextInt(3); line > 0; line--) {
+                Product product = catalog.get(random.nextInt(catalog.size()));
+                int quantity = 1 + random.nextInt(5);
+                SaleLineItem item = SaleLineItem.builder()
+                        .productId(product.getProductId())
+                        .quantitySold(quantity)
+                        .totalPrice(quantity * product.getUnitSellingPrice())
+                        .build();
+                item.snapshot(product);
+                items.add(item);
+                totalPrice += item.getTotalPrice();
+                quantitySold += quantity;
+            }
+            LocalDate dateSold = today.minusDays(random.nextInt(SALES_HISTORY_DAYS));
+            sales.save(Sales.builder()
+                    .salesId(String.format("sale-%07d", i))
+                    .items(items)
+                    .totalPrice(totalPrice)
+                    .quantitySold(quantitySold)
+                    .dateSold(dateSold)
+                    .dateUpdated(dateSold)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.products.local;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The API routes declared in template.yml: every {@code Type: Api} event of a function, mapped to the class
+ * named by the function's {@code Handler}. The template is scanned line by line rather than parsed as YAML,
+ * so the CloudFormation tags ({@code !Ref}, {@code !GetAtt}, ...) need no special handling.
+ */
+final class TemplateRoutes {
+
+    record Route(String method, String path, String handlerClass, String[] segments) {
+        // Path parameters by name when requestPath matches this route, else null
+        Map<String, String> match(String method, String[] requestSegments) {
+            if (!this.method.equals(method) || requestSegments.length != segments.length) {
+                return null;
+            }
+            Map<String, String> pathParameters = null;
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    if (requestSegments[i].isEmpty()) {
+                        return null;
+                    }
+                    if (pathParameters == null) {
+                        pathParameters = new HashMap<>();
+                    }
+                    pathParameters.put(segment.substring(1, segment.length() - 1), requestSegments[i]);
+                } else if (!segment.equals(requestSegments[i])) {
+                    return null;
+                }
+            }
+            return pathParameters != null ? pathParameters : Map.of();
+        }
+
+        long parameterCount() {
+            return Arrays.stream(segments).filter(segment -> segment.startsWith("{")).count();
+        }
+    }
+
+    record Match(Route route, Map<String, String> pathParameters) {
+    }
+
+    private final List<Route> routes;
+
+    private TemplateRoutes(List<Route> routes) {
+        // Literal segments win over parameters, so /sales/dates isn't taken for /sales/{salesId}
+        routes.sort(Comparator.comparingLong(Route::parameterCount));
+        this.routes = List.copyOf(routes);
+    }
+
+    static TemplateRoutes load(Path template) throws IOException {
+        List<Route> routes = new ArrayList<>();
+        String handlerClass = null;
+        boolean inApiEvent = false;
+        String path = null;
+        String method = null;
+
+        for (String line : Files.readAllLines(template)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            int indent = line.length() - line.stripLeading().length();
+            if (indent <= 2) {
+                // A new resource or top-level section
+                handlerClass = null;
+                inApiEvent = false;
+                continue;
+            }
+
+            if (trimmed.startsWith("Handler:")) {
+                handlerClass = value(trimmed).split("::")[0];
+            } else if (trimmed.startsWith("Type:")) {
+                inApiEvent = "Api".equals(value(trimmed));
+                path = null;
+                method = null;
+            } else if (inApiEvent && trimmed.startsWith("Path:")) {
+                path = value(trimmed);
+            } else if (inApiEvent && trimmed.startsWith("Method:")) {
+                method = value(trimmed).toUpperCase(Locale.ROOT);
+            }
+
+            if (inApiEvent && handlerClass != null && path != null && method != null) {
+                routes.add(new Route(method, path, handlerClass, segments(path)));
+                inApiEvent = false;
+            }
+        }
+        return new TemplateRoutes(routes);
+    }
+
+    Match find(String method, String requestPath) {
+        String[] requestSegments = segments(requestPath);
+        for (Route route : routes) {
+            Map<String, String> pathParameters = route.match(method, requestSegments);
+            if (pathParameters != null) {
+                return new Match(route, pathParameters);
+            }
+        }
+        return null;
+    }
+
+    List<Route> routes() {
+        return routes;
+    }
+
+    private static String[] segments(String path) {
+        String trimmed = path.startsWith("/") ? path.substring(1) : path;
+        if (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed.split("/", -1);
+    }
+
+    private static String value(String line) {
+        String value = line.substring(line.indexOf(':') + 1).trim();
+        if (value.length() >= 2 && (value.startsWith("\"") || value.startsWith("'"))) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+}
@@ -5,6 +5,8 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
 import com.products.request.ResetPasswordRequest;
 import com.products.utils.HeadersUtil;
 import software.amazon.awssdk.regions.Region;
@@ -18,12 +20,18 @@ import java.util.Map;
 import static software.amazon.awssdk.services.cognitoidentityprovider.model.ChallengeNameType.NEW_PASSWORD_REQUIRED;
 
 public class CompleteNewPasswordHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private static final StructuredLogger LOG = StructuredLogger.forClass(CompleteNewPasswordHandler.class);
+
     private final ObjectMapper mapper = new ObjectMapper();
     private final String CLIENT_ID = System.getenv("USER_POOL_CLIENT_ID");
     private final String REGION = System.getenv("REGION");
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        return InvocationMetrics.instrument(request, context, this::handle);
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent request, Context context) {
         APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
         response.setHeaders(HeadersUtil.getHeaders());
 
@@ -53,6 +61,7 @@ public class CompleteNewPasswordHandler implements RequestHandler<APIGatewayProx
                         .withBody("{\"message\": \"Failed to complete password change\"}");
             }
         } catch (Exception e) {
+            LOG.error("Failed to complete new password challenge", e);
             return response
                     .withStatusCode(500)
                     .withBody("{\"message\": \"" + e.getMessage() + "\"}");
@@ -5,6 +5,8 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
 import com.products.request.CreateUserRequest;
 import com.products.response.SuccessResponse;
 import com.products.utils.*;
@@ -17,6 +19,8 @@ import java.util.Map;
 
 public class CreateSalesPersonHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
+    private static final StructuredLogger LOG = StructuredLogger.forClass(CreateSalesPersonHandler.class);
+
     private final CognitoIdentityProviderClient cognitoClient;
     private final String userPoolId;
     private final String groupName;
@@ -39,12 +43,16 @@ public class CreateSalesPersonHandler implements RequestHandler<APIGatewayProxyR
             emailHtmlTemplate = EmailTemplateLoader.loadResourceFile(EMAIL_TEMPLATE_PATH);
         } catch (IOException e) {
             emailHtmlTemplate = "<h2>Hello {{name}},</h2><p>New login detected at {{loginTime}}.</p>";
-            System.err.println("Failed to load email template: " + e.getMessage());
+            LOG.warn("Failed to load email template, using the built-in one", e);
         }
     }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent event, Context context) {
+        return InvocationMetrics.instrument(event, context, this::handle);
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent event, Context context) {
         APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
         try {
             if (!CognitoUtil.isAdmin(event))
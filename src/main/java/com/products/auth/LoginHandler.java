@@ -8,6 +8,9 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
+import com.products.metrics.SdkCallMetricsInterceptor;
 import com.products.request.LoginRequest;
 import com.products.response.LoginResponse;
 import com.products.utils.HeadersUtil;
@@ -21,8 +24,11 @@ import static software.amazon.awssdk.services.cognitoidentityprovider.model.Auth
 import static software.amazon.awssdk.services.cognitoidentityprovider.model.ChallengeNameType.NEW_PASSWORD_REQUIRED;
 
 public class LoginHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private static final StructuredLogger LOG = StructuredLogger.forClass(LoginHandler.class);
+
     private final CognitoIdentityProviderClient cognitoClient = CognitoIdentityProviderClient.builder()
             .region(Region.of(System.getenv("REGION")))
+            .overrideConfiguration(c -> c.addExecutionInterceptor(new SdkCallMetricsInterceptor()))
             .build();
     private final String CLIENT_ID = System.getenv("USER_POOL_CLIENT_ID");
     private final ObjectMapper mapper = new ObjectMapper();
@@ -31,6 +37,10 @@ public class LoginHandler implements RequestHandler<APIGatewayProxyRequestEvent,
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent input, Context context) {
+        return InvocationMetrics.instrument(input, context, this::handle);
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent input, Context context) {
 
         try {
             LoginRequest request = mapper.readValue(input.getBody(), LoginRequest.class);
@@ -48,11 +58,8 @@ public class LoginHandler implements RequestHandler<APIGatewayProxyRequestEvent,
                     .authParameters(authParams)
                     .build();
 
-            long start = System.currentTimeMillis();
             var authResponse = cognitoClient.initiateAuth(authRequest);
-            long end = System.currentTimeMillis();
-            context.getLogger().log("Cognito initiateAuth took: " + (end - start) + "ms");
-            context.getLogger().log(authResponse.toString());
+            LOG.debug("Cognito initiateAuth returned", "challengeName", authResponse.challengeNameAsString());
 
             if (authResponse.challengeName() != null &&
                     authResponse.challengeName().equals(NEW_PASSWORD_REQUIRED))
@@ -3,6 +3,8 @@ package com.products.auth;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.CloudFormationCustomResourceEvent;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
 import com.products.response.CloudFormationResponseSender;
 import com.products.utils.EmailTemplateLoader;
 import com.products.utils.PasswordUtil;
@@ -18,6 +20,8 @@ import java.util.Map;
 
 public class SetAdminPasswordHandler implements RequestHandler<CloudFormationCustomResourceEvent, Map<String, Object>> {
 
+    private static final StructuredLogger LOG = StructuredLogger.forClass(SetAdminPasswordHandler.class);
+
     private final CognitoIdentityProviderClient cognitoClient;
     private final String adminEmail;
     private final String adminFirstName;
@@ -37,12 +41,16 @@ public class SetAdminPasswordHandler implements RequestHandler<CloudFormationCus
             emailHtmlTemplate = EmailTemplateLoader.loadResourceFile(EMAIL_TEMPLATE_PATH);
         } catch (IOException e) {
             emailHtmlTemplate = "<h2>Hello {{name}},</h2><p>New login detected at {{loginTime}}.</p>";
-            System.err.println("Failed to load email template: " + e.getMessage());
+            LOG.warn("Failed to load email template, using the built-in one", e);
         }
     }
 
     @Override
     public Map<String, Object> handleRequest(CloudFormationCustomResourceEvent event, Context context) {
+        return InvocationMetrics.instrument(event, context, this::handle);
+    }
+
+    private Map<String, Object> handle(CloudFormationCustomResourceEvent event, Context context) {
         String requestType = event.getRequestType();
         Map<String, Object> responseData = new HashMap<>();
         String responseStatus = "SUCCESS";
@@ -73,7 +81,7 @@ public class SetAdminPasswordHandler implements RequestHandler<CloudFormationCus
         } catch (Exception e) {
             responseStatus = "FAILED";
             reason = e.getMessage();
-            context.getLogger().log("Error: " + e.getMessage());
+            LOG.error("Failed to set up the admin user", e);
         }
 
         try {
@@ -88,7 +96,7 @@ public class SetAdminPasswordHandler implements RequestHandler<CloudFormationCus
                     responseData
             );
         } catch (Exception ex) {
-            context.getLogger().log("Failed to send CloudFormation response: " + ex.getMessage());
+            LOG.error("Failed to send CloudFormation response", ex);
         }
 
         return responseData;
@@ -0,0 +1,183 @@
+package com.products.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.products.metrics.SdkCallMetricsInterceptor;
+import org.crac.Core;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.SdkSystemSetting;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.lambda.LambdaClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.ses.SesClient;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Process-wide clients shared by all handlers. Every client is created lazily on first use and then reused
+ * across warm invocations; all AWS clients share one pooled HTTP client with keep-alive.
+ * Setting AWS_ENDPOINT_URL points every client at a local stand-in (e.g. LocalStack or DynamoDB Local and MinIO),
+ * with path-style S3 addressing. Calls made through the clients are recorded by {@link SdkCallMetricsInterceptor}.
+ */
+public final class ClientRegistry {
+    private static final SnapStartPriming PRIMING = new SnapStartPriming();
+
+    static {
+        // Runs the priming hook before a SnapStart snapshot is taken; a no-op on a regular JVM
+        Core.getGlobalContext().register(PRIMING);
+    }
+
+    private ClientRegistry() {
+    }
+
+    public static ObjectMapper objectMapper() {
+        return ObjectMapperHolder.INSTANCE;
+    }
+
+    public static SdkHttpClient httpClient() {
+        return HttpClientHolder.INSTANCE;
+    }
+
+    public static DynamoDbClient dynamoDbClient() {
+        return DynamoDbHolder.CLIENT;
+    }
+
+    public static DynamoDbEnhancedClient enhancedClient() {
+        return DynamoDbHolder.ENHANCED_CLIENT;
+    }
+
+    public static S3Client s3Client() {
+        return S3Holder.INSTANCE;
+    }
+
+    public static S3Presigner s3Presigner() {
+        return S3PresignerHolder.INSTANCE;
+    }
+
+    public static SesClient sesClient() {
+        return SesHolder.INSTANCE;
+    }
+
+    public static LambdaClient lambdaClient() {
+        return LambdaHolder.INSTANCE;
+    }
+
+    public static SecretsManagerClient secretsManagerClient() {
+        return SecretsManagerHolder.INSTANCE;
+    }
+
+    private static Region region() {
+        String region = SdkSystemSetting.AWS_REGION.getStringValue().orElse(System.getenv("REGION"));
+        return region != null ? Region.of(region) : null;
+    }
+
+    private static URI endpointOverride() {
+        String endpoint = System.getenv("AWS_ENDPOINT_URL");
+        return endpoint == null || endpoint.isBlank() ? null : URI.create(endpoint.trim());
+    }
+
+    private static ClientOverrideConfiguration overrideConfiguration() {
+        return ClientOverrideConfiguration.builder()
+                .addExecutionInterceptor(new SdkCallMetricsInterceptor())
+                .build();
+    }
+
+    // SnapStart functions are handed credentials through the container endpoint after restore rather than
+    // environment variables, so every client resolves through the full default chain (one shared, cached instance)
+    private static AwsCredentialsProvider credentialsProvider() {
+        return DefaultCredentialsProvider.create();
+    }
+
+    private static final class ObjectMapperHolder {
+        private static final ObjectMapper INSTANCE = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static final class HttpClientHolder {
+        private static final SdkHttpClient INSTANCE = ApacheHttpClient.builder()
+                .maxConnections(50)
+                .connectionTimeout(Duration.ofSeconds(2))
+                .socketTimeout(Duration.ofSeconds(10))
+                .connectionMaxIdleTime(Duration.ofSeconds(50))
+                .tcpKeepAlive(true)
+                .build();
+    }
+
+    private static final class DynamoDbHolder {
+        private static final DynamoDbClient CLIENT = DynamoDbClient.builder()
+                .region(region())
+                .credentialsProvider(credentialsProvider())
+                .httpClient(httpClient())
+                .overrideConfiguration(overrideConfiguration())
+                .endpointOverride(endpointOverride())
+                .build();
+
+        private static final DynamoDbEnhancedClient ENHANCED_CLIENT = DynamoDbEnhancedClient.builder()
+                .dynamoDbClient(CLIENT)
+                .build();
+    }
+
+    private static final class S3Holder {
+        private static final S3Client INSTANCE = S3Client.builder()
+                .region(region())
+                .credentialsProvider(credentialsProvider())
+                .httpClient(httpClient())
+                .overrideConfiguration(overrideConfiguration())
+                .endpointOverride(endpointOverride())
+                .forcePathStyle(endpointOverride() != null)
+                .build();
+    }
+
+    private static final class S3PresignerHolder {
+        private static final S3Presigner INSTANCE = S3Presigner.builder()
+                .region(region())
+                .credentialsProvider(credentialsProvider())
+                .endpointOverride(endpointOverride())
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(endpointOverride() != null)
+                        .build())
+                .build();
+    }
+
+    private static final class LambdaHolder {
+        private static final LambdaClient INSTANCE = LambdaClient.builder()
+                .region(region())
+                .credentialsProvider(credentialsProvider())
+                .httpClient(httpClient())
+                .overrideConfiguration(overrideConfiguration())
+                .endpointOverride(endpointOverride())
+                .build();
+    }
+
+    private static final class SecretsManagerHolder {
+        private static final SecretsManagerClient INSTANCE = SecretsManagerClient.builder()
+                .region(region())
+                .credentialsProvider(credentialsProvider())
+                .httpClient(httpClient())
+                .overrideConfiguration(overrideConfiguration())
+                .endpointOverride(endpointOverride())
+                .build();
+    }
+
+    private static final class SesHolder {
+        private static final SesClient INSTANCE = SesClient.builder()
+                .region(region())
+                .credentialsProvider(credentialsProvider())
+                .httpClient(httpClient())
+                .overrideConfiguration(overrideConfiguration())
+                .endpointOverride(endpointOverride())
+                .build();
+    }
+}
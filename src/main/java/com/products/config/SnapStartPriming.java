@@ -0,0 +1,85 @@
+package com.products.config;
+
+import com.products.model.Category;
+import com.products.model.Product;
+import com.products.model.Sales;
+import com.products.model.TableSchemas;
+import com.products.request.CreateSalesRequest;
+import com.products.request.ProductRequest;
+import com.products.request.SaleLineItem;
+import com.products.response.CustomSalesResponse;
+import com.products.response.FilterSalesResponse;
+import com.products.response.GetSalesResponse;
+import com.products.response.ProductDto;
+import org.crac.Context;
+import org.crac.Resource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Warms the JSON and DynamoDB mapping paths before the SnapStart snapshot is taken, so the classes,
+ * Jackson serializers and table schemas they load are already initialised when a function restores.
+ * Only local work is done here: no request reaches DynamoDB.
+ */
+class SnapStartPriming implements Resource {
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) throws Exception {
+        var mapper = ClientRegistry.objectMapper();
+
+        Product product = Product.builder()
+                .productId("priming-product")
+                .productName("Priming product")
+                .unitCostPrice(1.0)
+                .unitSellingPrice(2.0)
+                .quantity(1)
+                .categoryId("priming-category")
+                .categoryName("Priming category")
+                .dateAdded(LocalDate.now())
+                .dateUpdated(LocalDate.now())
+                .totalPrice(1.0)
+                .totalSellingPrice(2.0)
+                .build();
+        SaleLineItem item = SaleLineItem.builder()
+                .productId(product.getProductId())
+                .quantitySold(1)
+                .totalPrice(2.0)
+                .build();
+        Sales sales = Sales.builder()
+                .salesId("priming-sale")
+                .items(List.of(item))
+                .quantitySold(1)
+                .totalPrice(2.0)
+                .dateSold(LocalDate.now())
+                .dateUpdated(LocalDate.now())
+                .build();
+        Category category = Category.builder()
+                .categoryId(product.getCategoryId())
+                .categoryName(product.getCategoryName())
+                .build();
+
+        mapper.readValue(mapper.writeValueAsString(product), Product.class);
+        mapper.readValue(mapper.writeValueAsString(new CreateSalesRequest(List.of(item))), CreateSalesRequest.class);
+        mapper.readValue(mapper.writeValueAsString(new ProductRequest(List.of())), ProductRequest.class);
+        mapper.writeValueAsString(GetSalesResponse.builder().sales(List.of(sales)).build());
+        mapper.writeValueAsString(FilterSalesResponse.builder()
+                .sales(List.of(CustomSalesResponse.builder()
+                        .salesId(sales.getSalesId())
+                        .dateSold(sales.getDateSold())
+                        .products(List.of(ProductDto.builder().productName(product.getProductName()).build()))
+                        .build()))
+                .build());
+
+        TableSchemas.PRODUCT.mapToItem(TableSchemas.PRODUCT.itemToMap(product, true));
+        TableSchemas.SALES.mapToItem(TableSchemas.SALES.itemToMap(sales, true));
+        TableSchemas.CATEGORY.mapToItem(TableSchemas.CATEGORY.itemToMap(category, true));
+
+        // Build the clients (and their HTTP connection pool) into the snapshot
+        ClientRegistry.enhancedClient();
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+    }
+}
@@ -5,12 +5,13 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
 import com.products.utils.CognitoUtil;
 import com.products.utils.HeadersUtil;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
-import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.core.SdkSystemSetting;
 import com.products.model.Category;
 import com.products.request.CategoryRequest;
 import com.products.response.CategoryResponse;
@@ -19,22 +20,20 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
-@Slf4j
 public class CreateCategoryHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private static final StructuredLogger LOG = StructuredLogger.forClass(CreateCategoryHandler.class);
+
     private final DynamoDbClient dynamoDbClient;
     private final ObjectMapper objectMapper;
     private final String tableName;
 
     public CreateCategoryHandler() {
-        this.dynamoDbClient = DynamoDbClient.builder()
-                .region(Region.of(System.getenv(SdkSystemSetting.AWS_REGION.environmentVariable())))
-                .build();
-        this.objectMapper = new ObjectMapper();
+        this.dynamoDbClient = ClientRegistry.dynamoDbClient();
+        this.objectMapper = ClientRegistry.objectMapper();
         this.tableName = System.getenv("CATEGORY_TABLE");
     }
 
@@ -47,6 +46,10 @@ public class CreateCategoryHandler implements RequestHandler<APIGatewayProxyRequ
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent input, Context context) {
+        return InvocationMetrics.instrument(input, context, this::handle);
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent input, Context context) {
         try {
             if(!CognitoUtil.isAdmin(input)){
                 return new APIGatewayProxyResponseEvent()
@@ -56,24 +59,24 @@ public class CreateCategoryHandler implements RequestHandler<APIGatewayProxyRequ
             // Parse request body
             CategoryRequest request = objectMapper.readValue(input.getBody(), CategoryRequest.class);
             if (request.getCategoryNames() == null || request.getCategoryNames().isEmpty()) {
-                return createResponse(400, new CategoryResponse(0, Collections.emptyList(), "No category names provided"), context);
+                return createResponse(400, new CategoryResponse(0, Collections.emptyList(), "No category names provided"));
             }
 
             // Check for existing categories
             List<String> uniqueCategories = checkDuplicateCategories(request.getCategoryNames());
 
             // Create new categories
-            int addedCount = createCategories(uniqueCategories, context);
+            int addedCount = createCategories(uniqueCategories);
             List<String> skippedCategories = request.getCategoryNames().stream()
                     .filter(name -> !uniqueCategories.contains(name))
                     .collect(Collectors.toList());
 
             CategoryResponse response = new CategoryResponse(addedCount, skippedCategories);
-            return createResponse(200, response, context);
+            return createResponse(200, response);
 
         } catch (Exception e) {
-            context.getLogger().log("Error: " + e.getMessage());
-            return createResponse(500, new CategoryResponse(0, Collections.emptyList(), "Internal server error: " + e.getMessage()), context);
+            LOG.error("Failed to create categories", e);
+            return createResponse(500, new CategoryResponse(0, Collections.emptyList(), "Internal server error: " + e.getMessage()));
         }
     }
 
@@ -95,7 +98,7 @@ public class CreateCategoryHandler implements RequestHandler<APIGatewayProxyRequ
                     uniqueCategories.add(name);
                 }
             } catch (DynamoDbException e) {
-                log.error("Error checking duplicate category {}: {}", name, e.getMessage());
+                LOG.error("Failed to check for duplicate category", e, "categoryName", name);
                 throw e;
             }
         }
@@ -103,7 +106,7 @@ public class CreateCategoryHandler implements RequestHandler<APIGatewayProxyRequ
         return uniqueCategories;
     }
 
-    private int createCategories(List<String> categoryNames, Context context) {
+    private int createCategories(List<String> categoryNames) {
         int addedCount = 0;
 
         for (String name : categoryNames) {
@@ -115,15 +118,15 @@ public class CreateCategoryHandler implements RequestHandler<APIGatewayProxyRequ
 
                 PutItemRequest putItemRequest = PutItemRequest.builder()
                         .tableName(tableName)
-                        .item(toDynamoDbItem(category, context))
+                        .item(toDynamoDbItem(category))
                         .build();
 
                 dynamoDbClient.putItem(putItemRequest);
                 addedCount++;
-                context.getLogger().log("Successfully created category: " + name);
+                LOG.debugSampled("Created category", "categoryName", name);
 
             } catch (DynamoDbException e) {
-                context.getLogger().log("Error creating category: " + name + " " + e.getMessage());
+                LOG.error("Failed to create category", e, "categoryName", name);
                 throw e;
             }
         }
@@ -131,26 +134,25 @@ public class CreateCategoryHandler implements RequestHandler<APIGatewayProxyRequ
         return addedCount;
     }
 
-    private Map<String, AttributeValue> toDynamoDbItem(Category category, Context context) {
+    private Map<String, AttributeValue> toDynamoDbItem(Category category) {
        try {
            Map<String, AttributeValue> item = new HashMap<>();
            item.put("categoryId", AttributeValue.builder().s(category.getCategoryId()).build());
            item.put("categoryName", AttributeValue.builder().s(category.getCategoryName()).build());
-           context.getLogger().log("Success converting to item");
            return item;
        } catch (Exception e) {
            throw new RuntimeException(e);
        }
     }
 
-    private APIGatewayProxyResponseEvent createResponse(int statusCode, CategoryResponse response, Context context) {
+    private APIGatewayProxyResponseEvent createResponse(int statusCode, CategoryResponse response) {
         try {
             return new APIGatewayProxyResponseEvent()
                     .withStatusCode(statusCode)
                     .withHeaders(HeadersUtil.getHeaders())
                     .withBody(objectMapper.writeValueAsString(response));
         } catch (Exception e) {
-            context.getLogger().log("Error creating response: " + e.getMessage());
+            LOG.error("Failed to serialize response", e);
             return new APIGatewayProxyResponseEvent()
                     .withStatusCode(500)
                     .withBody("{\"error\": \"Error creating response\"}");
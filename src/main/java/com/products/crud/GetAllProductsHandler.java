@@ -6,42 +6,65 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
 import com.products.model.Product;
+import com.products.repository.CatalogVersionRepository;
+import com.products.repository.DynamoDbProductRepository;
+import com.products.repository.PaginatedResult;
+import com.products.repository.ProductRepository;
+import com.products.response.JsonResponseWriter;
+import com.products.response.ProductPageResponse;
+import com.products.response.ResponseType;
 import com.products.utils.CognitoUtil;
 import com.products.utils.HeadersUtil;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 
-import java.util.HashMap;
-import java.util.List;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+/**
+ * Lists products a page at a time.
+ * Query parameters:
+ * limit (1-100, default 20), lastEvaluatedKey (cursor from the previous page),
+ * sortBy (dateAdded or dateUpdated) with from/to (yyyy-MM-dd, to defaults to from) and order (asc or desc),
+ * segment/totalSegments to split a full export into parallel scans.
+ */
 public class GetAllProductsHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private static final StructuredLogger LOG = StructuredLogger.forClass(GetAllProductsHandler.class);
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_DATE_RANGE_DAYS = 366;
+    // DynamoDB allows up to 1,000,000 segments, far beyond what an export client would open
+    private static final int MAX_TOTAL_SEGMENTS = 64;
 
-    private final DynamoDbEnhancedClient enhancedClient;
-    private final DynamoDbTable<Product> productTable;
+    private final ProductRepository productRepository;
     private final ObjectMapper objectMapper;
+    private final JsonResponseWriter responseWriter;
+    private final CatalogVersionRepository catalogVersions;
 
     public GetAllProductsHandler() {
-        // Initialize DynamoDB Enhanced Client
-        DynamoDbClient dynamoDbClient = DynamoDbClient.builder().build();
-        enhancedClient = DynamoDbEnhancedClient.builder()
-                .dynamoDbClient(dynamoDbClient)
-                .build();
-        // Map to ProductTable using the Product model
-        productTable = enhancedClient.table(System.getenv("PRODUCT_TABLE"), TableSchema.fromBean(Product.class));
-        // Initialize Jackson ObjectMapper for JSON serialization
-        objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
+        this(new DynamoDbProductRepository(ClientRegistry.enhancedClient(), System.getenv("PRODUCT_TABLE")),
+                CatalogVersionRepository.shared());
+    }
+
+    public GetAllProductsHandler(ProductRepository productRepository, CatalogVersionRepository catalogVersions) {
+        this.productRepository = productRepository;
+        this.objectMapper = ClientRegistry.objectMapper();
+        this.responseWriter = new JsonResponseWriter(objectMapper);
+        this.catalogVersions = catalogVersions;
     }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent input, Context context) {
+        return InvocationMetrics.instrument(input, context, this::handle);
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent input, Context context) {
         APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
         response.setHeaders(HeadersUtil.getHeaders());
 
@@ -51,30 +74,137 @@ public class GetAllProductsHandler implements RequestHandler<APIGatewayProxyRequ
                 response.setBody("You're not authorized to perform this operation");
                 return response;
             }
-            // Scan the ProductTable to retrieve all items
-            List<Product> products = productTable.scan()
-                    .items()
-                    .stream()
-                    .collect(Collectors.toList());
-
-            // Serialize the product list to JSON
-            String responseBody = objectMapper.writeValueAsString(products);
-
-            // Set successful response (HTTP 200)
-            response.setStatusCode(200);
-            response.setBody(responseBody);
-        } catch (JsonProcessingException e) {
+
+            // The version is read before the page, so a write in between can only make the tag older than the data
+            CatalogVersionRepository.Versions versions = catalogVersions.current();
+            String etag = versions != null ? HeadersUtil.etag(input, "products", versions.products()) : null;
+            if (HeadersUtil.isNotModified(input, etag)) {
+                return ResponseType.notModified(etag);
+            }
+
+            Map<String, String> queryParams = input.getQueryStringParameters();
+            PaginatedResult<Product> page = findPage(queryParams);
+
+            return responseWriter.write(input, 200, etag,
+                    ProductPageResponse.builder()
+                            .success(true)
+                            .message("Products retrieved successfully")
+                            .products(page.getItems())
+                            .lastEvaluatedKey(page.getLastEvaluatedKey())
+                            .hasMore(page.getLastEvaluatedKey() != null)
+                            .totalReturned(page.getItems().size())
+                            .build());
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setBody(errorBody(e.getMessage()));
+        } catch (IOException e) {
             // Handle JSON serialization error
-            context.getLogger().log("Error serializing products: " + e.getMessage());
+            LOG.error("Failed to serialize products", e);
             response.setStatusCode(500);
             response.setBody("{\"error\": \"Failed to serialize response\"}");
         } catch (DynamoDbException e) {
             // Handle DynamoDB errors
-            context.getLogger().log("Error retrieving products: " + e.getMessage());
+            LOG.error("Failed to retrieve products", e);
             response.setStatusCode(500);
             response.setBody("{\"error\": \"Failed to retrieve products\"}");
         }
 
         return response;
     }
+
+    private PaginatedResult<Product> findPage(Map<String, String> queryParams) {
+        int limit = getIntParam(queryParams, "limit", DEFAULT_LIMIT);
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        String lastEvaluatedKey = getParam(queryParams, "lastEvaluatedKey");
+        String sortBy = getParam(queryParams, "sortBy");
+
+        if (sortBy == null) {
+            String totalSegmentsParam = getParam(queryParams, "totalSegments");
+            if (totalSegmentsParam == null) {
+                return productRepository.findAllPaginated(limit, lastEvaluatedKey, null, null);
+            }
+            int totalSegments = getIntParam(queryParams, "totalSegments", 0);
+            int segment = getIntParam(queryParams, "segment", -1);
+            if (totalSegments < 1 || totalSegments > MAX_TOTAL_SEGMENTS) {
+                throw new IllegalArgumentException("totalSegments must be between 1 and " + MAX_TOTAL_SEGMENTS);
+            }
+            if (segment < 0 || segment >= totalSegments) {
+                throw new IllegalArgumentException("segment must be between 0 and totalSegments - 1");
+            }
+            return productRepository.findAllPaginated(limit, lastEvaluatedKey, segment, totalSegments);
+        }
+
+        ProductRepository.DateIndex dateIndex = switch (sortBy) {
+            case "dateAdded" -> ProductRepository.DateIndex.DATE_ADDED;
+            case "dateUpdated" -> ProductRepository.DateIndex.DATE_UPDATED;
+            default -> throw new IllegalArgumentException("sortBy must be dateAdded or dateUpdated");
+        };
+        if (getParam(queryParams, "totalSegments") != null) {
+            throw new IllegalArgumentException("Segmented scans can't be combined with sortBy");
+        }
+
+        LocalDate from = getDateParam(queryParams, "from");
+        if (from == null) {
+            throw new IllegalArgumentException("from is required when sorting by " + sortBy);
+        }
+        LocalDate to = getDateParam(queryParams, "to");
+        if (to == null) {
+            to = from;
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DATE_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range must not exceed " + MAX_DATE_RANGE_DAYS + " days");
+        }
+
+        String order = getParam(queryParams, "order");
+        if (order != null && !order.equals("asc") && !order.equals("desc")) {
+            throw new IllegalArgumentException("order must be asc or desc");
+        }
+
+        return productRepository.findPageByDate(dateIndex, from, to, "desc".equals(order), limit, lastEvaluatedKey);
+    }
+
+    private String errorBody(String message) {
+        try {
+            return objectMapper.writeValueAsString(Map.of("error", message));
+        } catch (JsonProcessingException e) {
+            return "{\"error\": \"Invalid request\"}";
+        }
+    }
+
+    private static String getParam(Map<String, String> queryParams, String name) {
+        if (queryParams == null) {
+            return null;
+        }
+        String value = queryParams.get(name);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static int getIntParam(Map<String, String> queryParams, String name, int defaultValue) {
+        String value = getParam(queryParams, name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    private static LocalDate getDateParam(Map<String, String> queryParams, String name) {
+        String value = getParam(queryParams, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be a date in yyyy-MM-dd format");
+        }
+    }
 }
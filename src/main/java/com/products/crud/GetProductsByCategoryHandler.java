@@ -4,41 +4,64 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
+import com.products.model.Category;
 import com.products.model.Product;
+import com.products.repository.CatalogVersionRepository;
+import com.products.repository.CategoryRepository;
+import com.products.repository.DynamoDbCategoryRepository;
+import com.products.repository.DynamoDbProductRepository;
+import com.products.repository.PaginatedResult;
+import com.products.repository.ProductRepository;
+import com.products.response.JsonResponseWriter;
+import com.products.response.ProductPageResponse;
+import com.products.response.ResponseType;
 import com.products.utils.CognitoUtil;
 import com.products.utils.HeadersUtil;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.Expression;
-import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
-import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 
-import java.util.HashMap;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Lists one category's products from CategoryIndex, a page at a time.
+ * The category is given by categoryId, or by categoryName which is resolved through CategoryNameIndex first.
+ */
 public class GetProductsByCategoryHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>{
-    private final DynamoDbEnhancedClient enhancedClient;
-    private final DynamoDbTable<Product> productTable;
+    private static final StructuredLogger LOG = StructuredLogger.forClass(GetProductsByCategoryHandler.class);
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
     private final ObjectMapper objectMapper;
+    private final JsonResponseWriter responseWriter;
+    private final CatalogVersionRepository catalogVersions;
 
     public GetProductsByCategoryHandler() {
-        DynamoDbClient ddb = DynamoDbClient.builder().build();
-        this.enhancedClient = DynamoDbEnhancedClient.builder()
-                .dynamoDbClient(ddb)
-                .build();
-        this.productTable = enhancedClient.table(System.getenv("PRODUCT_TABLE"), TableSchema.fromBean(Product.class));
-        this.objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
+        this(new DynamoDbProductRepository(ClientRegistry.enhancedClient(), System.getenv("PRODUCT_TABLE")),
+                new DynamoDbCategoryRepository(ClientRegistry.enhancedClient(), System.getenv("CATEGORY_TABLE")),
+                CatalogVersionRepository.shared());
+    }
+
+    public GetProductsByCategoryHandler(ProductRepository productRepository, CategoryRepository categoryRepository,
+                                        CatalogVersionRepository catalogVersions) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.objectMapper = ClientRegistry.objectMapper();
+        this.responseWriter = new JsonResponseWriter(objectMapper);
+        this.catalogVersions = catalogVersions;
     }
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        return InvocationMetrics.instrument(request, context, this::handle);
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent request, Context context) {
         APIGatewayProxyResponseEvent responseEvent = new APIGatewayProxyResponseEvent();
         responseEvent.setHeaders(HeadersUtil.getHeaders());
 
@@ -49,68 +72,92 @@ public class GetProductsByCategoryHandler implements RequestHandler<APIGatewayPr
                 return responseEvent;
             }
             Map<String, String> queryParams = request.getQueryStringParameters();
-            String categoryId = null;
-            String categoryName = null;
-            if(queryParams != null){
-                categoryId = queryParams.get("categoryId");
-                categoryName = queryParams.get("categoryName");
-            }
-            if(categoryId == null || categoryId.isEmpty() && categoryName == null || categoryName.isEmpty()){
+            String categoryId = getParam(queryParams, "categoryId");
+            String categoryName = getParam(queryParams, "categoryName");
+            if(categoryId == null && categoryName == null){
                 responseEvent.setStatusCode(400);
                 responseEvent.setBody("No category name or id provided");
                 return responseEvent;
             }
 
-            Expression filterExpression = buildFilterExpression(categoryId, categoryName);
-            ScanEnhancedRequest scanRequest = ScanEnhancedRequest.builder()
-                    .filterExpression(filterExpression)
-                    .build();
-            List<Product> products = productTable.scan(scanRequest)
-                    .items()
-                    .stream()
-                    .toList();
-            String  responseBody = objectMapper.writeValueAsString(products);
-            responseEvent.setStatusCode(200);
-            responseEvent.setBody(responseBody);
+            CatalogVersionRepository.Versions versions = catalogVersions.current();
+            String etag = versions != null ? HeadersUtil.etag(request, "products", versions.products()) : null;
+            if (HeadersUtil.isNotModified(request, etag)) {
+                return ResponseType.notModified(etag);
+            }
+
+            int limit = getLimit(queryParams);
+            if (limit <= 0 || limit > MAX_LIMIT) {
+                responseEvent.setStatusCode(400);
+                responseEvent.setBody("Limit must be between 1 and " + MAX_LIMIT);
+                return responseEvent;
+            }
 
-        } catch (JsonProcessingException e) {
-            context.getLogger().log("Error serializing products: " + e.getMessage());
+            PaginatedResult<Product> page;
+            if (categoryName != null) {
+                Category category = categoryRepository.findByCategoryName(categoryName);
+                if (category == null) {
+                    responseEvent.setStatusCode(404);
+                    responseEvent.setBody("Category not found: " + categoryName);
+                    return responseEvent;
+                }
+                if (categoryId != null && !categoryId.equals(category.getCategoryId())) {
+                    // The id and the name point at different categories, so nothing matches both
+                    page = new PaginatedResult<>(List.of(), null);
+                } else {
+                    categoryId = category.getCategoryId();
+                    page = productRepository.findByCategoryIdPaginated(categoryId, limit, getParam(queryParams, "lastEvaluatedKey"));
+                }
+            } else {
+                page = productRepository.findByCategoryIdPaginated(categoryId, limit, getParam(queryParams, "lastEvaluatedKey"));
+            }
+
+            return responseWriter.write(request, 200, etag,
+                    ProductPageResponse.builder()
+                            .success(true)
+                            .message("Products retrieved successfully")
+                            .products(page.getItems())
+                            .lastEvaluatedKey(page.getLastEvaluatedKey())
+                            .hasMore(page.getLastEvaluatedKey() != null)
+                            .totalReturned(page.getItems().size())
+                            .build());
+
+        } catch (IllegalArgumentException e) {
+            responseEvent.setStatusCode(400);
+            responseEvent.setBody(e.getMessage());
+        } catch (IOException e) {
+            LOG.error("Failed to serialize products", e);
             responseEvent.setStatusCode(500);
             responseEvent.setBody("Failed to serialize response: " + e.getMessage());
         } catch (DynamoDbException e){
-            context.getLogger().log("Error retrieving products: " + e.getMessage());
+            LOG.error("Failed to retrieve products", e);
             responseEvent.setStatusCode(500);
             responseEvent.setBody("Failed to retrieve products: " + e.getMessage());
         } catch (Exception e){
-            context.getLogger().log("Unexpected error: " + e.getMessage());
+            LOG.error("Unexpected error retrieving products", e);
             responseEvent.setStatusCode(500);
             responseEvent.setBody("Unexpected error: " + e.getMessage());
         }
         return responseEvent;
     }
 
-
-
-    private Expression buildFilterExpression(String categoryId, String categoryName) {
-        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
-        StringBuilder filterExpression = new StringBuilder();
-
-        if (categoryId != null && !categoryId.isEmpty()) {
-            filterExpression.append("categoryId = :categoryId");
-            expressionAttributeValues.put(":categoryId", AttributeValue.builder().s(categoryId).build());
+    private static String getParam(Map<String, String> queryParams, String name) {
+        if (queryParams == null) {
+            return null;
         }
+        String value = queryParams.get(name);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
 
-        if (categoryName != null && !categoryName.isEmpty()) {
-            if (!filterExpression.isEmpty()) {
-                filterExpression.append(" AND ");
-            }
-            filterExpression.append("categoryName = :categoryName");
-            expressionAttributeValues.put(":categoryName", AttributeValue.builder().s(categoryName).build());
+    private static int getLimit(Map<String, String> queryParams) {
+        String value = getParam(queryParams, "limit");
+        if (value == null) {
+            return DEFAULT_LIMIT;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("limit must be a number");
         }
-
-        return Expression.builder()
-                .expression(filterExpression.toString())
-                .expressionValues(expressionAttributeValues)
-                .build();
     }
 }
@@ -6,40 +6,39 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
 import com.products.model.Product;
+import com.products.repository.DynamoDbProductRepository;
+import com.products.repository.ProductRepository;
 import com.products.utils.CognitoUtil;
 import com.products.utils.HeadersUtil;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 
 
 public class UpdateProductHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
-    private final DynamoDbEnhancedClient enhancedClient;
-    private final DynamoDbTable<Product> productTable;
+    private static final StructuredLogger LOG = StructuredLogger.forClass(UpdateProductHandler.class);
+
+    private final ProductRepository productRepository;
     private final ObjectMapper objectMapper;
 
     public UpdateProductHandler() {
-        // Initialize DynamoDB Enhanced Client
-        DynamoDbClient dynamoDbClient = DynamoDbClient.builder().build();
-        enhancedClient = DynamoDbEnhancedClient.builder()
-                .dynamoDbClient(dynamoDbClient)
-                .build();
-        // Map to ProductTable using the Product model
-        productTable = enhancedClient.table(System.getenv("PRODUCT_TABLE"), TableSchema.fromBean(Product.class));
-        // Initialize Jackson ObjectMapper with JavaTimeModule
-        objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        // Disable writing dates as timestamps (optional - formats as ISO-8601 strings)
-        objectMapper.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this(new DynamoDbProductRepository(ClientRegistry.enhancedClient(), System.getenv("PRODUCT_TABLE")));
+    }
+
+    public UpdateProductHandler(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+        this.objectMapper = ClientRegistry.objectMapper();
     }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent input, Context context) {
+        return InvocationMetrics.instrument(input, context, this::handle);
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent input, Context context) {
         APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
         response.setHeaders(HeadersUtil.getHeaders());
 
@@ -62,16 +61,16 @@ public class UpdateProductHandler implements RequestHandler<APIGatewayProxyReque
             Product updateRequest;
             try {
                 updateRequest = objectMapper.readValue(input.getBody(), Product.class);
-                context.getLogger().log("Parsed request body: " + updateRequest.toString());
+                LOG.debug("Received request", "body", StructuredLogger.body(input.getBody()));
             } catch (JsonProcessingException e) {
-                context.getLogger().log("Error parsing request body: " + e.getMessage());
+                LOG.warn("Invalid request body", e);
                 response.setStatusCode(400);
                 response.setBody("{\"error\": \"Invalid request body\"}");
                 return response;
             }
 
             // Fetch existing product to ensure it exists
-            Product existingProduct = productTable.getItem(r -> r.key(k -> k.partitionValue(productId)));
+            Product existingProduct = productRepository.findByProductIdUncached(productId);
             if (existingProduct == null) {
                 response.setStatusCode(404);
                 response.setBody("{\"error\": \"Product not found\"}");
@@ -95,11 +94,10 @@ public class UpdateProductHandler implements RequestHandler<APIGatewayProxyReque
                     .totalSellingPrice(updateRequest.getUnitSellingPrice() != 0.0 && updateRequest.getQuantity() != 0 ?
                             updateRequest.getUnitSellingPrice() * updateRequest.getQuantity() : existingProduct.getTotalSellingPrice())
                     .build();
-            context.getLogger().log("UpdatedProduct: " + updatedProduct.toString());
 
             // Update the product in DynamoDB
-            productTable.updateItem(updatedProduct);
-            context.getLogger().log("Product updated successfully: " + updatedProduct.getProductName());
+            productRepository.save(updatedProduct);
+            LOG.info("Product updated", "productId", productId);
 
             // Serialize updated product to JSON
             String responseBody = objectMapper.writeValueAsString(updatedProduct);
@@ -108,11 +106,11 @@ public class UpdateProductHandler implements RequestHandler<APIGatewayProxyReque
             response.setStatusCode(200);
             response.setBody(responseBody);
         } catch (JsonProcessingException e) {
-            context.getLogger().log("Error serializing response: " + e.getMessage());
+            LOG.error("Failed to serialize response", e);
             response.setStatusCode(500);
             response.setBody("{\"error\": \"Failed to serialize response\"}");
         } catch (DynamoDbException e) {
-            context.getLogger().log("Error updating product: " + e.getMessage());
+            LOG.error("Failed to update product", e);
             response.setStatusCode(500);
             response.setBody("{\"error\": \"Failed to update product\"}");
         }
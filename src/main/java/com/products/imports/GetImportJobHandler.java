@@ -0,0 +1,98 @@
+package com.products.imports;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
+import com.products.model.ImportJob;
+import com.products.repository.ImportJobRepository;
+import com.products.response.ImportJobResponse;
+import com.products.response.ResponseType;
+import com.products.utils.CognitoUtil;
+import com.products.utils.HeadersUtil;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Progress of an import job, with a download link for the skipped/failed rows report once the job is done.
+// A RUNNING job whose heartbeat is older than STALE_AFTER has no worker left on it and is failed here.
+public class GetImportJobHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private static final StructuredLogger LOG = StructuredLogger.forClass(GetImportJobHandler.class);
+    private static final Duration REPORT_URL_VALIDITY = Duration.ofHours(1);
+    // Well past a worker's 15 minute timeout plus Lambda's retry delays
+    private static final Duration STALE_AFTER = Duration.ofMinutes(30);
+
+    private final ImportJobRepository importJobRepository = new ImportJobRepository(ClientRegistry.enhancedClient(), System.getenv("IMPORT_JOBS_TABLE"));
+    private final S3Presigner presigner = ClientRegistry.s3Presigner();
+    private final String bucketName = System.getenv("IMPORT_BUCKET");
+    private final ObjectMapper mapper = ClientRegistry.objectMapper();
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent event, Context context) {
+        return InvocationMetrics.instrument(event, context, this::handle);
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent event, Context context) {
+        try {
+            if (!CognitoUtil.isAdmin(event)) {
+                return ResponseType.errorResponse(401, "User is not authorized to perform this action");
+            }
+
+            String jobId = event.getPathParameters() != null ? event.getPathParameters().get("jobId") : null;
+            if (jobId == null || jobId.isBlank()) {
+                return ResponseType.errorResponse(400, "jobId is required");
+            }
+
+            ImportJob stored = importJobRepository.findByJobId(jobId);
+            if (stored == null) {
+                return ResponseType.errorResponse(404, "Import job not found");
+            }
+            ImportJob job = isStale(stored) ? failStale(stored) : stored;
+
+            String reportUrl = null;
+            if (job.getReportKey() != null) {
+                reportUrl = presigner.presignGetObject(r -> r
+                                .signatureDuration(REPORT_URL_VALIDITY)
+                                .getObjectRequest(get -> get.bucket(bucketName).key(job.getReportKey())))
+                        .url()
+                        .toString();
+            }
+
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(200)
+                    .withHeaders(HeadersUtil.getHeaders())
+                    .withBody(mapper.writeValueAsString(ImportJobResponse.builder()
+                            .success(true)
+                            .message("Import job " + job.getStatus().toLowerCase())
+                            .job(job)
+                            .reportUrl(reportUrl)
+                            .build()));
+        } catch (Exception e) {
+            LOG.error("Failed to retrieve import job", e);
+            return ResponseType.errorResponse(500, "Error retrieving import job: " + e.getMessage());
+        }
+    }
+
+    private static boolean isStale(ImportJob job) {
+        if (!ImportJob.RUNNING.equals(job.getStatus())) {
+            return false;
+        }
+        // Jobs started before heartbeats were recorded only have updatedAt, which every checkpoint renewed as well
+        String heartbeatAt = job.getHeartbeatAt() != null ? job.getHeartbeatAt() : job.getUpdatedAt();
+        return heartbeatAt != null && Instant.parse(heartbeatAt).plus(STALE_AFTER).isBefore(Instant.now());
+    }
+
+    // If a worker renewed the heartbeat in the meantime the job is read again instead
+    private ImportJob failStale(ImportJob job) {
+        if (importJobRepository.failStale(job, "Import stopped making progress and was abandoned")) {
+            LOG.warn("Failed stale import job", "jobId", job.getJobId(), "rowsRead", job.getRowsRead());
+            return job;
+        }
+        return importJobRepository.findByJobId(job.getJobId());
+    }
+}
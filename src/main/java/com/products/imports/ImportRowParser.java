@@ -0,0 +1,115 @@
+package com.products.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.products.request.ProductRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses one line of an uploaded import file into a product row.
+ * CSV files need a header naming the columns (productName, unitCostPrice, unitSellingPrice, quantity,
+ * categoryId, categoryName, in any order and case); NDJSON lines are ProductInput objects.
+ */
+class ImportRowParser {
+    static final String CSV = "csv";
+    static final String NDJSON = "ndjson";
+
+    private final String format;
+    private final ObjectMapper mapper;
+    private final List<String> columns;
+
+    ImportRowParser(String format, String csvHeader, ObjectMapper mapper) {
+        this.format = format;
+        this.mapper = mapper;
+        this.columns = new ArrayList<>();
+        if (CSV.equals(format)) {
+            for (String column : splitCsv(csvHeader)) {
+                columns.add(column.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException with a reason suitable for the import report if the line can't be parsed
+     */
+    ProductRequest.ProductInput parse(String line) {
+        if (NDJSON.equals(format)) {
+            try {
+                return mapper.readValue(line, ProductRequest.ProductInput.class);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        List<String> values = splitCsv(line);
+        if (values.size() != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " columns but found " + values.size());
+        }
+        ProductRequest.ProductInput input = new ProductRequest.ProductInput();
+        for (int i = 0; i < columns.size(); i++) {
+            String value = values.get(i).trim();
+            switch (columns.get(i)) {
+                case "productname" -> input.setProductName(value);
+                case "categoryid" -> input.setCategoryId(value);
+                case "categoryname" -> input.setCategoryName(value.isEmpty() ? null : value);
+                case "unitcostprice" -> input.setUnitCostPrice(parseDouble(value, "unitCostPrice"));
+                case "unitsellingprice" -> input.setUnitSellingPrice(parseDouble(value, "unitSellingPrice"));
+                case "quantity" -> input.setQuantity(parseInt(value, "quantity"));
+                default -> {
+                    // Unknown columns are ignored
+                }
+            }
+        }
+        return input;
+    }
+
+    private static double parseDouble(String value, String column) {
+        try {
+            return value.isEmpty() ? 0 : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in " + column + ": " + value);
+        }
+    }
+
+    private static int parseInt(String value, String column) {
+        try {
+            return value.isEmpty() ? 0 : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in " + column + ": " + value);
+        }
+    }
+
+    // Splits one CSV record; double quotes enclose fields and "" escapes a quote. Fields can't span lines.
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,30 @@
+package com.products.imports;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowResult {
+    private int row;
+    private String productName;
+    private String categoryId;
+    private String productId;
+    private Status status;
+    private String reason;
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        SKIPPED,
+        FAILED
+    }
+
+    @JsonIgnore
+    public boolean isWritten() {
+        return status == Status.CREATED || status == Status.UPDATED;
+    }
+}
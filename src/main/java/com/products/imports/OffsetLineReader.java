@@ -0,0 +1,62 @@
+package com.products.imports;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads UTF-8 lines from a stream while tracking the byte offset of the next unread line,
+ * so an import can checkpoint its position and resume with a ranged GET.
+ * Accepts \n and \r\n line endings.
+ */
+class OffsetLineReader {
+    private final InputStream in;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+    private final byte[] buffer = new byte[64 * 1024];
+    private int position;
+    private int limit;
+    private long offset;
+
+    OffsetLineReader(InputStream in, long startOffset) {
+        this.in = in;
+        this.offset = startOffset;
+    }
+
+    // Byte offset, in the whole object, of the first byte not yet returned
+    long getOffset() {
+        return offset;
+    }
+
+    // Returns the next line without its terminator, or null at the end of the stream
+    String readLine() throws IOException {
+        line.reset();
+        boolean readAny = false;
+        while (true) {
+            if (position == limit) {
+                limit = in.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return readAny ? decode() : null;
+                }
+            }
+            byte b = buffer[position++];
+            offset++;
+            readAny = true;
+            if (b == '\n') {
+                return decode();
+            }
+            line.write(b);
+        }
+    }
+
+    private String decode() {
+        int length = line.size();
+        byte[] bytes = line.toByteArray();
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
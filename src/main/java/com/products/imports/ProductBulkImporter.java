@@ -0,0 +1,354 @@
+package com.products.imports;
+
+import com.products.config.ClientRegistry;
+import com.products.metrics.InvocationMetrics;
+import com.products.model.Category;
+import com.products.model.Product;
+import com.products.model.TableSchemas;
+import com.products.repository.CatalogVersionRepository;
+import com.products.repository.ProductCache;
+import com.products.request.ProductRequest;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetResultPage;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Imports many products at once.
+ * Every distinct category is looked up once (BatchGetItem), duplicates are detected with one CategoryIndex query
+ * per category instead of one per row, and products are written in chunks of up to 99 with TransactWriteItems,
+ * each chunk together with the bump of the products version so listings can't keep serving 304s for a committed
+ * chunk. A few chunks are written concurrently; as they all bump the same version item, chunks cancelled by a
+ * conflicting transaction or by throttling are retried with backoff. Every input row gets an {@link ImportRowResult}.
+ * A product whose name already exists in its category keeps its productId and is overwritten;
+ * when several rows share a name and category the last one wins.
+ */
+public class ProductBulkImporter {
+    // DynamoDB caps TransactWriteItems at 100 actions, one of which is the version bump, and BatchGetItem at 100 keys
+    static final int TRANSACTION_PRODUCT_LIMIT = 99;
+    private static final int BATCH_GET_LIMIT = 100;
+    private static final int MAX_BATCH_ATTEMPTS = 8;
+    private static final long BASE_BACKOFF_MILLIS = 25;
+    private static final int DEFAULT_WRITE_CONCURRENCY = 4;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbEnhancedClient enhancedClient;
+    private final String productTableName;
+    private final DynamoDbTable<Product> productTable;
+    private final DynamoDbTable<Category> categoryTable;
+    private final ProductCache productCache;
+    private final CatalogVersionRepository catalogVersions;
+    private final int writeConcurrency;
+
+    public ProductBulkImporter(DynamoDbEnhancedClient enhancedClient, String productTableName, String categoryTableName) {
+        this(ClientRegistry.dynamoDbClient(), enhancedClient, productTableName, categoryTableName,
+                ProductCache.forTable(productTableName), CatalogVersionRepository.shared());
+    }
+
+    public ProductBulkImporter(DynamoDbClient dynamoDbClient, DynamoDbEnhancedClient enhancedClient, String productTableName,
+                               String categoryTableName, ProductCache productCache, CatalogVersionRepository catalogVersions) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.enhancedClient = enhancedClient;
+        this.productTableName = productTableName;
+        this.productTable = enhancedClient.table(productTableName, TableSchemas.PRODUCT);
+        this.categoryTable = enhancedClient.table(categoryTableName, TableSchemas.CATEGORY);
+        this.productCache = productCache;
+        this.catalogVersions = catalogVersions;
+        this.writeConcurrency = readWriteConcurrency();
+    }
+
+    public List<ImportRowResult> importProducts(List<ProductRequest.ProductInput> inputs) {
+        ImportRowResult[] results = new ImportRowResult[inputs.size()];
+
+        // Rows with the required fields, by index
+        Map<Integer, ProductRequest.ProductInput> candidates = new LinkedHashMap<>();
+        for (int row = 0; row < inputs.size(); row++) {
+            ProductRequest.ProductInput input = inputs.get(row);
+            if (input == null || isBlank(input.getProductName()) || isBlank(input.getCategoryId())) {
+                results[row] = skipped(row, input, "Missing productName or categoryId");
+            } else {
+                candidates.put(row, input);
+            }
+        }
+
+        Map<String, String> categoryNames = resolveCategories(candidates.values());
+
+        // Later rows for the same product replace earlier ones
+        Map<String, Integer> lastRowByProduct = new HashMap<>();
+        candidates.entrySet().removeIf(entry -> {
+            ProductRequest.ProductInput input = entry.getValue();
+            String categoryName = categoryNames.get(categoryKey(input.getCategoryId(), input.getCategoryName()));
+            if (categoryName == null) {
+                results[entry.getKey()] = skipped(entry.getKey(), input, "Invalid category");
+                return true;
+            }
+            Integer previous = lastRowByProduct.put(productKey(input.getCategoryId(), input.getProductName()), entry.getKey());
+            if (previous != null) {
+                results[previous] = skipped(previous, inputs.get(previous), "Superseded by row " + entry.getKey());
+            }
+            return false;
+        });
+        candidates.keySet().retainAll(lastRowByProduct.values());
+
+        Map<String, String> existingProductIds = findExistingProductIds(candidates.values());
+
+        Map<String, Integer> rowByProductId = new HashMap<>();
+        List<Product> products = new ArrayList<>();
+        candidates.forEach((row, input) -> {
+            String categoryName = categoryNames.get(categoryKey(input.getCategoryId(), input.getCategoryName()));
+            String existingId = existingProductIds.get(productKey(input.getCategoryId(), input.getProductName()));
+            Product product = toProduct(input, categoryName, existingId);
+            products.add(product);
+            rowByProductId.put(product.getProductId(), row);
+            results[row] = new ImportRowResult(row, input.getProductName(), input.getCategoryId(), product.getProductId(),
+                    existingId != null ? ImportRowResult.Status.UPDATED : ImportRowResult.Status.CREATED, null);
+        });
+
+        Map<String, String> failures = writeAll(products);
+        failures.forEach((productId, reason) -> {
+            ImportRowResult result = results[rowByProductId.get(productId)];
+            result.setStatus(ImportRowResult.Status.FAILED);
+            result.setReason(reason);
+        });
+        productCache.invalidateAll(rowByProductId.keySet());
+        catalogVersions.invalidate();
+
+        return List.of(results);
+    }
+
+    /**
+     * Looks up every distinct category once. Rows naming their category are checked with BatchGetItem on the
+     * table key; rows giving only an id take the name stored for it. Returns the category name per
+     * {@link #categoryKey}, with no entry for categories that don't exist.
+     */
+    private Map<String, String> resolveCategories(Iterable<ProductRequest.ProductInput> inputs) {
+        Set<String> namedKeys = new LinkedHashSet<>();
+        Set<String> idOnly = new LinkedHashSet<>();
+        List<Key> keys = new ArrayList<>();
+        for (ProductRequest.ProductInput input : inputs) {
+            if (isBlank(input.getCategoryName())) {
+                idOnly.add(input.getCategoryId());
+            } else if (namedKeys.add(categoryKey(input.getCategoryId(), input.getCategoryName()))) {
+                keys.add(Key.builder().partitionValue(input.getCategoryId()).sortValue(input.getCategoryName()).build());
+            }
+        }
+
+        Map<String, String> names = new HashMap<>();
+        for (int from = 0; from < keys.size(); from += BATCH_GET_LIMIT) {
+            for (Category category : batchGetCategories(keys.subList(from, Math.min(from + BATCH_GET_LIMIT, keys.size())))) {
+                names.put(categoryKey(category.getCategoryId(), category.getCategoryName()), category.getCategoryName());
+            }
+        }
+
+        for (String categoryId : idOnly) {
+            categoryTable.query(QueryEnhancedRequest.builder()
+                            .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(categoryId).build()))
+                            .limit(1)
+                            .build())
+                    .items()
+                    .stream()
+                    .findFirst()
+                    .ifPresent(category -> names.put(categoryKey(categoryId, null), category.getCategoryName()));
+        }
+        return names;
+    }
+
+    private List<Category> batchGetCategories(List<Key> keys) {
+        List<Category> categories = new ArrayList<>();
+        List<Key> pending = keys;
+        for (int attempt = 0; !pending.isEmpty(); attempt++) {
+            if (attempt == MAX_BATCH_ATTEMPTS) {
+                throw new IllegalStateException("Unable to read " + pending.size() + " categories after " + attempt + " attempts");
+            }
+            if (attempt > 0) {
+                backoff(attempt);
+            }
+
+            ReadBatch.Builder<Category> batch = ReadBatch.builder(Category.class).mappedTableResource(categoryTable);
+            pending.forEach(batch::addGetItem);
+
+            // Only take the first page so unprocessed keys are retried with backoff
+            BatchGetResultPage page = enhancedClient.batchGetItem(r -> r.readBatches(batch.build()))
+                    .iterator()
+                    .next();
+            categories.addAll(page.resultsForTable(categoryTable));
+            pending = page.unprocessedKeysForTable(categoryTable);
+        }
+        return categories;
+    }
+
+    // One CategoryIndex query per category; returns the existing productId per productKey
+    private Map<String, String> findExistingProductIds(Iterable<ProductRequest.ProductInput> inputs) {
+        Map<String, Set<String>> namesByCategory = new LinkedHashMap<>();
+        for (ProductRequest.ProductInput input : inputs) {
+            namesByCategory.computeIfAbsent(input.getCategoryId(), id -> new HashSet<>()).add(input.getProductName());
+        }
+
+        Map<String, String> existing = new HashMap<>();
+        namesByCategory.forEach((categoryId, names) -> productTable.index("CategoryIndex")
+                .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(categoryId).build()))
+                .stream()
+                .flatMap(page -> page.items().stream())
+                .filter(product -> names.contains(product.getProductName()))
+                .forEach(product -> existing.putIfAbsent(productKey(categoryId, product.getProductName()), product.getProductId())));
+        return existing;
+    }
+
+    /**
+     * Writes the products in transactions of up to {@link #TRANSACTION_PRODUCT_LIMIT}, at most {@link #writeConcurrency} at a time.
+     * Returns a failure reason per productId for the products that could not be written.
+     */
+    private Map<String, String> writeAll(List<Product> products) {
+        Map<String, String> failures = new HashMap<>();
+        if (products.isEmpty()) {
+            return failures;
+        }
+
+        Semaphore permits = new Semaphore(writeConcurrency);
+        List<Future<Map<String, String>>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int from = 0; from < products.size(); from += TRANSACTION_PRODUCT_LIMIT) {
+                List<Product> chunk = products.subList(from, Math.min(from + TRANSACTION_PRODUCT_LIMIT, products.size()));
+                futures.add(executor.submit(InvocationMetrics.propagate(() -> {
+                    permits.acquire();
+                    try {
+                        return writeChunk(chunk);
+                    } finally {
+                        permits.release();
+                    }
+                })));
+            }
+
+            for (Future<Map<String, String>> future : futures) {
+                try {
+                    failures.putAll(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Product import failed: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while importing products", e);
+        }
+        return failures;
+    }
+
+    // Writes the chunk and the products version bump in one transaction; the chunk fails or succeeds as a whole
+    private Map<String, String> writeChunk(List<Product> chunk) {
+        List<TransactWriteItem> items = new ArrayList<>(chunk.size() + 1);
+        for (Product product : chunk) {
+            items.add(TransactWriteItem.builder()
+                    .put(Put.builder()
+                            .tableName(productTableName)
+                            .item(TableSchemas.PRODUCT.itemToMap(product, true))
+                            .build())
+                    .build());
+        }
+        catalogVersions.addProductsBump(items);
+
+        Map<String, String> failures = new HashMap<>();
+        for (int attempt = 0; ; attempt++) {
+            if (attempt > 0) {
+                backoff(attempt);
+            }
+            try {
+                dynamoDbClient.transactWriteItems(r -> r.transactItems(items));
+                return failures;
+            } catch (TransactionCanceledException e) {
+                if (!isRetryable(e) || attempt + 1 == MAX_BATCH_ATTEMPTS) {
+                    chunk.forEach(product -> failures.put(product.getProductId(), "Not written: " + e.getMessage()));
+                    return failures;
+                }
+            } catch (DynamoDbException e) {
+                chunk.forEach(product -> failures.put(product.getProductId(), "Failed to create/update: " + e.getMessage()));
+                return failures;
+            }
+        }
+    }
+
+    private static boolean isRetryable(TransactionCanceledException e) {
+        return e.hasCancellationReasons() && e.cancellationReasons().stream()
+                .anyMatch(reason -> "TransactionConflict".equals(reason.code()) || "ThrottlingError".equals(reason.code()));
+    }
+
+    private static Product toProduct(ProductRequest.ProductInput input, String categoryName, String existingProductId) {
+        return Product.builder()
+                .productId(existingProductId != null ? existingProductId : UUID.randomUUID().toString())
+                .productName(input.getProductName())
+                .unitCostPrice(input.getUnitCostPrice())
+                .unitSellingPrice(input.getUnitSellingPrice())
+                .quantity(input.getQuantity())
+                .categoryId(input.getCategoryId())
+                .categoryName(categoryName)
+                .dateAdded(LocalDate.now())
+                .dateUpdated(LocalDate.now())
+                .totalPrice(input.getUnitCostPrice() * input.getQuantity())
+                .totalSellingPrice(input.getUnitSellingPrice() * input.getQuantity())
+                .build();
+    }
+
+    private static ImportRowResult skipped(int row, ProductRequest.ProductInput input, String reason) {
+        return new ImportRowResult(row, input != null ? input.getProductName() : null, input != null ? input.getCategoryId() : null,
+                null, ImportRowResult.Status.SKIPPED, reason);
+    }
+
+    private static String categoryKey(String categoryId, String categoryName) {
+        return isBlank(categoryName) ? categoryId : categoryId + "\u0000" + categoryName;
+    }
+
+    private static String productKey(String categoryId, String productName) {
+        return categoryId + "\u0000" + productName;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    // Jittered, so chunks that conflicted on the version item don't retry in lockstep
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, (BASE_BACKOFF_MILLIS << Math.min(attempt, 6)) + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying unprocessed items", e);
+        }
+    }
+
+    private static int readWriteConcurrency() {
+        String value = System.getenv("PRODUCT_IMPORT_WRITE_CONCURRENCY");
+        if (value == null || value.isBlank()) {
+            return DEFAULT_WRITE_CONCURRENCY;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return DEFAULT_WRITE_CONCURRENCY;
+        }
+    }
+}
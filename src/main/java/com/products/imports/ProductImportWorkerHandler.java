@@ -0,0 +1,312 @@
+package com.products.imports;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.S3Event;
+import com.amazonaws.services.lambda.runtime.events.models.s3.S3EventNotification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
+import com.products.model.ImportJob;
+import com.products.reports.MultipartUploadOutputStream;
+import com.products.repository.ImportJobRepository;
+import com.products.request.ProductRequest;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.lambda.LambdaClient;
+import software.amazon.awssdk.services.lambda.model.InvocationType;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Runs an import job when its file lands in the import bucket under {@code imports/uploads/<jobId>.<format>}.
+ * The object is streamed in blocks of rows; after every block the counts and the byte offset of the next row
+ * are checkpointed on the job, and skipped/failed rows go to a report part object. When the invocation is about
+ * to run out of time it invokes the function again, asynchronously, with the upload event as the continuation:
+ * the job's checkpoint, not the event, says where to resume, so any number of continuations can follow.
+ * A crashed invocation is retried by Lambda and resumes the same way; a block interrupted half-way is imported
+ * again on resume, so its new products are reported as updated. Every checkpoint renews the job's heartbeat, and
+ * {@link GetImportJobHandler} fails a RUNNING job whose heartbeat has gone stale.
+ * Locally, invoke it with a hand-written S3 event and AWS_ENDPOINT_URL pointing at the S3/DynamoDB stand-ins.
+ */
+public class ProductImportWorkerHandler implements RequestHandler<S3Event, Void> {
+    private static final StructuredLogger LOG = StructuredLogger.forClass(ProductImportWorkerHandler.class);
+    static final String UPLOAD_PREFIX = "imports/uploads/";
+    static final String REPORT_PREFIX = "imports/reports/";
+    private static final int BLOCK_ROWS = 500;
+    // Stop starting new blocks once less than this is left of the invocation
+    private static final long MIN_REMAINING_MILLIS = 60_000;
+
+    private final S3Client s3Client;
+    private final LambdaClient lambdaClient;
+    private final ImportJobRepository importJobRepository;
+    private final ProductBulkImporter productImporter;
+    private final ObjectMapper objectMapper;
+
+    public ProductImportWorkerHandler() {
+        var enhancedClient = ClientRegistry.enhancedClient();
+        s3Client = ClientRegistry.s3Client();
+        lambdaClient = ClientRegistry.lambdaClient();
+        importJobRepository = new ImportJobRepository(enhancedClient, System.getenv("IMPORT_JOBS_TABLE"));
+        productImporter = new ProductBulkImporter(enhancedClient, System.getenv("PRODUCT_TABLE"), System.getenv("CATEGORY_TABLE"));
+        objectMapper = ClientRegistry.objectMapper();
+    }
+
+    @Override
+    public Void handleRequest(S3Event event, Context context) {
+        return InvocationMetrics.instrument(event, context, this::handle);
+    }
+
+    private Void handle(S3Event event, Context context) {
+        for (S3EventNotification.S3EventNotificationRecord record : event.getRecords()) {
+            String bucket = record.getS3().getBucket().getName();
+            String key = record.getS3().getObject().getUrlDecodedKey();
+            String jobId = jobIdFromKey(key);
+            if (jobId == null) {
+                LOG.warn("Ignoring object outside the upload prefix", "key", key);
+                continue;
+            }
+
+            ImportJob job = importJobRepository.findByJobId(jobId);
+            if (job == null || !key.equals(job.getObjectKey())) {
+                LOG.warn("No import job for uploaded object", "key", key);
+                continue;
+            }
+            if (ImportJob.COMPLETED.equals(job.getStatus()) || ImportJob.FAILED.equals(job.getStatus())) {
+                LOG.info("Import job already finished", "jobId", jobId, "status", job.getStatus());
+                continue;
+            }
+
+            try {
+                run(bucket, job, context);
+            } catch (InvalidImportFileException e) {
+                job.setStatus(ImportJob.FAILED);
+                job.setErrorMessage(e.getMessage());
+                job.setUpdatedAt(Instant.now().toString());
+                importJobRepository.checkpoint(job, job.getRowsRead());
+                LOG.warn("Import job failed", e, "jobId", jobId);
+            }
+        }
+        return null;
+    }
+
+    private void run(String bucket, ImportJob job, Context context) {
+        long expectedRowsRead = job.getRowsRead();
+        if (!ImportJob.RUNNING.equals(job.getStatus())) {
+            job.setStatus(ImportJob.RUNNING);
+            job.setUpdatedAt(Instant.now().toString());
+            job.setHeartbeatAt(job.getUpdatedAt());
+            if (!importJobRepository.checkpoint(job, expectedRowsRead)) {
+                LOG.info("Import job is being processed by another invocation", "jobId", job.getJobId());
+                return;
+            }
+        }
+
+        long startOffset = job.getNextByteOffset();
+        try (ResponseInputStream<GetObjectResponse> object = s3Client.getObject(r -> {
+            r.bucket(bucket).key(job.getObjectKey());
+            if (startOffset > 0) {
+                r.range("bytes=" + startOffset + "-");
+            }
+        })) {
+            if (!importRows(object, startOffset, bucket, job, context)) {
+                return;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        job.setReportKey(mergeReports(bucket, job.getJobId()));
+        job.setStatus(ImportJob.COMPLETED);
+        job.setUpdatedAt(Instant.now().toString());
+        job.setHeartbeatAt(job.getUpdatedAt());
+        if (!importJobRepository.checkpoint(job, job.getRowsRead())) {
+            LOG.warn("Import job was failed or taken over before it could complete", "jobId", job.getJobId());
+            return;
+        }
+        LOG.info("Import job completed", "jobId", job.getJobId(), "rows", job.getRowsRead());
+    }
+
+    /**
+     * Imports the remaining rows block by block, checkpointing after each block.
+     *
+     * @return false if the rest is left to a continuation, or another invocation took over the job
+     */
+    private boolean importRows(InputStream object, long startOffset, String bucket, ImportJob job, Context context) throws IOException {
+        OffsetLineReader reader = new OffsetLineReader(object, startOffset);
+        if (ImportRowParser.CSV.equals(job.getFormat()) && job.getCsvHeader() == null) {
+            String header = nextNonBlankLine(reader);
+            if (header == null) {
+                throw new InvalidImportFileException("The uploaded file is empty");
+            }
+            job.setCsvHeader(header.startsWith("\uFEFF") ? header.substring(1) : header);
+            job.setNextByteOffset(reader.getOffset());
+        }
+        ImportRowParser parser = new ImportRowParser(job.getFormat(), job.getCsvHeader(), objectMapper);
+
+        while (true) {
+            if (context.getRemainingTimeInMillis() < MIN_REMAINING_MILLIS) {
+                invokeContinuation(bucket, job, context);
+                return false;
+            }
+
+            List<String> lines = new ArrayList<>(BLOCK_ROWS);
+            String line;
+            while (lines.size() < BLOCK_ROWS && (line = nextNonBlankLine(reader)) != null) {
+                lines.add(line);
+            }
+            if (lines.isEmpty()) {
+                return true;
+            }
+
+            long firstRow = job.getRowsRead() + 1;
+            List<ImportRowResult> problems = importBlock(lines, firstRow, parser, job);
+            if (!problems.isEmpty()) {
+                writeReportPart(bucket, job.getJobId(), firstRow, problems);
+            }
+
+            long expectedRowsRead = job.getRowsRead();
+            job.setRowsRead(expectedRowsRead + lines.size());
+            job.setNextByteOffset(reader.getOffset());
+            job.setUpdatedAt(Instant.now().toString());
+            job.setHeartbeatAt(job.getUpdatedAt());
+            if (!importJobRepository.checkpoint(job, expectedRowsRead)) {
+                LOG.info("Import job was checkpointed or failed by another invocation, stopping", "jobId", job.getJobId());
+                return false;
+            }
+        }
+    }
+
+    // The job is checkpointed already; if this invoke fails, the invocation fails and Lambda's retry resumes instead
+    private void invokeContinuation(String bucket, ImportJob job, Context context) throws IOException {
+        String functionArn = Objects.requireNonNullElse(context.getInvokedFunctionArn(), System.getenv("AWS_LAMBDA_FUNCTION_NAME"));
+        if (functionArn == null) {
+            throw new IllegalStateException("Import job " + job.getJobId() + " ran out of time at row "
+                    + job.getRowsRead() + " and there is no function to continue it");
+        }
+        // Shaped like the S3 notification that started the job, keys are URL-encoded there too
+        Map<String, Object> event = Map.of("Records", List.of(Map.of("s3", Map.of(
+                "bucket", Map.of("name", bucket),
+                "object", Map.of("key", URLEncoder.encode(job.getObjectKey(), StandardCharsets.UTF_8))))));
+        SdkBytes payload = SdkBytes.fromUtf8String(objectMapper.writeValueAsString(event));
+        lambdaClient.invoke(r -> r.functionName(functionArn).invocationType(InvocationType.EVENT).payload(payload));
+        LOG.info("Import job continues in a new invocation", "jobId", job.getJobId(), "rowsRead", job.getRowsRead());
+    }
+
+    // Imports one block and returns the rows that were not written, numbered from firstRow
+    private List<ImportRowResult> importBlock(List<String> lines, long firstRow, ImportRowParser parser, ImportJob job) {
+        List<ImportRowResult> problems = new ArrayList<>();
+        Map<Integer, Long> rowNumbers = new LinkedHashMap<>();
+        List<ProductRequest.ProductInput> inputs = new ArrayList<>();
+
+        for (int i = 0; i < lines.size(); i++) {
+            try {
+                inputs.add(parser.parse(lines.get(i)));
+                rowNumbers.put(inputs.size() - 1, firstRow + i);
+            } catch (IllegalArgumentException e) {
+                problems.add(new ImportRowResult((int) (firstRow + i), null, null, null, ImportRowResult.Status.SKIPPED, e.getMessage()));
+            }
+        }
+
+        for (ImportRowResult result : productImporter.importProducts(inputs)) {
+            result.setRow(rowNumbers.get(result.getRow()).intValue());
+            switch (result.getStatus()) {
+                case CREATED -> job.setCreatedCount(job.getCreatedCount() + 1);
+                case UPDATED -> job.setUpdatedCount(job.getUpdatedCount() + 1);
+                case SKIPPED, FAILED -> problems.add(result);
+            }
+        }
+        for (ImportRowResult problem : problems) {
+            if (problem.getStatus() == ImportRowResult.Status.FAILED) {
+                job.setFailedCount(job.getFailedCount() + 1);
+            } else {
+                job.setSkippedCount(job.getSkippedCount() + 1);
+            }
+            LOG.debugSampled("Import row not written", "jobId", job.getJobId(), "row", problem.getRow(),
+                    "status", problem.getStatus(), "reason", problem.getReason());
+        }
+        return problems;
+    }
+
+    // Part names sort in row order; a retried block overwrites its own part
+    private void writeReportPart(String bucket, String jobId, long firstRow, List<ImportRowResult> problems) throws IOException {
+        StringBuilder ndjson = new StringBuilder();
+        for (ImportRowResult problem : problems) {
+            ndjson.append(objectMapper.writeValueAsString(problem)).append('\n');
+        }
+        String key = String.format("%s%s/part-%012d.ndjson", REPORT_PREFIX, jobId, firstRow);
+        s3Client.putObject(r -> r.bucket(bucket).key(key).contentType("application/x-ndjson"),
+                RequestBody.fromString(ndjson.toString(), StandardCharsets.UTF_8));
+    }
+
+    // Concatenates the report parts into one object; returns null when every row was imported
+    private String mergeReports(String bucket, String jobId) {
+        String partPrefix = REPORT_PREFIX + jobId + "/";
+        List<String> partKeys = new ArrayList<>();
+        s3Client.listObjectsV2Paginator(r -> r.bucket(bucket).prefix(partPrefix))
+                .contents()
+                .stream()
+                .map(S3Object::key)
+                .forEach(partKeys::add);
+        if (partKeys.isEmpty()) {
+            return null;
+        }
+        partKeys.sort(null);
+
+        String reportKey = REPORT_PREFIX + jobId + ".ndjson";
+        MultipartUploadOutputStream upload = new MultipartUploadOutputStream(s3Client, bucket, reportKey, "application/x-ndjson");
+        try {
+            for (String partKey : partKeys) {
+                try (InputStream part = s3Client.getObject(r -> r.bucket(bucket).key(partKey))) {
+                    part.transferTo(upload);
+                }
+            }
+            upload.close();
+        } catch (IOException | RuntimeException e) {
+            upload.abort();
+            throw e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+        }
+        return reportKey;
+    }
+
+    private static String nextNonBlankLine(OffsetLineReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank()) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    static String jobIdFromKey(String key) {
+        if (key == null || !key.startsWith(UPLOAD_PREFIX)) {
+            return null;
+        }
+        String name = key.substring(UPLOAD_PREFIX.length());
+        int dot = name.indexOf('.');
+        return dot > 0 ? name.substring(0, dot) : null;
+    }
+
+    // The uploaded file itself can't be imported; retrying won't help
+    static class InvalidImportFileException extends RuntimeException {
+        InvalidImportFileException(String message) {
+            super(message);
+        }
+    }
+}
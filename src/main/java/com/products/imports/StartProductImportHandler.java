@@ -0,0 +1,89 @@
+package com.products.imports;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
+import com.products.model.ImportJob;
+import com.products.repository.ImportJobRepository;
+import com.products.response.ImportJobResponse;
+import com.products.response.ResponseType;
+import com.products.utils.CognitoUtil;
+import com.products.utils.HeadersUtil;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Creates an import job and returns a presigned URL to PUT the file to. Body: {"format": "csv" | "ndjson"}, csv by default.
+ * Uploading the file starts {@link ProductImportWorkerHandler}; progress is read from {@link GetImportJobHandler}.
+ */
+public class StartProductImportHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private static final StructuredLogger LOG = StructuredLogger.forClass(StartProductImportHandler.class);
+    private static final Duration UPLOAD_URL_VALIDITY = Duration.ofMinutes(15);
+
+    private final ImportJobRepository importJobRepository = new ImportJobRepository(ClientRegistry.enhancedClient(), System.getenv("IMPORT_JOBS_TABLE"));
+    private final S3Presigner presigner = ClientRegistry.s3Presigner();
+    private final String bucketName = System.getenv("IMPORT_BUCKET");
+    private final ObjectMapper mapper = ClientRegistry.objectMapper();
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent event, Context context) {
+        return InvocationMetrics.instrument(event, context, this::handle);
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent event, Context context) {
+        try {
+            if (!CognitoUtil.isAdmin(event)) {
+                return ResponseType.errorResponse(401, "User is not authorized to perform this action");
+            }
+
+            String format = ImportRowParser.CSV;
+            if (event.getBody() != null && !event.getBody().isBlank()) {
+                JsonNode body = mapper.readTree(event.getBody());
+                format = body.path("format").asText(ImportRowParser.CSV).toLowerCase();
+            }
+            if (!format.equals(ImportRowParser.CSV) && !format.equals(ImportRowParser.NDJSON)) {
+                return ResponseType.errorResponse(400, "format must be csv or ndjson");
+            }
+
+            String now = Instant.now().toString();
+            String jobId = UUID.randomUUID().toString();
+            ImportJob job = ImportJob.builder()
+                    .jobId(jobId)
+                    .status(ImportJob.PENDING)
+                    .format(format)
+                    .objectKey(ProductImportWorkerHandler.UPLOAD_PREFIX + jobId + "." + format)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build();
+            importJobRepository.create(job);
+
+            var presigned = presigner.presignPutObject(r -> r
+                    .signatureDuration(UPLOAD_URL_VALIDITY)
+                    .putObjectRequest(put -> put.bucket(bucketName).key(job.getObjectKey())));
+
+            LOG.info("Created import job", "jobId", jobId);
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(201)
+                    .withHeaders(HeadersUtil.getHeaders())
+                    .withBody(mapper.writeValueAsString(ImportJobResponse.builder()
+                            .success(true)
+                            .message("Upload the file to uploadUrl with an HTTP PUT to start the import")
+                            .job(job)
+                            .uploadUrl(presigned.url().toString())
+                            .uploadUrlExpiresAt(presigned.expiration().toString())
+                            .build()));
+        } catch (Exception e) {
+            LOG.error("Failed to create import job", e);
+            return ResponseType.errorResponse(500, "Error creating import job: " + e.getMessage());
+        }
+    }
+}
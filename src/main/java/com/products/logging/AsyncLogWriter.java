@@ -0,0 +1,174 @@
+package com.products.logging;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Formats log events as JSON lines and writes them to stdout from one background thread, a batch of lines per
+ * write, so the invocation thread only pays for enqueueing. The queue is bounded: when it is full new events are
+ * dropped and counted rather than blocking the caller, and the count is reported with the next batch.
+ * <p>
+ * Lambda freezes the process once the handler returns, so {@link #flush()} is called at the end of every
+ * invocation to get its lines out before that. LOG_ASYNC=false writes each line on the calling thread instead.
+ */
+final class AsyncLogWriter {
+    private static final boolean ASYNC = !"false".equalsIgnoreCase(System.getenv("LOG_ASYNC"));
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int MAX_BATCH = 512;
+    private static final long FLUSH_TIMEOUT_MILLIS = 2000;
+    private static final int MAX_STACK_FRAMES = 20;
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final BlockingQueue<Object> QUEUE = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static final AtomicLong ENQUEUED = new AtomicLong();
+    // Events written by the writer thread so far; flush has nothing to wait for once it catches up with ENQUEUED
+    private static volatile long written;
+
+    static {
+        if (ASYNC) {
+            Thread writer = new Thread(AsyncLogWriter::drain, "log-writer");
+            writer.setDaemon(true);
+            writer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(AsyncLogWriter::flush, "log-flush"));
+        }
+    }
+
+    private AsyncLogWriter() {
+    }
+
+    record LogEvent(long timestamp, LogLevel level, String logger, String requestId, String message,
+                    Object[] fields, Throwable error) {
+    }
+
+    private record FlushMarker(CountDownLatch done) {
+    }
+
+    static void write(LogEvent event) {
+        if (!ASYNC) {
+            System.out.println(format(event));
+            return;
+        }
+        if (QUEUE.offer(event)) {
+            ENQUEUED.incrementAndGet();
+        } else {
+            DROPPED.incrementAndGet();
+        }
+    }
+
+    static void flush() {
+        if (!ASYNC || written >= ENQUEUED.get()) {
+            return;
+        }
+        FlushMarker marker = new FlushMarker(new CountDownLatch(1));
+        try {
+            if (QUEUE.offer(marker, FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                marker.done().await(FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void drain() {
+        List<Object> batch = new ArrayList<>(MAX_BATCH);
+        StringBuilder lines = new StringBuilder(16 * 1024);
+        while (true) {
+            try {
+                batch.add(QUEUE.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            QUEUE.drainTo(batch, MAX_BATCH - 1);
+
+            long dropped = DROPPED.getAndSet(0);
+            if (dropped > 0) {
+                lines.append(format(new LogEvent(System.currentTimeMillis(), LogLevel.WARN,
+                        AsyncLogWriter.class.getSimpleName(), null, "Log queue full, events dropped",
+                        new Object[]{"dropped", dropped}, null))).append('\n');
+            }
+            int events = 0;
+            for (Object item : batch) {
+                if (item instanceof LogEvent event) {
+                    lines.append(format(event)).append('\n');
+                    events++;
+                }
+            }
+            if (!lines.isEmpty()) {
+                System.out.print(lines);
+                System.out.flush();
+            }
+            written += events;
+            for (Object item : batch) {
+                if (item instanceof FlushMarker marker) {
+                    marker.done().countDown();
+                }
+            }
+            batch.clear();
+            lines.setLength(0);
+        }
+    }
+
+    private static String format(LogEvent event) {
+        StringWriter out = new StringWriter(256);
+        try (JsonGenerator json = JSON.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("timestamp", Instant.ofEpochMilli(event.timestamp()).toString());
+            json.writeStringField("level", event.level().name());
+            json.writeStringField("logger", event.logger());
+            if (event.requestId() != null) {
+                json.writeStringField("requestId", event.requestId());
+            }
+            json.writeStringField("message", event.message());
+            Object[] fields = event.fields();
+            for (int i = 0; fields != null && i + 1 < fields.length; i += 2) {
+                json.writeFieldName(String.valueOf(fields[i]));
+                writeValue(json, fields[i + 1]);
+            }
+            if (event.error() != null) {
+                json.writeStringField("error", event.error().getClass().getName() + ": " + event.error().getMessage());
+                if (event.level() == LogLevel.ERROR) {
+                    writeStackTrace(json, event.error());
+                }
+            }
+            json.writeEndObject();
+        } catch (IOException e) {
+            return "{\"level\":\"ERROR\",\"message\":\"Unformattable log event\"}";
+        }
+        return out.toString();
+    }
+
+    private static void writeStackTrace(JsonGenerator json, Throwable error) throws IOException {
+        json.writeArrayFieldStart("stackTrace");
+        StackTraceElement[] frames = error.getStackTrace();
+        for (int i = 0; i < Math.min(frames.length, MAX_STACK_FRAMES); i++) {
+            json.writeString(frames[i].toString());
+        }
+        json.writeEndArray();
+        if (error.getCause() != null && error.getCause() != error) {
+            json.writeStringField("cause", error.getCause().getClass().getName() + ": " + error.getCause().getMessage());
+        }
+    }
+
+    private static void writeValue(JsonGenerator json, Object value) throws IOException {
+        switch (value) {
+            case null -> json.writeNull();
+            case Integer i -> json.writeNumber(i);
+            case Long l -> json.writeNumber(l);
+            case Double d -> json.writeNumber(d);
+            case Boolean b -> json.writeBoolean(b);
+            default -> json.writeString(value.toString());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.products.logging;
+
+public enum LogLevel {
+    DEBUG, INFO, WARN, ERROR;
+
+    // LOG_LEVEL wins; AWS_LAMBDA_LOG_LEVEL is what Lambda's own log-level setting exports
+    static LogLevel fromEnvironment() {
+        String value = System.getenv("LOG_LEVEL");
+        if (value == null || value.isBlank()) {
+            value = System.getenv("AWS_LAMBDA_LOG_LEVEL");
+        }
+        if (value == null || value.isBlank()) {
+            return INFO;
+        }
+        return switch (value.trim().toUpperCase()) {
+            case "TRACE", "DEBUG" -> DEBUG;
+            case "WARN", "WARNING" -> WARN;
+            case "ERROR", "FATAL" -> ERROR;
+            default -> INFO;
+        };
+    }
+}
@@ -0,0 +1,136 @@
+package com.products.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * JSON-lines logger for the handlers. Messages are constant strings and details go in key/value fields, so
+ * nothing is concatenated for a level that is switched off; a field value given as a {@link Supplier} is only
+ * evaluated when the line is actually written. Lines are formatted and written off the invocation thread by
+ * {@link AsyncLogWriter}.
+ * <p>
+ * LOG_LEVEL (default INFO) gates every call. {@link #debugSampled} is for per-item detail inside loops: at DEBUG
+ * it keeps only a LOG_DEBUG_SAMPLE_RATE fraction (default 0.01) of the lines. Request bodies go through
+ * {@link #body(String)}, which masks credentials and truncates to LOG_BODY_MAX_CHARS (default 512).
+ */
+public final class StructuredLogger {
+    private static final LogLevel LEVEL = LogLevel.fromEnvironment();
+    private static final double DEBUG_SAMPLE_RATE = readDouble("LOG_DEBUG_SAMPLE_RATE", 0.01);
+    private static final int BODY_MAX_CHARS = (int) readDouble("LOG_BODY_MAX_CHARS", 512);
+    private static final Pattern SENSITIVE_FIELDS = Pattern.compile(
+            "(\"(?:password|newPassword|temporaryPassword|session|idToken|accessToken|refreshToken|token|authorization)\"\\s*:\\s*)\"(?:[^\"\\\\]|\\\\.)*\"",
+            Pattern.CASE_INSENSITIVE);
+    private static final ThreadLocal<String> REQUEST_ID = new ThreadLocal<>();
+
+    private final String name;
+
+    private StructuredLogger(String name) {
+        this.name = name;
+    }
+
+    public static StructuredLogger forClass(Class<?> type) {
+        return new StructuredLogger(type.getSimpleName());
+    }
+
+    /**
+     * Tags every line logged on this thread with the invocation's request id; returns the previous id so
+     * nested invocations can restore it.
+     */
+    public static String bindRequestId(String requestId) {
+        String previous = REQUEST_ID.get();
+        REQUEST_ID.set(requestId);
+        return previous;
+    }
+
+    /**
+     * Blocks until the lines logged so far have been written; called when an invocation ends.
+     */
+    public static void flush() {
+        AsyncLogWriter.flush();
+    }
+
+    /**
+     * A request body for logging: credentials masked and cut to LOG_BODY_MAX_CHARS, computed only if logged.
+     */
+    public static Supplier<String> body(String body) {
+        return () -> {
+            if (body == null) {
+                return null;
+            }
+            // Mask before cutting, a value cut in half would no longer match
+            String masked = SENSITIVE_FIELDS.matcher(body).replaceAll("$1\"***\"");
+            return masked.length() > BODY_MAX_CHARS
+                    ? masked.substring(0, BODY_MAX_CHARS) + "...(" + body.length() + " chars)"
+                    : masked;
+        };
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return level.compareTo(LEVEL) >= 0;
+    }
+
+    public void debug(String message, Object... fields) {
+        log(LogLevel.DEBUG, message, null, fields);
+    }
+
+    /**
+     * Per-item DEBUG line, written for a LOG_DEBUG_SAMPLE_RATE fraction of the calls.
+     */
+    public void debugSampled(String message, Object... fields) {
+        if (!isEnabled(LogLevel.DEBUG) || ThreadLocalRandom.current().nextDouble() >= DEBUG_SAMPLE_RATE) {
+            return;
+        }
+        Object[] sampled = new Object[fields.length + 2];
+        System.arraycopy(fields, 0, sampled, 0, fields.length);
+        sampled[fields.length] = "sampleRate";
+        sampled[fields.length + 1] = DEBUG_SAMPLE_RATE;
+        log(LogLevel.DEBUG, message, null, sampled);
+    }
+
+    public void info(String message, Object... fields) {
+        log(LogLevel.INFO, message, null, fields);
+    }
+
+    public void warn(String message, Object... fields) {
+        log(LogLevel.WARN, message, null, fields);
+    }
+
+    public void warn(String message, Throwable error, Object... fields) {
+        log(LogLevel.WARN, message, error, fields);
+    }
+
+    public void error(String message, Object... fields) {
+        log(LogLevel.ERROR, message, null, fields);
+    }
+
+    public void error(String message, Throwable error, Object... fields) {
+        log(LogLevel.ERROR, message, error, fields);
+    }
+
+    private void log(LogLevel level, String message, Throwable error, Object[] fields) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        // Resolve lazy values and snapshot mutable ones here, the line is formatted on another thread
+        Object[] resolved = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            Object value = fields[i] instanceof Supplier<?> supplier ? supplier.get() : fields[i];
+            resolved[i] = value == null || value instanceof Number || value instanceof Boolean ? value : value.toString();
+        }
+        AsyncLogWriter.write(new AsyncLogWriter.LogEvent(System.currentTimeMillis(), level, name, REQUEST_ID.get(),
+                message, resolved, error));
+    }
+
+    private static double readDouble(String variable, double defaultValue) {
+        String value = System.getenv(variable);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
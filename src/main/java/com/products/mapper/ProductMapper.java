@@ -2,43 +2,81 @@ package com.products.mapper;
 
 import com.products.model.Product;
 import com.products.model.Sales;
+import com.products.repository.DynamoDbProductRepository;
 import com.products.repository.ProductRepository;
+import com.products.request.SaleLineItem;
 import com.products.response.CustomSalesResponse;
 import com.products.response.ProductDto;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
 public class ProductMapper {
     private final ProductRepository productRepository;
 
     public ProductMapper(DynamoDbEnhancedClient enhancedClient) {
-        String productTable = System.getenv("PRODUCT_TABLE");
-        this.productRepository = new ProductRepository(enhancedClient, productTable);
+        this(new DynamoDbProductRepository(enhancedClient, System.getenv("PRODUCT_TABLE")));
+    }
+
+    public ProductMapper(ProductRepository productRepository) {
+        this.productRepository = productRepository;
     }
 
     public CustomSalesResponse getCustomSales(Sales sales) {
+        return getCustomSales(List.of(sales)).get(0);
+    }
+
+    // Lines carry a product snapshot; only lines written before snapshots existed need a (batched) product lookup
+    public List<CustomSalesResponse> getCustomSales(List<Sales> sales) {
+        Set<String> productIds = new HashSet<>();
+        for (Sales sale : sales) {
+            for (SaleLineItem item : sale.getItems()) {
+                if (!item.hasSnapshot()) {
+                    productIds.add(item.getProductId());
+                }
+            }
+        }
 
+        Map<String, Product> products = productIds.isEmpty() ? Map.of() : productRepository.findAllByProductIds(productIds);
+
+        return sales.stream()
+                .map(sale -> toCustomSales(sale, products))
+                .toList();
+    }
+
+    private CustomSalesResponse toCustomSales(Sales sales, Map<String, Product> products) {
         return CustomSalesResponse.builder()
                 .salesId(sales.getSalesId())
                 .products(sales.getItems().stream()
-                        .map(
-                                item -> toProductDto(
-                                        getProduct(item.getProductId())
-                                )).toList())
+                        .map(item -> toProductDto(item, products))
+                        .filter(Objects::nonNull)
+                        .toList())
                 .quantity(sales.getQuantitySold())
                 .totalPrice(sales.getTotalPrice())
                 .dateSold(sales.getDateSold())
                 .build();
     }
 
-    private ProductDto toProductDto(Product product) {
+    private ProductDto toProductDto(SaleLineItem item, Map<String, Product> products) {
+        if (item.hasSnapshot()) {
+            return ProductDto.builder()
+                    .productName(item.getProductName())
+                    .categoryName(item.getCategoryName())
+                    .sellingPrice(item.getUnitSellingPrice() != null ? item.getUnitSellingPrice() : 0)
+                    .build();
+        }
+        Product product = products.get(item.getProductId());
+        if (product == null) {
+            return null;
+        }
         return ProductDto.builder()
                 .productName(product.getProductName())
                 .categoryName(product.getCategoryName())
-                .sellingPrice(product.getTotalSellingPrice())
+                .sellingPrice(product.getUnitSellingPrice())
                 .build();
     }
-
-    private Product getProduct(String productId) {
-        return productRepository.findByProductId(productId);
-    }
 }
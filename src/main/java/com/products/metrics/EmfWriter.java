@@ -0,0 +1,212 @@
+package com.products.metrics;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Writes an invocation's metrics as CloudWatch Embedded Metric Format documents, one JSON object per stdout line.
+ * Lambda ships stdout to CloudWatch Logs, which extracts the metrics; locally the same lines can be read as-is.
+ * <p>
+ * One document per invocation carries the totals under the FunctionName dimension, followed by one document per
+ * SDK operation called under FunctionName/Service/Operation, so a handler issuing a call per item (N+1) shows up
+ * both as a jump in DynamoDbCalls and in the Calls of the offending operation.
+ */
+final class EmfWriter {
+    // CloudWatch accepts at most 100 values for one metric in one document
+    static final int MAX_VALUES_PER_METRIC = 100;
+
+    private static final String NAMESPACE = namespace();
+    // SERVICE_NAME the SDK reports for DynamoDB clients
+    private static final String DYNAMODB = "DynamoDb";
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private EmfWriter() {
+    }
+
+    static void write(InvocationMetrics metrics) {
+        try {
+            long timestamp = System.currentTimeMillis();
+            List<InvocationMetrics.CallStats> calls = metrics.calls();
+            StringBuilder lines = new StringBuilder(1024);
+            lines.append(invocation(metrics, calls, timestamp)).append(System.lineSeparator());
+            for (InvocationMetrics.CallStats call : calls) {
+                lines.append(operation(metrics, call, timestamp)).append(System.lineSeparator());
+            }
+            System.out.print(lines);
+            System.out.flush();
+        } catch (IOException | RuntimeException e) {
+            // Metrics must never fail the invocation they describe
+        }
+    }
+
+    private static String invocation(InvocationMetrics metrics, List<InvocationMetrics.CallStats> calls,
+                                     long timestamp) throws IOException {
+        int dynamoDbCalls = 0;
+        int downstreamCalls = 0;
+        double readUnits = 0;
+        double writeUnits = 0;
+        for (InvocationMetrics.CallStats call : calls) {
+            downstreamCalls += call.count;
+            if (DYNAMODB.equals(call.service)) {
+                dynamoDbCalls += call.count;
+                readUnits += call.readUnits;
+                writeUnits += call.writeUnits;
+            }
+        }
+        // An empty values array is not a valid metric value, so the latency is left out of call-free invocations
+        boolean dynamoDbLatency = dynamoDbCalls > 0;
+        boolean fault = metrics.failed() || metrics.statusCode() >= 500;
+        boolean clientError = metrics.statusCode() >= 400 && metrics.statusCode() < 500;
+
+        StringWriter out = new StringWriter(512);
+        try (JsonGenerator json = JSON.createGenerator(out)) {
+            json.writeStartObject();
+            writeMetadata(json, timestamp, new String[]{"FunctionName"}, () -> {
+                metric(json, "Duration", "Milliseconds");
+                metric(json, "ColdStart", "Count");
+                metric(json, "Faults", "Count");
+                metric(json, "ClientErrors", "Count");
+                metric(json, "DownstreamCalls", "Count");
+                metric(json, "DynamoDbCalls", "Count");
+                if (dynamoDbLatency) {
+                    metric(json, "DynamoDbLatency", "Milliseconds");
+                }
+                metric(json, "DynamoDbReadCapacityUnits", "Count");
+                metric(json, "DynamoDbWriteCapacityUnits", "Count");
+                if (metrics.requestBytes() >= 0) {
+                    metric(json, "RequestBytes", "Bytes");
+                }
+                if (metrics.responseBytes() >= 0) {
+                    metric(json, "ResponseBytes", "Bytes");
+                }
+            });
+            json.writeStringField("FunctionName", metrics.functionName());
+            json.writeNumberField("Duration", round(metrics.elapsedMillis()));
+            json.writeNumberField("ColdStart", metrics.coldStart() ? 1 : 0);
+            json.writeNumberField("Faults", fault ? 1 : 0);
+            json.writeNumberField("ClientErrors", clientError ? 1 : 0);
+            json.writeNumberField("DownstreamCalls", downstreamCalls);
+            json.writeNumberField("DynamoDbCalls", dynamoDbCalls);
+            if (dynamoDbLatency) {
+                json.writeArrayFieldStart("DynamoDbLatency");
+                int values = 0;
+                for (InvocationMetrics.CallStats call : calls) {
+                    if (!DYNAMODB.equals(call.service)) {
+                        continue;
+                    }
+                    for (Double latency : call.latencies) {
+                        if (values++ < MAX_VALUES_PER_METRIC) {
+                            json.writeNumber(round(latency));
+                        }
+                    }
+                }
+                json.writeEndArray();
+            }
+            json.writeNumberField("DynamoDbReadCapacityUnits", round(readUnits));
+            json.writeNumberField("DynamoDbWriteCapacityUnits", round(writeUnits));
+            if (metrics.requestBytes() >= 0) {
+                json.writeNumberField("RequestBytes", metrics.requestBytes());
+            }
+            if (metrics.responseBytes() >= 0) {
+                json.writeNumberField("ResponseBytes", metrics.responseBytes());
+            }
+
+            // Properties, searchable in Logs Insights but not published as metrics
+            if (metrics.requestId() != null) {
+                json.writeStringField("RequestId", metrics.requestId());
+            }
+            if (metrics.statusCode() > 0) {
+                json.writeNumberField("StatusCode", metrics.statusCode());
+            }
+            json.writeObjectFieldStart("CallsByOperation");
+            for (InvocationMetrics.CallStats call : calls) {
+                json.writeNumberField(call.service + "." + call.operation, call.count);
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+        return out.toString();
+    }
+
+    private static String operation(InvocationMetrics metrics, InvocationMetrics.CallStats call,
+                                    long timestamp) throws IOException {
+        boolean dynamoDb = DYNAMODB.equals(call.service);
+        StringWriter out = new StringWriter(256);
+        try (JsonGenerator json = JSON.createGenerator(out)) {
+            json.writeStartObject();
+            writeMetadata(json, timestamp, new String[]{"FunctionName", "Service", "Operation"}, () -> {
+                metric(json, "Calls", "Count");
+                metric(json, "Latency", "Milliseconds");
+                metric(json, "Errors", "Count");
+                metric(json, "Retries", "Count");
+                if (dynamoDb) {
+                    metric(json, "ReadCapacityUnits", "Count");
+                    metric(json, "WriteCapacityUnits", "Count");
+                }
+            });
+            json.writeStringField("FunctionName", metrics.functionName());
+            json.writeStringField("Service", call.service);
+            json.writeStringField("Operation", call.operation);
+            json.writeNumberField("Calls", call.count);
+            json.writeArrayFieldStart("Latency");
+            for (Double latency : call.latencies) {
+                json.writeNumber(round(latency));
+            }
+            json.writeEndArray();
+            json.writeNumberField("Errors", call.errors);
+            json.writeNumberField("Retries", call.retries);
+            if (dynamoDb) {
+                json.writeNumberField("ReadCapacityUnits", round(call.readUnits));
+                json.writeNumberField("WriteCapacityUnits", round(call.writeUnits));
+            }
+            if (metrics.requestId() != null) {
+                json.writeStringField("RequestId", metrics.requestId());
+            }
+            json.writeEndObject();
+        }
+        return out.toString();
+    }
+
+    private static void writeMetadata(JsonGenerator json, long timestamp, String[] dimensions,
+                                      MetricDefinitions definitions) throws IOException {
+        json.writeObjectFieldStart("_aws");
+        json.writeNumberField("Timestamp", timestamp);
+        json.writeArrayFieldStart("CloudWatchMetrics");
+        json.writeStartObject();
+        json.writeStringField("Namespace", NAMESPACE);
+        json.writeArrayFieldStart("Dimensions");
+        json.writeArray(dimensions, 0, dimensions.length);
+        json.writeEndArray();
+        json.writeArrayFieldStart("Metrics");
+        definitions.write();
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    private static void metric(JsonGenerator json, String name, String unit) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("Name", name);
+        json.writeStringField("Unit", unit);
+        json.writeEndObject();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static String namespace() {
+        String namespace = System.getenv("METRICS_NAMESPACE");
+        return namespace == null || namespace.isBlank() ? "InventoryManagement" : namespace.trim();
+    }
+
+    @FunctionalInterface
+    private interface MetricDefinitions {
+        void write() throws IOException;
+    }
+}
@@ -0,0 +1,221 @@
+package com.products.metrics;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.products.logging.StructuredLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+
+/**
+ * Collects what one handler invocation spent: wall time, payload sizes, and every AWS SDK call made on its
+ * behalf (recorded by {@link SdkCallMetricsInterceptor}). When the invocation ends the totals are written to
+ * stdout as CloudWatch Embedded Metric Format lines, see {@link EmfWriter}.
+ * <p>
+ * The invocation being measured is bound to the calling thread; work handed to other threads must be wrapped
+ * with {@link #propagate(Callable)} to be attributed to it. Set METRICS_ENABLED=false to turn it off.
+ */
+public final class InvocationMetrics {
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(System.getenv("METRICS_ENABLED"));
+    private static final ThreadLocal<InvocationMetrics> CURRENT = new ThreadLocal<>();
+    private static final AtomicBoolean COLD_START = new AtomicBoolean(true);
+
+    private final String functionName;
+    private final String requestId;
+    private final boolean coldStart;
+    private final long startNanos = System.nanoTime();
+    // Keyed by "Service.Operation"; guarded by this, calls may be recorded from several threads
+    private final Map<String, CallStats> calls = new TreeMap<>();
+
+    private long requestBytes = -1;
+    private long responseBytes = -1;
+    private int statusCode;
+    private boolean failed;
+
+    private InvocationMetrics(String functionName, String requestId, boolean coldStart) {
+        this.functionName = functionName;
+        this.requestId = requestId;
+        this.coldStart = coldStart;
+    }
+
+    /**
+     * Runs one invocation of a handler and emits its metrics afterwards, whether it returned or threw.
+     * Also tags the invocation's log lines with its request id and flushes them before returning.
+     */
+    public static <I, O> O instrument(I input, Context context, BiFunction<I, Context, O> handler) {
+        String requestId = context != null ? context.getAwsRequestId() : null;
+        String previousRequestId = StructuredLogger.bindRequestId(requestId);
+        try {
+            return ENABLED ? measure(input, context, requestId, handler) : handler.apply(input, context);
+        } finally {
+            StructuredLogger.bindRequestId(previousRequestId);
+            StructuredLogger.flush();
+        }
+    }
+
+    private static <I, O> O measure(I input, Context context, String requestId, BiFunction<I, Context, O> handler) {
+        InvocationMetrics metrics = new InvocationMetrics(functionName(context), requestId, COLD_START.getAndSet(false));
+        if (input instanceof APIGatewayProxyRequestEvent event) {
+            metrics.requestBytes = utf8Length(event.getBody());
+        }
+
+        InvocationMetrics previous = CURRENT.get();
+        CURRENT.set(metrics);
+        O output = null;
+        try {
+            output = handler.apply(input, context);
+            return output;
+        } catch (RuntimeException | Error e) {
+            metrics.failed = true;
+            throw e;
+        } finally {
+            CURRENT.set(previous);
+            if (output instanceof APIGatewayProxyResponseEvent response) {
+                metrics.statusCode = response.getStatusCode() != null ? response.getStatusCode() : 0;
+                metrics.responseBytes = utf8Length(response.getBody());
+            }
+            EmfWriter.write(metrics);
+        }
+    }
+
+    /**
+     * The invocation running on this thread, or null outside of {@link #instrument}.
+     */
+    static InvocationMetrics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds the invocation running on the submitting thread to the thread that later runs the task.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        InvocationMetrics metrics = CURRENT.get();
+        if (metrics == null) {
+            return task;
+        }
+        return () -> {
+            InvocationMetrics previous = CURRENT.get();
+            CURRENT.set(metrics);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    synchronized void recordCall(String service, String operation, double millis, int attempts, boolean error,
+                                 double readUnits, double writeUnits) {
+        CallStats stats = calls.computeIfAbsent(service + "." + operation, key -> new CallStats(service, operation));
+        stats.count++;
+        stats.retries += Math.max(0, attempts - 1);
+        stats.errors += error ? 1 : 0;
+        stats.totalMillis += millis;
+        stats.readUnits += readUnits;
+        stats.writeUnits += writeUnits;
+        if (stats.latencies.size() < EmfWriter.MAX_VALUES_PER_METRIC) {
+            stats.latencies.add(millis);
+        }
+    }
+
+    synchronized List<CallStats> calls() {
+        return calls.values().stream().map(CallStats::copy).toList();
+    }
+
+    String functionName() {
+        return functionName;
+    }
+
+    String requestId() {
+        return requestId;
+    }
+
+    boolean coldStart() {
+        return coldStart;
+    }
+
+    double elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+
+    long requestBytes() {
+        return requestBytes;
+    }
+
+    long responseBytes() {
+        return responseBytes;
+    }
+
+    int statusCode() {
+        return statusCode;
+    }
+
+    boolean failed() {
+        return failed;
+    }
+
+    private static String functionName(Context context) {
+        String name = context != null ? context.getFunctionName() : null;
+        if (name == null) {
+            name = System.getenv("AWS_LAMBDA_FUNCTION_NAME");
+        }
+        return name != null ? name : "unknown";
+    }
+
+    // Counts the UTF-8 bytes without encoding the string; -1 when there is no body
+    private static long utf8Length(String value) {
+        if (value == null) {
+            return -1;
+        }
+        long bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    static final class CallStats {
+        final String service;
+        final String operation;
+        final List<Double> latencies = new ArrayList<>();
+        int count;
+        int retries;
+        int errors;
+        double totalMillis;
+        double readUnits;
+        double writeUnits;
+
+        CallStats(String service, String operation) {
+            this.service = service;
+            this.operation = operation;
+        }
+
+        CallStats copy() {
+            CallStats copy = new CallStats(service, operation);
+            copy.latencies.addAll(latencies);
+            copy.count = count;
+            copy.retries = retries;
+            copy.errors = errors;
+            copy.totalMillis = totalMillis;
+            copy.readUnits = readUnits;
+            copy.writeUnits = writeUnits;
+            return copy;
+        }
+    }
+}
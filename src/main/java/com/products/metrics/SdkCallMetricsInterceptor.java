@@ -0,0 +1,141 @@
+package com.products.metrics;
+
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records every call made through an SDK client into the {@link InvocationMetrics} of the invocation that made
+ * it: latency including retries, attempt count and failures. DynamoDB requests are additionally sent with
+ * ReturnConsumedCapacity=TOTAL (unless the caller asked for something else) so the capacity they consume
+ * can be attributed to the invocation. Calls made outside an instrumented invocation are not recorded.
+ */
+public class SdkCallMetricsInterceptor implements ExecutionInterceptor {
+    private static final ExecutionAttribute<Long> START_NANOS = new ExecutionAttribute<>("MetricsStartNanos");
+    private static final ExecutionAttribute<Integer> ATTEMPTS = new ExecutionAttribute<>("MetricsAttempts");
+    private static final Set<String> READ_OPERATIONS = Set.of("GetItem", "BatchGetItem", "Query", "Scan",
+            "TransactGetItems");
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(START_NANOS, System.nanoTime());
+        executionAttributes.putAttribute(ATTEMPTS, 0);
+    }
+
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes executionAttributes) {
+        return switch (context.request()) {
+            case GetItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case PutItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case UpdateItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case DeleteItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case QueryRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case ScanRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case BatchGetItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case BatchWriteItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case TransactGetItemsRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case TransactWriteItemsRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            default -> context.request();
+        };
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        Integer attempts = executionAttributes.getAttribute(ATTEMPTS);
+        executionAttributes.putAttribute(ATTEMPTS, attempts != null ? attempts + 1 : 1);
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes, false, consumedCapacity(context.response()));
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes, true, 0);
+    }
+
+    private static void record(ExecutionAttributes executionAttributes, boolean error, double capacityUnits) {
+        InvocationMetrics metrics = InvocationMetrics.current();
+        Long start = executionAttributes.getAttribute(START_NANOS);
+        if (metrics == null || start == null) {
+            return;
+        }
+        String service = executionAttributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME);
+        String operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        Integer attempts = executionAttributes.getAttribute(ATTEMPTS);
+        boolean read = READ_OPERATIONS.contains(operation);
+        metrics.recordCall(service, operation, (System.nanoTime() - start) / 1_000_000.0,
+                attempts != null ? attempts : 0, error,
+                read ? capacityUnits : 0, read ? 0 : capacityUnits);
+    }
+
+    private static double consumedCapacity(SdkResponse response) {
+        return switch (response) {
+            case GetItemResponse r -> units(r.consumedCapacity());
+            case PutItemResponse r -> units(r.consumedCapacity());
+            case UpdateItemResponse r -> units(r.consumedCapacity());
+            case DeleteItemResponse r -> units(r.consumedCapacity());
+            case QueryResponse r -> units(r.consumedCapacity());
+            case ScanResponse r -> units(r.consumedCapacity());
+            case BatchGetItemResponse r -> units(r.consumedCapacity());
+            case BatchWriteItemResponse r -> units(r.consumedCapacity());
+            case TransactGetItemsResponse r -> units(r.consumedCapacity());
+            case TransactWriteItemsResponse r -> units(r.consumedCapacity());
+            default -> 0;
+        };
+    }
+
+    private static double units(ConsumedCapacity capacity) {
+        return capacity != null && capacity.capacityUnits() != null ? capacity.capacityUnits() : 0;
+    }
+
+    private static double units(List<ConsumedCapacity> capacities) {
+        double total = 0;
+        if (capacities != null) {
+            for (ConsumedCapacity capacity : capacities) {
+                total += units(capacity);
+            }
+        }
+        return total;
+    }
+}
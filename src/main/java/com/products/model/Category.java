@@ -26,6 +26,7 @@ public class Category {
 
 
     @DynamoDbSortKey
+    @DynamoDbSecondaryPartitionKey(indexNames = {"CategoryNameIndex"})
     public String getCategoryName() {
         return categoryName;
     }
@@ -0,0 +1,47 @@
+package com.products.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+/**
+ * State of an asynchronous product import. rowsRead and nextByteOffset are the checkpoint:
+ * the next worker invocation resumes reading the uploaded object at nextByteOffset. heartbeatAt is renewed with
+ * every checkpoint; a RUNNING job whose heartbeat has gone stale is no longer being worked on.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@DynamoDbBean
+public class ImportJob {
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private String jobId;
+    private String status;
+    private String format;
+    private String objectKey;
+    private String createdAt;
+    private String updatedAt;
+    private String heartbeatAt;
+    private String csvHeader;
+    private long rowsRead;
+    private long nextByteOffset;
+    private long createdCount;
+    private long updatedCount;
+    private long skippedCount;
+    private long failedCount;
+    private String reportKey;
+    private String errorMessage;
+
+    @DynamoDbPartitionKey
+    public String getJobId() {
+        return jobId;
+    }
+}
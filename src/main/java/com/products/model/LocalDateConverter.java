@@ -0,0 +1,82 @@
+package com.products.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.AttributeConverter;
+import software.amazon.awssdk.enhanced.dynamodb.AttributeValueType;
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.LocalDate;
+
+/**
+ * Stores a LocalDate as an ISO yyyy-MM-dd string. Formats and parses the common four-digit-year case by hand
+ * rather than through DateTimeFormatter, which allocates a parse context and field map per call.
+ */
+public final class LocalDateConverter implements AttributeConverter<LocalDate> {
+    public static final LocalDateConverter INSTANCE = new LocalDateConverter();
+
+    private static final EnhancedType<LocalDate> TYPE = EnhancedType.of(LocalDate.class);
+
+    @Override
+    public AttributeValue transformFrom(LocalDate input) {
+        return AttributeValue.fromS(format(input));
+    }
+
+    @Override
+    public LocalDate transformTo(AttributeValue input) {
+        return parse(input.s());
+    }
+
+    @Override
+    public EnhancedType<LocalDate> type() {
+        return TYPE;
+    }
+
+    @Override
+    public AttributeValueType attributeValueType() {
+        return AttributeValueType.S;
+    }
+
+    public static String format(LocalDate date) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            return date.toString();
+        }
+        int month = date.getMonthValue();
+        int day = date.getDayOfMonth();
+        char[] chars = {
+                digit(year / 1000), digit(year / 100 % 10), digit(year / 10 % 10), digit(year % 10),
+                '-', digit(month / 10), digit(month % 10),
+                '-', digit(day / 10), digit(day % 10)
+        };
+        return new String(chars);
+    }
+
+    public static LocalDate parse(String value) {
+        if (value.length() == 10 && value.charAt(4) == '-' && value.charAt(7) == '-') {
+            int year = number(value, 0, 4);
+            int month = number(value, 5, 7);
+            int day = number(value, 8, 10);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(value);
+    }
+
+    private static char digit(int value) {
+        return (char) ('0' + value);
+    }
+
+    // Returns -1 when the range holds anything but digits
+    private static int number(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+}
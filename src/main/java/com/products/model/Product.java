@@ -8,10 +8,9 @@ import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @DynamoDbBean
@@ -57,21 +56,20 @@ public class Product {
     }
 
     public static class LocalDateAttributeConverter implements AttributeConverter<LocalDate> {
-        private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
 
         @Override
         public AttributeValue transformFrom(LocalDate input) {
-            return AttributeValue.builder().s(input.format(FORMATTER)).build();
+            return LocalDateConverter.INSTANCE.transformFrom(input);
         }
 
         @Override
         public LocalDate transformTo(AttributeValue input) {
-            return LocalDate.parse(input.s(), FORMATTER);
+            return LocalDateConverter.INSTANCE.transformTo(input);
         }
 
         @Override
         public EnhancedType<LocalDate> type() {
-            return EnhancedType.of(LocalDate.class);
+            return LocalDateConverter.INSTANCE.type();
         }
 
         @Override
@@ -2,6 +2,7 @@ package com.products.model;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.products.request.SaleLineItem;
 import lombok.*;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
@@ -11,8 +12,10 @@ import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Getter
 @Setter
@@ -52,21 +55,20 @@ public class Sales {
     }
 
     public static class LocalDateAttributeConverter implements AttributeConverter<LocalDate> {
-        private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
 
         @Override
         public AttributeValue transformFrom(LocalDate input) {
-            return AttributeValue.builder().s(input.format(FORMATTER)).build();
+            return LocalDateConverter.INSTANCE.transformFrom(input);
         }
 
         @Override
         public LocalDate transformTo(AttributeValue input) {
-            return LocalDate.parse(input.s(), FORMATTER);
+            return LocalDateConverter.INSTANCE.transformTo(input);
         }
 
         @Override
         public EnhancedType<LocalDate> type() {
-            return EnhancedType.of(LocalDate.class);
+            return LocalDateConverter.INSTANCE.type();
         }
 
         @Override
@@ -75,35 +77,101 @@ public class Sales {
         }
     }
 
+    /**
+     * Stores line items as a native list of maps: [{productId: S, quantitySold: N, totalPrice: N}, ...],
+     * plus productName, categoryName and unitSellingPrice on lines that carry a product snapshot.
+     * Rows written before this format hold the items as a JSON string; those are still read, and are
+     * rewritten in the native format the next time the sale is saved.
+     */
     public static class SaleLineItemListConverter implements AttributeConverter<List<SaleLineItem>> {
-        private static final ObjectMapper MAPPER = new ObjectMapper();
+        public static final SaleLineItemListConverter INSTANCE = new SaleLineItemListConverter();
+
+        static final String PRODUCT_ID = "productId";
+        static final String QUANTITY_SOLD = "quantitySold";
+        static final String TOTAL_PRICE = "totalPrice";
+        static final String PRODUCT_NAME = "productName";
+        static final String CATEGORY_NAME = "categoryName";
+        static final String UNIT_SELLING_PRICE = "unitSellingPrice";
+        static final String CATEGORY_ID = "categoryId";
+        static final String UNIT_COST_PRICE = "unitCostPrice";
+
+        private static final ObjectReader LEGACY_READER = new ObjectMapper().readerFor(new TypeReference<List<SaleLineItem>>() {});
+        private static final EnhancedType<List<SaleLineItem>> TYPE = EnhancedType.listOf(SaleLineItem.class);
 
         @Override
         public AttributeValue transformFrom(List<SaleLineItem> input) {
-            try {
-                return AttributeValue.builder().s(MAPPER.writeValueAsString(input)).build();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+            List<AttributeValue> values = new ArrayList<>(input.size());
+            for (SaleLineItem item : input) {
+                Map<String, AttributeValue> fields = new HashMap<>(16);
+                if (item.getProductId() != null) {
+                    fields.put(PRODUCT_ID, AttributeValue.fromS(item.getProductId()));
+                }
+                fields.put(QUANTITY_SOLD, AttributeValue.fromN(Integer.toString(item.getQuantitySold())));
+                fields.put(TOTAL_PRICE, AttributeValue.fromN(Double.toString(item.getTotalPrice())));
+                if (item.getProductName() != null) {
+                    fields.put(PRODUCT_NAME, AttributeValue.fromS(item.getProductName()));
+                }
+                if (item.getCategoryName() != null) {
+                    fields.put(CATEGORY_NAME, AttributeValue.fromS(item.getCategoryName()));
+                }
+                if (item.getUnitSellingPrice() != null) {
+                    fields.put(UNIT_SELLING_PRICE, AttributeValue.fromN(Double.toString(item.getUnitSellingPrice())));
+                }
+                if (item.getCategoryId() != null) {
+                    fields.put(CATEGORY_ID, AttributeValue.fromS(item.getCategoryId()));
+                }
+                if (item.getUnitCostPrice() != null) {
+                    fields.put(UNIT_COST_PRICE, AttributeValue.fromN(Double.toString(item.getUnitCostPrice())));
+                }
+                values.add(AttributeValue.fromM(fields));
             }
+            return AttributeValue.fromL(values);
         }
 
         @Override
         public List<SaleLineItem> transformTo(AttributeValue input) {
-            try {
-                return MAPPER.readValue(input.s(), new TypeReference<List<SaleLineItem>>() {});
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+            if (input.s() != null) {
+                return fromLegacyJson(input.s());
+            }
+
+            List<AttributeValue> values = input.l();
+            List<SaleLineItem> items = new ArrayList<>(values.size());
+            for (AttributeValue value : values) {
+                Map<String, AttributeValue> fields = value.m();
+                items.add(SaleLineItem.builder()
+                        .productId(string(fields.get(PRODUCT_ID)))
+                        .quantitySold(fields.containsKey(QUANTITY_SOLD) ? Integer.parseInt(fields.get(QUANTITY_SOLD).n()) : 0)
+                        .totalPrice(fields.containsKey(TOTAL_PRICE) ? Double.parseDouble(fields.get(TOTAL_PRICE).n()) : 0)
+                        .productName(string(fields.get(PRODUCT_NAME)))
+                        .categoryName(string(fields.get(CATEGORY_NAME)))
+                        .unitSellingPrice(fields.containsKey(UNIT_SELLING_PRICE) ? Double.parseDouble(fields.get(UNIT_SELLING_PRICE).n()) : null)
+                        .categoryId(string(fields.get(CATEGORY_ID)))
+                        .unitCostPrice(fields.containsKey(UNIT_COST_PRICE) ? Double.parseDouble(fields.get(UNIT_COST_PRICE).n()) : null)
+                        .build());
             }
+            return items;
         }
 
         @Override
         public EnhancedType<List<SaleLineItem>> type() {
-            return EnhancedType.listOf(SaleLineItem.class);
+            return TYPE;
         }
 
         @Override
         public AttributeValueType attributeValueType() {
-            return AttributeValueType.S;
+            return AttributeValueType.L;
+        }
+
+        private static List<SaleLineItem> fromLegacyJson(String json) {
+            try {
+                return LEGACY_READER.readValue(json);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private static String string(AttributeValue value) {
+            return value != null ? value.s() : null;
         }
     }
 }
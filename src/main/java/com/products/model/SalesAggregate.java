@@ -0,0 +1,50 @@
+package com.products.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+/**
+ * Running totals of one day's sales, kept up to date from the Sales table stream.
+ * Each day has a {@link #TOTAL} row plus one row per product ({@code PRODUCT#<productId>})
+ * and per category ({@code CATEGORY#<categoryId>}). A {@link #COMPLETE} row marks a day whose rows cover every
+ * sale of that day; days without one are answered from the raw sales.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@DynamoDbBean
+public class SalesAggregate {
+    public static final String TOTAL = "TOTAL";
+    public static final String COMPLETE = "COMPLETE";
+    public static final String PRODUCT_PREFIX = "PRODUCT#";
+    public static final String CATEGORY_PREFIX = "CATEGORY#";
+
+    private String day;
+    private String aggregateKey;
+    // Product or category name as of the latest sale that touched the row
+    private String name;
+    private long quantity;
+    private double revenue;
+    private double cost;
+    // Sold on lines without a cost snapshot; included in quantity and revenue but not costed
+    private long uncostedQuantity;
+    private double uncostedRevenue;
+    // Number of sales, on TOTAL rows only
+    private long saleCount;
+
+    @DynamoDbPartitionKey
+    public String getDay() {
+        return day;
+    }
+
+    @DynamoDbSortKey
+    public String getAggregateKey() {
+        return aggregateKey;
+    }
+}
@@ -0,0 +1,209 @@
+package com.products.model;
+
+import com.products.request.SaleLineItem;
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+
+import java.time.LocalDate;
+
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.primaryPartitionKey;
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.primarySortKey;
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.secondaryPartitionKey;
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.secondarySortKey;
+
+/**
+ * Table schemas shared by every repository and handler. They are written out by hand with
+ * StaticTableSchema, mirroring the @DynamoDbBean annotations on the models, so no bean introspection
+ * or LambdaMetafactory work happens at cold start. Keep them in sync when a model gains an attribute.
+ */
+public final class TableSchemas {
+    public static final TableSchema<Product> PRODUCT = productSchema();
+    public static final TableSchema<Sales> SALES = salesSchema();
+    public static final TableSchema<Category> CATEGORY = categorySchema();
+    public static final TableSchema<ImportJob> IMPORT_JOB = importJobSchema();
+    public static final TableSchema<SalesAggregate> SALES_AGGREGATE = salesAggregateSchema();
+
+    private TableSchemas() {
+    }
+
+    public static StaticTableSchema<Product> productSchema() {
+        return StaticTableSchema.builder(Product.class)
+                .newItemSupplier(Product::new)
+                .addAttribute(String.class, a -> a.name("productId")
+                        .getter(Product::getProductId)
+                        .setter(Product::setProductId)
+                        .tags(primaryPartitionKey()))
+                .addAttribute(String.class, a -> a.name("productName")
+                        .getter(Product::getProductName)
+                        .setter(Product::setProductName)
+                        .tags(secondarySortKey("CategoryIndex")))
+                .addAttribute(Double.class, a -> a.name("unitCostPrice")
+                        .getter(Product::getUnitCostPrice)
+                        .setter(Product::setUnitCostPrice))
+                .addAttribute(Integer.class, a -> a.name("quantity")
+                        .getter(Product::getQuantity)
+                        .setter(Product::setQuantity))
+                .addAttribute(LocalDate.class, a -> a.name("dateAdded")
+                        .getter(Product::getDateAdded)
+                        .setter(Product::setDateAdded)
+                        .attributeConverter(LocalDateConverter.INSTANCE)
+                        .tags(secondaryPartitionKey("DateAddedIndex")))
+                .addAttribute(LocalDate.class, a -> a.name("dateUpdated")
+                        .getter(Product::getDateUpdated)
+                        .setter(Product::setDateUpdated)
+                        .attributeConverter(LocalDateConverter.INSTANCE)
+                        .tags(secondaryPartitionKey("DateUpdatedIndex")))
+                .addAttribute(String.class, a -> a.name("categoryId")
+                        .getter(Product::getCategoryId)
+                        .setter(Product::setCategoryId)
+                        .tags(secondaryPartitionKey("CategoryIndex")))
+                .addAttribute(String.class, a -> a.name("categoryName")
+                        .getter(Product::getCategoryName)
+                        .setter(Product::setCategoryName))
+                .addAttribute(Double.class, a -> a.name("totalPrice")
+                        .getter(Product::getTotalPrice)
+                        .setter(Product::setTotalPrice))
+                .addAttribute(Double.class, a -> a.name("unitSellingPrice")
+                        .getter(Product::getUnitSellingPrice)
+                        .setter(Product::setUnitSellingPrice))
+                .addAttribute(Double.class, a -> a.name("totalSellingPrice")
+                        .getter(Product::getTotalSellingPrice)
+                        .setter(Product::setTotalSellingPrice))
+                .build();
+    }
+
+    public static StaticTableSchema<Sales> salesSchema() {
+        return StaticTableSchema.builder(Sales.class)
+                .newItemSupplier(Sales::new)
+                .addAttribute(String.class, a -> a.name("salesId")
+                        .getter(Sales::getSalesId)
+                        .setter(Sales::setSalesId)
+                        .tags(primaryPartitionKey()))
+                .addAttribute(EnhancedType.listOf(SaleLineItem.class), a -> a.name("items")
+                        .getter(Sales::getItems)
+                        .setter(Sales::setItems)
+                        .attributeConverter(Sales.SaleLineItemListConverter.INSTANCE))
+                .addAttribute(Integer.class, a -> a.name("quantitySold")
+                        .getter(Sales::getQuantitySold)
+                        .setter(Sales::setQuantitySold))
+                .addAttribute(Double.class, a -> a.name("totalPrice")
+                        .getter(Sales::getTotalPrice)
+                        .setter(Sales::setTotalPrice))
+                .addAttribute(LocalDate.class, a -> a.name("dateSold")
+                        .getter(Sales::getDateSold)
+                        .setter(Sales::setDateSold)
+                        .attributeConverter(LocalDateConverter.INSTANCE)
+                        .tags(secondaryPartitionKey("DateSoldIndex")))
+                .addAttribute(LocalDate.class, a -> a.name("dateUpdated")
+                        .getter(Sales::getDateUpdated)
+                        .setter(Sales::setDateUpdated)
+                        .attributeConverter(LocalDateConverter.INSTANCE)
+                        .tags(secondaryPartitionKey("DateUpdatedIndex")))
+                .build();
+    }
+
+    public static StaticTableSchema<Category> categorySchema() {
+        return StaticTableSchema.builder(Category.class)
+                .newItemSupplier(Category::new)
+                .addAttribute(String.class, a -> a.name("categoryId")
+                        .getter(Category::getCategoryId)
+                        .setter(Category::setCategoryId)
+                        .tags(primaryPartitionKey()))
+                .addAttribute(String.class, a -> a.name("categoryName")
+                        .getter(Category::getCategoryName)
+                        .setter(Category::setCategoryName)
+                        .tags(primarySortKey(), secondaryPartitionKey("CategoryNameIndex")))
+                .build();
+    }
+
+    public static StaticTableSchema<ImportJob> importJobSchema() {
+        return StaticTableSchema.builder(ImportJob.class)
+                .newItemSupplier(ImportJob::new)
+                .addAttribute(String.class, a -> a.name("jobId")
+                        .getter(ImportJob::getJobId)
+                        .setter(ImportJob::setJobId)
+                        .tags(primaryPartitionKey()))
+                .addAttribute(String.class, a -> a.name("status")
+                        .getter(ImportJob::getStatus)
+                        .setter(ImportJob::setStatus))
+                .addAttribute(String.class, a -> a.name("format")
+                        .getter(ImportJob::getFormat)
+                        .setter(ImportJob::setFormat))
+                .addAttribute(String.class, a -> a.name("objectKey")
+                        .getter(ImportJob::getObjectKey)
+                        .setter(ImportJob::setObjectKey))
+                .addAttribute(String.class, a -> a.name("createdAt")
+                        .getter(ImportJob::getCreatedAt)
+                        .setter(ImportJob::setCreatedAt))
+                .addAttribute(String.class, a -> a.name("updatedAt")
+                        .getter(ImportJob::getUpdatedAt)
+                        .setter(ImportJob::setUpdatedAt))
+                .addAttribute(String.class, a -> a.name("heartbeatAt")
+                        .getter(ImportJob::getHeartbeatAt)
+                        .setter(ImportJob::setHeartbeatAt))
+                .addAttribute(String.class, a -> a.name("csvHeader")
+                        .getter(ImportJob::getCsvHeader)
+                        .setter(ImportJob::setCsvHeader))
+                .addAttribute(Long.class, a -> a.name("rowsRead")
+                        .getter(ImportJob::getRowsRead)
+                        .setter(ImportJob::setRowsRead))
+                .addAttribute(Long.class, a -> a.name("nextByteOffset")
+                        .getter(ImportJob::getNextByteOffset)
+                        .setter(ImportJob::setNextByteOffset))
+                .addAttribute(Long.class, a -> a.name("createdCount")
+                        .getter(ImportJob::getCreatedCount)
+                        .setter(ImportJob::setCreatedCount))
+                .addAttribute(Long.class, a -> a.name("updatedCount")
+                        .getter(ImportJob::getUpdatedCount)
+                        .setter(ImportJob::setUpdatedCount))
+                .addAttribute(Long.class, a -> a.name("skippedCount")
+                        .getter(ImportJob::getSkippedCount)
+                        .setter(ImportJob::setSkippedCount))
+                .addAttribute(Long.class, a -> a.name("failedCount")
+                        .getter(ImportJob::getFailedCount)
+                        .setter(ImportJob::setFailedCount))
+                .addAttribute(String.class, a -> a.name("reportKey")
+                        .getter(ImportJob::getReportKey)
+                        .setter(ImportJob::setReportKey))
+                .addAttribute(String.class, a -> a.name("errorMessage")
+                        .getter(ImportJob::getErrorMessage)
+                        .setter(ImportJob::setErrorMessage))
+                .build();
+    }
+
+    public static StaticTableSchema<SalesAggregate> salesAggregateSchema() {
+        return StaticTableSchema.builder(SalesAggregate.class)
+                .newItemSupplier(SalesAggregate::new)
+                .addAttribute(String.class, a -> a.name("day")
+                        .getter(SalesAggregate::getDay)
+                        .setter(SalesAggregate::setDay)
+                        .tags(primaryPartitionKey()))
+                .addAttribute(String.class, a -> a.name("aggregateKey")
+                        .getter(SalesAggregate::getAggregateKey)
+                        .setter(SalesAggregate::setAggregateKey)
+                        .tags(primarySortKey()))
+                .addAttribute(String.class, a -> a.name("name")
+                        .getter(SalesAggregate::getName)
+                        .setter(SalesAggregate::setName))
+                .addAttribute(Long.class, a -> a.name("quantity")
+                        .getter(SalesAggregate::getQuantity)
+                        .setter(SalesAggregate::setQuantity))
+                .addAttribute(Double.class, a -> a.name("revenue")
+                        .getter(SalesAggregate::getRevenue)
+                        .setter(SalesAggregate::setRevenue))
+                .addAttribute(Double.class, a -> a.name("cost")
+                        .getter(SalesAggregate::getCost)
+                        .setter(SalesAggregate::setCost))
+                .addAttribute(Long.class, a -> a.name("uncostedQuantity")
+                        .getter(SalesAggregate::getUncostedQuantity)
+                        .setter(SalesAggregate::setUncostedQuantity))
+                .addAttribute(Double.class, a -> a.name("uncostedRevenue")
+                        .getter(SalesAggregate::getUncostedRevenue)
+                        .setter(SalesAggregate::setUncostedRevenue))
+                .addAttribute(Long.class, a -> a.name("saleCount")
+                        .getter(SalesAggregate::getSaleCount)
+                        .setter(SalesAggregate::setSaleCount))
+                .build();
+    }
+}
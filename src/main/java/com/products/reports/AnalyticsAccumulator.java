@@ -0,0 +1,137 @@
+package com.products.reports;
+
+import java.util.Arrays;
+
+/**
+ * Sums quantity, revenue, cost, uncosted quantity and revenue and sale count per {@code long} group key without boxing: an open-addressing
+ * table maps each key to a dense index into parallel primitive arrays.
+ */
+final class AnalyticsAccumulator {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] table;
+    private int[] tableIndex;
+    private int mask;
+
+    private long[] keys;
+    private long[] quantity;
+    private double[] revenue;
+    private double[] cost;
+    private long[] uncostedQuantity;
+    private double[] uncostedRevenue;
+    private long[] saleCount;
+    private int size;
+
+    AnalyticsAccumulator(int expectedGroups) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedGroups * 2 - 1)) << 1;
+        table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        tableIndex = new int[capacity];
+        mask = capacity - 1;
+        int dense = Math.max(8, expectedGroups);
+        keys = new long[dense];
+        quantity = new long[dense];
+        revenue = new double[dense];
+        cost = new double[dense];
+        uncostedQuantity = new long[dense];
+        uncostedRevenue = new double[dense];
+        saleCount = new long[dense];
+    }
+
+    void add(long key, long quantity, double revenue, double cost, long uncostedQuantity, double uncostedRevenue,
+             long saleCount) {
+        int index = indexOf(key);
+        this.quantity[index] += quantity;
+        this.revenue[index] += revenue;
+        this.cost[index] += cost;
+        this.uncostedQuantity[index] += uncostedQuantity;
+        this.uncostedRevenue[index] += uncostedRevenue;
+        this.saleCount[index] += saleCount;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long key(int index) {
+        return keys[index];
+    }
+
+    long quantity(int index) {
+        return quantity[index];
+    }
+
+    double revenue(int index) {
+        return revenue[index];
+    }
+
+    double cost(int index) {
+        return cost[index];
+    }
+
+    long uncostedQuantity(int index) {
+        return uncostedQuantity[index];
+    }
+
+    double uncostedRevenue(int index) {
+        return uncostedRevenue[index];
+    }
+
+    long saleCount(int index) {
+        return saleCount[index];
+    }
+
+    private int indexOf(long key) {
+        int slot = mix(key) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == key) {
+                return tableIndex[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == keys.length) {
+            growDense();
+        }
+        int index = size++;
+        keys[index] = key;
+        table[slot] = key;
+        tableIndex[slot] = index;
+        // Keep the load factor at or below one half
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return index;
+    }
+
+    private void growDense() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        quantity = Arrays.copyOf(quantity, capacity);
+        revenue = Arrays.copyOf(revenue, capacity);
+        cost = Arrays.copyOf(cost, capacity);
+        uncostedQuantity = Arrays.copyOf(uncostedQuantity, capacity);
+        uncostedRevenue = Arrays.copyOf(uncostedRevenue, capacity);
+        saleCount = Arrays.copyOf(saleCount, capacity);
+    }
+
+    private void rehash() {
+        int capacity = table.length * 2;
+        table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        tableIndex = new int[capacity];
+        mask = capacity - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = mix(keys[index]) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = keys[index];
+            tableIndex[slot] = index;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,147 @@
+package com.products.reports;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OutputStream that uploads to S3 in fixed-size parts as it is written, so memory stays at one part buffer
+ * however large the object gets. Objects smaller than one part are sent with a single PutObject.
+ * {@link #close()} completes the upload; call {@link #abort()} instead when the content is incomplete.
+ */
+public class MultipartUploadOutputStream extends OutputStream {
+    // S3 requires every part except the last to be at least 5 MiB
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    public static final int DEFAULT_PART_SIZE = 8 * 1024 * 1024;
+
+    private final S3Client s3Client;
+    private final String bucket;
+    private final String key;
+    private final String contentType;
+    private final byte[] buffer;
+    private final List<CompletedPart> completedParts = new ArrayList<>();
+
+    private int position;
+    private String uploadId;
+    private boolean closed;
+    private boolean finished;
+
+    public MultipartUploadOutputStream(S3Client s3Client, String bucket, String key, String contentType) {
+        this(s3Client, bucket, key, contentType, DEFAULT_PART_SIZE);
+    }
+
+    public MultipartUploadOutputStream(S3Client s3Client, String bucket, String key, String contentType, int partSize) {
+        if (partSize < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("Part size must be at least " + MIN_PART_SIZE + " bytes");
+        }
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.key = key;
+        this.contentType = contentType;
+        this.buffer = new byte[partSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (position == buffer.length) {
+            uploadPart();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            if (position == buffer.length) {
+                uploadPart();
+            }
+            int chunk = Math.min(length, buffer.length - position);
+            System.arraycopy(bytes, offset, buffer, position, chunk);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (uploadId == null) {
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(bucket)
+                            .key(key)
+                            .contentType(contentType)
+                            .build(),
+                    bufferBody());
+        } else {
+            if (position > 0) {
+                uploadPart();
+            }
+            s3Client.completeMultipartUpload(r -> r
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build()));
+        }
+        finished = true;
+    }
+
+    // Discards everything written so far; no object is created
+    public void abort() {
+        if (finished) {
+            return;
+        }
+        closed = true;
+        finished = true;
+        if (uploadId != null) {
+            s3Client.abortMultipartUpload(r -> r.bucket(bucket).key(key).uploadId(uploadId));
+        }
+    }
+
+    private void uploadPart() {
+        if (uploadId == null) {
+            uploadId = s3Client.createMultipartUpload(r -> r
+                            .bucket(bucket)
+                            .key(key)
+                            .contentType(contentType))
+                    .uploadId();
+        }
+
+        int partNumber = completedParts.size() + 1;
+        var response = s3Client.uploadPart(r -> r
+                        .bucket(bucket)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength((long) position),
+                bufferBody());
+        completedParts.add(CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+        position = 0;
+    }
+
+    // Streams straight from the part buffer instead of copying it into the request
+    private RequestBody bufferBody() {
+        int length = position;
+        return RequestBody.fromContentProvider(() -> new ByteArrayInputStream(buffer, 0, length), length, contentType);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Upload stream is closed");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.products.reports;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
+import com.products.model.Sales;
+import com.products.model.SalesAggregate;
+import com.products.repository.DynamoDbSalesRepository;
+import com.products.repository.SalesAggregateRepository;
+import com.products.repository.SalesRepository;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off job that rebuilds the daily aggregates from raw sales and marks each rebuilt day complete. Rows of days
+ * that predate the Sales stream, or only partly fall after it, hold just the deltas the stream has seen; until a
+ * day is rebuilt here analytics answer it from the raw sales.
+ * <p>
+ * Invoke with {@code from} (the first day with sales) and optionally {@code to}, which defaults to yesterday. Days
+ * still taking sales are refused: rewriting a day overwrites the deltas the stream adds to it meanwhile, and the
+ * day would then be marked complete with the wrong totals. So run it once the day aggregation was deployed on has
+ * ended, with {@code to} no earlier than that day; the days after it are marked complete by
+ * {@link SalesAggregationHandler} once {@code to} is recorded. While the result has a {@code nextDay}, invoke again
+ * with the result to continue. Edits to sales of past days can still race a day's rewrite, so run it while the
+ * stream is caught up. Run {@code SaleSnapshotBackfillHandler} first: costs and categories are only counted for
+ * lines that carry them.
+ */
+public class SalesAggregateBackfillHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+    private static final StructuredLogger LOG = StructuredLogger.forClass(SalesAggregateBackfillHandler.class);
+    // Leave room to finish the day in flight before the function times out
+    private static final long TIME_MARGIN_MILLIS = 30_000;
+
+    private final SalesAggregateRepository aggregateRepository;
+    private final SalesRepository salesRepository;
+
+    public SalesAggregateBackfillHandler() {
+        this(new SalesAggregateRepository(ClientRegistry.dynamoDbClient(), ClientRegistry.enhancedClient(),
+                        System.getenv("SALES_AGGREGATE_TABLE")),
+                new DynamoDbSalesRepository(ClientRegistry.enhancedClient(), System.getenv("SALES_TABLE")));
+    }
+
+    public SalesAggregateBackfillHandler(SalesAggregateRepository aggregateRepository, SalesRepository salesRepository) {
+        this.aggregateRepository = aggregateRepository;
+        this.salesRepository = salesRepository;
+    }
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        return InvocationMetrics.instrument(input, context, this::handle);
+    }
+
+    private Map<String, Object> handle(Map<String, Object> input, Context context) {
+        if (input == null || input.get("from") == null) {
+            throw new IllegalArgumentException("from is required");
+        }
+        LocalDate from = LocalDate.parse(input.get("from").toString());
+        LocalDate today = LocalDate.now();
+        LocalDate to = input.get("to") != null ? LocalDate.parse(input.get("to").toString()) : today.minusDays(1);
+        if (!to.isBefore(today)) {
+            throw new IllegalArgumentException("to must be before today, days still taking sales can't be rebuilt");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        LocalDate day = input.get("nextDay") != null ? LocalDate.parse(input.get("nextDay").toString()) : from;
+
+        int days = 0;
+        int sales = 0;
+        while (!day.isAfter(to) && (days == 0 || context.getRemainingTimeInMillis() > TIME_MARGIN_MILLIS)) {
+            sales += rebuild(day);
+            days++;
+            day = day.plusDays(1);
+        }
+        LocalDate nextDay = day.isAfter(to) ? null : day;
+        if (nextDay == null) {
+            aggregateRepository.recordBackfilledThrough(to);
+        }
+
+        LOG.info("Aggregate backfill pass finished", "from", from, "to", to, "days", days, "sales", sales,
+                "continueFrom", nextDay);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from.toString());
+        result.put("to", to.toString());
+        result.put("days", days);
+        result.put("sales", sales);
+        result.put("nextDay", nextDay != null ? nextDay.toString() : null);
+        return result;
+    }
+
+    private int rebuild(LocalDate day) {
+        List<Sales> sales = salesRepository.getSalesByDate(day.toString());
+        SalesRollup rollup = new SalesRollup();
+        sales.forEach(sale -> rollup.add(sale, 1));
+        List<SalesAggregate> rows = rollup.rows();
+        aggregateRepository.replaceDay(day, rows);
+        return sales.size();
+    }
+}
@@ -0,0 +1,93 @@
+package com.products.reports;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
+import com.products.model.Sales;
+import com.products.model.TableSchemas;
+import com.products.repository.SalesAggregateRepository;
+import com.products.utils.StreamImageUtil;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the daily sales aggregates in step with the Sales table. Each stream record subtracts its old image
+ * and adds its new one, so inserts, edits and deletes all net out to the right totals.
+ * <p>
+ * Days after the last day rebuilt by {@link SalesAggregateBackfillHandler} were seen by the stream from their
+ * first sale on, so each is marked complete the first time one of its sales comes through. Earlier days are only
+ * marked by the backfill.
+ */
+public class SalesAggregationHandler implements RequestHandler<DynamodbEvent, StreamsEventResponse> {
+
+    private static final StructuredLogger LOG = StructuredLogger.forClass(SalesAggregationHandler.class);
+
+    private final SalesAggregateRepository aggregateRepository;
+    // Days this container has already marked complete
+    private final Set<String> completeDays = new HashSet<>();
+    private LocalDate backfilledThrough;
+
+    public SalesAggregationHandler() {
+        aggregateRepository = new SalesAggregateRepository(ClientRegistry.dynamoDbClient(),
+                ClientRegistry.enhancedClient(), System.getenv("SALES_AGGREGATE_TABLE"));
+    }
+
+    @Override
+    public StreamsEventResponse handleRequest(DynamodbEvent event, Context context) {
+        return InvocationMetrics.instrument(event, context, this::handle);
+    }
+
+    private StreamsEventResponse handle(DynamodbEvent event, Context context) {
+        if (backfilledThrough == null) {
+            backfilledThrough = aggregateRepository.findBackfilledThrough();
+        }
+        for (DynamodbEvent.DynamodbStreamRecord record : event.getRecords()) {
+            try {
+                List<SalesAggregateRepository.Delta> deltas = deltas(record);
+                aggregateRepository.applyDeltas(record.getEventID(), deltas);
+                markComplete(deltas);
+            } catch (RuntimeException e) {
+                // Records of a shard are processed in order, so everything from here on is retried
+                LOG.error("Failed to aggregate stream record", e, "eventId", record.getEventID());
+                return new StreamsEventResponse(List.of(
+                        new StreamsEventResponse.BatchItemFailure(record.getDynamodb().getSequenceNumber())));
+            }
+        }
+        return new StreamsEventResponse(Collections.emptyList());
+    }
+
+    // Marked after the deltas are applied; a failure retries the record, whose deltas are then skipped as applied
+    private void markComplete(List<SalesAggregateRepository.Delta> deltas) {
+        if (backfilledThrough == null) {
+            return;
+        }
+        for (SalesAggregateRepository.Delta delta : deltas) {
+            LocalDate day = LocalDate.parse(delta.day());
+            if (day.isAfter(backfilledThrough) && !completeDays.contains(delta.day())) {
+                aggregateRepository.markComplete(day);
+                completeDays.add(delta.day());
+            }
+        }
+    }
+
+    private List<SalesAggregateRepository.Delta> deltas(DynamodbEvent.DynamodbStreamRecord record) {
+        SalesRollup rollup = new SalesRollup();
+        rollup.add(toSale(record.getDynamodb().getOldImage()), -1);
+        rollup.add(toSale(record.getDynamodb().getNewImage()), 1);
+        return rollup.deltas();
+    }
+
+    private static Sales toSale(Map<String, AttributeValue> image) {
+        return image == null ? null : TableSchemas.SALES.mapToItem(StreamImageUtil.toSdkItem(image));
+    }
+}
@@ -0,0 +1,326 @@
+package com.products.reports;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
+import com.products.model.Sales;
+import com.products.model.SalesAggregate;
+import com.products.repository.DateRangeQueryExecutor;
+import com.products.repository.DynamoDbSalesRepository;
+import com.products.repository.SalesAggregateRepository;
+import com.products.repository.SalesRepository;
+import com.products.response.ResponseType;
+import com.products.response.SalesAnalyticsResponse;
+import com.products.response.SalesAnalyticsRow;
+import com.products.utils.CognitoUtil;
+import com.products.utils.HeadersUtil;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sales analytics over a date range, grouped by day, week or month and by total, product or category.
+ * Answers come from the SalesAggregates rollups of days marked complete; every other day is rolled up from raw sales.
+ */
+public class SalesAnalyticsHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private static final StructuredLogger LOG = StructuredLogger.forClass(SalesAnalyticsHandler.class);
+    private static final long MAX_RANGE_DAYS = 366;
+    private static final int MAX_TOP = 100;
+
+    enum GroupBy {
+        DAY, WEEK, MONTH;
+
+        int periodOf(LocalDate day) {
+            return switch (this) {
+                case DAY -> (int) day.toEpochDay();
+                case WEEK -> (int) day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toEpochDay();
+                case MONTH -> day.getYear() * 12 + day.getMonthValue() - 1;
+            };
+        }
+
+        String label(int period) {
+            return this == MONTH
+                    ? YearMonth.of(Math.floorDiv(period, 12), Math.floorMod(period, 12) + 1).toString()
+                    : LocalDate.ofEpochDay(period).toString();
+        }
+    }
+
+    enum Dimension {
+        TOTAL, PRODUCT, CATEGORY;
+
+        // The aggregate key prefix this dimension reads, or the TOTAL key itself
+        String prefix() {
+            return switch (this) {
+                case TOTAL -> SalesAggregate.TOTAL;
+                case PRODUCT -> SalesAggregate.PRODUCT_PREFIX;
+                case CATEGORY -> SalesAggregate.CATEGORY_PREFIX;
+            };
+        }
+    }
+
+    enum SortBy {
+        REVENUE, QUANTITY, MARGIN
+    }
+
+    private final SalesAggregateRepository aggregateRepository;
+    private final SalesRepository salesRepository;
+    private final DateRangeQueryExecutor dateRangeQueryExecutor = new DateRangeQueryExecutor();
+    private final ObjectMapper mapper = ClientRegistry.objectMapper();
+
+    public SalesAnalyticsHandler() {
+        this(new SalesAggregateRepository(ClientRegistry.dynamoDbClient(), ClientRegistry.enhancedClient(),
+                        System.getenv("SALES_AGGREGATE_TABLE")),
+                new DynamoDbSalesRepository(ClientRegistry.enhancedClient(), System.getenv("SALES_TABLE")));
+    }
+
+    public SalesAnalyticsHandler(SalesAggregateRepository aggregateRepository, SalesRepository salesRepository) {
+        this.aggregateRepository = aggregateRepository;
+        this.salesRepository = salesRepository;
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent event, Context context) {
+        return InvocationMetrics.instrument(event, context, this::handle);
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent event, Context context) {
+        try {
+            if (!CognitoUtil.isAdmin(event))
+                return ResponseType.errorResponse(401, "User is not authorized to perform this action");
+
+            Map<String, String> params = event.getQueryStringParameters() == null ? Map.of() : event.getQueryStringParameters();
+            if (params.get("from") == null || params.get("to") == null)
+                return ResponseType.errorResponse(400, "from and to dates are required");
+            LocalDate from = LocalDate.parse(params.get("from"));
+            LocalDate to = LocalDate.parse(params.get("to"));
+            if (to.isBefore(from))
+                return ResponseType.errorResponse(400, "to must not be before from");
+            if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS)
+                return ResponseType.errorResponse(400, "Date range must not exceed " + MAX_RANGE_DAYS + " days");
+
+            GroupBy groupBy = parseEnum(GroupBy.class, params.get("groupBy"), GroupBy.DAY, "groupBy");
+            Dimension dimension = parseEnum(Dimension.class, params.get("dimension"), Dimension.TOTAL, "dimension");
+            SortBy sortBy = parseEnum(SortBy.class, params.get("sortBy"), SortBy.REVENUE, "sortBy");
+            int top = MAX_TOP;
+            if (params.get("top") != null) {
+                top = parseTop(params.get("top"));
+                if (top < 1 || top > MAX_TOP)
+                    return ResponseType.errorResponse(400, "top must be between 1 and " + MAX_TOP);
+            }
+
+            List<SalesAggregate> rows = aggregateRepository.findByDateRange(from, to);
+            Set<String> completeDays = completeDays(rows);
+            // Rows of a day without a COMPLETE marker may only hold the part of it the stream has seen
+            List<SalesAggregate> aggregates = new ArrayList<>(rows.size());
+            for (SalesAggregate row : rows) {
+                if (completeDays.contains(row.getDay()) && !SalesAggregate.COMPLETE.equals(row.getAggregateKey())) {
+                    aggregates.add(row);
+                }
+            }
+            int fallbackDays = addRawSalesForIncompleteDays(aggregates, completeDays, from, to);
+
+            var response = analyze(aggregates, groupBy, dimension, sortBy, top);
+            response.setSuccess(true);
+            response.setMessage("Sales analytics retrieved successfully");
+            response.setFrom(from.toString());
+            response.setTo(to.toString());
+            response.setFallbackDays(fallbackDays);
+
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(200)
+                    .withHeaders(HeadersUtil.getHeaders())
+                    .withBody(mapper.writeValueAsString(response));
+
+        } catch (DateTimeParseException e) {
+            return ResponseType.errorResponse(400, "Dates must be in yyyy-MM-dd format");
+        } catch (IllegalArgumentException e) {
+            return ResponseType.errorResponse(400, e.getMessage());
+        } catch (Exception e) {
+            LOG.error("Failed to retrieve sales analytics", e);
+            return ResponseType.errorResponse(500, "Error retrieving sales analytics: " + e.getMessage());
+        }
+    }
+
+    private static Set<String> completeDays(List<SalesAggregate> rows) {
+        Set<String> completeDays = new HashSet<>();
+        for (SalesAggregate row : rows) {
+            if (SalesAggregate.COMPLETE.equals(row.getAggregateKey())) {
+                completeDays.add(row.getDay());
+            }
+        }
+        return completeDays;
+    }
+
+    // Days not marked complete are rolled up from the Sales table instead
+    private int addRawSalesForIncompleteDays(List<SalesAggregate> aggregates, Set<String> completeDays,
+                                             LocalDate from, LocalDate to) {
+        List<Sales> sales = dateRangeQueryExecutor.queryByDay(from, to, day -> completeDays.contains(day.toString())
+                ? List.of()
+                : salesRepository.getSalesByDate(day.toString()));
+        if (sales.isEmpty()) {
+            return 0;
+        }
+
+        SalesRollup rollup = new SalesRollup();
+        sales.forEach(sale -> rollup.add(sale, 1));
+        List<SalesAggregate> rows = rollup.rows();
+        aggregates.addAll(rows);
+        return (int) rows.stream()
+                .filter(row -> SalesAggregate.TOTAL.equals(row.getAggregateKey()))
+                .count();
+    }
+
+    static SalesAnalyticsResponse analyze(List<SalesAggregate> aggregates, GroupBy groupBy, Dimension dimension,
+                                          SortBy sortBy, int top) {
+        // Dimension ids are interned to ints so the group key is (period << 32 | dimension index)
+        Map<String, Integer> dimensionIndex = new HashMap<>();
+        List<String> dimensionIds = new ArrayList<>();
+        List<String> dimensionNames = new ArrayList<>();
+        Map<String, Integer> periodByDay = new HashMap<>();
+
+        AnalyticsAccumulator byPeriod = new AnalyticsAccumulator(aggregates.size());
+        AnalyticsAccumulator byDimension = new AnalyticsAccumulator(64);
+        AnalyticsAccumulator totals = new AnalyticsAccumulator(1);
+        totals.add(0, 0, 0, 0, 0, 0, 0);
+
+        String prefix = dimension.prefix();
+        for (SalesAggregate aggregate : aggregates) {
+            String aggregateKey = aggregate.getAggregateKey();
+            if (SalesAggregate.TOTAL.equals(aggregateKey)) {
+                totals.add(0, aggregate.getQuantity(), aggregate.getRevenue(), aggregate.getCost(),
+                        aggregate.getUncostedQuantity(), aggregate.getUncostedRevenue(), aggregate.getSaleCount());
+            }
+            boolean matches = dimension == Dimension.TOTAL ? prefix.equals(aggregateKey) : aggregateKey.startsWith(prefix);
+            if (!matches) {
+                continue;
+            }
+
+            String id = dimension == Dimension.TOTAL ? null : aggregateKey.substring(prefix.length());
+            Integer index = dimensionIndex.get(id);
+            if (index == null) {
+                index = dimensionIds.size();
+                dimensionIndex.put(id, index);
+                dimensionIds.add(id);
+                dimensionNames.add(aggregate.getName());
+            } else if (aggregate.getName() != null) {
+                dimensionNames.set(index, aggregate.getName());
+            }
+
+            long period = periodByDay.computeIfAbsent(aggregate.getDay(), day -> groupBy.periodOf(LocalDate.parse(day)));
+            byPeriod.add((period << 32) | index, aggregate.getQuantity(), aggregate.getRevenue(), aggregate.getCost(),
+                    aggregate.getUncostedQuantity(), aggregate.getUncostedRevenue(), aggregate.getSaleCount());
+            byDimension.add(index, aggregate.getQuantity(), aggregate.getRevenue(), aggregate.getCost(),
+                    aggregate.getUncostedQuantity(), aggregate.getUncostedRevenue(), aggregate.getSaleCount());
+        }
+
+        boolean countsSales = dimension == Dimension.TOTAL;
+        Comparator<SalesAnalyticsRow> byMetric = Comparator.comparingDouble((SalesAnalyticsRow row) -> metric(row, sortBy)).reversed();
+
+        List<SalesAnalyticsRow> ranking = new ArrayList<>(byDimension.size());
+        for (int i = 0; i < byDimension.size(); i++) {
+            int index = (int) byDimension.key(i);
+            ranking.add(row(null, dimensionIds.get(index), dimensionNames.get(index), byDimension, i, countsSales));
+        }
+        ranking.sort(byMetric);
+        if (ranking.size() > top) {
+            ranking = new ArrayList<>(ranking.subList(0, top));
+        }
+        Set<String> keptIds = new HashSet<>();
+        ranking.forEach(row -> keptIds.add(row.getKey()));
+
+        List<SalesAnalyticsRow> rows = new ArrayList<>(byPeriod.size());
+        for (int i = 0; i < byPeriod.size(); i++) {
+            long key = byPeriod.key(i);
+            int index = (int) key;
+            if (keptIds.contains(dimensionIds.get(index))) {
+                rows.add(row(groupBy.label((int) (key >> 32)), dimensionIds.get(index), dimensionNames.get(index),
+                        byPeriod, i, countsSales));
+            }
+        }
+        // Period labels are ISO dates or months, so they sort chronologically as strings
+        rows.sort(Comparator.comparing(SalesAnalyticsRow::getPeriod).thenComparing(byMetric));
+
+        return SalesAnalyticsResponse.builder()
+                .groupBy(groupBy.name().toLowerCase(Locale.ROOT))
+                .dimension(dimension.name().toLowerCase(Locale.ROOT))
+                .sortBy(sortBy.name().toLowerCase(Locale.ROOT))
+                .rows(rows)
+                .ranking(dimension == Dimension.TOTAL ? null : ranking)
+                .totals(row(null, null, null, totals, 0, true))
+                .build();
+    }
+
+    private static SalesAnalyticsRow row(String period, String key, String name, AnalyticsAccumulator accumulator,
+                                         int index, boolean countsSales) {
+        long quantity = accumulator.quantity(index);
+        double revenue = accumulator.revenue(index);
+        double cost = accumulator.cost(index);
+        double uncostedRevenue = accumulator.uncostedRevenue(index);
+        // Revenue of uncosted lines has no known cost, counting it would show it at a 100% margin
+        double costedRevenue = revenue - uncostedRevenue;
+        double margin = costedRevenue - cost;
+        return SalesAnalyticsRow.builder()
+                .period(period)
+                .key(key)
+                .name(name)
+                .quantity(quantity)
+                .revenue(round(revenue))
+                .cost(round(cost))
+                .uncostedQuantity(accumulator.uncostedQuantity(index))
+                .uncostedRevenue(round(uncostedRevenue))
+                .margin(round(margin))
+                .marginPercent(Math.abs(costedRevenue) < 0.005 ? null : round(margin * 100 / costedRevenue))
+                .saleCount(countsSales ? accumulator.saleCount(index) : null)
+                .build();
+    }
+
+    private static int parseTop(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static double metric(SalesAnalyticsRow row, SortBy sortBy) {
+        return switch (sortBy) {
+            case REVENUE -> row.getRevenue();
+            case QUANTITY -> row.getQuantity();
+            case MARGIN -> row.getMargin();
+        };
+    }
+
+    private static double round(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, E defaultValue, String name) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported " + name + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.products.reports;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Writes weekly report rows one at a time, without formatting each row through String.format.
+ */
+public class SalesReportCsvWriter implements Closeable {
+    static final String HEADER = "Item Sold,Category,Quantity,Revenue, Date-Sold\n";
+
+    private final Writer writer;
+    private long rowCount;
+
+    public SalesReportCsvWriter(OutputStream outputStream) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    public void writeHeader() throws IOException {
+        writer.write(HEADER);
+    }
+
+    public void writeRow(String itemName, String categoryName, int quantity, double revenue, LocalDate dateSold) throws IOException {
+        writeQuoted(itemName);
+        writer.write(',');
+        writeQuoted(categoryName);
+        writer.write(',');
+        writer.write(Integer.toString(quantity));
+        writer.write(',');
+        // Same rounding as %.2f
+        writer.write(BigDecimal.valueOf(revenue).setScale(2, RoundingMode.HALF_UP).toPlainString());
+        writer.write(",\"");
+        // LocalDate.toString() is ISO_LOCAL_DATE
+        writer.write(dateSold.toString());
+        writer.write("\"\n");
+        rowCount++;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    // Escape quotes for CSV
+    private void writeQuoted(String value) throws IOException {
+        writer.write('"');
+        if (value != null) {
+            if (value.indexOf('"') < 0) {
+                writer.write(value);
+            } else {
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    if (c == '"') {
+                        writer.write('"');
+                    }
+                    writer.write(c);
+                }
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,106 @@
+package com.products.reports;
+
+import com.products.model.Sales;
+import com.products.model.SalesAggregate;
+import com.products.repository.SalesAggregateRepository;
+import com.products.request.SaleLineItem;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rolls sales up into per-day TOTAL, product and category rows, the shape stored in the SalesAggregates table.
+ * Sales added with a negative sign are subtracted, which is how stream updates and deletes are netted out.
+ * Cost and category come from the snapshot on each line. Lines without a cost snapshot are still counted in
+ * quantity and revenue, and also in the uncosted totals, so margins can leave them out.
+ */
+final class SalesRollup {
+
+    private final Map<String, Accumulator> accumulators = new LinkedHashMap<>();
+
+    void add(Sales sale, int sign) {
+        if (sale == null || sale.getDateSold() == null) {
+            return;
+        }
+        String day = sale.getDateSold().toString();
+        Accumulator total = accumulator(day, SalesAggregate.TOTAL);
+        total.saleCount += sign;
+
+        if (sale.getItems() == null) {
+            return;
+        }
+        for (SaleLineItem item : sale.getItems()) {
+            // Only the line's own snapshot is read, so subtracting an old image takes off exactly what adding it put on
+            long quantity = (long) sign * item.getQuantitySold();
+            double revenue = sign * item.getTotalPrice();
+            boolean costed = item.hasCostSnapshot();
+            double cost = costed ? quantity * item.getUnitCostPrice() : 0;
+            total.add(quantity, revenue, cost, costed);
+
+            Accumulator productRow = accumulator(day, SalesAggregate.PRODUCT_PREFIX + item.getProductId());
+            productRow.add(quantity, revenue, cost, costed);
+            if (item.hasSnapshot()) {
+                productRow.name = item.getProductName();
+            }
+
+            if (item.getCategoryId() != null) {
+                Accumulator categoryRow = accumulator(day, SalesAggregate.CATEGORY_PREFIX + item.getCategoryId());
+                categoryRow.add(quantity, revenue, cost, costed);
+                categoryRow.name = item.getCategoryName();
+            }
+        }
+    }
+
+    List<SalesAggregateRepository.Delta> deltas() {
+        List<SalesAggregateRepository.Delta> deltas = new ArrayList<>(accumulators.size());
+        for (Accumulator accumulator : accumulators.values()) {
+            deltas.add(new SalesAggregateRepository.Delta(accumulator.day, accumulator.aggregateKey, accumulator.name,
+                    accumulator.quantity, accumulator.revenue, accumulator.cost, accumulator.uncostedQuantity,
+                    accumulator.uncostedRevenue, accumulator.saleCount));
+        }
+        return deltas;
+    }
+
+    List<SalesAggregate> rows() {
+        List<SalesAggregate> rows = new ArrayList<>(accumulators.size());
+        for (Accumulator accumulator : accumulators.values()) {
+            rows.add(new SalesAggregate(accumulator.day, accumulator.aggregateKey, accumulator.name,
+                    accumulator.quantity, accumulator.revenue, accumulator.cost, accumulator.uncostedQuantity,
+                    accumulator.uncostedRevenue, accumulator.saleCount));
+        }
+        return rows;
+    }
+
+    private Accumulator accumulator(String day, String aggregateKey) {
+        return accumulators.computeIfAbsent(day + "|" + aggregateKey, key -> new Accumulator(day, aggregateKey));
+    }
+
+    private static final class Accumulator {
+        private final String day;
+        private final String aggregateKey;
+        private String name;
+        private long quantity;
+        private double revenue;
+        private double cost;
+        private long uncostedQuantity;
+        private double uncostedRevenue;
+        private long saleCount;
+
+        private Accumulator(String day, String aggregateKey) {
+            this.day = day;
+            this.aggregateKey = aggregateKey;
+        }
+
+        private void add(long quantity, double revenue, double cost, boolean costed) {
+            this.quantity += quantity;
+            this.revenue += revenue;
+            this.cost += cost;
+            if (!costed) {
+                uncostedQuantity += quantity;
+                uncostedRevenue += revenue;
+            }
+        }
+    }
+}
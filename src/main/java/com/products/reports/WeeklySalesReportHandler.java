@@ -5,29 +5,38 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
 import com.products.model.Product;
+import com.products.repository.DynamoDbProductRepository;
+import com.products.repository.DynamoDbSalesRepository;
+import com.products.repository.ProductRepository;
 import com.products.request.SaleLineItem;
 import com.products.model.Sales;
-import com.products.repository.ProductRepository;
+import com.products.repository.ProductCache;
 import com.products.repository.SalesRepository;
-import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 //import software.amazon.awssdk.services.s3.presigned.model.PresignedGetObjectRequest;
 import software.amazon.awssdk.services.ses.SesClient;
 import software.amazon.awssdk.services.ses.model.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class WeeklySalesReportHandler implements RequestHandler<ScheduledEvent, Void> {
 
+    private static final StructuredLogger LOG = StructuredLogger.forClass(WeeklySalesReportHandler.class);
+
     private final DynamoDbEnhancedClient enhancedClient;
     private final SalesRepository salesRepository;
     private final ProductRepository productRepository;
@@ -41,22 +50,25 @@ public class WeeklySalesReportHandler implements RequestHandler<ScheduledEvent,
     private final String emailSender;
 
     public WeeklySalesReportHandler() {
-        DynamoDbClient dynamoDbClient = DynamoDbClient.builder().build();
-        enhancedClient = DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build();
+        enhancedClient = ClientRegistry.enhancedClient();
         salesTable = System.getenv("SALES_TABLE");
         productTable = System.getenv("PRODUCT_TABLE");
         bucketName = System.getenv("REPORT_BUCKET");
         adminEmail = System.getenv("ADMIN_EMAIL");
         emailSender = System.getenv("EMAIL_SENDER");
-        salesRepository = new SalesRepository(enhancedClient, salesTable);
-        productRepository = new ProductRepository(enhancedClient, productTable);
-        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
-        s3Client = S3Client.builder().build();
-        sesClient = SesClient.builder().build();
+        salesRepository = new DynamoDbSalesRepository(enhancedClient, salesTable);
+        productRepository = new DynamoDbProductRepository(enhancedClient, productTable);
+        objectMapper = ClientRegistry.objectMapper();
+        s3Client = ClientRegistry.s3Client();
+        sesClient = ClientRegistry.sesClient();
     }
 
     @Override
     public Void handleRequest(ScheduledEvent event, Context context) {
+        return InvocationMetrics.instrument(event, context, this::handle);
+    }
+
+    private Void handle(ScheduledEvent event, Context context) {
         try {
             // Calculate date range for the previous week (Monday to Sunday)
             LocalDate today = LocalDate.now();
@@ -71,66 +83,80 @@ public class WeeklySalesReportHandler implements RequestHandler<ScheduledEvent,
             String startDateStr = startDate.format(DateTimeFormatter.ISO_LOCAL_DATE);
             String endDateStr = endDate.format(DateTimeFormatter.ISO_LOCAL_DATE);
 
-            // Query SalesTable for sales within the date range
-            List<Sales> sales = salesRepository.findByDateRange(startDate, endDate);
-
-            // Generate report data
-            List<ReportItem> reportItems = new ArrayList<>();
-            for (Sales sale : sales) {
-                LocalDate  dateSold = sale.getDateSold();
-                for (SaleLineItem item : sale.getItems()) {
-                    Product product = productRepository.findByProductId(item.getProductId());
-                    if (product != null) {
-                        reportItems.add(new ReportItem(
-                                product.getProductName(),
-                                product.getCategoryName(),
-                                item.getQuantitySold(),
-                                dateSold,
-                                item.getTotalPrice()
-                        ));
-                    }
-                }
-            }
-
-            // Generate CSV
-            String csvContent = generateCsv(reportItems);
+            // Stream sales for the date range page by page straight into a multipart S3 upload
             String csvKey = "reports/weekly-sales-report-" + startDateStr + "-to-" + endDateStr + ".csv";
-            uploadToS3(csvContent, csvKey, "text/csv");
+            long rows = writeReport(startDate, endDate, csvKey);
+            LOG.info("Wrote weekly report", "rows", rows, "key", csvKey, "productCache", ProductCache.forTable(productTable));
 
             // Generate presigned URL for CSV download
             String presignedUrl = generatePresignedUrl(csvKey, context);
 
             // Send email with download link
-            sendEmail(presignedUrl, startDateStr, endDateStr, context);
+            sendEmail(presignedUrl, startDateStr, endDateStr);
 
-            context.getLogger().log("Weekly sales report generated and emailed successfully for " + startDateStr + " to " + endDateStr);
+            LOG.info("Weekly sales report emailed", "startDate", startDateStr, "endDate", endDateStr);
         } catch (Exception e) {
-            context.getLogger().log("Error generating report: " + e.getMessage());
+            LOG.error("Failed to generate weekly sales report", e);
         }
         return null;
     }
 
-    private String generateCsv(List<ReportItem> reportItems) {
-        StringBuilder csv = new StringBuilder();
-        csv.append("Item Sold,Category,Quantity,Revenue, Date-Sold\n");
-        for (ReportItem item : reportItems) {
-            csv.append(String.format("\"%s\",\"%s\",%d,%.2f,\"%s\"\n",
-                    item.itemName.replace("\"", "\"\""), // Escape quotes for CSV
-                    item.categoryName.replace("\"", "\"\""),
-                    item.quantity,
-                    item.revenue,
-                    item.dateSold.format(DateTimeFormatter.ISO_LOCAL_DATE)));
+    private long writeReport(LocalDate startDate, LocalDate endDate, String key) throws IOException {
+        MultipartUploadOutputStream upload = new MultipartUploadOutputStream(s3Client, bucketName, key, "text/csv");
+        try {
+            SalesReportCsvWriter csv = new SalesReportCsvWriter(upload);
+            csv.writeHeader();
+
+            // Products seen so far in this run; bounded by the catalog, not by the number of sales
+            Map<String, Product> products = new HashMap<>();
+            salesRepository.forEachDayInDateRange(startDate, endDate, sales -> writePage(sales, products, csv));
+
+            csv.close();
+            return csv.getRowCount();
+        } catch (IOException | RuntimeException e) {
+            upload.abort();
+            throw e;
         }
-        return csv.toString();
     }
 
-    private void uploadToS3(String content, String key, String contentType) {
-        s3Client.putObject(PutObjectRequest.builder()
-                        .bucket(bucketName)
-                        .key(key)
-                        .contentType(contentType)
-                        .build(),
-                RequestBody.fromString(content));
+    private void writePage(List<Sales> page, Map<String, Product> products, SalesReportCsvWriter csv) {
+        Set<String> missing = new HashSet<>();
+        for (Sales sale : page) {
+            for (SaleLineItem item : sale.getItems()) {
+                if (!item.hasSnapshot() && !products.containsKey(item.getProductId())) {
+                    missing.add(item.getProductId());
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, Product> found = productRepository.findAllByProductIds(missing);
+            // Remember deleted products as null so they are not looked up again for every page
+            missing.forEach(productId -> products.put(productId, found.get(productId)));
+        }
+
+        try {
+            for (Sales sale : page) {
+                LocalDate dateSold = sale.getDateSold();
+                for (SaleLineItem item : sale.getItems()) {
+                    if (item.hasSnapshot()) {
+                        csv.writeRow(item.getProductName(), item.getCategoryName(), item.getQuantitySold(), item.getTotalPrice(), dateSold);
+                        continue;
+                    }
+                    Product product = products.get(item.getProductId());
+                    if (product != null) {
+                        csv.writeRow(
+                                product.getProductName(),
+                                product.getCategoryName(),
+                                item.getQuantitySold(),
+                                item.getTotalPrice(),
+                                dateSold
+                        );
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     private String generatePresignedUrl(String key, Context context) {
@@ -141,7 +167,7 @@ public class WeeklySalesReportHandler implements RequestHandler<ScheduledEvent,
         return presignedRequest.toString();
     }
 
-    private void sendEmail(String presignedUrl, String startDate, String endDate, Context context) {
+    private void sendEmail(String presignedUrl, String startDate, String endDate) {
         try {
             SendEmailRequest emailRequest = SendEmailRequest.builder()
                     .destination(Destination.builder().toAddresses(adminEmail).build())
@@ -155,26 +181,7 @@ public class WeeklySalesReportHandler implements RequestHandler<ScheduledEvent,
                             .build();
             sesClient.sendEmail(emailRequest);
         } catch (Exception e) {
-            context.getLogger().log("Error sending email: " + e.getMessage());
+            LOG.error("Failed to send weekly sales report email", e);
         }
     }
-
-    // Inner class to hold report data
-    private static class ReportItem {
-        String itemName;
-        String categoryName;
-        int quantity;
-        LocalDate dateSold;
-        double revenue;
-
-        ReportItem(String itemName, String categoryName, int quantity, LocalDate dateSold,double revenue) {
-            this.itemName = itemName;
-            this.categoryName = categoryName;
-            this.quantity = quantity;
-            this.dateSold = dateSold;
-            this.revenue = revenue;
-        }
-
-
-    }
 }
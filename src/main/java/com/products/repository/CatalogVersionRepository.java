@@ -0,0 +1,123 @@
+package com.products.repository;
+
+import com.products.config.ClientRegistry;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Change counters for the product catalog and for sales, kept in one item of the metadata table.
+ * Every write path bumps the matching counter in the same transaction as the data it changes, and read endpoints
+ * derive their ETags from it, so a client polling an unchanged list gets a 304 without the list being read.
+ * Because the bump commits or fails with the write, a counter can't fall behind the data in any function; a failed
+ * transaction is reported to the client, which can retry.
+ * Counters are cached per execution environment for CATALOG_VERSION_CACHE_MILLIS (default 1000): a poll that
+ * lands right after a write made elsewhere can still get a 304 for up to that long.
+ * Without CATALOG_VERSION_TABLE there are no versions and conditional requests are always answered in full.
+ */
+public class CatalogVersionRepository {
+    private static final String ITEM_KEY = "catalog";
+    private static final String PRODUCTS = "productsVersion";
+    private static final String SALES = "salesVersion";
+    private static final long DEFAULT_CACHE_MILLIS = 1000;
+
+    private static volatile CatalogVersionRepository shared;
+
+    public record Versions(long products, long sales) {
+    }
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+    private final long cacheNanos;
+    private volatile Versions cached;
+    private volatile long cachedUntil;
+
+    public CatalogVersionRepository(DynamoDbClient dynamoDbClient, String tableName, long cacheMillis) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+        this.cacheNanos = cacheMillis * 1_000_000;
+    }
+
+    public static CatalogVersionRepository shared() {
+        if (shared == null) {
+            synchronized (CatalogVersionRepository.class) {
+                if (shared == null) {
+                    String tableName = System.getenv("CATALOG_VERSION_TABLE");
+                    String cacheMillis = System.getenv("CATALOG_VERSION_CACHE_MILLIS");
+                    shared = new CatalogVersionRepository(tableName != null ? ClientRegistry.dynamoDbClient() : null, tableName,
+                            cacheMillis != null ? Long.parseLong(cacheMillis) : DEFAULT_CACHE_MILLIS);
+                }
+            }
+        }
+        return shared;
+    }
+
+    // The current counters, or null when versioning isn't configured
+    public Versions current() {
+        if (tableName == null) {
+            return null;
+        }
+        Versions versions = cached;
+        if (versions != null && System.nanoTime() - cachedUntil < 0) {
+            return versions;
+        }
+        GetItemResponse response = dynamoDbClient.getItem(r -> r
+                .tableName(tableName)
+                .key(key())
+                .consistentRead(true));
+        Map<String, AttributeValue> item = response.hasItem() ? response.item() : Map.of();
+        versions = new Versions(number(item.get(PRODUCTS)), number(item.get(SALES)));
+        cached = versions;
+        cachedUntil = System.nanoTime() + cacheNanos;
+        return versions;
+    }
+
+    /**
+     * Adds the update that bumps the products counter to {@code items}, the writes of one transaction.
+     * Does nothing when versioning isn't configured.
+     */
+    public void addProductsBump(List<TransactWriteItem> items) {
+        addBump(items, PRODUCTS);
+    }
+
+    public void addSalesBump(List<TransactWriteItem> items) {
+        addBump(items, SALES);
+    }
+
+    // Sales move stock, so they change the product listings as well
+    public void addSalesAndProductsBump(List<TransactWriteItem> items) {
+        addBump(items, PRODUCTS, SALES);
+    }
+
+    // Called once a transaction carrying a bump has run, so this environment doesn't serve its cached counters
+    public void invalidate() {
+        cached = null;
+    }
+
+    private void addBump(List<TransactWriteItem> items, String... counters) {
+        if (tableName == null) {
+            return;
+        }
+        items.add(TransactWriteItem.builder()
+                .update(Update.builder()
+                        .tableName(tableName)
+                        .key(key())
+                        .updateExpression("ADD " + String.join(" :one, ", counters) + " :one")
+                        .expressionAttributeValues(Map.of(":one", AttributeValue.fromN("1")))
+                        .build())
+                .build());
+    }
+
+    private static Map<String, AttributeValue> key() {
+        return Map.of("name", AttributeValue.fromS(ITEM_KEY));
+    }
+
+    private static long number(AttributeValue value) {
+        return value != null && value.n() != null ? Long.parseLong(value.n()) : 0;
+    }
+}
@@ -0,0 +1,14 @@
+package com.products.repository;
+
+import lombok.Getter;
+
+// Thrown when a sale was modified by someone else between being read and being written back
+@Getter
+public class ConcurrentSaleUpdateException extends RuntimeException {
+    private final String salesId;
+
+    public ConcurrentSaleUpdateException(String salesId) {
+        super("Sales record was modified by another request: " + salesId);
+        this.salesId = salesId;
+    }
+}
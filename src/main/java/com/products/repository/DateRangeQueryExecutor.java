@@ -0,0 +1,158 @@
+package com.products.repository;
+
+import com.products.metrics.InvocationMetrics;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs one query per day of a date range concurrently on virtual threads.
+ * At most {@code maxConcurrency} queries are in flight at once, results are merged in date order,
+ * and the first failing day cancels every query still running or waiting. {@link #forEachDay} streams the
+ * days to a consumer instead of collecting them.
+ */
+public class DateRangeQueryExecutor {
+    private static final int DEFAULT_MAX_CONCURRENCY = 10;
+
+    private final int maxConcurrency;
+
+    public DateRangeQueryExecutor() {
+        this(readMaxConcurrency());
+    }
+
+    public DateRangeQueryExecutor(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be greater than 0");
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public <T> List<T> queryByDay(LocalDate startDate, LocalDate endDate, Function<LocalDate, List<T>> dayQuery) {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            days.add(day);
+        }
+
+        if (days.size() <= 1 || maxConcurrency == 1) {
+            List<T> results = new ArrayList<>();
+            days.forEach(day -> results.addAll(dayQuery.apply(day)));
+            return results;
+        }
+
+        List<List<T>> resultsByDay = new ArrayList<>(days.size());
+        for (int i = 0; i < days.size(); i++) {
+            resultsByDay.add(null);
+        }
+
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<Future<Integer>> futures = new ArrayList<>(days.size());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+            for (int i = 0; i < days.size(); i++) {
+                int dayIndex = i;
+                futures.add(completionService.submit(InvocationMetrics.propagate(() -> {
+                    permits.acquire();
+                    try {
+                        resultsByDay.set(dayIndex, dayQuery.apply(days.get(dayIndex)));
+                        return dayIndex;
+                    } finally {
+                        permits.release();
+                    }
+                })));
+            }
+
+            for (int completed = 0; completed < days.size(); completed++) {
+                try {
+                    completionService.take().get();
+                } catch (ExecutionException e) {
+                    futures.forEach(future -> future.cancel(true));
+                    throw unwrap(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying date range", e);
+        }
+
+        List<T> merged = new ArrayList<>();
+        resultsByDay.forEach(merged::addAll);
+        return merged;
+    }
+
+    /**
+     * Hands each day's results to {@code dayConsumer} in date order while the queries of the next
+     * {@code maxConcurrency} days run ahead, so only that window of days is held at once. A failing query or
+     * consumer cancels the queries still running.
+     */
+    public <T> void forEachDay(LocalDate startDate, LocalDate endDate, Function<LocalDate, List<T>> dayQuery,
+                               Consumer<List<T>> dayConsumer) {
+        if (!startDate.isBefore(endDate) || maxConcurrency == 1) {
+            for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+                dayConsumer.accept(dayQuery.apply(day));
+            }
+            return;
+        }
+
+        Deque<Future<List<T>>> window = new ArrayDeque<>(maxConcurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            try {
+                LocalDate next = startDate;
+                for (; window.size() < maxConcurrency && !next.isAfter(endDate); next = next.plusDays(1)) {
+                    LocalDate day = next;
+                    window.add(executor.submit(InvocationMetrics.propagate(() -> dayQuery.apply(day))));
+                }
+                while (!window.isEmpty()) {
+                    List<T> results = window.poll().get();
+                    // Keep the window full while this day is consumed
+                    if (!next.isAfter(endDate)) {
+                        LocalDate day = next;
+                        window.add(executor.submit(InvocationMetrics.propagate(() -> dayQuery.apply(day))));
+                        next = next.plusDays(1);
+                    }
+                    dayConsumer.accept(results);
+                }
+            } catch (ExecutionException e) {
+                throw unwrap(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while querying date range", e);
+            } finally {
+                // Closing the executor waits for its tasks, so whatever is left after a failure is cancelled first
+                window.forEach(future -> future.cancel(true));
+            }
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException("Date range query failed: " + cause.getMessage(), cause);
+    }
+
+    private static int readMaxConcurrency() {
+        String value = System.getenv("DATE_RANGE_QUERY_CONCURRENCY");
+        if (value == null || value.isBlank()) {
+            return DEFAULT_MAX_CONCURRENCY;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return DEFAULT_MAX_CONCURRENCY;
+        }
+    }
+}
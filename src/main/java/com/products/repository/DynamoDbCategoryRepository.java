@@ -0,0 +1,24 @@
+package com.products.repository;
+
+import com.products.model.Category;
+import com.products.model.TableSchemas;
+import software.amazon.awssdk.enhanced.dynamodb.*;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+
+public class DynamoDbCategoryRepository implements CategoryRepository {
+    private final DynamoDbTable<Category> categoryTable;
+
+    public DynamoDbCategoryRepository(DynamoDbEnhancedClient enhancedClient, String tableName) {
+        this.categoryTable = enhancedClient.table(tableName, TableSchemas.CATEGORY);
+    }
+
+    @Override
+    public Category findByCategoryName(String categoryName) {
+        return categoryTable.index("CategoryNameIndex")
+                .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(categoryName).build()))
+                .stream()
+                .flatMap(page -> page.items().stream())
+                .findFirst()
+                .orElse(null);
+    }
+}
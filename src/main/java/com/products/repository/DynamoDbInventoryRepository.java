@@ -0,0 +1,275 @@
+package com.products.repository;
+
+import com.products.logging.StructuredLogger;
+import com.products.model.Sales;
+import com.products.model.TableSchemas;
+import com.products.request.SaleLineItem;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes sales together with the stock movements they cause, using DynamoDB transactions so that stock
+ * is never deducted without the sale being recorded (or the other way round) and concurrent sales
+ * can't take a product below zero.
+ */
+public class DynamoDbInventoryRepository implements InventoryRepository {
+    private static final StructuredLogger LOG = StructuredLogger.forClass(DynamoDbInventoryRepository.class);
+    // DynamoDB allows at most 100 actions in one TransactWriteItems call
+    static final int MAX_TRANSACTION_ITEMS = 100;
+    // Every sale transaction also bumps the shared catalog version item, so conflicts are retried a few more times
+    private static final int MAX_CONFLICT_ATTEMPTS = 5;
+    private static final long BASE_CONFLICT_BACKOFF_MILLIS = 10;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String productTableName;
+    private final String salesTableName;
+    private final ProductCache productCache;
+    private final CatalogVersionRepository catalogVersions;
+
+    public DynamoDbInventoryRepository(DynamoDbClient dynamoDbClient, String productTableName, String salesTableName) {
+        this(dynamoDbClient, productTableName, salesTableName, ProductCache.forTable(productTableName));
+    }
+
+    public DynamoDbInventoryRepository(DynamoDbClient dynamoDbClient, String productTableName, String salesTableName, ProductCache productCache) {
+        this(dynamoDbClient, productTableName, salesTableName, productCache, CatalogVersionRepository.shared());
+    }
+
+    public DynamoDbInventoryRepository(DynamoDbClient dynamoDbClient, String productTableName, String salesTableName, ProductCache productCache,
+                               CatalogVersionRepository catalogVersions) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.productTableName = productTableName;
+        this.salesTableName = salesTableName;
+        this.productCache = productCache;
+        this.catalogVersions = catalogVersions;
+    }
+
+    /**
+     * Saves a new sale and deducts every line's quantity from its product with a conditional
+     * {@code ADD quantity :delta}, all in one transaction.
+     *
+     * @throws InsufficientStockException if a product is missing or has less stock than the sale needs
+     */
+    @Override
+    public void createSale(Sales sales) {
+        Map<String, Integer> stockDeltas = new LinkedHashMap<>();
+        for (SaleLineItem item : sales.getItems()) {
+            stockDeltas.merge(item.getProductId(), -item.getQuantitySold(), Integer::sum);
+        }
+
+        TransactWriteItem salePut = TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(salesTableName)
+                        .item(TableSchemas.SALES.itemToMap(sales, true))
+                        .conditionExpression("attribute_not_exists(salesId)")
+                        .build())
+                .build();
+
+        writeWithStockDeltas(salePut, stockDeltas, sales.getDateUpdated());
+    }
+
+    /**
+     * Replaces an existing sale and applies the stock change of the edit in the same transaction.
+     * {@code stockDeltas} maps each product to the change in its stock (negative when more is sold than before).
+     * The write only succeeds if the stored sale still has {@code previousItems}, so two concurrent edits
+     * can't both apply their deltas against the same starting point.
+     *
+     * @throws InsufficientStockException if a product is missing or has less stock than the edit needs
+     * @throws ConcurrentSaleUpdateException if the sale was changed since it was read
+     */
+    @Override
+    public void updateSale(Sales sales, List<SaleLineItem> previousItems, Map<String, Integer> stockDeltas) {
+        TransactWriteItem salePut = TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(salesTableName)
+                        .item(TableSchemas.SALES.itemToMap(sales, true))
+                        // Sales still stored with legacy JSON items can't be compared by value and are only checked for existence
+                        .conditionExpression("attribute_exists(salesId) AND (#items = :previousItems OR attribute_type(#items, :legacyType))")
+                        .expressionAttributeNames(Map.of("#items", "items"))
+                        .expressionAttributeValues(Map.of(
+                                ":previousItems", Sales.SaleLineItemListConverter.INSTANCE.transformFrom(previousItems),
+                                ":legacyType", AttributeValue.fromS("S")))
+                        .build())
+                .build();
+
+        try {
+            writeWithStockDeltas(salePut, stockDeltas, sales.getDateUpdated());
+        } catch (TransactionCanceledException e) {
+            if (saleConditionFailed(e)) {
+                throw new ConcurrentSaleUpdateException(sales.getSalesId());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Commits {@code saleWrite} together with a conditional stock update per product.
+     * More products than fit in one transaction are written in chunks with the sale and the catalog version bump in the last one;
+     * if a later chunk fails, the stock changed by the chunks already committed is put back before the error is rethrown.
+     */
+    private void writeWithStockDeltas(TransactWriteItem saleWrite, Map<String, Integer> stockDeltas, LocalDate today) {
+        try {
+            writeChunks(saleWrite, stockDeltas, today);
+        } finally {
+            // Whatever the outcome, cached quantities of these products can no longer be trusted
+            productCache.invalidateAll(stockDeltas.keySet());
+            catalogVersions.invalidate();
+        }
+    }
+
+    private void writeChunks(TransactWriteItem saleWrite, Map<String, Integer> stockDeltas, LocalDate today) {
+        // The catalog versions are bumped in the transaction that records the sale, which is always its last item
+        List<TransactWriteItem> tail = new ArrayList<>();
+        catalogVersions.addSalesAndProductsBump(tail);
+        tail.add(saleWrite);
+
+        List<TransactWriteItem> stockUpdates = new ArrayList<>();
+        List<String> productIds = new ArrayList<>();
+        stockDeltas.forEach((productId, delta) -> {
+            if (delta != 0) {
+                stockUpdates.add(stockUpdate(productId, delta, today));
+                productIds.add(productId);
+            }
+        });
+
+        List<List<String>> committedChunks = new ArrayList<>();
+        int from = 0;
+        while (true) {
+            // Leave room for the sale and the version bump in the last chunk
+            int to = Math.min(from + MAX_TRANSACTION_ITEMS, stockUpdates.size());
+            boolean last = stockUpdates.size() - from <= MAX_TRANSACTION_ITEMS - tail.size();
+
+            List<TransactWriteItem> chunk = new ArrayList<>(stockUpdates.subList(from, to));
+            if (last) {
+                chunk.addAll(tail);
+            }
+            List<String> chunkProductIds = productIds.subList(from, to);
+
+            try {
+                transact(chunk, chunkProductIds);
+            } catch (RuntimeException e) {
+                restore(committedChunks, stockDeltas, today, e);
+                throw e;
+            }
+
+            if (last) {
+                return;
+            }
+            committedChunks.add(chunkProductIds);
+            from = to;
+        }
+    }
+
+    /**
+     * Reverses the stock changes of chunks that committed before a later chunk failed. Each product is put back on its
+     * own, so one failure doesn't keep the others from being restored; products deleted in the meantime are skipped
+     * rather than recreated. Reversals that fail are attached to {@code failure} and their products logged for repair.
+     */
+    private void restore(List<List<String>> committedChunks, Map<String, Integer> stockDeltas, LocalDate today,
+                         RuntimeException failure) {
+        List<String> unrestored = new ArrayList<>();
+        for (List<String> chunkProductIds : committedChunks) {
+            for (String productId : chunkProductIds) {
+                try {
+                    dynamoDbClient.updateItem(r -> r
+                            .tableName(productTableName)
+                            .key(Map.of("productId", AttributeValue.fromS(productId)))
+                            .updateExpression("SET dateUpdated = :today ADD quantity :delta")
+                            .conditionExpression("attribute_exists(productId)")
+                            .expressionAttributeValues(Map.of(
+                                    ":today", AttributeValue.fromS(today.toString()),
+                                    ":delta", AttributeValue.fromN(Integer.toString(-stockDeltas.get(productId))))));
+                } catch (ConditionalCheckFailedException e) {
+                    LOG.warn("Product deleted before its stock could be restored", "productId", productId);
+                } catch (RuntimeException e) {
+                    failure.addSuppressed(e);
+                    unrestored.add(productId);
+                }
+            }
+        }
+        if (!unrestored.isEmpty()) {
+            Map<String, Integer> deltas = new LinkedHashMap<>();
+            unrestored.forEach(productId -> deltas.put(productId, -stockDeltas.get(productId)));
+            LOG.error("Failed to restore stock after a partially committed sale, quantities need repair", failure,
+                    "productIds", unrestored, "repairDeltas", deltas);
+        }
+    }
+
+    // The sale write is always the last item of the transaction that carries it
+    private static boolean saleConditionFailed(TransactionCanceledException e) {
+        if (!e.hasCancellationReasons() || e.cancellationReasons().isEmpty()) {
+            return false;
+        }
+        List<CancellationReason> reasons = e.cancellationReasons();
+        return "ConditionalCheckFailed".equals(reasons.get(reasons.size() - 1).code());
+    }
+
+    private TransactWriteItem stockUpdate(String productId, int delta, LocalDate today) {
+        Map<String, AttributeValue> values = new LinkedHashMap<>();
+        values.put(":today", AttributeValue.fromS(today.toString()));
+        values.put(":delta", AttributeValue.fromN(Integer.toString(delta)));
+
+        Update.Builder update = Update.builder()
+                .tableName(productTableName)
+                .key(Map.of("productId", AttributeValue.fromS(productId)))
+                .updateExpression("SET dateUpdated = :today ADD quantity :delta");
+
+        if (delta < 0) {
+            values.put(":required", AttributeValue.fromN(Integer.toString(-delta)));
+            update.conditionExpression("attribute_exists(productId) AND quantity >= :required");
+        } else {
+            update.conditionExpression("attribute_exists(productId)");
+        }
+
+        return TransactWriteItem.builder()
+                .update(update.expressionAttributeValues(values).build())
+                .build();
+    }
+
+    /**
+     * Runs one transaction, retrying when DynamoDB cancels it because of a conflicting concurrent transaction.
+     * {@code productIds} lists the product touched by each leading item, to name the product whose condition failed.
+     */
+    private void transact(List<TransactWriteItem> items, List<String> productIds) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                dynamoDbClient.transactWriteItems(r -> r.transactItems(items));
+                return;
+            } catch (TransactionCanceledException e) {
+                List<CancellationReason> reasons = e.hasCancellationReasons() ? e.cancellationReasons() : List.of();
+                for (int i = 0; i < reasons.size() && i < productIds.size(); i++) {
+                    if ("ConditionalCheckFailed".equals(reasons.get(i).code())) {
+                        throw new InsufficientStockException(productIds.get(i));
+                    }
+                }
+                boolean conflict = reasons.stream().anyMatch(reason -> "TransactionConflict".equals(reason.code()));
+                if (!conflict || attempt == MAX_CONFLICT_ATTEMPTS) {
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    // Jittered, so transactions that conflicted on the same item don't retry in lockstep
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, (BASE_CONFLICT_BACKOFF_MILLIS << attempt) + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying a conflicting transaction", e);
+        }
+    }
+}
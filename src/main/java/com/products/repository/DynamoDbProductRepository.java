@@ -0,0 +1,300 @@
+package com.products.repository;
+
+import com.products.config.ClientRegistry;
+import com.products.model.Product;
+import com.products.model.TableSchemas;
+import com.products.utils.CursorUtil;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetResultPage;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class DynamoDbProductRepository implements ProductRepository {
+    // DynamoDB caps a BatchGetItem request at 100 keys
+    private static final int BATCH_GET_LIMIT = 100;
+    private static final int MAX_BATCH_ATTEMPTS = 8;
+    private static final long BASE_BACKOFF_MILLIS = 25;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbEnhancedClient enhancedClient;
+    private final String tableName;
+    private final DynamoDbTable<Product> productTable;
+    private final ProductCache productCache;
+    private final CatalogVersionRepository catalogVersions;
+
+    public DynamoDbProductRepository(DynamoDbEnhancedClient enhancedClient, String tableName) {
+        this(ClientRegistry.dynamoDbClient(), enhancedClient, tableName);
+    }
+
+    public DynamoDbProductRepository(DynamoDbClient dynamoDbClient, DynamoDbEnhancedClient enhancedClient, String tableName) {
+        this(dynamoDbClient, enhancedClient, tableName, ProductCache.forTable(tableName), CatalogVersionRepository.shared());
+    }
+
+    public DynamoDbProductRepository(DynamoDbClient dynamoDbClient, DynamoDbEnhancedClient enhancedClient, String tableName,
+                                     ProductCache productCache, CatalogVersionRepository catalogVersions) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.enhancedClient = enhancedClient;
+        this.tableName = tableName;
+        this.productCache = productCache;
+        this.catalogVersions = catalogVersions;
+        productTable = enhancedClient.table(tableName, TableSchemas.PRODUCT);
+    }
+
+    @Override
+    public Product findByProductId(String productId) {
+        Product cached = productCache.get(productId);
+        if (cached != null) {
+            return cached;
+        }
+        Product product = productTable.getItem(
+                Key.builder()
+                        .partitionValue(productId)
+                        .build()
+        );
+        productCache.put(product);
+        return product;
+    }
+
+    @Override
+    public Product findByProductIdUncached(String productId) {
+        Product product = productTable.getItem(GetItemEnhancedRequest.builder()
+                .key(Key.builder().partitionValue(productId).build())
+                .consistentRead(true)
+                .build());
+        productCache.put(product);
+        return product;
+    }
+
+    /**
+     * Fetch many products with BatchGetItem instead of one GetItem per id.
+     * Ids are de-duplicated and sent in chunks of 100; keys DynamoDB reports as unprocessed
+     * are retried with exponential backoff. Ids that don't exist are absent from the result.
+     * Products found in the cache are not requested again.
+     */
+    @Override
+    public Map<String, Product> findAllByProductIds(Collection<String> productIds) {
+        Set<String> requestedIds = new LinkedHashSet<>(productIds);
+        Map<String, Product> products = productCache.getAll(requestedIds);
+        requestedIds.removeAll(products.keySet());
+        fetchAll(requestedIds, false, products);
+        return products;
+    }
+
+    // Like findAllByProductIds, but every product is read from the table with strongly consistent reads
+    @Override
+    public Map<String, Product> findAllByProductIdsUncached(Collection<String> productIds) {
+        Map<String, Product> products = new HashMap<>();
+        fetchAll(new LinkedHashSet<>(productIds), true, products);
+        return products;
+    }
+
+    private void fetchAll(Set<String> productIds, boolean consistentRead, Map<String, Product> products) {
+        List<String> distinctIds = new ArrayList<>(productIds);
+        for (int from = 0; from < distinctIds.size(); from += BATCH_GET_LIMIT) {
+            List<Key> keys = new ArrayList<>();
+            for (String productId : distinctIds.subList(from, Math.min(from + BATCH_GET_LIMIT, distinctIds.size()))) {
+                keys.add(Key.builder().partitionValue(productId).build());
+            }
+            fetchBatch(keys, consistentRead, products);
+        }
+    }
+
+    private void fetchBatch(List<Key> keys, boolean consistentRead, Map<String, Product> products) {
+        List<Key> pending = keys;
+        for (int attempt = 0; !pending.isEmpty(); attempt++) {
+            if (attempt == MAX_BATCH_ATTEMPTS) {
+                throw new IllegalStateException("Unable to read " + pending.size() + " products after " + attempt + " attempts");
+            }
+            if (attempt > 0) {
+                backoff(attempt);
+            }
+
+            ReadBatch.Builder<Product> batch = ReadBatch.builder(Product.class).mappedTableResource(productTable);
+            pending.forEach(key -> batch.addGetItem(GetItemEnhancedRequest.builder()
+                    .key(key)
+                    .consistentRead(consistentRead)
+                    .build()));
+
+            // Only take the first page: the paginator would re-request unprocessed keys immediately, without backoff
+            BatchGetResultPage page = enhancedClient.batchGetItem(r -> r.readBatches(batch.build()))
+                    .iterator()
+                    .next();
+
+            for (Product product : page.resultsForTable(productTable)) {
+                products.put(product.getProductId(), product);
+                productCache.put(product);
+            }
+            pending = page.unprocessedKeysForTable(productTable);
+        }
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(BASE_BACKOFF_MILLIS << Math.min(attempt, 6));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying unprocessed keys", e);
+        }
+    }
+
+    @Override
+    public boolean existsByCategoryIdAndProductName(String categoryId, String productName) {
+        QueryConditional query = QueryConditional.keyEqualTo(
+                Key.builder().partitionValue(categoryId).sortValue(productName).build()
+        );
+
+        return productTable.index("CategoryIndex")
+                .query(query)
+                .stream()
+                .flatMap(page -> page.items().stream())
+                .findAny()
+                .isPresent();
+    }
+
+    // Writes the product and bumps the products version in one transaction
+    @Override
+    public void save(Product product) {
+        List<TransactWriteItem> items = new ArrayList<>();
+        items.add(TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(tableName)
+                        .item(TableSchemas.PRODUCT.itemToMap(product, true))
+                        .build())
+                .build());
+        catalogVersions.addProductsBump(items);
+        try {
+            dynamoDbClient.transactWriteItems(r -> r.transactItems(items));
+        } catch (RuntimeException e) {
+            // The write may still have landed, so don't keep serving the old version
+            productCache.invalidate(product.getProductId());
+            throw e;
+        } finally {
+            catalogVersions.invalidate();
+        }
+        productCache.put(product);
+    }
+
+    // One page of a category's products from CategoryIndex, in product name order
+    @Override
+    public PaginatedResult<Product> findByCategoryIdPaginated(String categoryId, int limit, String lastEvaluatedKey) {
+        String scope = "product:CategoryIndex:" + categoryId;
+        QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(categoryId).build()))
+                .limit(limit)
+                .exclusiveStartKey(CursorUtil.decode(scope, lastEvaluatedKey))
+                .build();
+
+        Page<Product> page = productTable.index("CategoryIndex").query(request).iterator().next();
+        return new PaginatedResult<>(page.items(), CursorUtil.encode(scope, page.lastEvaluatedKey()));
+    }
+
+    /**
+     * One page of a table scan. Passing {@code segment}/{@code totalSegments} restricts the scan to one
+     * segment, so an export can be split across several clients paging through the segments in parallel.
+     */
+    @Override
+    public PaginatedResult<Product> findAllPaginated(int limit, String lastEvaluatedKey, Integer segment, Integer totalSegments) {
+        String scope = totalSegments != null ? "product:scan:" + segment + "/" + totalSegments : "product:scan";
+        ScanEnhancedRequest.Builder requestBuilder = ScanEnhancedRequest.builder()
+                .limit(limit)
+                .exclusiveStartKey(CursorUtil.decode(scope, lastEvaluatedKey));
+
+        if (totalSegments != null) {
+            requestBuilder.segment(segment).totalSegments(totalSegments);
+        }
+
+        Page<Product> page = productTable.scan(requestBuilder.build()).iterator().next();
+        return new PaginatedResult<>(page.items(), CursorUtil.encode(scope, page.lastEvaluatedKey()));
+    }
+
+    /**
+     * One page of products whose {@code dateIndex} date falls between {@code from} and {@code to}, ordered by that date.
+     * The date indexes have a hash key only, so each day is its own partition: days are walked in order and
+     * products within a day come back in no particular order. A page visits at most {@link #MAX_DAYS_PER_PAGE}
+     * days, so a sparse range can return a short page that still has more to read.
+     */
+    @Override
+    public PaginatedResult<Product> findPageByDate(DateIndex dateIndex, LocalDate from, LocalDate to, boolean descending,
+                                                   int limit, String lastEvaluatedKey) {
+        DynamoDbIndex<Product> index = productTable.index(dateIndex.getIndexName());
+        // A cursor is only valid for the range and direction it was issued for
+        String scope = "product:" + dateIndex.getIndexName() + ":" + from + ":" + to + (descending ? ":desc" : ":asc");
+
+        LocalDate day = descending ? to : from;
+        Map<String, AttributeValue> exclusiveStartKey = null;
+
+        Map<String, AttributeValue> cursor = CursorUtil.decode(scope, lastEvaluatedKey);
+        if (cursor != null) {
+            day = cursorDay(cursor, dateIndex, from, to);
+            // A cursor with only the date points at the start of that day
+            exclusiveStartKey = cursor.containsKey("productId") ? cursor : null;
+        }
+
+        List<Product> products = new ArrayList<>();
+        for (int visitedDays = 0; !day.isBefore(from) && !day.isAfter(to); ) {
+            QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+                    .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(day.toString()).build()))
+                    .limit(limit - products.size())
+                    .exclusiveStartKey(exclusiveStartKey)
+                    .build();
+            Page<Product> page = index.query(request).iterator().next();
+            products.addAll(page.items());
+
+            Map<String, AttributeValue> pageKey = page.lastEvaluatedKey();
+            if (pageKey != null && !pageKey.isEmpty()) {
+                if (products.size() >= limit) {
+                    return new PaginatedResult<>(products, CursorUtil.encode(scope, pageKey));
+                }
+                exclusiveStartKey = pageKey;
+                continue;
+            }
+
+            day = descending ? day.minusDays(1) : day.plusDays(1);
+            exclusiveStartKey = null;
+            if (products.size() >= limit || ++visitedDays == MAX_DAYS_PER_PAGE) {
+                boolean more = !day.isBefore(from) && !day.isAfter(to);
+                String next = more ? CursorUtil.encode(scope, Map.of(dateIndex.getAttributeName(), AttributeValue.fromS(day.toString()))) : null;
+                return new PaginatedResult<>(products, next);
+            }
+        }
+        return new PaginatedResult<>(products, null);
+    }
+
+    private static LocalDate cursorDay(Map<String, AttributeValue> cursor, DateIndex dateIndex, LocalDate from, LocalDate to) {
+        AttributeValue value = cursor.get(dateIndex.getAttributeName());
+        if (value == null || value.s() == null) {
+            throw new IllegalArgumentException("Invalid lastEvaluatedKey");
+        }
+        LocalDate day;
+        try {
+            day = LocalDate.parse(value.s());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid lastEvaluatedKey", e);
+        }
+        if (day.isBefore(from) || day.isAfter(to)) {
+            throw new IllegalArgumentException("lastEvaluatedKey does not belong to the requested date range");
+        }
+        return day;
+    }
+}
@@ -0,0 +1,165 @@
+package com.products.repository;
+
+import com.products.config.ClientRegistry;
+import com.products.model.Sales;
+import com.products.model.TableSchemas;
+import com.products.request.SaleLineItem;
+import com.products.utils.CursorUtil;
+import software.amazon.awssdk.enhanced.dynamodb.*;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+public class DynamoDbSalesRepository implements SalesRepository {
+    // Bounds the round trips one filled page may take
+    private static final int MAX_FILL_REQUESTS = 20;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+    private final DynamoDbTable<Sales> salesTable;
+    private final DateRangeQueryExecutor dateRangeQueryExecutor;
+    private final CatalogVersionRepository catalogVersions;
+
+    public DynamoDbSalesRepository(DynamoDbEnhancedClient enhancedClient, String tableName) {
+        this(ClientRegistry.dynamoDbClient(), enhancedClient, tableName);
+    }
+
+    public DynamoDbSalesRepository(DynamoDbClient dynamoDbClient, DynamoDbEnhancedClient enhancedClient, String tableName) {
+        this(dynamoDbClient, enhancedClient, tableName, new DateRangeQueryExecutor(), CatalogVersionRepository.shared());
+    }
+
+    public DynamoDbSalesRepository(DynamoDbClient dynamoDbClient, DynamoDbEnhancedClient enhancedClient, String tableName,
+                                   DateRangeQueryExecutor dateRangeQueryExecutor, CatalogVersionRepository catalogVersions) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+        salesTable = enhancedClient.table(tableName, TableSchemas.SALES);
+        this.dateRangeQueryExecutor = dateRangeQueryExecutor;
+        this.catalogVersions = catalogVersions;
+    }
+
+    // Writes the sale and bumps the sales version in one transaction
+    @Override
+    public void save(Sales sales) {
+        write(Put.builder()
+                .tableName(tableName)
+                .item(TableSchemas.SALES.itemToMap(sales, true))
+                .build());
+    }
+
+    /**
+     * Saves the sale only if its stored line items are still {@code previousItems}; returns false when another
+     * write changed them in the meantime. Legacy JSON items can't be compared by value and are overwritten.
+     */
+    @Override
+    public boolean saveIfItemsUnchanged(Sales sales, List<SaleLineItem> previousItems) {
+        try {
+            write(Put.builder()
+                    .tableName(tableName)
+                    .item(TableSchemas.SALES.itemToMap(sales, true))
+                    .conditionExpression("attribute_exists(salesId) AND (#items = :previousItems OR attribute_type(#items, :legacyType))")
+                    .expressionAttributeNames(Map.of("#items", "items"))
+                    .expressionAttributeValues(Map.of(
+                            ":previousItems", Sales.SaleLineItemListConverter.INSTANCE.transformFrom(previousItems),
+                            ":legacyType", AttributeValue.fromS("S")))
+                    .build());
+            return true;
+        } catch (TransactionCanceledException e) {
+            // The sale's put is the first item of the transaction
+            if (e.hasCancellationReasons() && !e.cancellationReasons().isEmpty()
+                    && "ConditionalCheckFailed".equals(e.cancellationReasons().get(0).code())) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private void write(Put salePut) {
+        List<TransactWriteItem> items = new ArrayList<>();
+        items.add(TransactWriteItem.builder().put(salePut).build());
+        catalogVersions.addSalesBump(items);
+        try {
+            dynamoDbClient.transactWriteItems(r -> r.transactItems(items));
+        } finally {
+            catalogVersions.invalidate();
+        }
+    }
+
+    @Override
+    public Sales findBySalesId(String salesId) {
+        return salesTable.getItem(
+                Key.builder()
+                        .partitionValue(salesId)
+                        .build()
+        );
+    }
+
+    @Override
+    public List<Sales> getSalesByDate(String date) {
+        DynamoDbIndex<Sales> index = salesTable.index("DateSoldIndex");
+
+        return index.query(QueryConditional.keyEqualTo(Key.builder()
+                        .partitionValue(date)
+                        .build()))
+                .stream()
+                .flatMap(page -> page.items().stream())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Hands the range to {@code dayConsumer} one day at a time, in date order. DateSoldIndex is partitioned by day,
+     * so the following days are queried concurrently while the current one is consumed.
+     */
+    @Override
+    public void forEachDayInDateRange(LocalDate startDate, LocalDate endDate, Consumer<List<Sales>> dayConsumer) {
+        dateRangeQueryExecutor.forEachDay(startDate, endDate, day -> getSalesByDate(day.toString()), sales -> {
+            if (!sales.isEmpty()) {
+                dayConsumer.accept(sales);
+            }
+        });
+    }
+
+    /**
+     * One page of a table scan.
+     * With {@code fillToLimit} further scan pages are read until {@code limit} sales are collected or the table
+     * (or segment) is exhausted, instead of returning whatever the first page held. Each request asks only for the
+     * items still missing, so the returned cursor is always the key of the last sale in the page.
+     * Passing {@code segment}/{@code totalSegments} restricts the scan to one segment for parallel exports.
+     */
+    @Override
+    public PaginatedResult<Sales> findAllPaginated(int limit, String lastEvaluatedKey, boolean fillToLimit,
+                                                   Integer segment, Integer totalSegments) {
+        String scope = totalSegments != null ? "sales:scan:" + segment + "/" + totalSegments : "sales:scan";
+        Map<String, AttributeValue> exclusiveStartKey = CursorUtil.decode(scope, lastEvaluatedKey);
+
+        List<Sales> items = new ArrayList<>();
+        for (int requests = 0; ; requests++) {
+            ScanEnhancedRequest.Builder requestBuilder = ScanEnhancedRequest.builder()
+                    .limit(limit - items.size())
+                    .exclusiveStartKey(exclusiveStartKey);
+            if (totalSegments != null) {
+                requestBuilder.segment(segment).totalSegments(totalSegments);
+            }
+
+            Page<Sales> page = salesTable.scan(requestBuilder.build()).iterator().next();
+            items.addAll(page.items());
+            exclusiveStartKey = page.lastEvaluatedKey();
+
+            boolean exhausted = exclusiveStartKey == null || exclusiveStartKey.isEmpty();
+            if (exhausted || items.size() >= limit || !fillToLimit || requests + 1 == MAX_FILL_REQUESTS) {
+                return new PaginatedResult<>(items, exhausted ? null : CursorUtil.encode(scope, exclusiveStartKey));
+            }
+        }
+    }
+}
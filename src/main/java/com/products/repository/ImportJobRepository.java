@@ -0,0 +1,94 @@
+package com.products.repository;
+
+import com.products.model.ImportJob;
+import com.products.model.TableSchemas;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ImportJobRepository {
+    private final DynamoDbTable<ImportJob> importJobTable;
+
+    public ImportJobRepository(DynamoDbEnhancedClient enhancedClient, String tableName) {
+        importJobTable = enhancedClient.table(tableName, TableSchemas.IMPORT_JOB);
+    }
+
+    public ImportJob findByJobId(String jobId) {
+        return importJobTable.getItem(Key.builder().partitionValue(jobId).build());
+    }
+
+    public void create(ImportJob job) {
+        importJobTable.putItem(PutItemEnhancedRequest.builder(ImportJob.class)
+                .item(job)
+                .conditionExpression(Expression.builder()
+                        .expression("attribute_not_exists(jobId)")
+                        .build())
+                .build());
+    }
+
+    /**
+     * Saves the job only if its stored checkpoint is still {@code expectedRowsRead} and it has not been failed,
+     * so two invocations working on the same job can't both move it forward, and a job given up on stays failed.
+     *
+     * @return false if another invocation has checkpointed or failed the job in the meantime
+     */
+    public boolean checkpoint(ImportJob job, long expectedRowsRead) {
+        try {
+            importJobTable.putItem(PutItemEnhancedRequest.builder(ImportJob.class)
+                    .item(job)
+                    .conditionExpression(Expression.builder()
+                            .expression("rowsRead = :expected AND #status <> :failed")
+                            .expressionNames(Map.of("#status", "status"))
+                            .expressionValues(Map.of(
+                                    ":expected", AttributeValue.fromN(Long.toString(expectedRowsRead)),
+                                    ":failed", AttributeValue.fromS(ImportJob.FAILED)))
+                            .build())
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Marks a RUNNING job FAILED, provided no worker has renewed its heartbeat since {@code job} was read.
+     *
+     * @return false if the job moved on in the meantime
+     */
+    public boolean failStale(ImportJob job, String errorMessage) {
+        String heartbeatAt = job.getHeartbeatAt();
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":running", AttributeValue.fromS(ImportJob.RUNNING));
+        values.put(":rowsRead", AttributeValue.fromN(Long.toString(job.getRowsRead())));
+        String heartbeatCondition = "attribute_not_exists(heartbeatAt)";
+        if (heartbeatAt != null) {
+            heartbeatCondition = "heartbeatAt = :heartbeatAt";
+            values.put(":heartbeatAt", AttributeValue.fromS(heartbeatAt));
+        }
+
+        job.setStatus(ImportJob.FAILED);
+        job.setErrorMessage(errorMessage);
+        job.setUpdatedAt(Instant.now().toString());
+        try {
+            importJobTable.putItem(PutItemEnhancedRequest.builder(ImportJob.class)
+                    .item(job)
+                    .conditionExpression(Expression.builder()
+                            .expression("#status = :running AND rowsRead = :rowsRead AND " + heartbeatCondition)
+                            .expressionNames(Map.of("#status", "status"))
+                            .expressionValues(values)
+                            .build())
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+}
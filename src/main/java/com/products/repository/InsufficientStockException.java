@@ -0,0 +1,14 @@
+package com.products.repository;
+
+import lombok.Getter;
+
+// Thrown when a stock deduction's condition fails: the product has less stock than requested, or no longer exists
+@Getter
+public class InsufficientStockException extends RuntimeException {
+    private final String productId;
+
+    public InsufficientStockException(String productId) {
+        super("Not enough stock for product: " + productId);
+        this.productId = productId;
+    }
+}
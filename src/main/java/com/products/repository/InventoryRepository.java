@@ -0,0 +1,30 @@
+package com.products.repository;
+
+import com.products.model.Sales;
+import com.products.request.SaleLineItem;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes sales together with the stock movements they cause, atomically: stock is never deducted without
+ * the sale being recorded (or the other way round) and concurrent sales can't take a product below zero.
+ */
+public interface InventoryRepository {
+    /**
+     * Saves a new sale and deducts every line's quantity from its product.
+     *
+     * @throws InsufficientStockException if a product is missing or has less stock than the sale needs
+     */
+    void createSale(Sales sales);
+
+    /**
+     * Replaces an existing sale and applies the stock change of the edit with it.
+     * {@code stockDeltas} maps each product to the change in its stock (negative when more is sold than before).
+     * The write only succeeds if the stored sale still has {@code previousItems}.
+     *
+     * @throws InsufficientStockException if a product is missing or has less stock than the edit needs
+     * @throws ConcurrentSaleUpdateException if the sale was changed since it was read
+     */
+    void updateSale(Sales sales, List<SaleLineItem> previousItems, Map<String, Integer> stockDeltas);
+}
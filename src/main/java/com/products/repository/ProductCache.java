@@ -0,0 +1,110 @@
+package com.products.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.products.model.Product;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Size-bounded product cache (Caffeine's W-TinyLFU eviction) with a per-entry TTL.
+ * One cache per table is kept statically, so entries survive warm invocations of the same execution environment.
+ * Writes in other environments are only seen once the TTL runs out, so anything that must be exact (stock)
+ * is still enforced by conditional writes. Callers always get copies, never the cached instances.
+ * Configured with PRODUCT_CACHE_MAX_ENTRIES (default 1000, 0 disables the cache) and PRODUCT_CACHE_TTL_SECONDS (default 60).
+ */
+public class ProductCache {
+    private static final long DEFAULT_MAX_ENTRIES = 1000;
+    private static final long DEFAULT_TTL_SECONDS = 60;
+    private static final Map<String, ProductCache> CACHES_BY_TABLE = new ConcurrentHashMap<>();
+
+    private final Cache<String, Product> cache;
+    private final boolean enabled;
+
+    public ProductCache(long maxEntries, Duration ttl) {
+        this.enabled = maxEntries > 0 && !ttl.isZero() && !ttl.isNegative();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(maxEntries, 0))
+                .expireAfterWrite(enabled ? ttl : Duration.ofSeconds(1))
+                .recordStats()
+                .build();
+    }
+
+    public static ProductCache forTable(String tableName) {
+        return CACHES_BY_TABLE.computeIfAbsent(String.valueOf(tableName), name -> new ProductCache(
+                readLong("PRODUCT_CACHE_MAX_ENTRIES", DEFAULT_MAX_ENTRIES),
+                Duration.ofSeconds(readLong("PRODUCT_CACHE_TTL_SECONDS", DEFAULT_TTL_SECONDS))));
+    }
+
+    public Product get(String productId) {
+        if (!enabled || productId == null) {
+            return null;
+        }
+        return copy(cache.getIfPresent(productId));
+    }
+
+    // Returns the cached products among productIds, keyed by id; ids that aren't cached are left out
+    public Map<String, Product> getAll(Collection<String> productIds) {
+        Map<String, Product> found = new HashMap<>();
+        if (!enabled) {
+            return found;
+        }
+        cache.getAllPresent(productIds).forEach((productId, product) -> found.put(productId, copy(product)));
+        return found;
+    }
+
+    public void put(Product product) {
+        if (enabled && product != null && product.getProductId() != null) {
+            cache.put(product.getProductId(), copy(product));
+        }
+    }
+
+    public void invalidate(String productId) {
+        if (productId != null) {
+            cache.invalidate(productId);
+        }
+    }
+
+    public void invalidateAll(Collection<String> productIds) {
+        cache.invalidateAll(productIds);
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    @Override
+    public String toString() {
+        var stats = cache.stats();
+        return "ProductCache{hits=" + stats.hitCount() + ", misses=" + stats.missCount()
+                + ", evictions=" + stats.evictionCount() + ", size=" + cache.estimatedSize() + "}";
+    }
+
+    private static Product copy(Product product) {
+        return product == null ? null : product.toBuilder().build();
+    }
+
+    private static long readLong(String name, long defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -1,59 +1,65 @@
 package com.products.repository;
 
 import com.products.model.Product;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.Key;
-import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
-import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 
-public class ProductRepository {
-    private final DynamoDbTable<Product> productTable;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
 
-    public ProductRepository(DynamoDbEnhancedClient enhancedClient, String tableName) {
-        productTable = enhancedClient.table(tableName, TableSchema.fromBean(Product.class));
-    }
+public interface ProductRepository {
+    // Bounds the number of days one page of a date listing may visit
+    int MAX_DAYS_PER_PAGE = 31;
 
-    public Product findByProductId(String productId) {
-        return productTable.getItem(
-                Key.builder()
-                        .partitionValue(productId)
-                        .build()
-        );
-    }
+    Product findByProductId(String productId);
 
-    public boolean existsByProductId(String productId) {
-        return productTable.getItem(
-                Key.builder()
-                        .partitionValue(productId)
-                        .build()
-        ) != null;
-    }
+    // Skips any cache, for read-modify-write paths that must start from the stored item
+    Product findByProductIdUncached(String productId);
 
+    // Products keyed by id; ids that don't exist are absent from the result
+    Map<String, Product> findAllByProductIds(Collection<String> productIds);
 
-    public boolean existsByCategoryIdAndProductName(String categoryId, String productName) {
-        QueryConditional query = QueryConditional.keyEqualTo(
-                Key.builder().partitionValue(categoryId).sortValue(productName).build()
-        );
+    // Skips any cache and reads consistently, for write paths that check or copy the current product details
+    Map<String, Product> findAllByProductIdsUncached(Collection<String> productIds);
 
-        return productTable.index("CategoryIndex")
-                .query(query)
-                .stream()
-                .flatMap(page -> page.items().stream())
-                .findAny()
-                .isPresent();
+    default boolean existsByProductId(String productId) {
+        return findByProductId(productId) != null;
     }
 
-    public Product findByProductIdAndCategoryId(String productId, String categoryId) {
+    boolean existsByCategoryIdAndProductName(String categoryId, String productName);
+
+    default Product findByProductIdAndCategoryId(String productId, String categoryId) {
         var product = findByProductId(productId);
         return product.getCategoryId().equals(categoryId) ? product : null;
     }
 
-    public void save(Product product) {
-        productTable.putItem(product);
-    }
+    void save(Product product);
+
+    // One page of a category's products, in product name order
+    PaginatedResult<Product> findByCategoryIdPaginated(String categoryId, int limit, String lastEvaluatedKey);
 
+    /**
+     * One page of all products. Passing {@code segment}/{@code totalSegments} restricts the page to one
+     * segment, so an export can be split across several clients paging through the segments in parallel.
+     */
+    PaginatedResult<Product> findAllPaginated(int limit, String lastEvaluatedKey, Integer segment, Integer totalSegments);
 
+    /**
+     * One page of products whose {@code dateIndex} date falls between {@code from} and {@code to}, ordered by that date.
+     * Products within a day come back in no particular order. A page visits at most {@link #MAX_DAYS_PER_PAGE}
+     * days, so a sparse range can return a short page that still has more to read.
+     */
+    PaginatedResult<Product> findPageByDate(DateIndex dateIndex, LocalDate from, LocalDate to, boolean descending,
+                                            int limit, String lastEvaluatedKey);
 
+    @Getter
+    @RequiredArgsConstructor
+    enum DateIndex {
+        DATE_ADDED("DateAddedIndex", "dateAdded"),
+        DATE_UPDATED("DateUpdatedIndex", "dateUpdated");
 
+        private final String indexName;
+        private final String attributeName;
+    }
 }
@@ -0,0 +1,248 @@
+package com.products.repository;
+
+import com.products.model.SalesAggregate;
+import com.products.model.TableSchemas;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class SalesAggregateRepository {
+    // One transaction item is the idempotency marker
+    static final int MAX_DELTAS_PER_TRANSACTION = 99;
+    private static final int MAX_CONFLICT_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 25;
+    // Stream records are retried for at most a day, markers only need to outlive that
+    private static final long MARKER_TTL_DAYS = 7;
+    private static final int BATCH_WRITE_LIMIT = 25;
+    private static final int MAX_BATCH_ATTEMPTS = 5;
+    // Row holding the last day the aggregate backfill rebuilt from raw sales
+    private static final String BACKFILL_DAY = "BACKFILL";
+    private static final String BACKFILL_KEY = "THROUGH";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbEnhancedClient enhancedClient;
+    private final DynamoDbTable<SalesAggregate> aggregateTable;
+    private final String tableName;
+    private final DateRangeQueryExecutor dateRangeQueryExecutor;
+
+    public SalesAggregateRepository(DynamoDbClient dynamoDbClient, DynamoDbEnhancedClient enhancedClient, String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.enhancedClient = enhancedClient;
+        this.tableName = tableName;
+        this.aggregateTable = enhancedClient.table(tableName, TableSchemas.SALES_AGGREGATE);
+        this.dateRangeQueryExecutor = new DateRangeQueryExecutor();
+    }
+
+    // Change to apply to one aggregate row; counts may be negative
+    public record Delta(String day, String aggregateKey, String name, long quantity, double revenue, double cost,
+                        long uncostedQuantity, double uncostedRevenue, long saleCount) {
+        boolean isZero() {
+            return quantity == 0 && revenue == 0 && cost == 0 && uncostedQuantity == 0 && uncostedRevenue == 0 && saleCount == 0;
+        }
+    }
+
+    /**
+     * Adds the deltas to their rows. Each transaction also writes a marker for {@code eventId} (and chunk),
+     * conditioned on the marker not existing yet, so a redelivered stream record is not counted twice.
+     */
+    public void applyDeltas(String eventId, List<Delta> deltas) {
+        List<Delta> nonZero = deltas.stream().filter(delta -> !delta.isZero()).toList();
+        for (int from = 0, chunk = 0; from < nonZero.size(); from += MAX_DELTAS_PER_TRANSACTION, chunk++) {
+            List<TransactWriteItem> items = new ArrayList<>();
+            items.add(marker(eventId, chunk));
+            for (Delta delta : nonZero.subList(from, Math.min(from + MAX_DELTAS_PER_TRANSACTION, nonZero.size()))) {
+                items.add(update(delta));
+            }
+            transact(items);
+        }
+    }
+
+    public List<SalesAggregate> findByDay(LocalDate day) {
+        return aggregateTable.query(QueryConditional.keyEqualTo(Key.builder().partitionValue(day.toString()).build()))
+                .items()
+                .stream()
+                .collect(Collectors.toList());
+    }
+
+    // Every aggregate row of every day in the range, one concurrent query per day
+    public List<SalesAggregate> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        return dateRangeQueryExecutor.queryByDay(startDate, endDate, this::findByDay);
+    }
+
+    /**
+     * Marks {@code day} as complete: its rows account for every sale of the day, so readers may use them
+     * instead of the raw sales.
+     */
+    public void markComplete(LocalDate day) {
+        aggregateTable.putItem(SalesAggregate.builder().day(day.toString()).aggregateKey(SalesAggregate.COMPLETE).build());
+    }
+
+    /**
+     * Overwrites the rows of {@code day} with {@code rows}, deletes rows the day no longer has and marks it complete.
+     */
+    public void replaceDay(LocalDate day, List<SalesAggregate> rows) {
+        Set<String> keys = new HashSet<>();
+        rows.forEach(row -> keys.add(row.getAggregateKey()));
+        List<SalesAggregate> stale = findByDay(day).stream()
+                .filter(row -> !keys.contains(row.getAggregateKey()) && !SalesAggregate.COMPLETE.equals(row.getAggregateKey()))
+                .toList();
+        for (int from = 0; from < rows.size(); from += BATCH_WRITE_LIMIT) {
+            writeBatch(rows.subList(from, Math.min(from + BATCH_WRITE_LIMIT, rows.size())), List.of());
+        }
+        for (int from = 0; from < stale.size(); from += BATCH_WRITE_LIMIT) {
+            writeBatch(List.of(), stale.subList(from, Math.min(from + BATCH_WRITE_LIMIT, stale.size())));
+        }
+        markComplete(day);
+    }
+
+    // The last day rebuilt by the aggregate backfill, or null if it has not finished yet
+    public LocalDate findBackfilledThrough() {
+        GetItemResponse response = dynamoDbClient.getItem(r -> r.tableName(tableName).key(backfillKey()).consistentRead(true));
+        AttributeValue through = response.hasItem() ? response.item().get("through") : null;
+        return through == null ? null : LocalDate.parse(through.s());
+    }
+
+    // Only ever moves forward, a rerun over an older range leaves a later watermark in place
+    public void recordBackfilledThrough(LocalDate day) {
+        Map<String, AttributeValue> item = new HashMap<>(backfillKey());
+        item.put("through", AttributeValue.fromS(day.toString()));
+        try {
+            dynamoDbClient.putItem(r -> r.tableName(tableName)
+                    .item(item)
+                    .conditionExpression("attribute_not_exists(#through) OR #through < :through")
+                    .expressionAttributeNames(Map.of("#through", "through"))
+                    .expressionAttributeValues(Map.of(":through", AttributeValue.fromS(day.toString()))));
+        } catch (ConditionalCheckFailedException e) {
+            // Already recorded through this day or later
+        }
+    }
+
+    private static Map<String, AttributeValue> backfillKey() {
+        return Map.of("day", AttributeValue.fromS(BACKFILL_DAY), "aggregateKey", AttributeValue.fromS(BACKFILL_KEY));
+    }
+
+    private void writeBatch(List<SalesAggregate> puts, List<SalesAggregate> deletes) {
+        List<SalesAggregate> pendingPuts = puts;
+        List<Key> pendingDeletes = deletes.stream()
+                .map(row -> Key.builder().partitionValue(row.getDay()).sortValue(row.getAggregateKey()).build())
+                .toList();
+        for (int attempt = 1; !pendingPuts.isEmpty() || !pendingDeletes.isEmpty(); attempt++) {
+            if (attempt > MAX_BATCH_ATTEMPTS) {
+                throw new IllegalStateException("Aggregate rows still unprocessed after " + MAX_BATCH_ATTEMPTS + " attempts");
+            }
+            if (attempt > 1) {
+                backoff(attempt);
+            }
+            WriteBatch.Builder<SalesAggregate> batch = WriteBatch.builder(SalesAggregate.class).mappedTableResource(aggregateTable);
+            pendingPuts.forEach(batch::addPutItem);
+            pendingDeletes.forEach(batch::addDeleteItem);
+            BatchWriteResult result = enhancedClient.batchWriteItem(r -> r.writeBatches(batch.build()));
+            pendingPuts = result.unprocessedPutItemsForTable(aggregateTable);
+            pendingDeletes = result.unprocessedDeleteItemsForTable(aggregateTable);
+        }
+    }
+
+    private TransactWriteItem marker(String eventId, int chunk) {
+        long expiresAt = Instant.now().plus(MARKER_TTL_DAYS, ChronoUnit.DAYS).getEpochSecond();
+        return TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(tableName)
+                        .item(Map.of(
+                                "day", AttributeValue.fromS("EVENT#" + eventId),
+                                "aggregateKey", AttributeValue.fromS("MARKER#" + chunk),
+                                "expiresAt", AttributeValue.fromN(Long.toString(expiresAt))))
+                        .conditionExpression("attribute_not_exists(#day)")
+                        .expressionAttributeNames(Map.of("#day", "day"))
+                        .build())
+                .build();
+    }
+
+    private TransactWriteItem update(Delta delta) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":quantity", AttributeValue.fromN(Long.toString(delta.quantity())));
+        values.put(":revenue", AttributeValue.fromN(BigDecimal.valueOf(delta.revenue()).toPlainString()));
+        values.put(":cost", AttributeValue.fromN(BigDecimal.valueOf(delta.cost()).toPlainString()));
+
+        StringBuilder expression = new StringBuilder("ADD quantity :quantity, revenue :revenue, cost :cost");
+        if (delta.uncostedQuantity() != 0 || delta.uncostedRevenue() != 0) {
+            expression.append(", uncostedQuantity :uncostedQuantity, uncostedRevenue :uncostedRevenue");
+            values.put(":uncostedQuantity", AttributeValue.fromN(Long.toString(delta.uncostedQuantity())));
+            values.put(":uncostedRevenue", AttributeValue.fromN(BigDecimal.valueOf(delta.uncostedRevenue()).toPlainString()));
+        }
+        if (delta.saleCount() != 0) {
+            expression.append(", saleCount :saleCount");
+            values.put(":saleCount", AttributeValue.fromN(Long.toString(delta.saleCount())));
+        }
+        if (delta.name() != null) {
+            expression.append(" SET #name = :name");
+            names.put("#name", "name");
+            values.put(":name", AttributeValue.fromS(delta.name()));
+        }
+
+        Update.Builder update = Update.builder()
+                .tableName(tableName)
+                .key(Map.of(
+                        "day", AttributeValue.fromS(delta.day()),
+                        "aggregateKey", AttributeValue.fromS(delta.aggregateKey())))
+                .updateExpression(expression.toString())
+                .expressionAttributeValues(values);
+        if (!names.isEmpty()) {
+            update.expressionAttributeNames(names);
+        }
+        return TransactWriteItem.builder().update(update.build()).build();
+    }
+
+    // The marker is the first item: if its condition fails this chunk was already applied
+    private void transact(List<TransactWriteItem> items) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                dynamoDbClient.transactWriteItems(r -> r.transactItems(items));
+                return;
+            } catch (TransactionCanceledException e) {
+                List<CancellationReason> reasons = e.hasCancellationReasons() ? e.cancellationReasons() : List.of();
+                if (!reasons.isEmpty() && "ConditionalCheckFailed".equals(reasons.get(0).code())) {
+                    return;
+                }
+                boolean conflict = reasons.stream().anyMatch(reason -> "TransactionConflict".equals(reason.code()));
+                if (!conflict || attempt == MAX_CONFLICT_ATTEMPTS) {
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(BASE_BACKOFF_MILLIS << attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying aggregate write", e);
+        }
+    }
+}
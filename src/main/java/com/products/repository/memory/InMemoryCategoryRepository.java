@@ -0,0 +1,31 @@
+package com.products.repository.memory;
+
+import com.products.model.Category;
+import com.products.model.TableSchemas;
+import com.products.repository.CategoryRepository;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+
+public class InMemoryCategoryRepository implements CategoryRepository {
+    private final InMemoryStore store;
+
+    public InMemoryCategoryRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Category findByCategoryName(String categoryName) {
+        List<Map<String, AttributeValue>> items =
+                store.categories.queryAll("CategoryNameIndex", categoryName);
+        return items.isEmpty() ? null : TableSchemas.CATEGORY.mapToItem(items.get(0));
+    }
+
+    public void save(Category category) {
+        try (var locked = store.lock(store.categories.lockKey(category.getCategoryId()))) {
+            store.categories.put(TableSchemas.CATEGORY.itemToMap(category, true));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.products.repository.memory;
+
+import com.products.model.Sales;
+import com.products.model.TableSchemas;
+import com.products.repository.ConcurrentSaleUpdateException;
+import com.products.repository.InsufficientStockException;
+import com.products.repository.InventoryRepository;
+import com.products.request.SaleLineItem;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * InventoryRepository over an {@link InMemoryStore}. The sale and every stock update are checked and applied
+ * under the locks of all the keys involved, so a sale is all-or-nothing however many products it touches.
+ * Failed conditions surface as the same exceptions DynamoDbInventoryRepository throws.
+ */
+public class InMemoryInventoryRepository implements InventoryRepository {
+    private final InMemoryStore store;
+
+    public InMemoryInventoryRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void createSale(Sales sales) {
+        Map<String, Integer> stockDeltas = new LinkedHashMap<>();
+        for (SaleLineItem item : sales.getItems()) {
+            stockDeltas.merge(item.getProductId(), -item.getQuantitySold(), Integer::sum);
+        }
+
+        try (var locked = store.lock(lockKeys(sales, stockDeltas))) {
+            List<Map<String, AttributeValue>> products = checkStock(stockDeltas, sales.getDateUpdated());
+            if (store.sales.get(sales.getSalesId()) != null) {
+                throw saleConditionFailed(products.size());
+            }
+            commit(sales, products);
+        }
+    }
+
+    @Override
+    public void updateSale(Sales sales, List<SaleLineItem> previousItems, Map<String, Integer> stockDeltas) {
+        try (var locked = store.lock(lockKeys(sales, stockDeltas))) {
+            List<Map<String, AttributeValue>> products = checkStock(stockDeltas, sales.getDateUpdated());
+            if (!InMemoryStore.itemsUnchanged(store.sales.get(sales.getSalesId()), previousItems)) {
+                throw new ConcurrentSaleUpdateException(sales.getSalesId());
+            }
+            commit(sales, products);
+        }
+    }
+
+    private List<String> lockKeys(Sales sales, Map<String, Integer> stockDeltas) {
+        List<String> lockKeys = new ArrayList<>();
+        stockDeltas.keySet().forEach(productId -> lockKeys.add(store.products.lockKey(productId)));
+        lockKeys.add(store.sales.lockKey(sales.getSalesId()));
+        return lockKeys;
+    }
+
+    // The updated products, or InsufficientStockException for the first product whose condition fails
+    private List<Map<String, AttributeValue>> checkStock(Map<String, Integer> stockDeltas, LocalDate today) {
+        List<Map<String, AttributeValue>> updated = new ArrayList<>();
+        stockDeltas.forEach((productId, delta) -> {
+            if (delta == 0) {
+                return;
+            }
+            Map<String, AttributeValue> product = store.products.get(productId);
+            if (product == null) {
+                throw new InsufficientStockException(productId);
+            }
+            AttributeValue storedQuantity = product.get("quantity");
+            int quantity = storedQuantity != null ? Integer.parseInt(storedQuantity.n()) : 0;
+            if (delta < 0 && quantity < -delta) {
+                throw new InsufficientStockException(productId);
+            }
+            Map<String, AttributeValue> item = new HashMap<>(product);
+            item.put("quantity", AttributeValue.fromN(Integer.toString(quantity + delta)));
+            item.put("dateUpdated", AttributeValue.fromS(today.toString()));
+            updated.add(item);
+        });
+        return updated;
+    }
+
+    private void commit(Sales sales, List<Map<String, AttributeValue>> products) {
+        products.forEach(store.products::put);
+        store.sales.put(TableSchemas.SALES.itemToMap(sales, true));
+    }
+
+    // What DynamoDB reports when only the sale's attribute_not_exists condition fails
+    private static TransactionCanceledException saleConditionFailed(int stockUpdates) {
+        List<CancellationReason> reasons = new ArrayList<>();
+        for (int i = 0; i < stockUpdates; i++) {
+            reasons.add(CancellationReason.builder().code("None").build());
+        }
+        reasons.add(CancellationReason.builder().code("ConditionalCheckFailed").message("The conditional request failed").build());
+        return TransactionCanceledException.builder()
+                .message("Transaction cancelled, please refer cancellation reasons for specific reasons")
+                .cancellationReasons(reasons)
+                .build();
+    }
+}
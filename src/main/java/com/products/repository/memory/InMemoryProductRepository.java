@@ -0,0 +1,149 @@
+package com.products.repository.memory;
+
+import com.products.model.Product;
+import com.products.model.TableSchemas;
+import com.products.repository.PaginatedResult;
+import com.products.repository.ProductRepository;
+import com.products.utils.CursorUtil;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ProductRepository over an {@link InMemoryStore}. Pages and cursors follow DynamoDbProductRepository,
+ * including the cursor scopes, so handlers page through it exactly as they do against DynamoDB.
+ */
+public class InMemoryProductRepository implements ProductRepository {
+    private final InMemoryStore store;
+
+    public InMemoryProductRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Product findByProductId(String productId) {
+        return toProduct(store.products.get(productId));
+    }
+
+    @Override
+    public Product findByProductIdUncached(String productId) {
+        return findByProductId(productId);
+    }
+
+    @Override
+    public Map<String, Product> findAllByProductIds(Collection<String> productIds) {
+        Map<String, Product> products = new HashMap<>();
+        for (String productId : productIds) {
+            if (!products.containsKey(productId)) {
+                Product product = findByProductId(productId);
+                if (product != null) {
+                    products.put(productId, product);
+                }
+            }
+        }
+        return products;
+    }
+
+    @Override
+    public Map<String, Product> findAllByProductIdsUncached(Collection<String> productIds) {
+        return findAllByProductIds(productIds);
+    }
+
+    @Override
+    public boolean existsByCategoryIdAndProductName(String categoryId, String productName) {
+        return store.products.queryAll("CategoryIndex", categoryId).stream()
+                .anyMatch(item -> productName.equals(item.get("productName").s()));
+    }
+
+    @Override
+    public void save(Product product) {
+        try (var locked = store.lock(store.products.lockKey(product.getProductId()))) {
+            store.products.put(TableSchemas.PRODUCT.itemToMap(product, true));
+        }
+    }
+
+    @Override
+    public PaginatedResult<Product> findByCategoryIdPaginated(String categoryId, int limit, String lastEvaluatedKey) {
+        String scope = "product:CategoryIndex:" + categoryId;
+        InMemoryTable.Page page = store.products.query("CategoryIndex", categoryId,
+                CursorUtil.decode(scope, lastEvaluatedKey), limit);
+        return new PaginatedResult<>(toProducts(page.items()), CursorUtil.encode(scope, page.lastEvaluatedKey()));
+    }
+
+    @Override
+    public PaginatedResult<Product> findAllPaginated(int limit, String lastEvaluatedKey, Integer segment, Integer totalSegments) {
+        String scope = totalSegments != null ? "product:scan:" + segment + "/" + totalSegments : "product:scan";
+        InMemoryTable.Page page = store.products.scan(CursorUtil.decode(scope, lastEvaluatedKey), limit, segment, totalSegments);
+        return new PaginatedResult<>(toProducts(page.items()), CursorUtil.encode(scope, page.lastEvaluatedKey()));
+    }
+
+    @Override
+    public PaginatedResult<Product> findPageByDate(DateIndex dateIndex, LocalDate from, LocalDate to, boolean descending,
+                                                   int limit, String lastEvaluatedKey) {
+        String scope = "product:" + dateIndex.getIndexName() + ":" + from + ":" + to + (descending ? ":desc" : ":asc");
+
+        LocalDate day = descending ? to : from;
+        Map<String, AttributeValue> exclusiveStartKey = null;
+
+        Map<String, AttributeValue> cursor = CursorUtil.decode(scope, lastEvaluatedKey);
+        if (cursor != null) {
+            day = cursorDay(cursor, dateIndex, from, to);
+            exclusiveStartKey = cursor.containsKey("productId") ? cursor : null;
+        }
+
+        List<Product> products = new ArrayList<>();
+        for (int visitedDays = 0; !day.isBefore(from) && !day.isAfter(to); ) {
+            InMemoryTable.Page page = store.products.query(dateIndex.getIndexName(), day.toString(),
+                    exclusiveStartKey, limit - products.size());
+            products.addAll(toProducts(page.items()));
+
+            if (page.lastEvaluatedKey() != null) {
+                return new PaginatedResult<>(products, CursorUtil.encode(scope, page.lastEvaluatedKey()));
+            }
+
+            day = descending ? day.minusDays(1) : day.plusDays(1);
+            exclusiveStartKey = null;
+            if (products.size() >= limit || ++visitedDays == MAX_DAYS_PER_PAGE) {
+                boolean more = !day.isBefore(from) && !day.isAfter(to);
+                String next = more ? CursorUtil.encode(scope, Map.of(dateIndex.getAttributeName(), AttributeValue.fromS(day.toString()))) : null;
+                return new PaginatedResult<>(products, next);
+            }
+        }
+        return new PaginatedResult<>(products, null);
+    }
+
+    private static LocalDate cursorDay(Map<String, AttributeValue> cursor, DateIndex dateIndex, LocalDate from, LocalDate to) {
+        AttributeValue value = cursor.get(dateIndex.getAttributeName());
+        if (value == null || value.s() == null) {
+            throw new IllegalArgumentException("Invalid lastEvaluatedKey");
+        }
+        LocalDate day;
+        try {
+            day = LocalDate.parse(value.s());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid lastEvaluatedKey", e);
+        }
+        if (day.isBefore(from) || day.isAfter(to)) {
+            throw new IllegalArgumentException("lastEvaluatedKey does not belong to the requested date range");
+        }
+        return day;
+    }
+
+    private static Product toProduct(Map<String, AttributeValue> item) {
+        return item != null ? TableSchemas.PRODUCT.mapToItem(item) : null;
+    }
+
+    private static List<Product> toProducts(List<Map<String, AttributeValue>> items) {
+        List<Product> products = new ArrayList<>(items.size());
+        for (Map<String, AttributeValue> item : items) {
+            products.add(TableSchemas.PRODUCT.mapToItem(item));
+        }
+        return products;
+    }
+}
@@ -0,0 +1,80 @@
+package com.products.repository.memory;
+
+import com.products.model.Sales;
+import com.products.model.TableSchemas;
+import com.products.repository.PaginatedResult;
+import com.products.repository.SalesRepository;
+import com.products.request.SaleLineItem;
+import com.products.utils.CursorUtil;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// SalesRepository over an InMemoryStore, with the cursor scopes of DynamoDbSalesRepository
+public class InMemorySalesRepository implements SalesRepository {
+    private final InMemoryStore store;
+
+    public InMemorySalesRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void save(Sales sales) {
+        try (var locked = store.lock(store.sales.lockKey(sales.getSalesId()))) {
+            store.sales.put(TableSchemas.SALES.itemToMap(sales, true));
+        }
+    }
+
+    @Override
+    public boolean saveIfItemsUnchanged(Sales sales, List<SaleLineItem> previousItems) {
+        try (var locked = store.lock(store.sales.lockKey(sales.getSalesId()))) {
+            if (!InMemoryStore.itemsUnchanged(store.sales.get(sales.getSalesId()), previousItems)) {
+                return false;
+            }
+            store.sales.put(TableSchemas.SALES.itemToMap(sales, true));
+            return true;
+        }
+    }
+
+    @Override
+    public Sales findBySalesId(String salesId) {
+        Map<String, AttributeValue> item = store.sales.get(salesId);
+        return item != null ? TableSchemas.SALES.mapToItem(item) : null;
+    }
+
+    @Override
+    public List<Sales> getSalesByDate(String date) {
+        return toSales(store.sales.queryAll("DateSoldIndex", date));
+    }
+
+    @Override
+    public void forEachDayInDateRange(LocalDate startDate, LocalDate endDate, Consumer<List<Sales>> dayConsumer) {
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            List<Sales> sales = getSalesByDate(day.toString());
+            if (!sales.isEmpty()) {
+                dayConsumer.accept(sales);
+            }
+        }
+    }
+
+    // A page is always filled up to the limit, so fillToLimit makes no difference here
+    @Override
+    public PaginatedResult<Sales> findAllPaginated(int limit, String lastEvaluatedKey, boolean fillToLimit,
+                                                   Integer segment, Integer totalSegments) {
+        String scope = totalSegments != null ? "sales:scan:" + segment + "/" + totalSegments : "sales:scan";
+        InMemoryTable.Page page = store.sales.scan(CursorUtil.decode(scope, lastEvaluatedKey), limit, segment, totalSegments);
+        return new PaginatedResult<>(toSales(page.items()), CursorUtil.encode(scope, page.lastEvaluatedKey()));
+    }
+
+    private static List<Sales> toSales(List<Map<String, AttributeValue>> items) {
+        List<Sales> sales = new ArrayList<>(items.size());
+        for (Map<String, AttributeValue> item : items) {
+            sales.add(TableSchemas.SALES.mapToItem(item));
+        }
+        return sales;
+    }
+}
@@ -0,0 +1,81 @@
+package com.products.repository.memory;
+
+import com.products.model.Sales;
+import com.products.request.SaleLineItem;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shared state of the in-memory repositories, standing in for the Products, Sales and Categories tables
+ * and the indexes the DynamoDB repositories query. Items are stored as attribute maps written and read through
+ * {@link com.products.model.TableSchemas}, so callers get fresh copies exactly as they would from DynamoDB.
+ * Reads never block; writes lock the keys they touch, so conditional writes and multi-item transactions
+ * are atomic with respect to each other.
+ */
+public class InMemoryStore {
+    private static final int LOCK_STRIPES = 1024;
+
+    final InMemoryTable products = new InMemoryTable("products", "productId")
+            .withIndex("CategoryIndex", "categoryId", "productName")
+            .withIndex("DateAddedIndex", "dateAdded", null)
+            .withIndex("DateUpdatedIndex", "dateUpdated", null);
+    final InMemoryTable sales = new InMemoryTable("sales", "salesId")
+            .withIndex("DateSoldIndex", "dateSold", null);
+    final InMemoryTable categories = new InMemoryTable("categories", "categoryId")
+            .withIndex("CategoryNameIndex", "categoryName", null);
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public InMemoryStore() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Locks the stripes of all keys in ascending order, so writers with overlapping keys can't deadlock
+    Locked lock(Collection<String> lockKeys) {
+        int[] stripes = lockKeys.stream()
+                .mapToInt(key -> Math.floorMod(key.hashCode(), LOCK_STRIPES))
+                .distinct()
+                .sorted()
+                .toArray();
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+        return new Locked(stripes);
+    }
+
+    Locked lock(String lockKey) {
+        return lock(List.of(lockKey));
+    }
+
+    // The condition both conditional sale writes use: the sale exists and still has previousItems
+    static boolean itemsUnchanged(Map<String, AttributeValue> storedSale, List<SaleLineItem> previousItems) {
+        if (storedSale == null) {
+            return false;
+        }
+        AttributeValue items = storedSale.get("items");
+        // Legacy JSON items can't be compared by value, as in DynamoDbSalesRepository
+        return items != null && (items.s() != null
+                || items.equals(Sales.SaleLineItemListConverter.INSTANCE.transformFrom(previousItems)));
+    }
+
+    final class Locked implements AutoCloseable {
+        private final int[] stripes;
+
+        private Locked(int[] stripes) {
+            this.stripes = stripes;
+        }
+
+        @Override
+        public void close() {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+}
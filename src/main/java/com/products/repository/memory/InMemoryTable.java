@@ -0,0 +1,185 @@
+package com.products.repository.memory;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * One table of the in-memory store: immutable DynamoDB attribute maps keyed by a single string attribute,
+ * plus hash indexes on string attributes. Like a global secondary index, an index only holds items that have
+ * its attributes, and a reader racing a write may briefly see it behind the item.
+ * Writers must hold the store lock of the key they write.
+ */
+final class InMemoryTable {
+    private static final Comparator<IndexEntry> ENTRY_ORDER =
+            Comparator.comparing(IndexEntry::sortValue).thenComparing(IndexEntry::key);
+
+    record Page(List<Map<String, AttributeValue>> items, Map<String, AttributeValue> lastEvaluatedKey) {
+    }
+
+    private record IndexEntry(String sortValue, String key) {
+    }
+
+    private record Index(String hashAttribute, String sortAttribute,
+                         ConcurrentHashMap<String, NavigableSet<IndexEntry>> partitions) {
+    }
+
+    private final String name;
+    private final String keyAttribute;
+    private final ConcurrentHashMap<String, Map<String, AttributeValue>> items = new ConcurrentHashMap<>();
+    // Every key in order, so scans can page from an exclusive start key
+    private final ConcurrentSkipListSet<String> keys = new ConcurrentSkipListSet<>();
+    private final Map<String, Index> indexes = new HashMap<>();
+
+    InMemoryTable(String name, String keyAttribute) {
+        this.name = name;
+        this.keyAttribute = keyAttribute;
+    }
+
+    // Only called while the store is being set up, before the table is shared
+    InMemoryTable withIndex(String indexName, String hashAttribute, String sortAttribute) {
+        indexes.put(indexName, new Index(hashAttribute, sortAttribute, new ConcurrentHashMap<>()));
+        return this;
+    }
+
+    String lockKey(String key) {
+        return name + "#" + key;
+    }
+
+    Map<String, AttributeValue> get(String key) {
+        return key == null ? null : items.get(key);
+    }
+
+    void put(Map<String, AttributeValue> item) {
+        String key = item.get(keyAttribute).s();
+        Map<String, AttributeValue> stored = Map.copyOf(item);
+        Map<String, AttributeValue> previous = items.put(key, stored);
+        keys.add(key);
+
+        for (Index index : indexes.values()) {
+            IndexEntry oldEntry = previous != null ? entry(index, previous, key) : null;
+            IndexEntry newEntry = entry(index, stored, key);
+            String oldHash = oldEntry != null ? previous.get(index.hashAttribute()).s() : null;
+            String newHash = newEntry != null ? stored.get(index.hashAttribute()).s() : null;
+            if (oldEntry != null && (!oldEntry.equals(newEntry) || !oldHash.equals(newHash))) {
+                NavigableSet<IndexEntry> partition = index.partitions().get(oldHash);
+                if (partition != null) {
+                    partition.remove(oldEntry);
+                }
+            }
+            if (newEntry != null) {
+                index.partitions().computeIfAbsent(newHash, hash -> new ConcurrentSkipListSet<>(ENTRY_ORDER)).add(newEntry);
+            }
+        }
+    }
+
+    /**
+     * Up to {@code limit} items after {@code exclusiveStartKey} in key order, optionally restricted to one
+     * of {@code totalSegments} segments. The last evaluated key is null once nothing is left.
+     */
+    Page scan(Map<String, AttributeValue> exclusiveStartKey, int limit, Integer segment, Integer totalSegments) {
+        NavigableSet<String> remaining = exclusiveStartKey != null
+                ? keys.tailSet(stringValue(exclusiveStartKey, keyAttribute), false)
+                : keys;
+
+        List<Map<String, AttributeValue>> page = new ArrayList<>();
+        for (String key : remaining) {
+            if (totalSegments != null && Math.floorMod(key.hashCode(), totalSegments) != segment) {
+                continue;
+            }
+            if (page.size() == limit) {
+                return new Page(page, Map.of(keyAttribute, page.get(limit - 1).get(keyAttribute)));
+            }
+            Map<String, AttributeValue> item = items.get(key);
+            if (item != null) {
+                page.add(item);
+            }
+        }
+        return new Page(page, null);
+    }
+
+    // Up to limit items of one index partition after exclusiveStartKey, in sort key then item key order
+    Page query(String indexName, String hashValue, Map<String, AttributeValue> exclusiveStartKey, int limit) {
+        Index index = index(indexName);
+        NavigableSet<IndexEntry> partition = index.partitions().get(hashValue);
+        if (partition == null) {
+            return new Page(List.of(), null);
+        }
+        NavigableSet<IndexEntry> remaining = partition;
+        if (exclusiveStartKey != null) {
+            String sortValue = index.sortAttribute() != null ? stringValue(exclusiveStartKey, index.sortAttribute()) : "";
+            remaining = partition.tailSet(new IndexEntry(sortValue, stringValue(exclusiveStartKey, keyAttribute)), false);
+        }
+
+        List<Map<String, AttributeValue>> page = new ArrayList<>();
+        Iterator<IndexEntry> entries = remaining.iterator();
+        while (entries.hasNext()) {
+            IndexEntry entry = entries.next();
+            Map<String, AttributeValue> item = items.get(entry.key());
+            if (item == null || !entry.equals(entry(index, item, entry.key()))
+                    || !hashValue.equals(item.get(index.hashAttribute()).s())) {
+                // The item moved on since the entry was read
+                continue;
+            }
+            if (page.size() == limit) {
+                return new Page(page, indexKey(index, page.get(limit - 1)));
+            }
+            page.add(item);
+        }
+        return new Page(page, null);
+    }
+
+    // Every item of one index partition
+    List<Map<String, AttributeValue>> queryAll(String indexName, String hashValue) {
+        return query(indexName, hashValue, null, Integer.MAX_VALUE).items();
+    }
+
+    private Index index(String indexName) {
+        Index index = indexes.get(indexName);
+        if (index == null) {
+            throw new IllegalArgumentException("No index " + indexName + " on " + name);
+        }
+        return index;
+    }
+
+    // The index entry of an item, or null when the item lacks the index attributes
+    private static IndexEntry entry(Index index, Map<String, AttributeValue> item, String key) {
+        AttributeValue hash = item.get(index.hashAttribute());
+        if (hash == null || hash.s() == null) {
+            return null;
+        }
+        if (index.sortAttribute() == null) {
+            return new IndexEntry("", key);
+        }
+        AttributeValue sort = item.get(index.sortAttribute());
+        return sort == null || sort.s() == null ? null : new IndexEntry(sort.s(), key);
+    }
+
+    // Shaped like the LastEvaluatedKey DynamoDB returns for an index query: table key plus index keys
+    private Map<String, AttributeValue> indexKey(Index index, Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> key = new LinkedHashMap<>();
+        key.put(keyAttribute, item.get(keyAttribute));
+        key.put(index.hashAttribute(), item.get(index.hashAttribute()));
+        if (index.sortAttribute() != null) {
+            key.put(index.sortAttribute(), item.get(index.sortAttribute()));
+        }
+        return key;
+    }
+
+    private static String stringValue(Map<String, AttributeValue> key, String attribute) {
+        AttributeValue value = key.get(attribute);
+        if (value == null || value.s() == null) {
+            throw new IllegalArgumentException("Invalid lastEvaluatedKey");
+        }
+        return value.s();
+    }
+}
@@ -1,5 +1,7 @@
 package com.products.request;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.products.model.Product;
 import lombok.*;
 
 @Getter
@@ -7,8 +9,33 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class SaleLineItem {
     private String productId;
     private int quantitySold;
     private double totalPrice;
+    // Product details as they were when the line was written, so reads need no product lookups
+    private String productName;
+    private String categoryName;
+    private Double unitSellingPrice;
+    private String categoryId;
+    private Double unitCostPrice;
+
+    public void snapshot(Product product) {
+        productName = product.getProductName();
+        categoryName = product.getCategoryName();
+        unitSellingPrice = product.getUnitSellingPrice();
+        categoryId = product.getCategoryId();
+        unitCostPrice = product.getUnitCostPrice();
+    }
+
+    // Lines written before snapshots were recorded only carry the product id
+    public boolean hasSnapshot() {
+        return productName != null;
+    }
+
+    // Lines snapshotted before costs were recorded carry names and selling price but no cost or category id
+    public boolean hasCostSnapshot() {
+        return unitCostPrice != null;
+    }
 }
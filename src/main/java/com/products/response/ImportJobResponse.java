@@ -0,0 +1,22 @@
+package com.products.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.products.model.ImportJob;
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportJobResponse {
+    private boolean success;
+    private String message;
+    private ImportJob job;
+    // Presigned PUT URL to upload the file to, only when the job is created
+    private String uploadUrl;
+    private String uploadUrlExpiresAt;
+    // Presigned GET URL of the skipped/failed rows report, once the job has one
+    private String reportUrl;
+}
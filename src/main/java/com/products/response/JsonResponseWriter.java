@@ -0,0 +1,122 @@
+package com.products.response;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.products.utils.HeadersUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds JSON response bodies by writing straight to a {@link JsonGenerator} over a buffer that is kept
+ * between invocations, so list endpoints can emit items page by page instead of materializing the whole
+ * payload as objects and then again as a String.
+ * <p>
+ * When RESPONSE_GZIP_ENABLED is true and the client accepts gzip, the body is gzipped and returned
+ * base64-encoded; the integration in front of the function must pass binary responses through.
+ * <p>
+ * Not thread safe: use one instance per handler, Lambda runs one invocation per instance at a time.
+ */
+public class JsonResponseWriter {
+    private static final boolean GZIP_ENABLED = Boolean.parseBoolean(System.getenv("RESPONSE_GZIP_ENABLED"));
+    // Bodies smaller than this aren't worth the gzip header and base64 overhead
+    private static final int MIN_GZIP_BYTES = 1024;
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+    // A buffer grown past this by one large response is dropped rather than kept for every later invocation
+    private static final int MAX_RETAINED_BUFFER_BYTES = 4 * 1024 * 1024;
+
+    @FunctionalInterface
+    public interface BodyWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    private final ObjectMapper mapper;
+    private final ReusableBuffer buffer = new ReusableBuffer();
+    private final ReusableBuffer compressed = new ReusableBuffer();
+
+    public JsonResponseWriter(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public APIGatewayProxyResponseEvent write(APIGatewayProxyRequestEvent request, int statusCode, Object body) throws IOException {
+        return write(request, statusCode, null, body);
+    }
+
+    public APIGatewayProxyResponseEvent write(APIGatewayProxyRequestEvent request, int statusCode, String etag, Object body) throws IOException {
+        return write(request, statusCode, etag, generator -> generator.writeObject(body));
+    }
+
+    public APIGatewayProxyResponseEvent write(APIGatewayProxyRequestEvent request, int statusCode, BodyWriter bodyWriter) throws IOException {
+        return write(request, statusCode, null, bodyWriter);
+    }
+
+    // etag, when given, is the strong tag of the uncompressed body; a gzipped body is tagged with a variant of it
+    public APIGatewayProxyResponseEvent write(APIGatewayProxyRequestEvent request, int statusCode, String etag,
+                                              BodyWriter bodyWriter) throws IOException {
+        buffer.reset();
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(buffer, JsonEncoding.UTF8)) {
+            bodyWriter.write(generator);
+        }
+
+        Map<String, String> headers = new HashMap<>(HeadersUtil.getHeaders(etag));
+        APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent()
+                .withStatusCode(statusCode)
+                .withHeaders(headers);
+        try {
+            if (GZIP_ENABLED && buffer.size() >= MIN_GZIP_BYTES && acceptsGzip(request)) {
+                compressed.reset();
+                try (OutputStream gzip = new GZIPOutputStream(compressed, 8192)) {
+                    buffer.writeTo(gzip);
+                }
+                headers.put("Content-Encoding", "gzip");
+                headers.put("Vary", "Accept-Encoding");
+                if (etag != null) {
+                    headers.put("ETag", etag.substring(0, etag.length() - 1) + HeadersUtil.GZIP_ETAG_SUFFIX + "\"");
+                }
+                return response
+                        .withIsBase64Encoded(true)
+                        .withBody(Base64.getEncoder().encodeToString(compressed.toByteArray()));
+            }
+            return response.withBody(buffer.toString(StandardCharsets.UTF_8));
+        } finally {
+            buffer.release();
+            compressed.release();
+        }
+    }
+
+    static boolean acceptsGzip(APIGatewayProxyRequestEvent request) {
+        String acceptEncoding = HeadersUtil.getHeader(request, "Accept-Encoding");
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static final class ReusableBuffer extends ByteArrayOutputStream {
+        private ReusableBuffer() {
+            super(INITIAL_BUFFER_BYTES);
+        }
+
+        private void release() {
+            if (buf.length > MAX_RETAINED_BUFFER_BYTES) {
+                buf = new byte[INITIAL_BUFFER_BYTES];
+            }
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.products.response;
+
+import com.products.model.Product;
+import lombok.*;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class ProductPageResponse {
+    private boolean success;
+    private String message;
+    private List<Product> products;
+    private String lastEvaluatedKey;
+    private boolean hasMore;
+    private int totalReturned;
+}
@@ -3,6 +3,7 @@ package com.products.response;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import com.products.imports.ImportRowResult;
 import com.products.response.SkippedProduct;
 
 import java.util.List;
@@ -14,6 +15,14 @@ public  class ProductResponse {
     private int addedCount;
     private List<SkippedProduct> skippedProducts;
     private String errorMessage;
+    // One entry per input row, in request order
+    private List<ImportRowResult> results;
+
+    public ProductResponse(int addedCount, List<SkippedProduct> skippedProducts, String errorMessage) {
+        this.addedCount = addedCount;
+        this.skippedProducts = skippedProducts;
+        this.errorMessage = errorMessage;
+    }
 
     public ProductResponse(int addedCount, List<SkippedProduct> skippedProducts) {
         this.addedCount = addedCount;
@@ -3,9 +3,11 @@ package com.products.response;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.products.config.ClientRegistry;
+import com.products.utils.HeadersUtil;
 
 public class ResponseType {
-    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectMapper mapper = ClientRegistry.objectMapper();
 
     public static APIGatewayProxyResponseEvent errorResponse(int status, String message) {
         try {
@@ -22,6 +24,12 @@ public class ResponseType {
         }
     }
 
+    public static APIGatewayProxyResponseEvent notModified(String etag) {
+        return new APIGatewayProxyResponseEvent()
+                .withStatusCode(304)
+                .withHeaders(HeadersUtil.getHeaders(etag));
+    }
+
     public static APIGatewayProxyResponseEvent successResponse(int status, String message) {
         try {
             return new APIGatewayProxyResponseEvent()
@@ -0,0 +1,29 @@
+package com.products.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class SalesAnalyticsResponse {
+    private boolean success;
+    private String message;
+    private String from;
+    private String to;
+    private String groupBy;
+    private String dimension;
+    private String sortBy;
+    private List<SalesAnalyticsRow> rows;
+    private List<SalesAnalyticsRow> ranking;
+    private SalesAnalyticsRow totals;
+    // Days answered from raw sales because no aggregate rows exist for them yet
+    private int fallbackDays;
+}
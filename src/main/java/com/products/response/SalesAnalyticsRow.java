@@ -0,0 +1,32 @@
+package com.products.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SalesAnalyticsRow {
+    // Day, week start date or yyyy-MM month; absent on range-wide rows
+    private String period;
+    // Product or category id; absent when grouping by total
+    private String key;
+    private String name;
+    private long quantity;
+    private double revenue;
+    private double cost;
+    // Sold on lines without a cost snapshot: part of quantity and revenue, left out of margin and marginPercent
+    private long uncostedQuantity;
+    private double uncostedRevenue;
+    private double margin;
+    private Double marginPercent;
+    // Only known for totals, product and category rows do not count sales
+    private Long saleCount;
+}
@@ -5,34 +5,50 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
+import com.products.model.Product;
 import com.products.model.Sales;
+import com.products.repository.DynamoDbInventoryRepository;
+import com.products.repository.DynamoDbProductRepository;
+import com.products.repository.InsufficientStockException;
+import com.products.repository.InventoryRepository;
 import com.products.repository.ProductRepository;
-import com.products.repository.SalesRepository;
 import com.products.request.CreateSalesRequest;
 import com.products.request.SaleLineItem;
 import com.products.response.ResponseType;
 import com.products.utils.CognitoUtil;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 import java.time.LocalDate;
+import java.util.Map;
 import java.util.UUID;
 
 public class CreateSalesHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
-    private final DynamoDbClient dynamoClient = DynamoDbClient.create();
-    private final DynamoDbEnhancedClient enhancedClient = DynamoDbEnhancedClient.builder()
-            .dynamoDbClient(dynamoClient)
-            .build();
-    private final String salesTable = System.getenv("SALES_TABLE");
-    private final String productTable = System.getenv("PRODUCT_TABLE");
-    private final SalesRepository salesRepository = new SalesRepository(enhancedClient, salesTable);
-    private final ProductRepository productRepository = new ProductRepository(enhancedClient, productTable);
-    private final ObjectMapper mapper = new ObjectMapper();
+    private static final StructuredLogger LOG = StructuredLogger.forClass(CreateSalesHandler.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final ProductRepository productRepository;
+    private final ObjectMapper mapper;
+
+    public CreateSalesHandler() {
+        this(new DynamoDbInventoryRepository(ClientRegistry.dynamoDbClient(), System.getenv("PRODUCT_TABLE"), System.getenv("SALES_TABLE")),
+                new DynamoDbProductRepository(ClientRegistry.enhancedClient(), System.getenv("PRODUCT_TABLE")));
+    }
+
+    public CreateSalesHandler(InventoryRepository inventoryRepository, ProductRepository productRepository) {
+        this.inventoryRepository = inventoryRepository;
+        this.productRepository = productRepository;
+        this.mapper = ClientRegistry.objectMapper();
+    }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent event, Context context) {
-        var logger = context.getLogger();
+        return InvocationMetrics.instrument(event, context, this::handle);
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent event, Context context) {
         try {
             if (!CognitoUtil.isSalesPerson(event)) {
                 return ResponseType.errorResponse(401, "User is not authorized to perform this action");
@@ -42,28 +58,28 @@ public class CreateSalesHandler implements RequestHandler<APIGatewayProxyRequest
                 return ResponseType.errorResponse(400, "Request body is required");
             }
 
-            logger.log("Received request: " + event.getBody());
+            LOG.debug("Received request", "body", StructuredLogger.body(event.getBody()));
 
             CreateSalesRequest request = mapper.readValue(event.getBody(), CreateSalesRequest.class);
             validateRequest(request);
 
+            // Prices are checked and copied into the lines, so a product cached before a price change must not be used
+            Map<String, Product> products = productRepository.findAllByProductIdsUncached(
+                    request.items().stream().map(SaleLineItem::getProductId).toList());
+
             double totalSalePrice = 0.0;
             var quantitySold = 0;
             for (SaleLineItem item : request.items()) {
-                var product = productRepository.findByProductId(item.getProductId());
+                var product = products.get(item.getProductId());
                 if (product == null) {
                     return ResponseType.errorResponse(404, "Product not found: " + item.getProductId());
                 }
-                if (item.getQuantitySold() > product.getQuantity()) {
-                    return ResponseType.errorResponse(400, "Not enough stock for product: " + product.getProductName());
-                }
+                // Stock isn't checked here: it can change before the write, the transaction checks it atomically
                 double expectedTotal = item.getQuantitySold() * product.getUnitSellingPrice();
                 if (Math.abs(expectedTotal - item.getTotalPrice()) > 0.01) {
                     return ResponseType.errorResponse(400, "Total price mismatch for product: " + item.getProductId());
                 }
-                product.setQuantity(product.getQuantity() - item.getQuantitySold());
-                product.setDateUpdated(LocalDate.now());
-                productRepository.save(product);
+                item.snapshot(product);
                 totalSalePrice += item.getTotalPrice();
                 quantitySold += item.getQuantitySold();
             }
@@ -77,11 +93,17 @@ public class CreateSalesHandler implements RequestHandler<APIGatewayProxyRequest
                     .dateUpdated(LocalDate.now())
                     .build();
 
-            salesRepository.save(sales);
+            try {
+                inventoryRepository.createSale(sales);
+            } catch (InsufficientStockException e) {
+                var product = products.get(e.getProductId());
+                return ResponseType.errorResponse(400, "Not enough stock for product: "
+                        + (product != null ? product.getProductName() : e.getProductId()));
+            }
 
             return ResponseType.successResponse(201, "Sales created successfully");
         } catch (Exception e) {
-            logger.log("Error: " + e.getMessage());
+            LOG.error("Failed to create sale", e);
             return ResponseType.errorResponse(500, "Error processing request: " + e.getMessage());
         }
     }
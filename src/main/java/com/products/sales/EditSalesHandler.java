@@ -6,7 +6,17 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
+import com.products.model.Product;
 import com.products.model.Sales;
+import com.products.repository.ConcurrentSaleUpdateException;
+import com.products.repository.DynamoDbInventoryRepository;
+import com.products.repository.DynamoDbProductRepository;
+import com.products.repository.DynamoDbSalesRepository;
+import com.products.repository.InsufficientStockException;
+import com.products.repository.InventoryRepository;
 import com.products.repository.ProductRepository;
 import com.products.repository.SalesRepository;
 import com.products.request.EditSalesRequest;
@@ -14,12 +24,11 @@ import com.products.request.SaleLineItem;
 import com.products.response.ResponseType;
 import com.products.response.SuccessResponse;
 import com.products.utils.CognitoUtil;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -28,33 +37,47 @@ import java.util.Map;
  * Fetch the existing sales record
  * Create a map of existing items by productId for easy lookup (for merging and not to override the existing sales record)
  * Create a map of request items by productId (same reason)
- * Restore inventory for products that will be updated
  * Create the merged items list
  * Add items from the existing sales that are not in the request (keep them unchanged)
  * Process the new/updated items from the request
  * First, calculate the totals from items we're keeping unchanged
  * Process and add the updated items
  * Validate the total price
- * Deduct the new quantity from inventory
+ * Snapshot the product name, category and unit price into the line
+ * Work out the stock delta per product (old quantity sold minus new quantity sold)
  * Add to totals
  * Add the new/updated item to merged list
- * Update the sales record with the merged items */
+ * Update the sales record with the merged items and apply the stock deltas in one transaction */
 
 public class EditSalesHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
-    private final DynamoDbClient dynamoClient = DynamoDbClient.create();
-    private final DynamoDbEnhancedClient enhancedClient = DynamoDbEnhancedClient.builder()
-            .dynamoDbClient(dynamoClient)
-            .build();
-    private final String salesTable = System.getenv("SALES_TABLE");
-    private final String productTable = System.getenv("PRODUCT_TABLE");
-    private final SalesRepository salesRepository = new SalesRepository(enhancedClient, salesTable);
-    private final ProductRepository productRepository = new ProductRepository(enhancedClient, productTable);
-    private final ObjectMapper mapper = new ObjectMapper();
+    private static final StructuredLogger LOG = StructuredLogger.forClass(EditSalesHandler.class);
+
+    private final SalesRepository salesRepository;
+    private final ProductRepository productRepository;
+    private final InventoryRepository inventoryRepository;
+    private final ObjectMapper mapper;
+
+    public EditSalesHandler() {
+        this(new DynamoDbSalesRepository(ClientRegistry.enhancedClient(), System.getenv("SALES_TABLE")),
+                new DynamoDbProductRepository(ClientRegistry.enhancedClient(), System.getenv("PRODUCT_TABLE")),
+                new DynamoDbInventoryRepository(ClientRegistry.dynamoDbClient(), System.getenv("PRODUCT_TABLE"), System.getenv("SALES_TABLE")));
+    }
+
+    public EditSalesHandler(SalesRepository salesRepository, ProductRepository productRepository,
+                            InventoryRepository inventoryRepository) {
+        this.salesRepository = salesRepository;
+        this.productRepository = productRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.mapper = ClientRegistry.objectMapper();
+    }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent event, Context context) {
-        var logger = context.getLogger();
+        return InvocationMetrics.instrument(event, context, this::handle);
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent event, Context context) {
         try {
             if (!CognitoUtil.isSalesPerson(event)) {
                 return ResponseType.errorResponse(401, "User is not authorized to perform this action");
@@ -64,7 +87,7 @@ public class EditSalesHandler implements RequestHandler<APIGatewayProxyRequestEv
                 return ResponseType.errorResponse(400, "Request body is required");
             }
 
-            logger.log("Received request: " + event.getBody());
+            LOG.debug("Received request", "body", StructuredLogger.body(event.getBody()));
 
             EditSalesRequest request = mapper.readValue(event.getBody(), EditSalesRequest.class);
             var pathParameters = event.getPathParameters();
@@ -79,34 +102,24 @@ public class EditSalesHandler implements RequestHandler<APIGatewayProxyRequestEv
             if (!sevenDaysBefore.isBefore(existingSales.getDateSold()))
                 throw new IllegalArgumentException("Sales can't be updated as it was made over a week ago.");
 
-            Map<String, SaleLineItem> existingItemsMap = new HashMap<>();
+            // A product may have several lines on either side, so quantities are summed per product
+            Map<String, Integer> previouslySold = new HashMap<>();
             if (existingSales.getItems() != null) {
                 for (SaleLineItem item : existingSales.getItems()) {
-                    existingItemsMap.put(item.getProductId(), item);
+                    previouslySold.merge(item.getProductId(), item.getQuantitySold(), Integer::sum);
                 }
             }
 
-            Map<String, SaleLineItem> requestItemsMap = new HashMap<>();
+            Map<String, Integer> requestedQuantities = new LinkedHashMap<>();
             for (SaleLineItem item : request.items()) {
-                requestItemsMap.put(item.getProductId(), item);
-            }
-
-            for (SaleLineItem requestItem : request.items()) {
-                String productId = requestItem.getProductId();
-                if (existingItemsMap.containsKey(productId)) {
-                    var product = productRepository.findByProductId(productId);
-                    if (product != null) {
-                        SaleLineItem oldItem = existingItemsMap.get(productId);
-                        product.setQuantity(product.getQuantity() + oldItem.getQuantitySold());
-                        productRepository.save(product);
-                    }
-                }
+                requestedQuantities.merge(item.getProductId(), item.getQuantitySold(), Integer::sum);
             }
 
+            List<SaleLineItem> previousItems = existingSales.getItems() != null ? existingSales.getItems() : List.of();
             List<SaleLineItem> mergedItems = new ArrayList<>();
 
-            for (SaleLineItem existingItem : existingSales.getItems()) {
-                if (!requestItemsMap.containsKey(existingItem.getProductId())) {
+            for (SaleLineItem existingItem : previousItems) {
+                if (!requestedQuantities.containsKey(existingItem.getProductId())) {
                     mergedItems.add(existingItem);
                 }
             }
@@ -119,24 +132,26 @@ public class EditSalesHandler implements RequestHandler<APIGatewayProxyRequestEv
                 totalQuantitySold += item.getQuantitySold();
             }
 
+            // Read past the cache: prices are checked and copied into the lines
+            Map<String, Product> products = productRepository.findAllByProductIdsUncached(requestedQuantities.keySet());
+            // Change in stock per product: what the old lines had taken minus what the new lines take
+            Map<String, Integer> stockDeltas = new LinkedHashMap<>();
+            requestedQuantities.forEach((productId, quantity) ->
+                    stockDeltas.put(productId, previouslySold.getOrDefault(productId, 0) - quantity));
+
             for (SaleLineItem newItem : request.items()) {
-                var product = productRepository.findByProductId(newItem.getProductId());
+                var product = products.get(newItem.getProductId());
                 if (product == null) {
                     return errorResponse(404, "Product not found: " + newItem.getProductId());
                 }
 
-                if (newItem.getQuantitySold() > product.getQuantity()) {
-                    return errorResponse(400, "Not enough stock for product: " + newItem.getProductId());
-                }
-
+                // Stock is checked by the conditional updates, it can change before the write
                 double expectedTotal = newItem.getQuantitySold() * product.getUnitSellingPrice();
                 if (Math.abs(expectedTotal - newItem.getTotalPrice()) > 0.01) {
                     return errorResponse(400, "Total price mismatch for product: " + newItem.getProductId());
                 }
 
-                product.setQuantity(product.getQuantity() - newItem.getQuantitySold());
-                product.setDateUpdated(LocalDate.now());
-                productRepository.save(product);
+                newItem.snapshot(product);
 
                 totalSalePrice += newItem.getTotalPrice();
                 totalQuantitySold += newItem.getQuantitySold();
@@ -148,11 +163,18 @@ public class EditSalesHandler implements RequestHandler<APIGatewayProxyRequestEv
             existingSales.setTotalPrice(totalSalePrice);
             existingSales.setDateUpdated(LocalDate.now());
             existingSales.setQuantitySold(totalQuantitySold);
-            salesRepository.save(existingSales);
+
+            try {
+                inventoryRepository.updateSale(existingSales, previousItems, stockDeltas);
+            } catch (InsufficientStockException e) {
+                return errorResponse(400, "Not enough stock for product: " + e.getProductId());
+            } catch (ConcurrentSaleUpdateException e) {
+                return errorResponse(409, "Sales record was changed by another request, please retry");
+            }
 
             return successResponse();
         } catch (Exception e) {
-            logger.log("Error: " + e.getMessage());
+            LOG.error("Failed to edit sale", e);
             return errorResponse(500, "Error processing request: " + e.getMessage());
         }
     }
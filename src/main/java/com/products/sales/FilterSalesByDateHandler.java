@@ -5,36 +5,55 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
 import com.products.mapper.ProductMapper;
-import com.products.model.Sales;
+import com.products.metrics.InvocationMetrics;
+import com.products.repository.CatalogVersionRepository;
+import com.products.repository.DynamoDbProductRepository;
+import com.products.repository.DynamoDbSalesRepository;
+import com.products.repository.ProductRepository;
 import com.products.repository.SalesRepository;
 import com.products.response.CustomSalesResponse;
-import com.products.response.FilterSalesResponse;
+import com.products.response.JsonResponseWriter;
 import com.products.response.ResponseType;
 import com.products.utils.HeadersUtil;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
-import java.util.List;
 
 public class FilterSalesByDateHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
-    private final DynamoDbClient dynamoDbClient = DynamoDbClient.create();
-    private final DynamoDbEnhancedClient enhancedClient = DynamoDbEnhancedClient.builder()
-            .dynamoDbClient(dynamoDbClient)
-            .build();
-    private final String salesTable = System.getenv("SALES_TABLE");
-    private final SalesRepository salesRepository = new SalesRepository(enhancedClient, salesTable);
-    private final ProductMapper productMapper = new ProductMapper(enhancedClient);
-    private final ObjectMapper mapper = new ObjectMapper()
-            .registerModule(new JavaTimeModule())
-            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private static final StructuredLogger LOG = StructuredLogger.forClass(FilterSalesByDateHandler.class);
+
+    private final SalesRepository salesRepository;
+    private final ProductMapper productMapper;
+    private final ObjectMapper mapper;
+    private final JsonResponseWriter responseWriter;
+    private final CatalogVersionRepository catalogVersions;
+
+    public FilterSalesByDateHandler() {
+        this(new DynamoDbSalesRepository(ClientRegistry.enhancedClient(), System.getenv("SALES_TABLE")),
+                new DynamoDbProductRepository(ClientRegistry.enhancedClient(), System.getenv("PRODUCT_TABLE")),
+                CatalogVersionRepository.shared());
+    }
+
+    public FilterSalesByDateHandler(SalesRepository salesRepository, ProductRepository productRepository,
+                                    CatalogVersionRepository catalogVersions) {
+        this.salesRepository = salesRepository;
+        this.productMapper = new ProductMapper(productRepository);
+        this.mapper = ClientRegistry.objectMapper();
+        this.responseWriter = new JsonResponseWriter(mapper);
+        this.catalogVersions = catalogVersions;
+    }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent event, Context context) {
+        return InvocationMetrics.instrument(event, context, this::handle);
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent event, Context context) {
 
         try {
             var params = event.getQueryStringParameters();
@@ -42,33 +61,41 @@ public class FilterSalesByDateHandler implements RequestHandler<APIGatewayProxyR
             String endDateStr = params.get("endDate");
 
             LocalDate startDate = LocalDate.parse(startDateStr);
-            List<Sales> sales;
-
-            sales = (endDateStr == null) ?
-                    salesRepository.getSalesByDate(startDateStr) :
-                    salesRepository.findByDateRange(startDate, LocalDate.parse(endDateStr));
-
-            var customSales = createCustomSales(sales);
+            LocalDate endDate = endDateStr == null ? startDate : LocalDate.parse(endDateStr);
 
-            var response = FilterSalesResponse.builder()
-                    .success(true)
-                    .message("Sales retrieved successfully")
-                    .sales(customSales)
-                    .build();
+            // Older lines without a snapshot are described from the product, so both versions count
+            CatalogVersionRepository.Versions versions = catalogVersions.current();
+            String etag = versions != null ? HeadersUtil.etag(event, "sales", versions.sales(), versions.products()) : null;
+            if (HeadersUtil.isNotModified(event, etag)) {
+                return ResponseType.notModified(etag);
+            }
 
-            return new APIGatewayProxyResponseEvent()
-                    .withStatusCode(200)
-                    .withHeaders(HeadersUtil.getHeaders())
-                    .withBody(mapper.writeValueAsString(response));
+            // Sales are written out a day at a time while the next days are queried; only that window is held as objects
+            return responseWriter.write(event, 200, etag, generator -> {
+                generator.writeStartObject();
+                generator.writeBooleanField("success", true);
+                generator.writeStringField("message", "Sales retrieved successfully");
+                generator.writeArrayFieldStart("sales");
+                try {
+                    salesRepository.forEachDayInDateRange(startDate, endDate, sales -> {
+                        try {
+                            for (CustomSalesResponse customSales : productMapper.getCustomSales(sales)) {
+                                generator.writeObject(customSales);
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            });
 
         } catch (Exception e) {
+            LOG.error("Failed to filter sales by date", e);
             return ResponseType.errorResponse(500, "Error retrieving sales: " + e.getMessage());
         }
     }
-
-    private List<CustomSalesResponse> createCustomSales(List<Sales> sales) {
-        return sales.stream()
-                .map(productMapper::getCustomSales)
-                .toList();
-    }
 }
@@ -5,30 +5,45 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
+import com.products.repository.CatalogVersionRepository;
+import com.products.repository.DynamoDbSalesRepository;
 import com.products.repository.SalesRepository;
+import com.products.response.JsonResponseWriter;
 import com.products.response.ResponseType;
 import com.products.response.SaleResponse;
 import com.products.utils.CognitoUtil;
 import com.products.utils.HeadersUtil;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 public class GetSaleHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
-    private final DynamoDbClient dynamoClient = DynamoDbClient.create();
-    private final DynamoDbEnhancedClient enhancedClient = DynamoDbEnhancedClient.builder()
-            .dynamoDbClient(dynamoClient)
-            .build();
-    private final String salesTable = System.getenv("SALES_TABLE");
-    private final SalesRepository salesRepository = new SalesRepository(enhancedClient, salesTable);
-    private final ObjectMapper mapper = new ObjectMapper()
-            .registerModule(new JavaTimeModule())
-            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private static final StructuredLogger LOG = StructuredLogger.forClass(GetSaleHandler.class);
+
+    private final SalesRepository salesRepository;
+    private final ObjectMapper mapper;
+    private final JsonResponseWriter responseWriter;
+    private final CatalogVersionRepository catalogVersions;
+
+    public GetSaleHandler() {
+        this(new DynamoDbSalesRepository(ClientRegistry.enhancedClient(), System.getenv("SALES_TABLE")),
+                CatalogVersionRepository.shared());
+    }
+
+    public GetSaleHandler(SalesRepository salesRepository, CatalogVersionRepository catalogVersions) {
+        this.salesRepository = salesRepository;
+        this.mapper = ClientRegistry.objectMapper();
+        this.responseWriter = new JsonResponseWriter(mapper);
+        this.catalogVersions = catalogVersions;
+    }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent event, Context context) {
+        return InvocationMetrics.instrument(event, context, this::handle);
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent event, Context context) {
 
 
         try {
@@ -44,22 +59,25 @@ public class GetSaleHandler implements RequestHandler<APIGatewayProxyRequestEven
             if (salesId == null || salesId.isEmpty())
                 return ResponseType.errorResponse(400, "Sales ID is required");
 
+            CatalogVersionRepository.Versions versions = catalogVersions.current();
+            String etag = versions != null ? HeadersUtil.etag(event, "sales", versions.sales()) : null;
+            if (HeadersUtil.isNotModified(event, etag)) {
+                return ResponseType.notModified(etag);
+            }
+
             var sale = salesRepository.findBySalesId(salesId);
             if (sale == null)
                 return ResponseType.errorResponse(404, "Sale not found");
 
-            return  new APIGatewayProxyResponseEvent()
-                    .withStatusCode(200)
-                    .withHeaders(HeadersUtil.getHeaders())
-                    .withBody(mapper.writeValueAsString(
-                            SaleResponse.builder()
-                                    .success(true)
-                                    .message("Sale retrieved successfully")
-                                    .sale(sale)
-                                    .build()
-                    ));
+            return responseWriter.write(event, 200, etag,
+                    SaleResponse.builder()
+                            .success(true)
+                            .message("Sale retrieved successfully")
+                            .sale(sale)
+                            .build());
 
         } catch (Exception e) {
+            LOG.error("Failed to retrieve sale", e);
             return ResponseType.errorResponse(500, "Error retrieving sale: " + e.getMessage());
         }
 
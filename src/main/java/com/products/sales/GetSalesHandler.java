@@ -5,37 +5,59 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
+import com.products.repository.CatalogVersionRepository;
+import com.products.repository.DynamoDbSalesRepository;
 import com.products.repository.SalesRepository;
 import com.products.response.GetSalesResponse;
+import com.products.response.JsonResponseWriter;
 import com.products.response.ResponseType;
 import com.products.utils.CognitoUtil;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import com.products.utils.HeadersUtil;
 
 import java.util.Map;
 
 public class GetSalesHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private static final StructuredLogger LOG = StructuredLogger.forClass(GetSalesHandler.class);
+    private static final int MAX_TOTAL_SEGMENTS = 64;
 
-    private final DynamoDbClient dynamoClient = DynamoDbClient.create();
-    private final DynamoDbEnhancedClient enhancedClient = DynamoDbEnhancedClient.builder()
-            .dynamoDbClient(dynamoClient)
-            .build();
-    private final String salesTable = System.getenv("SALES_TABLE");
-    private final SalesRepository salesRepository = new SalesRepository(enhancedClient, salesTable);
-    private final ObjectMapper mapper = new ObjectMapper()
-            .registerModule(new JavaTimeModule())
-            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final SalesRepository salesRepository;
+    private final ObjectMapper mapper;
+    private final JsonResponseWriter responseWriter;
+    private final CatalogVersionRepository catalogVersions;
+
+    public GetSalesHandler() {
+        this(new DynamoDbSalesRepository(ClientRegistry.enhancedClient(), System.getenv("SALES_TABLE")),
+                CatalogVersionRepository.shared());
+    }
+
+    public GetSalesHandler(SalesRepository salesRepository, CatalogVersionRepository catalogVersions) {
+        this.salesRepository = salesRepository;
+        this.mapper = ClientRegistry.objectMapper();
+        this.responseWriter = new JsonResponseWriter(mapper);
+        this.catalogVersions = catalogVersions;
+    }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent event, Context context) {
+        return InvocationMetrics.instrument(event, context, this::handle);
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent event, Context context) {
 
         try {
 
             if (!CognitoUtil.isSalesPerson(event) && !CognitoUtil.isAdmin(event))
                 return ResponseType.errorResponse(401, "User is not authorized to perform this action");
 
+            CatalogVersionRepository.Versions versions = catalogVersions.current();
+            String etag = versions != null ? HeadersUtil.etag(event, "sales", versions.sales()) : null;
+            if (HeadersUtil.isNotModified(event, etag)) {
+                return ResponseType.notModified(etag);
+            }
+
             Map<String, String> queryParams = event.getQueryStringParameters();
             int limit = getQueryParamAsInt(queryParams);
             String lastEvaluatedKey = getQueryParam(queryParams, "lastEvaluatedKey");
@@ -43,21 +65,37 @@ public class GetSalesHandler implements RequestHandler<APIGatewayProxyRequestEve
             if (limit <= 0 || limit > 100)
                 return ResponseType.errorResponse(400, "Limit must be between 1 and 100");
 
-            var paginatedResult = salesRepository.findAllPaginated(limit, lastEvaluatedKey);
-            return new APIGatewayProxyResponseEvent()
-                    .withStatusCode(200)
-                    .withBody(mapper.writeValueAsString(
-                            GetSalesResponse.builder()
-                                    .success(true)
-                                    .message("Sales retrieved successfully")
-                                    .sales(paginatedResult.getItems())
-                                    .lastEvaluatedKey(paginatedResult.getLastEvaluatedKey())
-                                    .hasMore(paginatedResult.getLastEvaluatedKey() != null)
-                                    .totalReturned(paginatedResult.getItems().size())
-                                    .build()
-                    ));
+            // Filled pages are the default; fill=false returns a single scan page
+            boolean fillToLimit = !"false".equalsIgnoreCase(getQueryParam(queryParams, "fill"));
+
+            Integer segment = null;
+            Integer totalSegments = null;
+            if (getQueryParam(queryParams, "totalSegments") != null) {
+                if (!CognitoUtil.isAdmin(event))
+                    return ResponseType.errorResponse(401, "Only admins can run segmented exports");
+                totalSegments = parseIntOrNull(getQueryParam(queryParams, "totalSegments"));
+                segment = parseIntOrNull(getQueryParam(queryParams, "segment"));
+                if (totalSegments == null || totalSegments < 1 || totalSegments > MAX_TOTAL_SEGMENTS)
+                    return ResponseType.errorResponse(400, "totalSegments must be between 1 and " + MAX_TOTAL_SEGMENTS);
+                if (segment == null || segment < 0 || segment >= totalSegments)
+                    return ResponseType.errorResponse(400, "segment must be between 0 and totalSegments - 1");
+            }
 
+            var paginatedResult = salesRepository.findAllPaginated(limit, lastEvaluatedKey, fillToLimit, segment, totalSegments);
+            return responseWriter.write(event, 200, etag,
+                    GetSalesResponse.builder()
+                            .success(true)
+                            .message("Sales retrieved successfully")
+                            .sales(paginatedResult.getItems())
+                            .lastEvaluatedKey(paginatedResult.getLastEvaluatedKey())
+                            .hasMore(paginatedResult.getLastEvaluatedKey() != null)
+                            .totalReturned(paginatedResult.getItems().size())
+                            .build());
+
+        } catch (IllegalArgumentException e) {
+            return ResponseType.errorResponse(400, e.getMessage());
         } catch (Exception e) {
+            LOG.error("Failed to retrieve sales", e);
             return ResponseType.errorResponse(500, "Error retrieving sales: " + e.getMessage());
 
         }
@@ -81,4 +119,15 @@ public class GetSalesHandler implements RequestHandler<APIGatewayProxyRequestEve
             return 20;
         }
     }
+
+    private Integer parseIntOrNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
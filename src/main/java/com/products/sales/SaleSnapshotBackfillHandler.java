@@ -0,0 +1,151 @@
+package com.products.sales;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.products.config.ClientRegistry;
+import com.products.logging.StructuredLogger;
+import com.products.metrics.InvocationMetrics;
+import com.products.model.Product;
+import com.products.model.Sales;
+import com.products.repository.DynamoDbProductRepository;
+import com.products.repository.DynamoDbSalesRepository;
+import com.products.repository.PaginatedResult;
+import com.products.repository.ProductRepository;
+import com.products.repository.SalesRepository;
+import com.products.request.SaleLineItem;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One-off job that writes product snapshots into sales lines recorded before lines carried them, and the cost and
+ * category id into lines snapshotted before those were recorded.
+ * Invoke with an empty payload (optionally {@code segment}/{@code totalSegments} to run several in parallel);
+ * while the result has a {@code lastEvaluatedKey}, invoke again with it to continue where the run stopped.
+ */
+public class SaleSnapshotBackfillHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+    private static final StructuredLogger LOG = StructuredLogger.forClass(SaleSnapshotBackfillHandler.class);
+    private static final int PAGE_SIZE = 100;
+    // Leave room to finish the page in flight before the function times out
+    private static final long TIME_MARGIN_MILLIS = 30_000;
+
+    private final SalesRepository salesRepository;
+    private final ProductRepository productRepository;
+
+    public SaleSnapshotBackfillHandler() {
+        this(new DynamoDbSalesRepository(ClientRegistry.enhancedClient(), System.getenv("SALES_TABLE")),
+                new DynamoDbProductRepository(ClientRegistry.enhancedClient(), System.getenv("PRODUCT_TABLE")));
+    }
+
+    public SaleSnapshotBackfillHandler(SalesRepository salesRepository, ProductRepository productRepository) {
+        this.salesRepository = salesRepository;
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        return InvocationMetrics.instrument(input, context, this::handle);
+    }
+
+    private Map<String, Object> handle(Map<String, Object> input, Context context) {
+        String cursor = input != null ? (String) input.get("lastEvaluatedKey") : null;
+        Integer segment = input != null ? toInteger(input.get("segment")) : null;
+        Integer totalSegments = input != null ? toInteger(input.get("totalSegments")) : null;
+
+        int scanned = 0;
+        int updated = 0;
+        int conflicts = 0;
+        int unresolvedLines = 0;
+        do {
+            PaginatedResult<Sales> page = salesRepository.findAllPaginated(PAGE_SIZE, cursor, true, segment, totalSegments);
+            cursor = page.getLastEvaluatedKey();
+            scanned += page.getItems().size();
+
+            List<Sales> pending = page.getItems().stream()
+                    .filter(sale -> sale.getItems() != null && sale.getItems().stream().anyMatch(SaleSnapshotBackfillHandler::isPending))
+                    .toList();
+            if (pending.isEmpty()) {
+                continue;
+            }
+
+            Set<String> productIds = new HashSet<>();
+            pending.forEach(sale -> sale.getItems().stream()
+                    .filter(SaleSnapshotBackfillHandler::isPending)
+                    .forEach(item -> productIds.add(item.getProductId())));
+            Map<String, Product> products = productRepository.findAllByProductIds(productIds);
+
+            for (Sales sale : pending) {
+                List<SaleLineItem> previousItems = sale.getItems();
+                List<SaleLineItem> items = new ArrayList<>(previousItems.size());
+                boolean changed = false;
+                for (SaleLineItem item : previousItems) {
+                    SaleLineItem copy = SaleLineItem.builder()
+                            .productId(item.getProductId())
+                            .quantitySold(item.getQuantitySold())
+                            .totalPrice(item.getTotalPrice())
+                            .productName(item.getProductName())
+                            .categoryName(item.getCategoryName())
+                            .unitSellingPrice(item.getUnitSellingPrice())
+                            .categoryId(item.getCategoryId())
+                            .unitCostPrice(item.getUnitCostPrice())
+                            .build();
+                    Product product = products.get(item.getProductId());
+                    if (!copy.hasSnapshot() && product != null) {
+                        copy.snapshot(product);
+                        changed = true;
+                    } else if (!copy.hasCostSnapshot() && product != null) {
+                        // Keep the names the line was sold under, only add what it is missing
+                        copy.setCategoryId(product.getCategoryId());
+                        copy.setUnitCostPrice(product.getUnitCostPrice());
+                        changed = true;
+                    } else if (isPending(copy)) {
+                        // The product was deleted, there is nothing left to snapshot
+                        unresolvedLines++;
+                    }
+                    items.add(copy);
+                }
+                if (!changed) {
+                    continue;
+                }
+
+                sale.setItems(items);
+                if (salesRepository.saveIfItemsUnchanged(sale, previousItems)) {
+                    updated++;
+                } else {
+                    // Edited since it was read; the edit snapshots the lines it touched
+                    conflicts++;
+                }
+            }
+        } while (cursor != null && context.getRemainingTimeInMillis() > TIME_MARGIN_MILLIS);
+
+        LOG.info("Snapshot backfill pass finished", "scanned", scanned, "updated", updated, "conflicts", conflicts,
+                "unresolvedLines", unresolvedLines, "continueFrom", cursor);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("scanned", scanned);
+        result.put("updated", updated);
+        result.put("conflicts", conflicts);
+        result.put("unresolvedLines", unresolvedLines);
+        result.put("lastEvaluatedKey", cursor);
+        if (segment != null) {
+            result.put("segment", segment);
+            result.put("totalSegments", totalSegments);
+        }
+        return result;
+    }
+
+    private static boolean isPending(SaleLineItem item) {
+        return !item.hasSnapshot() || !item.hasCostSnapshot();
+    }
+
+    private static Integer toInteger(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return value instanceof Number number ? number.intValue() : Integer.parseInt(value.toString());
+    }
+}
@@ -0,0 +1,142 @@
+package com.products.utils;
+
+import com.products.config.ClientRegistry;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Turns a DynamoDB LastEvaluatedKey into an opaque, URL-safe cursor and back.
+ * A cursor is {@code <version>.<payload>.<signature>}: the payload is a compact binary encoding of the whole key map
+ * (table and index keys, string and number attributes only) and the signature is a truncated HMAC-SHA256 over
+ * the scope, version and payload, so clients can't forge keys or replay a cursor against a different listing.
+ * The signing key is read once per execution environment from the Secrets Manager secret named by
+ * CURSOR_SIGNING_SECRET_ARN. Outside AWS (local runtime, tests) CURSOR_SIGNING_KEY can hold the key itself;
+ * with neither set the class fails to initialise rather than sign with a key other environments don't share.
+ */
+public class CursorUtil {
+    private static final String VERSION = "1";
+    private static final int SIGNATURE_BYTES = 16;
+    private static final byte TYPE_STRING = 'S';
+    private static final byte TYPE_NUMBER = 'N';
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final SecretKeySpec SIGNING_KEY = new SecretKeySpec(readSigningKey(), "HmacSHA256");
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(SIGNING_KEY);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    });
+
+    /**
+     * @param scope identifies the listing the cursor belongs to, e.g. the table or index and any fixed query values
+     */
+    public static String encode(String scope, Map<String, AttributeValue> key) {
+        if (key == null || key.isEmpty()) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(key.size());
+            for (Map.Entry<String, AttributeValue> entry : key.entrySet()) {
+                AttributeValue value = entry.getValue();
+                if (value.s() != null) {
+                    out.writeByte(TYPE_STRING);
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(value.s());
+                } else if (value.n() != null) {
+                    out.writeByte(TYPE_NUMBER);
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(value.n());
+                } else {
+                    throw new IllegalArgumentException("Unsupported key attribute type for " + entry.getKey());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to encode cursor", e);
+        }
+
+        String payload = ENCODER.encodeToString(bytes.toByteArray());
+        return VERSION + "." + payload + "." + ENCODER.encodeToString(sign(scope, payload));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is malformed, from another version or scope, or was tampered with
+     */
+    public static Map<String, AttributeValue> decode(String scope, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts = cursor.trim().split("\\.", -1);
+        if (parts.length != 3 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Invalid lastEvaluatedKey");
+        }
+
+        byte[] signature;
+        byte[] payload;
+        try {
+            signature = DECODER.decode(parts[2]);
+            payload = DECODER.decode(parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid lastEvaluatedKey", e);
+        }
+        if (!MessageDigest.isEqual(signature, sign(scope, parts[1]))) {
+            throw new IllegalArgumentException("Invalid lastEvaluatedKey");
+        }
+
+        Map<String, AttributeValue> key = new LinkedHashMap<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            int size = in.readUnsignedByte();
+            for (int i = 0; i < size; i++) {
+                byte type = in.readByte();
+                String name = in.readUTF();
+                String value = in.readUTF();
+                key.put(name, type == TYPE_NUMBER ? AttributeValue.fromN(value) : AttributeValue.fromS(value));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid lastEvaluatedKey", e);
+        }
+        return key;
+    }
+
+    private static byte[] sign(String scope, String payload) {
+        Mac mac = MAC.get();
+        mac.update(scope.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        mac.update(VERSION.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return Arrays.copyOf(mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII)), SIGNATURE_BYTES);
+    }
+
+    private static byte[] readSigningKey() {
+        String key;
+        String secretArn = System.getenv("CURSOR_SIGNING_SECRET_ARN");
+        if (secretArn != null && !secretArn.isBlank()) {
+            key = ClientRegistry.secretsManagerClient().getSecretValue(r -> r.secretId(secretArn.trim())).secretString();
+        } else {
+            key = System.getenv("CURSOR_SIGNING_KEY");
+        }
+        if (key == null || key.isBlank()) {
+            throw new IllegalStateException("No cursor signing key: set CURSOR_SIGNING_SECRET_ARN (or CURSOR_SIGNING_KEY outside AWS)");
+        }
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+}
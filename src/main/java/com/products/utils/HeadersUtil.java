@@ -1,15 +1,116 @@
 package com.products.utils;
 
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 public class HeadersUtil {
+    // Representations compressed by the handler get their own strong ETag, derived from the identity one
+    public static final String GZIP_ETAG_SUFFIX = "-gzip";
 
     public static Map<String, String> getHeaders() {
         return Map.of(
                 "Content-Type", "application/json",
                 "Access-Control-Allow-Origin", "*",
                 "Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS",
-                "Access-Control-Allow-Headers", "'Content-Type,X-Amz-Date,Authorization,X-Api-Key,X-Amz-Security-Token'"
+                "Access-Control-Allow-Headers", "'Content-Type,X-Amz-Date,Authorization,X-Api-Key,X-Amz-Security-Token,If-None-Match'"
         );
     }
+
+    // Headers of a response that clients may cache but must revalidate with If-None-Match before reusing
+    public static Map<String, String> getHeaders(String etag) {
+        if (etag == null) {
+            return getHeaders();
+        }
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(getHeaders());
+        headers.put("ETag", etag);
+        headers.put("Cache-Control", "no-cache");
+        headers.put("Access-Control-Expose-Headers", "ETag");
+        return headers;
+    }
+
+    /**
+     * Strong ETag for a read of {@code resource} at the given data versions. The path, path parameters and
+     * query string are part of it, so each page and filter of a listing has its own tag.
+     */
+    public static String etag(APIGatewayProxyRequestEvent request, String resource, long... versions) {
+        StringBuilder source = new StringBuilder(resource);
+        for (long version : versions) {
+            source.append('|').append(version);
+        }
+        source.append('|').append(request.getPath());
+        appendSorted(source, request.getPathParameters());
+        appendSorted(source, request.getQueryStringParameters());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // True when If-None-Match names the current representation (in any encoding), so a 304 can be sent
+    public static boolean isNotModified(APIGatewayProxyRequestEvent request, String etag) {
+        if (etag == null) {
+            return false;
+        }
+        String ifNoneMatch = getHeader(request, "If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.substring(1, etag.length() - 1);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            // If-None-Match uses the weak comparison
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                String value = tag.substring(1, tag.length() - 1);
+                if (value.equals(opaque) || value.equals(opaque + GZIP_ETAG_SUFFIX)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Header lookup that ignores case, falling back to the multi-value headers
+    public static String getHeader(APIGatewayProxyRequestEvent request, String name) {
+        if (request == null) {
+            return null;
+        }
+        if (request.getHeaders() != null) {
+            for (Map.Entry<String, String> entry : request.getHeaders().entrySet()) {
+                if (name.equalsIgnoreCase(entry.getKey())) {
+                    return entry.getValue();
+                }
+            }
+        }
+        if (request.getMultiValueHeaders() != null) {
+            for (Map.Entry<String, List<String>> entry : request.getMultiValueHeaders().entrySet()) {
+                if (name.equalsIgnoreCase(entry.getKey()) && entry.getValue() != null) {
+                    return String.join(",", entry.getValue());
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void appendSorted(StringBuilder source, Map<String, String> params) {
+        source.append('|');
+        if (params != null) {
+            new TreeMap<>(params).forEach((name, value) -> source.append(name).append('=').append(value).append('&'));
+        }
+    }
 }
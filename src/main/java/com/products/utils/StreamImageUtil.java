@@ -0,0 +1,67 @@
+package com.products.utils;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts DynamoDB stream images, which the Lambda events library models with its own AttributeValue,
+ * into SDK v2 attribute maps so they can go through the same table schemas as regular reads.
+ */
+public class StreamImageUtil {
+
+    public static Map<String, AttributeValue> toSdkItem(
+            Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> image) {
+        if (image == null) {
+            return null;
+        }
+        Map<String, AttributeValue> item = new LinkedHashMap<>();
+        image.forEach((name, value) -> item.put(name, toSdk(value)));
+        return item;
+    }
+
+    private static AttributeValue toSdk(com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue value) {
+        if (value.getS() != null) {
+            return AttributeValue.fromS(value.getS());
+        }
+        if (value.getN() != null) {
+            return AttributeValue.fromN(value.getN());
+        }
+        if (value.getBOOL() != null) {
+            return AttributeValue.fromBool(value.getBOOL());
+        }
+        if (value.getNULL() != null) {
+            return AttributeValue.fromNul(value.getNULL());
+        }
+        if (value.getM() != null) {
+            return AttributeValue.fromM(toSdkItem(value.getM()));
+        }
+        if (value.getL() != null) {
+            List<AttributeValue> list = new ArrayList<>(value.getL().size());
+            value.getL().forEach(element -> list.add(toSdk(element)));
+            return AttributeValue.fromL(list);
+        }
+        if (value.getSS() != null) {
+            return AttributeValue.fromSs(value.getSS());
+        }
+        if (value.getNS() != null) {
+            return AttributeValue.fromNs(value.getNS());
+        }
+        if (value.getB() != null) {
+            return AttributeValue.fromB(SdkBytes.fromByteBuffer(value.getB()));
+        }
+        if (value.getBS() != null) {
+            List<SdkBytes> bytes = new ArrayList<>(value.getBS().size());
+            for (ByteBuffer buffer : value.getBS()) {
+                bytes.add(SdkBytes.fromByteBuffer(buffer));
+            }
+            return AttributeValue.fromBs(bytes);
+        }
+        throw new IllegalArgumentException("Unsupported stream attribute value: " + value);
+    }
+}
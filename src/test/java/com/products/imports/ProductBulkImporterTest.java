@@ -0,0 +1,218 @@
+package com.products.imports;
+
+import com.products.repository.CatalogVersionRepository;
+import com.products.repository.ProductCache;
+import com.products.request.ProductRequest;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductBulkImporterTest {
+    private static final String PRODUCT_TABLE = "Product";
+    private static final String CATEGORY_TABLE = "Category";
+    private static final String VERSION_TABLE = "CatalogVersion";
+
+    @Test
+    void resolvesCategoriesAndDuplicatesInBulkAndReportsEveryRow() {
+        FakeDynamoDb dynamoDb = new FakeDynamoDb();
+        dynamoDb.categories.put("c1", "Tools");
+        dynamoDb.categories.put("c2", "Paint");
+        dynamoDb.existingProducts.put("c1", Map.of("Hammer", "existing-hammer"));
+
+        List<ProductRequest.ProductInput> inputs = new ArrayList<>();
+        inputs.add(input("Hammer", "c1", "Tools"));
+        inputs.add(input(null, "c1", "Tools"));
+        inputs.add(input("Saw", "c9", "Missing"));
+        inputs.add(input("Brush", "c2", null));
+        inputs.add(input("Roller", "c2", null));
+        inputs.add(input("Roller", "c2", null));
+
+        List<ImportRowResult> results = importer(dynamoDb).importProducts(inputs);
+
+        assertEquals(6, results.size());
+        assertEquals(ImportRowResult.Status.UPDATED, results.get(0).getStatus());
+        assertEquals("existing-hammer", results.get(0).getProductId());
+        assertEquals(ImportRowResult.Status.SKIPPED, results.get(1).getStatus());
+        assertEquals(ImportRowResult.Status.SKIPPED, results.get(2).getStatus());
+        assertEquals("Invalid category", results.get(2).getReason());
+        assertEquals(ImportRowResult.Status.CREATED, results.get(3).getStatus());
+        assertEquals(ImportRowResult.Status.SKIPPED, results.get(4).getStatus());
+        assertEquals("Superseded by row 5", results.get(4).getReason());
+        assertEquals(ImportRowResult.Status.CREATED, results.get(5).getStatus());
+        assertNotEquals(results.get(3).getProductId(), results.get(5).getProductId());
+
+        // One BatchGetItem for the named categories, one key query for the id-only category,
+        // and one CategoryIndex query per category that has products to write
+        assertEquals(1, dynamoDb.batchGets.get());
+        assertEquals(List.of(CATEGORY_TABLE, "CategoryIndex", "CategoryIndex"), sorted(dynamoDb.queries));
+
+        assertEquals(1, dynamoDb.transactions.size());
+        List<TransactWriteItem> items = dynamoDb.transactions.get(0);
+        assertEquals(4, items.size());
+        assertEquals(VERSION_TABLE, items.get(3).update().tableName());
+        assertEquals("Paint", items.get(1).put().item().get("categoryName").s());
+    }
+
+    @Test
+    void writesLargeImportsInTransactionsThatEachBumpTheProductsVersion() {
+        FakeDynamoDb dynamoDb = new FakeDynamoDb();
+        dynamoDb.categories.put("c1", "Tools");
+
+        List<ProductRequest.ProductInput> inputs = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            inputs.add(input("Product " + i, "c1", "Tools"));
+        }
+
+        List<ImportRowResult> results = importer(dynamoDb).importProducts(inputs);
+
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == ImportRowResult.Status.CREATED));
+        List<Integer> sizes = new ArrayList<>();
+        for (List<TransactWriteItem> items : dynamoDb.transactions) {
+            sizes.add(items.size());
+            assertTrue(items.size() <= 100);
+            assertEquals(VERSION_TABLE, items.get(items.size() - 1).update().tableName());
+        }
+        Collections.sort(sizes);
+        assertEquals(List.of(53, 100, 100), sizes);
+    }
+
+    @Test
+    void retriesConflictingChunksAndFailsChunksThatCanNotBeWritten() {
+        FakeDynamoDb dynamoDb = new FakeDynamoDb();
+        dynamoDb.categories.put("c1", "Tools");
+        dynamoDb.categories.put("c2", "Paint");
+        dynamoDb.cancellations.put("Conflicted", new ArrayList<>(List.of("TransactionConflict", "TransactionConflict")));
+        dynamoDb.cancellations.put("Rejected", new ArrayList<>(List.of("ValidationError")));
+
+        List<ImportRowResult> conflicted = importer(dynamoDb).importProducts(List.of(input("Conflicted", "c1", "Tools")));
+        List<ImportRowResult> rejected = importer(dynamoDb).importProducts(List.of(input("Rejected", "c2", "Paint")));
+
+        assertEquals(ImportRowResult.Status.CREATED, conflicted.get(0).getStatus());
+        assertEquals(ImportRowResult.Status.FAILED, rejected.get(0).getStatus());
+        assertTrue(rejected.get(0).getReason().startsWith("Not written"));
+        assertEquals(4, dynamoDb.transactionAttempts.get());
+    }
+
+    private static ProductBulkImporter importer(FakeDynamoDb dynamoDb) {
+        DynamoDbEnhancedClient enhancedClient = DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDb).build();
+        return new ProductBulkImporter(dynamoDb, enhancedClient, PRODUCT_TABLE, CATEGORY_TABLE,
+                new ProductCache(100, Duration.ofMinutes(1)), new CatalogVersionRepository(dynamoDb, VERSION_TABLE, 0));
+    }
+
+    private static ProductRequest.ProductInput input(String productName, String categoryId, String categoryName) {
+        return new ProductRequest.ProductInput(productName, 2.0, 3.0, 5, categoryId, categoryName);
+    }
+
+    private static List<String> sorted(List<String> values) {
+        List<String> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    // Serves the category and product lookups from maps and records the transactions it is sent
+    private static class FakeDynamoDb implements DynamoDbClient {
+        final Map<String, String> categories = new HashMap<>();
+        final Map<String, Map<String, String>> existingProducts = new HashMap<>();
+        // Cancellation reasons to answer, in turn, for a transaction that writes the named product
+        final Map<String, List<String>> cancellations = new HashMap<>();
+        final AtomicInteger batchGets = new AtomicInteger();
+        final AtomicInteger transactionAttempts = new AtomicInteger();
+        final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+        final List<List<TransactWriteItem>> transactions = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public BatchGetItemResponse batchGetItem(BatchGetItemRequest request) {
+            batchGets.incrementAndGet();
+            List<Map<String, AttributeValue>> found = new ArrayList<>();
+            for (Map<String, AttributeValue> key : request.requestItems().get(CATEGORY_TABLE).keys()) {
+                String categoryId = key.get("categoryId").s();
+                if (key.get("categoryName").s().equals(categories.get(categoryId))) {
+                    found.add(category(categoryId));
+                }
+            }
+            return BatchGetItemResponse.builder()
+                    .responses(Map.of(CATEGORY_TABLE, found))
+                    .unprocessedKeys(Map.of())
+                    .build();
+        }
+
+        @Override
+        public QueryResponse query(QueryRequest request) {
+            String categoryId = request.expressionAttributeValues().values().iterator().next().s();
+            List<Map<String, AttributeValue>> items = new ArrayList<>();
+            if (request.indexName() == null) {
+                queries.add(request.tableName());
+                if (categories.containsKey(categoryId)) {
+                    items.add(category(categoryId));
+                }
+            } else {
+                queries.add(request.indexName());
+                existingProducts.getOrDefault(categoryId, Map.of()).forEach((name, productId) -> items.add(Map.of(
+                        "productId", AttributeValue.fromS(productId),
+                        "productName", AttributeValue.fromS(name),
+                        "categoryId", AttributeValue.fromS(categoryId))));
+            }
+            return QueryResponse.builder().items(items).count(items.size()).build();
+        }
+
+        @Override
+        public TransactWriteItemsResponse transactWriteItems(TransactWriteItemsRequest request) {
+            transactionAttempts.incrementAndGet();
+            for (TransactWriteItem item : request.transactItems()) {
+                if (item.put() == null) {
+                    continue;
+                }
+                List<String> reasons;
+                synchronized (cancellations) {
+                    reasons = cancellations.get(item.put().item().get("productName").s());
+                    if (reasons != null && !reasons.isEmpty()) {
+                        String code = reasons.remove(0);
+                        throw TransactionCanceledException.builder()
+                                .message("Transaction cancelled [" + code + "]")
+                                .cancellationReasons(CancellationReason.builder().code(code).build())
+                                .build();
+                    }
+                }
+            }
+            transactions.add(request.transactItems());
+            return TransactWriteItemsResponse.builder().build();
+        }
+
+        private Map<String, AttributeValue> category(String categoryId) {
+            return Map.of(
+                    "categoryId", AttributeValue.fromS(categoryId),
+                    "categoryName", AttributeValue.fromS(categories.get(categoryId)));
+        }
+
+        @Override
+        public String serviceName() {
+            return "dynamodb";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.products.model;
+
+import com.products.request.SaleLineItem;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SaleLineItemListConverterTest {
+    private final Sales.SaleLineItemListConverter converter = Sales.SaleLineItemListConverter.INSTANCE;
+
+    @Test
+    void nativeListRoundTripsEveryField() {
+        SaleLineItem snapshotted = SaleLineItem.builder()
+                .productId("p1")
+                .quantitySold(3)
+                .totalPrice(29.97)
+                .productName("Desk lamp")
+                .categoryName("Lighting")
+                .unitSellingPrice(9.99)
+                .categoryId("c1")
+                .unitCostPrice(4.5)
+                .build();
+        SaleLineItem bare = SaleLineItem.builder().productId("p2").quantitySold(1).totalPrice(5.0).build();
+
+        AttributeValue stored = converter.transformFrom(List.of(snapshotted, bare));
+        assertEquals(2, stored.l().size());
+        assertEquals("4.5", stored.l().get(0).m().get("unitCostPrice").n());
+        // Absent snapshot fields are left out rather than stored as nulls
+        assertEquals(3, stored.l().get(1).m().size());
+
+        List<SaleLineItem> items = converter.transformTo(stored);
+        assertEquals(2, items.size());
+        assertSameLine(snapshotted, items.get(0));
+        assertSameLine(bare, items.get(1));
+        assertTrue(items.get(0).hasSnapshot());
+        assertTrue(items.get(0).hasCostSnapshot());
+        assertFalse(items.get(1).hasSnapshot());
+        assertFalse(items.get(1).hasCostSnapshot());
+    }
+
+    @Test
+    void readsLegacyJsonString() {
+        String json = "[{\"productId\":\"p1\",\"quantitySold\":2,\"totalPrice\":19.98},"
+                + "{\"productId\":\"p2\",\"quantitySold\":1,\"totalPrice\":5.5,\"productName\":\"Mug\"}]";
+
+        List<SaleLineItem> items = converter.transformTo(AttributeValue.fromS(json));
+
+        assertEquals(2, items.size());
+        assertEquals("p1", items.get(0).getProductId());
+        assertEquals(2, items.get(0).getQuantitySold());
+        assertEquals(19.98, items.get(0).getTotalPrice(), 1e-9);
+        assertNull(items.get(0).getProductName());
+        assertNull(items.get(0).getUnitCostPrice());
+        assertEquals("Mug", items.get(1).getProductName());
+    }
+
+    @Test
+    void legacyItemsAreRewrittenInTheNativeFormat() {
+        String json = "[{\"productId\":\"p1\",\"quantitySold\":2,\"totalPrice\":19.98}]";
+        List<SaleLineItem> legacy = converter.transformTo(AttributeValue.fromS(json));
+
+        AttributeValue rewritten = converter.transformFrom(legacy);
+
+        assertNull(rewritten.s());
+        Map<String, AttributeValue> fields = rewritten.l().get(0).m();
+        assertEquals("p1", fields.get("productId").s());
+        assertEquals("2", fields.get("quantitySold").n());
+        assertEquals(19.98, Double.parseDouble(fields.get("totalPrice").n()), 1e-9);
+        assertSameLine(legacy.get(0), converter.transformTo(rewritten).get(0));
+    }
+
+    @Test
+    void emptyListRoundTrips() {
+        assertTrue(converter.transformTo(converter.transformFrom(List.of())).isEmpty());
+    }
+
+    private static void assertSameLine(SaleLineItem expected, SaleLineItem actual) {
+        assertEquals(expected.getProductId(), actual.getProductId());
+        assertEquals(expected.getQuantitySold(), actual.getQuantitySold());
+        assertEquals(expected.getTotalPrice(), actual.getTotalPrice(), 1e-9);
+        assertEquals(expected.getProductName(), actual.getProductName());
+        assertEquals(expected.getCategoryName(), actual.getCategoryName());
+        assertEquals(expected.getUnitSellingPrice(), actual.getUnitSellingPrice());
+        assertEquals(expected.getCategoryId(), actual.getCategoryId());
+        assertEquals(expected.getUnitCostPrice(), actual.getUnitCostPrice());
+    }
+}
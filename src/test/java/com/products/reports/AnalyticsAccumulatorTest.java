@@ -0,0 +1,82 @@
+package com.products.reports;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AnalyticsAccumulatorTest {
+
+    @Test
+    void sumsRepeatedKeysIntoOneGroup() {
+        AnalyticsAccumulator accumulator = new AnalyticsAccumulator(4);
+        accumulator.add(7, 1, 10.0, 4.0, 0, 0.0, 1);
+        accumulator.add(9, 2, 20.0, 8.0, 0, 0.0, 1);
+        accumulator.add(7, 3, 30.0, 12.0, 0, 0.0, 2);
+
+        assertEquals(2, accumulator.size());
+        assertEquals(7, accumulator.key(0));
+        assertEquals(4, accumulator.quantity(0));
+        assertEquals(40.0, accumulator.revenue(0), 1e-9);
+        assertEquals(16.0, accumulator.cost(0), 1e-9);
+        assertEquals(3, accumulator.saleCount(0));
+        assertEquals(9, accumulator.key(1));
+    }
+
+    @Test
+    void keepsEveryGroupWhenGrowingFarPastTheExpectedSize() {
+        // Expecting one group forces repeated growth of the dense arrays and rehashes of the table
+        AnalyticsAccumulator accumulator = new AnalyticsAccumulator(1);
+        Map<Long, Long> expected = new HashMap<>();
+        for (int round = 0; round < 3; round++) {
+            for (long i = 0; i < 5_000; i++) {
+                // Period in the high half and a dimension index in the low half, as SalesAnalyticsHandler builds them
+                long key = ((i % 97) << 32) | (i / 97);
+                accumulator.add(key, i, i * 1.5, i * 0.5, 0, 0.0, 1);
+                expected.merge(key, i, Long::sum);
+            }
+        }
+
+        assertEquals(expected.size(), accumulator.size());
+        for (int index = 0; index < accumulator.size(); index++) {
+            long key = accumulator.key(index);
+            long quantity = expected.get(key);
+            assertEquals(quantity, accumulator.quantity(index));
+            assertEquals(quantity * 1.5, accumulator.revenue(index), 1e-6);
+            assertEquals(quantity * 0.5, accumulator.cost(index), 1e-6);
+            assertEquals(3, accumulator.saleCount(index));
+        }
+    }
+
+    @Test
+    void keepsGroupsInFirstSeenOrder() {
+        AnalyticsAccumulator accumulator = new AnalyticsAccumulator(2);
+        long[] keys = {42, -1, 0, Long.MAX_VALUE, 1L << 40, 17};
+        for (long key : keys) {
+            accumulator.add(key, 1, 1.0, 0.0, 0, 0.0, 0);
+        }
+        for (long key : keys) {
+            accumulator.add(key, 1, 1.0, 0.0, 0, 0.0, 0);
+        }
+
+        assertEquals(keys.length, accumulator.size());
+        for (int index = 0; index < keys.length; index++) {
+            assertEquals(keys[index], accumulator.key(index));
+            assertEquals(2, accumulator.quantity(index));
+        }
+    }
+
+    @Test
+    void sumsUncostedQuantityAndRevenueSeparately() {
+        AnalyticsAccumulator accumulator = new AnalyticsAccumulator(1);
+        accumulator.add(1, 3, 30.0, 8.0, 1, 10.0, 1);
+        accumulator.add(1, 2, 20.0, 0.0, 2, 20.0, 1);
+
+        assertEquals(5, accumulator.quantity(0));
+        assertEquals(50.0, accumulator.revenue(0), 1e-9);
+        assertEquals(3, accumulator.uncostedQuantity(0));
+        assertEquals(30.0, accumulator.uncostedRevenue(0), 1e-9);
+    }
+}
@@ -0,0 +1,55 @@
+package com.products.reports;
+
+import com.products.model.SalesAggregate;
+import com.products.response.SalesAnalyticsResponse;
+import com.products.response.SalesAnalyticsRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SalesAnalyticsHandlerTest {
+
+    @Test
+    void uncostedRevenueIsReportedButLeftOutOfMargin() {
+        List<SalesAggregate> aggregates = List.of(
+                total("2025-03-14", 5, 100.0, 30.0, 2, 40.0),
+                total("2025-03-15", 1, 10.0, 0.0, 1, 10.0));
+
+        SalesAnalyticsResponse response = SalesAnalyticsHandler.analyze(aggregates, SalesAnalyticsHandler.GroupBy.DAY,
+                SalesAnalyticsHandler.Dimension.TOTAL, SalesAnalyticsHandler.SortBy.REVENUE, 10);
+
+        SalesAnalyticsRow totals = response.getTotals();
+        assertEquals(110.0, totals.getRevenue(), 1e-9);
+        assertEquals(3, totals.getUncostedQuantity());
+        assertEquals(50.0, totals.getUncostedRevenue(), 1e-9);
+        assertEquals(30.0, totals.getMargin(), 1e-9);
+        assertEquals(50.0, totals.getMarginPercent(), 1e-9);
+
+        SalesAnalyticsRow firstDay = response.getRows().get(0);
+        assertEquals("2025-03-14", firstDay.getPeriod());
+        assertEquals(30.0, firstDay.getMargin(), 1e-9);
+        assertEquals(50.0, firstDay.getMarginPercent(), 1e-9);
+
+        // Only uncosted lines that day: no margin percent rather than 100%
+        SalesAnalyticsRow secondDay = response.getRows().get(1);
+        assertEquals(0.0, secondDay.getMargin(), 1e-9);
+        assertNull(secondDay.getMarginPercent());
+    }
+
+    private static SalesAggregate total(String day, long quantity, double revenue, double cost,
+                                        long uncostedQuantity, double uncostedRevenue) {
+        return SalesAggregate.builder()
+                .day(day)
+                .aggregateKey(SalesAggregate.TOTAL)
+                .quantity(quantity)
+                .revenue(revenue)
+                .cost(cost)
+                .uncostedQuantity(uncostedQuantity)
+                .uncostedRevenue(uncostedRevenue)
+                .saleCount(1)
+                .build();
+    }
+}
@@ -0,0 +1,141 @@
+package com.products.reports;
+
+import com.products.model.Sales;
+import com.products.model.SalesAggregate;
+import com.products.repository.SalesAggregateRepository;
+import com.products.request.SaleLineItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SalesRollupTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+
+    @Test
+    void subtractingASaleTakesOffExactlyWhatAddingItPutOn() {
+        Sales sale = sale("s1", DAY, line("p1", "c1", 3, 30.0, 6.5), line("p2", "c1", 1, 12.0, 7.25));
+
+        SalesRollup rollup = new SalesRollup();
+        rollup.add(sale, 1);
+        rollup.add(sale, -1);
+
+        List<SalesAggregateRepository.Delta> deltas = rollup.deltas();
+        assertEquals(4, deltas.size());
+        for (SalesAggregateRepository.Delta delta : deltas) {
+            assertEquals(0, delta.quantity(), delta.aggregateKey());
+            assertEquals(0, delta.revenue(), 1e-9, delta.aggregateKey());
+            assertEquals(0, delta.cost(), 1e-9, delta.aggregateKey());
+            assertEquals(0, delta.uncostedQuantity(), delta.aggregateKey());
+            assertEquals(0, delta.uncostedRevenue(), 1e-9, delta.aggregateKey());
+            assertEquals(0, delta.saleCount(), delta.aggregateKey());
+        }
+    }
+
+    @Test
+    void editNetsOutToTheDifferenceBetweenOldAndNewImage() {
+        Sales oldSale = sale("s1", DAY, line("p1", "c1", 3, 30.0, 6.5), line("p2", "c2", 2, 24.0, 7.0));
+        Sales newSale = sale("s1", DAY, line("p1", "c1", 5, 50.0, 6.5));
+
+        SalesRollup rollup = new SalesRollup();
+        rollup.add(oldSale, -1);
+        rollup.add(newSale, 1);
+        Map<String, SalesAggregateRepository.Delta> deltas = byKey(rollup.deltas());
+
+        SalesAggregateRepository.Delta total = deltas.get(SalesAggregate.TOTAL);
+        assertEquals(0, total.quantity());
+        assertEquals(-4.0, total.revenue(), 1e-9);
+        assertEquals(2 * 6.5 - 2 * 7.0, total.cost(), 1e-9);
+        assertEquals(0, total.saleCount());
+
+        SalesAggregateRepository.Delta p1 = deltas.get(SalesAggregate.PRODUCT_PREFIX + "p1");
+        assertEquals(2, p1.quantity());
+        assertEquals(20.0, p1.revenue(), 1e-9);
+        assertEquals(13.0, p1.cost(), 1e-9);
+
+        SalesAggregateRepository.Delta c2 = deltas.get(SalesAggregate.CATEGORY_PREFIX + "c2");
+        assertEquals(-2, c2.quantity());
+        assertEquals(-24.0, c2.revenue(), 1e-9);
+        assertEquals(-14.0, c2.cost(), 1e-9);
+    }
+
+    @Test
+    void costAndCategoryComeFromTheLineSnapshot() {
+        // Same product sold at two different cost snapshots, e.g. before and after a price change
+        Sales first = sale("s1", DAY, line("p1", "c1", 1, 10.0, 4.0));
+        Sales second = sale("s2", DAY, line("p1", "c2", 1, 10.0, 5.0));
+
+        SalesRollup rollup = new SalesRollup();
+        rollup.add(first, 1);
+        rollup.add(second, 1);
+        rollup.add(first, -1);
+        Map<String, SalesAggregate> rows = rowsByKey(rollup.rows());
+
+        assertEquals(5.0, rows.get(SalesAggregate.TOTAL).getCost(), 1e-9);
+        assertEquals(0, rows.get(SalesAggregate.CATEGORY_PREFIX + "c1").getQuantity());
+        assertEquals(1, rows.get(SalesAggregate.CATEGORY_PREFIX + "c2").getQuantity());
+        assertEquals("Category c2", rows.get(SalesAggregate.CATEGORY_PREFIX + "c2").getName());
+    }
+
+    @Test
+    void linesWithoutCostSnapshotCountNoCostAndNoCategory() {
+        SaleLineItem legacy = SaleLineItem.builder().productId("p1").quantitySold(2).totalPrice(20.0).build();
+
+        SalesRollup rollup = new SalesRollup();
+        rollup.add(sale("s1", DAY, legacy), 1);
+        Map<String, SalesAggregate> rows = rowsByKey(rollup.rows());
+
+        assertEquals(2, rows.size());
+        assertEquals(20.0, rows.get(SalesAggregate.TOTAL).getRevenue(), 1e-9);
+        assertEquals(0.0, rows.get(SalesAggregate.TOTAL).getCost(), 1e-9);
+        assertEquals(2, rows.get(SalesAggregate.TOTAL).getUncostedQuantity());
+        assertEquals(20.0, rows.get(SalesAggregate.TOTAL).getUncostedRevenue(), 1e-9);
+        assertNull(rows.get(SalesAggregate.PRODUCT_PREFIX + "p1").getName());
+        assertFalse(rows.keySet().stream().anyMatch(key -> key.startsWith(SalesAggregate.CATEGORY_PREFIX)));
+    }
+
+    @Test
+    void salesWithoutDateOrImageAreIgnored() {
+        SalesRollup rollup = new SalesRollup();
+        rollup.add(null, -1);
+        rollup.add(sale("s1", null, line("p1", "c1", 1, 10.0, 4.0)), 1);
+
+        assertTrue(rollup.deltas().isEmpty());
+    }
+
+    private static Sales sale(String salesId, LocalDate day, SaleLineItem... items) {
+        return Sales.builder().salesId(salesId).dateSold(day).items(List.of(items)).build();
+    }
+
+    private static SaleLineItem line(String productId, String categoryId, int quantity, double totalPrice, double unitCost) {
+        return SaleLineItem.builder()
+                .productId(productId)
+                .quantitySold(quantity)
+                .totalPrice(totalPrice)
+                .productName("Product " + productId)
+                .categoryName("Category " + categoryId)
+                .unitSellingPrice(totalPrice / quantity)
+                .categoryId(categoryId)
+                .unitCostPrice(unitCost)
+                .build();
+    }
+
+    private static Map<String, SalesAggregateRepository.Delta> byKey(List<SalesAggregateRepository.Delta> deltas) {
+        Map<String, SalesAggregateRepository.Delta> byKey = new HashMap<>();
+        deltas.forEach(delta -> byKey.put(delta.aggregateKey(), delta));
+        return byKey;
+    }
+
+    private static Map<String, SalesAggregate> rowsByKey(List<SalesAggregate> rows) {
+        Map<String, SalesAggregate> byKey = new HashMap<>();
+        rows.forEach(row -> byKey.put(row.getAggregateKey(), row));
+        return byKey;
+    }
+}
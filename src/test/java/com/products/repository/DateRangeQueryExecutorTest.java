@@ -0,0 +1,134 @@
+package com.products.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DateRangeQueryExecutorTest {
+    private static final LocalDate START = LocalDate.of(2025, 3, 1);
+
+    @Test
+    void forEachDayHandsDaysOverInDateOrderWhenLaterDaysFinishFirst() {
+        DateRangeQueryExecutor executor = new DateRangeQueryExecutor(4);
+        List<LocalDate> consumed = new ArrayList<>();
+
+        executor.forEachDay(START, START.plusDays(9), day -> {
+            // Earlier days take longer, so queries complete in reverse order within each window
+            sleep(10 - day.getDayOfMonth());
+            return List.of(day);
+        }, consumed::addAll);
+
+        List<LocalDate> expected = new ArrayList<>();
+        for (LocalDate day = START; !day.isAfter(START.plusDays(9)); day = day.plusDays(1)) {
+            expected.add(day);
+        }
+        assertEquals(expected, consumed);
+    }
+
+    @Test
+    void forEachDayRunsAtMostMaxConcurrencyQueriesAtOnce() {
+        DateRangeQueryExecutor executor = new DateRangeQueryExecutor(3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        executor.forEachDay(START, START.plusDays(11), day -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(5);
+            running.decrementAndGet();
+            return List.of(day);
+        }, results -> { });
+
+        assertTrue(peak.get() <= 3, "peak concurrency " + peak.get());
+    }
+
+    @Test
+    void forEachDayCancelsRunningQueriesWhenADayFails() throws InterruptedException {
+        DateRangeQueryExecutor executor = new DateRangeQueryExecutor(4);
+        RuntimeException failure = new IllegalStateException("day failed");
+        CountDownLatch started = new CountDownLatch(3);
+        CountDownLatch interrupted = new CountDownLatch(3);
+
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> executor.forEachDay(START, START.plusDays(3), day -> {
+            if (day.equals(START)) {
+                await(started);
+                throw failure;
+            }
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return List.of(day);
+        }, results -> { }));
+
+        assertSame(failure, thrown);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "queries still running were not cancelled");
+    }
+
+    @Test
+    void forEachDayCancelsRunningQueriesWhenTheConsumerFails() throws InterruptedException {
+        DateRangeQueryExecutor executor = new DateRangeQueryExecutor(3);
+        RuntimeException failure = new IllegalArgumentException("consumer failed");
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch interrupted = new CountDownLatch(2);
+
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> executor.forEachDay(START, START.plusDays(5), day -> {
+            if (day.equals(START)) {
+                return List.of(day);
+            }
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return List.of(day);
+        }, results -> {
+            // Fail once the next days' queries are running, so there is something to cancel
+            await(started);
+            throw failure;
+        }));
+
+        assertSame(failure, thrown);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "queries still running were not cancelled");
+    }
+
+    @Test
+    void queryByDayMergesResultsInDateOrder() {
+        DateRangeQueryExecutor executor = new DateRangeQueryExecutor(5);
+
+        List<Integer> results = executor.queryByDay(START, START.plusDays(4), day -> {
+            sleep(6 - day.getDayOfMonth());
+            return List.of(day.getDayOfMonth(), day.getDayOfMonth() * 10);
+        });
+
+        assertEquals(List.of(1, 10, 2, 20, 3, 30, 4, 40, 5, 50), results);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.products.repository.memory;
+
+import com.products.model.Product;
+import com.products.model.Sales;
+import com.products.repository.ConcurrentSaleUpdateException;
+import com.products.repository.InsufficientStockException;
+import com.products.request.SaleLineItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InMemoryInventoryRepositoryTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 14);
+
+    private InMemoryProductRepository products;
+    private InMemorySalesRepository sales;
+    private InMemoryInventoryRepository inventory;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryStore store = new InMemoryStore();
+        products = new InMemoryProductRepository(store);
+        sales = new InMemorySalesRepository(store);
+        inventory = new InMemoryInventoryRepository(store);
+        products.save(product("p1", 10));
+        products.save(product("p2", 2));
+    }
+
+    @Test
+    void createSaleDeductsDuplicateLinesTogether() {
+        inventory.createSale(sale("s1", line("p1", 3), line("p1", 4), line("p2", 1)));
+
+        assertEquals(3, stock("p1"));
+        assertEquals(1, stock("p2"));
+        assertNotNull(sales.findBySalesId("s1"));
+    }
+
+    @Test
+    void insufficientStockWritesNothing() {
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> inventory.createSale(sale("s1", line("p1", 5), line("p2", 3))));
+
+        assertEquals("p2", e.getProductId());
+        assertEquals(10, stock("p1"));
+        assertEquals(2, stock("p2"));
+        assertNull(sales.findBySalesId("s1"));
+    }
+
+    @Test
+    void duplicateLinesThatTogetherExceedStockAreRejected() {
+        assertThrows(InsufficientStockException.class,
+                () -> inventory.createSale(sale("s1", line("p2", 2), line("p2", 1))));
+
+        assertEquals(2, stock("p2"));
+    }
+
+    @Test
+    void missingProductCountsAsInsufficientStock() {
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> inventory.createSale(sale("s1", line("gone", 1))));
+
+        assertEquals("gone", e.getProductId());
+    }
+
+    @Test
+    void updateSaleAppliesStockDeltas() {
+        inventory.createSale(sale("s1", line("p1", 3)));
+        Sales stored = sales.findBySalesId("s1");
+
+        Sales edited = sale("s1", line("p1", 1), line("p2", 2));
+        inventory.updateSale(edited, stored.getItems(), Map.of("p1", 2, "p2", -2));
+
+        assertEquals(9, stock("p1"));
+        assertEquals(0, stock("p2"));
+        assertEquals(2, sales.findBySalesId("s1").getItems().size());
+    }
+
+    @Test
+    void updateSaleWithInsufficientStockLeavesSaleAndStockAlone() {
+        inventory.createSale(sale("s1", line("p1", 3)));
+        Sales stored = sales.findBySalesId("s1");
+
+        assertThrows(InsufficientStockException.class, () -> inventory.updateSale(
+                sale("s1", line("p1", 1), line("p2", 5)), stored.getItems(), Map.of("p1", 2, "p2", -5)));
+
+        assertEquals(7, stock("p1"));
+        assertEquals(2, stock("p2"));
+        assertEquals(3, sales.findBySalesId("s1").getItems().get(0).getQuantitySold());
+    }
+
+    @Test
+    void updateSaleRejectsStalePreviousItems() {
+        inventory.createSale(sale("s1", line("p1", 3)));
+        List<SaleLineItem> readBefore = sales.findBySalesId("s1").getItems();
+        inventory.updateSale(sale("s1", line("p1", 4)), readBefore, Map.of("p1", -1));
+
+        assertThrows(ConcurrentSaleUpdateException.class,
+                () -> inventory.updateSale(sale("s1", line("p1", 1)), readBefore, Map.of("p1", 2)));
+
+        assertEquals(6, stock("p1"));
+        assertEquals(4, sales.findBySalesId("s1").getItems().get(0).getQuantitySold());
+    }
+
+    @Test
+    void concurrentEditsOfOneSaleLetExactlyOneThrough() throws Exception {
+        inventory.createSale(sale("s1", line("p1", 2)));
+        List<SaleLineItem> readBefore = sales.findBySalesId("s1").getItems();
+
+        int editors = 16;
+        List<Boolean> outcomes = runConcurrently(editors, editor -> () -> {
+            try {
+                inventory.updateSale(sale("s1", line("p1", 3)), readBefore, Map.of("p1", -1));
+                return true;
+            } catch (ConcurrentSaleUpdateException e) {
+                return false;
+            }
+        });
+
+        assertEquals(1, outcomes.stream().filter(Boolean::booleanValue).count());
+        assertEquals(7, stock("p1"));
+    }
+
+    @Test
+    void concurrentSalesNeverTakeStockBelowZero() throws Exception {
+        int buyers = 25;
+        List<Boolean> outcomes = runConcurrently(buyers, buyer -> () -> {
+            try {
+                inventory.createSale(sale("s" + buyer, line("p1", 1)));
+                return true;
+            } catch (InsufficientStockException e) {
+                return false;
+            }
+        });
+
+        assertEquals(10, outcomes.stream().filter(Boolean::booleanValue).count());
+        assertEquals(0, stock("p1"));
+    }
+
+    private int stock(String productId) {
+        return products.findByProductIdUncached(productId).getQuantity();
+    }
+
+    private static <T> List<T> runConcurrently(int tasks, java.util.function.IntFunction<Callable<T>> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(tasks)) {
+            for (int i = 0; i < tasks; i++) {
+                Callable<T> callable = task.apply(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return callable.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+
+    private static Product product(String productId, int quantity) {
+        return Product.builder()
+                .productId(productId)
+                .productName("Product " + productId)
+                .categoryId("c1")
+                .categoryName("Category c1")
+                .quantity(quantity)
+                .unitCostPrice(2.0)
+                .unitSellingPrice(5.0)
+                .dateAdded(TODAY)
+                .dateUpdated(TODAY)
+                .build();
+    }
+
+    private static Sales sale(String salesId, SaleLineItem... items) {
+        return Sales.builder()
+                .salesId(salesId)
+                .items(new ArrayList<>(List.of(items)))
+                .dateSold(TODAY)
+                .dateUpdated(TODAY)
+                .build();
+    }
+
+    private static SaleLineItem line(String productId, int quantity) {
+        return SaleLineItem.builder().productId(productId).quantitySold(quantity).totalPrice(quantity * 5.0).build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.products.response;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonResponseWriterTest {
+
+    @Test
+    void acceptsGzipWhenListedWithoutZeroQuality() {
+        assertTrue(JsonResponseWriter.acceptsGzip(withAcceptEncoding("gzip")));
+        assertTrue(JsonResponseWriter.acceptsGzip(withAcceptEncoding("br, GZIP, deflate")));
+        assertTrue(JsonResponseWriter.acceptsGzip(withAcceptEncoding("deflate;q=1.0, gzip;q=0.5")));
+        assertTrue(JsonResponseWriter.acceptsGzip(withAcceptEncoding("gzip; q=0.01")));
+    }
+
+    @Test
+    void rejectsGzipWhenAbsentOrRefused() {
+        assertFalse(JsonResponseWriter.acceptsGzip(new APIGatewayProxyRequestEvent()));
+        assertFalse(JsonResponseWriter.acceptsGzip(withAcceptEncoding("br, deflate")));
+        assertFalse(JsonResponseWriter.acceptsGzip(withAcceptEncoding("gzip;q=0")));
+        assertFalse(JsonResponseWriter.acceptsGzip(withAcceptEncoding("gzip; q=0.000")));
+        assertFalse(JsonResponseWriter.acceptsGzip(withAcceptEncoding("x-gzip-like")));
+    }
+
+    @Test
+    void readsHeaderNamesCaseInsensitivelyAndFromMultiValueHeaders() {
+        assertTrue(JsonResponseWriter.acceptsGzip(new APIGatewayProxyRequestEvent()
+                .withHeaders(Map.of("accept-encoding", "gzip"))));
+        assertTrue(JsonResponseWriter.acceptsGzip(new APIGatewayProxyRequestEvent()
+                .withMultiValueHeaders(Map.of("Accept-Encoding", List.of("gzip, br")))));
+    }
+
+    private static APIGatewayProxyRequestEvent withAcceptEncoding(String value) {
+        return new APIGatewayProxyRequestEvent().withHeaders(Map.of("Accept-Encoding", value));
+    }
+}
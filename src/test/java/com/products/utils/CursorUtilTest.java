@@ -0,0 +1,69 @@
+package com.products.utils;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// The signing key comes from CURSOR_SIGNING_KEY, which the surefire configuration sets
+class CursorUtilTest {
+    private static final String SCOPE = "Product|DateAddedIndex";
+
+    @Test
+    void roundTripsStringAndNumberKeys() {
+        Map<String, AttributeValue> key = new LinkedHashMap<>();
+        key.put("productId", AttributeValue.fromS("p-42"));
+        key.put("dateAdded", AttributeValue.fromS("2025-03-14"));
+        key.put("quantity", AttributeValue.fromN("17"));
+
+        String cursor = CursorUtil.encode(SCOPE, key);
+
+        assertEquals(key, CursorUtil.decode(SCOPE, cursor));
+    }
+
+    @Test
+    void emptyKeysAndCursorsMeanNoPage() {
+        assertNull(CursorUtil.encode(SCOPE, Map.of()));
+        assertNull(CursorUtil.encode(SCOPE, null));
+        assertNull(CursorUtil.decode(SCOPE, null));
+        assertNull(CursorUtil.decode(SCOPE, " "));
+    }
+
+    @Test
+    void rejectsACursorFromAnotherScope() {
+        String cursor = CursorUtil.encode(SCOPE, Map.of("productId", AttributeValue.fromS("p-42")));
+
+        assertThrows(IllegalArgumentException.class, () -> CursorUtil.decode("Sales", cursor));
+    }
+
+    @Test
+    void rejectsATamperedPayload() {
+        String cursor = CursorUtil.encode(SCOPE, Map.of("productId", AttributeValue.fromS("p-42")));
+        String forged = CursorUtil.encode("other", Map.of("productId", AttributeValue.fromS("p-99")));
+        String[] parts = cursor.split("\\.");
+        String swapped = parts[0] + "." + forged.split("\\.")[1] + "." + parts[2];
+
+        assertThrows(IllegalArgumentException.class, () -> CursorUtil.decode(SCOPE, swapped));
+    }
+
+    @Test
+    void rejectsATamperedSignature() {
+        String cursor = CursorUtil.encode(SCOPE, Map.of("productId", AttributeValue.fromS("p-42")));
+        char last = cursor.charAt(cursor.length() - 1);
+        String tampered = cursor.substring(0, cursor.length() - 1) + (last == 'A' ? 'B' : 'A');
+
+        assertThrows(IllegalArgumentException.class, () -> CursorUtil.decode(SCOPE, tampered));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> CursorUtil.decode(SCOPE, "not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> CursorUtil.decode(SCOPE, "2.abc.def"));
+        assertThrows(IllegalArgumentException.class, () -> CursorUtil.decode(SCOPE, "1.!!.??"));
+    }
+}
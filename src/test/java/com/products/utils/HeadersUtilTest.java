@@ -0,0 +1,71 @@
+package com.products.utils;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeadersUtilTest {
+
+    @Test
+    void etagIsStableForTheSameRequestAndVersions() {
+        Map<String, String> query = new LinkedHashMap<>();
+        query.put("limit", "20");
+        query.put("lastEvaluatedKey", "abc");
+        Map<String, String> reordered = new LinkedHashMap<>();
+        reordered.put("lastEvaluatedKey", "abc");
+        reordered.put("limit", "20");
+
+        String etag = HeadersUtil.etag(request("/products", query), "products", 3);
+
+        assertTrue(etag.matches("\"[0-9a-f]{32}\""), etag);
+        assertEquals(etag, HeadersUtil.etag(request("/products", reordered), "products", 3));
+    }
+
+    @Test
+    void etagChangesWithVersionsPathAndQuery() {
+        String etag = HeadersUtil.etag(request("/products", Map.of("limit", "20")), "products", 3);
+
+        assertNotEquals(etag, HeadersUtil.etag(request("/products", Map.of("limit", "20")), "products", 4));
+        assertNotEquals(etag, HeadersUtil.etag(request("/products", Map.of("limit", "20")), "sales", 3));
+        assertNotEquals(etag, HeadersUtil.etag(request("/sales", Map.of("limit", "20")), "products", 3));
+        assertNotEquals(etag, HeadersUtil.etag(request("/products", Map.of("limit", "21")), "products", 3));
+        assertNotEquals(etag, HeadersUtil.etag(request("/products", null), "products", 3));
+    }
+
+    @Test
+    void notModifiedWhenIfNoneMatchNamesTheCurrentTagInAnyEncoding() {
+        String etag = "\"abc123\"";
+
+        assertTrue(HeadersUtil.isNotModified(ifNoneMatch("\"abc123\""), etag));
+        assertTrue(HeadersUtil.isNotModified(ifNoneMatch("W/\"abc123\""), etag));
+        assertTrue(HeadersUtil.isNotModified(ifNoneMatch("\"abc123" + HeadersUtil.GZIP_ETAG_SUFFIX + "\""), etag));
+        assertTrue(HeadersUtil.isNotModified(ifNoneMatch("\"old\", \"abc123\""), etag));
+        assertTrue(HeadersUtil.isNotModified(ifNoneMatch("*"), etag));
+    }
+
+    @Test
+    void modifiedWhenIfNoneMatchIsMissingOrNamesAnotherTag() {
+        String etag = "\"abc123\"";
+
+        assertFalse(HeadersUtil.isNotModified(new APIGatewayProxyRequestEvent(), etag));
+        assertFalse(HeadersUtil.isNotModified(ifNoneMatch("\"old\""), etag));
+        assertFalse(HeadersUtil.isNotModified(ifNoneMatch("abc123"), etag));
+        assertFalse(HeadersUtil.isNotModified(ifNoneMatch("\"abc1234\""), etag));
+        assertFalse(HeadersUtil.isNotModified(ifNoneMatch("\"abc123\""), null));
+    }
+
+    private static APIGatewayProxyRequestEvent request(String path, Map<String, String> query) {
+        return new APIGatewayProxyRequestEvent().withPath(path).withQueryStringParameters(query);
+    }
+
+    private static APIGatewayProxyRequestEvent ifNoneMatch(String value) {
+        return new APIGatewayProxyRequestEvent().withHeaders(Map.of("If-None-Match", value));
+    }
+}